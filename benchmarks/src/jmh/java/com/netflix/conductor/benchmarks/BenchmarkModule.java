@@ -0,0 +1,56 @@
+/*
+ * Copyright 2019 Netflix, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.netflix.conductor.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.inject.AbstractModule;
+import com.netflix.conductor.common.utils.ExternalPayloadStorage;
+import com.netflix.conductor.common.utils.JsonMapperProvider;
+import com.netflix.conductor.core.config.Configuration;
+import com.netflix.conductor.core.config.CoreModule;
+import com.netflix.conductor.core.config.SystemPropertiesConfiguration;
+import com.netflix.conductor.core.execution.WorkflowStatusListener;
+import com.netflix.conductor.core.execution.WorkflowStatusListenerStub;
+import com.netflix.conductor.core.utils.DummyPayloadStorage;
+import com.netflix.conductor.dao.IndexDAO;
+import com.netflix.conductor.dao.RedisWorkflowModule;
+import com.netflix.conductor.server.LocalRedisModule;
+import com.netflix.conductor.tests.utils.MockIndexDAO;
+
+/**
+ * Wires the execution stack against the in-memory {@link com.netflix.conductor.jedis.JedisMock} so that the
+ * benchmarks measure the orchestration code paths and not the network.
+ * <p>
+ * The async system task workers are switched off, so that no background thread competes with the measured paths.
+ */
+public class BenchmarkModule extends AbstractModule {
+
+    @Override
+    protected void configure() {
+        System.setProperty("workflow.system.task.worker.thread.count", "0");
+        System.setProperty("workflow.dynomite.cluster.name", "benchmark");
+        System.setProperty("workflow.namespace.prefix", "benchmark");
+        System.setProperty("workflow.namespace.queue.prefix", "benchmark_queues");
+
+        bind(Configuration.class).to(SystemPropertiesConfiguration.class);
+        install(new LocalRedisModule());
+        install(new RedisWorkflowModule());
+        bind(IndexDAO.class).to(MockIndexDAO.class);
+
+        bind(WorkflowStatusListener.class).to(WorkflowStatusListenerStub.class);
+
+        install(new CoreModule());
+        bind(ObjectMapper.class).toProvider(JsonMapperProvider.class);
+        bind(ExternalPayloadStorage.class).to(DummyPayloadStorage.class);
+    }
+}
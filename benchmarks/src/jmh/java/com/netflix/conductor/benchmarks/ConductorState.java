@@ -0,0 +1,96 @@
+/*
+ * Copyright 2019 Netflix, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.netflix.conductor.benchmarks;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.netflix.conductor.common.metadata.tasks.Task;
+import com.netflix.conductor.common.metadata.tasks.TaskDef;
+import com.netflix.conductor.common.metadata.workflow.WorkflowDef;
+import com.netflix.conductor.core.execution.DeciderService;
+import com.netflix.conductor.core.execution.WorkflowExecutor;
+import com.netflix.conductor.core.metadata.MetadataMapperService;
+import com.netflix.conductor.dao.MetadataDAO;
+import com.netflix.conductor.service.ExecutionService;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+/**
+ * The conductor stack shared by all the threads of a benchmark, along with the workflow definition under test.
+ */
+@State(Scope.Benchmark)
+public class ConductorState {
+
+    static final String WORKER_ID = "benchmark_worker";
+
+    @Param({"LINEAR", "FORK_JOIN", "DECISION"})
+    public WorkflowShape shape;
+
+    @Param({"10", "100"})
+    public int size;
+
+    WorkflowExecutor workflowExecutor;
+    ExecutionService executionService;
+    DeciderService deciderService;
+    MetadataMapperService metadataMapperService;
+
+    private WorkflowDef workflowDef;
+
+    @Setup
+    public void setUp() {
+        Injector injector = Guice.createInjector(new BenchmarkModule());
+        workflowExecutor = injector.getInstance(WorkflowExecutor.class);
+        executionService = injector.getInstance(ExecutionService.class);
+        deciderService = injector.getInstance(DeciderService.class);
+        metadataMapperService = injector.getInstance(MetadataMapperService.class);
+
+        MetadataDAO metadataDAO = injector.getInstance(MetadataDAO.class);
+        TaskDef taskDef = new TaskDef(WorkflowShape.TASK_NAME, WorkflowShape.TASK_NAME, 0, 3600);
+        taskDef.setResponseTimeoutSeconds(3600);
+        metadataDAO.createTaskDef(taskDef);
+
+        workflowDef = shape.definition(size);
+        metadataDAO.create(workflowDef);
+    }
+
+    /**
+     * Starts a new instance of the workflow under test, which runs its first decide synchronously.
+     *
+     * @return the id of the started workflow
+     */
+    String startWorkflow() {
+        return workflowExecutor.startWorkflow(workflowDef.getName(), workflowDef.getVersion(), null,
+                shape.input(), null, null);
+    }
+
+    /**
+     * Polls a single task of the workflow under test, starting a new workflow when none is waiting in the queue.
+     *
+     * @return the polled task, in IN_PROGRESS state
+     */
+    Task pollTask() {
+        List<Task> tasks = executionService.poll(WorkflowShape.TASK_NAME, WORKER_ID, null, 1, 0);
+        if (tasks.isEmpty()) {
+            startWorkflow();
+            tasks = executionService.poll(WorkflowShape.TASK_NAME, WORKER_ID, null, 1, 100);
+        }
+        if (tasks.isEmpty()) {
+            throw new IllegalStateException("No task could be polled for " + workflowDef.getName());
+        }
+        return tasks.get(0);
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2019 Netflix, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.netflix.conductor.benchmarks;
+
+import com.netflix.conductor.common.metadata.tasks.Task;
+import com.netflix.conductor.common.run.Workflow;
+import com.netflix.conductor.core.execution.DeciderService.DeciderOutcome;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the in-memory evaluation done by {@link com.netflix.conductor.core.execution.DeciderService#decide(Workflow)},
+ * without any of the persistence done by the {@link com.netflix.conductor.core.execution.WorkflowExecutor}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class DeciderServiceBenchmark {
+
+    /**
+     * A workflow whose first scheduled tasks have all completed, so that the decider has to compute the next ones.
+     * The decider mutates the tasks it evaluates, hence every invocation works on a fresh copy.
+     */
+    @State(Scope.Thread)
+    public static class CompletedFrontier {
+        private Workflow template;
+        Workflow workflow;
+
+        @Setup
+        public void setUp(ConductorState conductor) {
+            String workflowId = conductor.startWorkflow();
+            template = conductor.metadataMapperService.populateWorkflowWithDefinitions(
+                    conductor.workflowExecutor.getWorkflow(workflowId, true));
+            for (Task task : template.getTasks()) {
+                if (!task.getStatus().isTerminal()) {
+                    task.setStatus(Task.Status.COMPLETED);
+                    task.setEndTime(System.currentTimeMillis());
+                }
+            }
+        }
+
+        @Setup(Level.Invocation)
+        public void copy() {
+            workflow = template.copy();
+        }
+    }
+
+    @Benchmark
+    public DeciderOutcome decide(ConductorState conductor, CompletedFrontier frontier) {
+        return conductor.deciderService.decide(frontier.workflow);
+    }
+}
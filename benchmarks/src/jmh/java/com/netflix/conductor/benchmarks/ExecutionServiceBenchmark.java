@@ -0,0 +1,56 @@
+/*
+ * Copyright 2019 Netflix, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.netflix.conductor.benchmarks;
+
+import com.netflix.conductor.common.metadata.tasks.Task;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link com.netflix.conductor.service.ExecutionService#poll(String, String, String, int, int)} for a
+ * single task, the path taken by every worker poll.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ExecutionServiceBenchmark {
+
+    /**
+     * Guarantees that at least one task is waiting in the queue, so that the poll never blocks.
+     */
+    @State(Scope.Thread)
+    public static class QueuedTask {
+
+        @Setup(Level.Invocation)
+        public void setUp(ConductorState conductor) {
+            if (conductor.executionService.getTaskQueueSizes(Collections.singletonList(WorkflowShape.TASK_NAME))
+                    .getOrDefault(WorkflowShape.TASK_NAME, 0) == 0) {
+                conductor.startWorkflow();
+            }
+        }
+    }
+
+    @Benchmark
+    public List<Task> poll(ConductorState conductor, QueuedTask queuedTask) {
+        return conductor.executionService.poll(WorkflowShape.TASK_NAME, ConductorState.WORKER_ID, null, 1, 0);
+    }
+}
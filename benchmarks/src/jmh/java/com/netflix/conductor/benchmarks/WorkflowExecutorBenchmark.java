@@ -0,0 +1,76 @@
+/*
+ * Copyright 2019 Netflix, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.netflix.conductor.benchmarks;
+
+import com.netflix.conductor.common.metadata.tasks.Task;
+import com.netflix.conductor.common.metadata.tasks.TaskResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link com.netflix.conductor.core.execution.WorkflowExecutor#decide(String)} and
+ * {@link com.netflix.conductor.core.execution.WorkflowExecutor#updateTask(TaskResult)} end to end,
+ * including the reads and writes against the in-memory execution store and queues.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class WorkflowExecutorBenchmark {
+
+    /**
+     * A running workflow whose scheduled tasks are never completed, every decide is a re-evaluation
+     * of the same state, as done by the sweeper.
+     */
+    @State(Scope.Thread)
+    public static class RunningWorkflow {
+        String workflowId;
+
+        @Setup
+        public void setUp(ConductorState conductor) {
+            workflowId = conductor.startWorkflow();
+        }
+    }
+
+    /**
+     * A task that has been handed out to a worker and is waiting to be completed.
+     */
+    @State(Scope.Thread)
+    public static class PolledTask {
+        Task task;
+
+        @Setup(Level.Invocation)
+        public void setUp(ConductorState conductor) {
+            task = conductor.pollTask();
+        }
+    }
+
+    @Benchmark
+    public boolean decide(ConductorState conductor, RunningWorkflow workflow) {
+        return conductor.workflowExecutor.decide(workflow.workflowId);
+    }
+
+    @Benchmark
+    public void updateTask(ConductorState conductor, PolledTask polledTask) {
+        TaskResult taskResult = new TaskResult(polledTask.task);
+        taskResult.setStatus(TaskResult.Status.COMPLETED);
+        taskResult.getOutputData().put("result", polledTask.task.getReferenceTaskName());
+        conductor.workflowExecutor.updateTask(taskResult);
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2019 Netflix, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.netflix.conductor.benchmarks;
+
+import com.netflix.conductor.common.metadata.workflow.TaskType;
+import com.netflix.conductor.common.metadata.workflow.WorkflowDef;
+import com.netflix.conductor.common.metadata.workflow.WorkflowTask;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The workflow topologies exercised by the benchmarks.
+ * Every shape uses {@link #TASK_NAME} for its SIMPLE tasks, so a single task definition covers all of them.
+ */
+public enum WorkflowShape {
+
+    /**
+     * {@code size} SIMPLE tasks executed one after the other.
+     */
+    LINEAR {
+        @Override
+        List<WorkflowTask> tasks(int size) {
+            List<WorkflowTask> tasks = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                tasks.add(simpleTask("t" + i));
+            }
+            return tasks;
+        }
+    },
+
+    /**
+     * A FORK_JOIN with {@code size} single-task branches, followed by the JOIN on all of them.
+     */
+    FORK_JOIN {
+        @Override
+        List<WorkflowTask> tasks(int size) {
+            WorkflowTask fork = new WorkflowTask();
+            fork.setType(TaskType.FORK_JOIN.name());
+            fork.setName("fork");
+            fork.setTaskReferenceName("fork");
+
+            List<String> joinOn = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                fork.getForkTasks().add(Collections.singletonList(simpleTask("t" + i)));
+                joinOn.add("t" + i);
+            }
+
+            WorkflowTask join = new WorkflowTask();
+            join.setType(TaskType.JOIN.name());
+            join.setName("join");
+            join.setTaskReferenceName("join");
+            join.setJoinOn(joinOn);
+
+            List<WorkflowTask> tasks = new ArrayList<>(2);
+            tasks.add(fork);
+            tasks.add(join);
+            return tasks;
+        }
+    },
+
+    /**
+     * {@code size} DECISION tasks nested into each other, every taken case runs a SIMPLE task followed by the next
+     * DECISION.
+     */
+    DECISION {
+        @Override
+        List<WorkflowTask> tasks(int size) {
+            WorkflowTask inner = null;
+            for (int i = size - 1; i >= 0; i--) {
+                WorkflowTask decision = new WorkflowTask();
+                decision.setType(TaskType.DECISION.name());
+                decision.setName("decision");
+                decision.setTaskReferenceName("d" + i);
+                decision.getInputParameters().put("case", "${workflow.input.case}");
+                decision.setCaseValueParam("case");
+
+                List<WorkflowTask> taken = new ArrayList<>(2);
+                taken.add(simpleTask("t" + i));
+                if (inner != null) {
+                    taken.add(inner);
+                }
+                Map<String, List<WorkflowTask>> decisionCases = new HashMap<>();
+                decisionCases.put(CASE_VALUE, taken);
+                decision.setDecisionCases(decisionCases);
+                inner = decision;
+            }
+            return Collections.singletonList(inner);
+        }
+    };
+
+    public static final String TASK_NAME = "benchmark_task";
+
+    static final String CASE_VALUE = "taken";
+
+    abstract List<WorkflowTask> tasks(int size);
+
+    /**
+     * @param size the number of SIMPLE tasks in the workflow (tasks in a row, fork branches or decision depth)
+     * @return the definition of this shape, named after the shape and the size
+     */
+    public WorkflowDef definition(int size) {
+        WorkflowDef workflowDef = new WorkflowDef();
+        workflowDef.setName(name().toLowerCase() + "_" + size);
+        workflowDef.setVersion(1);
+        workflowDef.setSchemaVersion(2);
+        workflowDef.getTasks().addAll(tasks(size));
+        return workflowDef;
+    }
+
+    /**
+     * @return the workflow input expected by every shape
+     */
+    public Map<String, Object> input() {
+        Map<String, Object> input = new HashMap<>();
+        input.put("case", CASE_VALUE);
+        input.put("payload", "value");
+        return input;
+    }
+
+    private static WorkflowTask simpleTask(String taskReferenceName) {
+        WorkflowTask workflowTask = new WorkflowTask();
+        workflowTask.setType(TaskType.SIMPLE.name());
+        workflowTask.setName(TASK_NAME);
+        workflowTask.setTaskReferenceName(taskReferenceName);
+        workflowTask.getInputParameters().put("payload", "${workflow.input.payload}");
+        return workflowTask;
+    }
+}
@@ -41,6 +41,21 @@ public interface CassandraConfiguration extends Configuration {
     String CASSANDRA_SHARD_SIZE_PROPERTY_KEY = "workflow.cassandra.shard.size";
     int CASSANDRA_SHARD_SIZE_DEFAULT_VALUE = 100;
 
+    String CASSANDRA_TASK_LOOKUP_CACHE_SIZE_PROPERTY_NAME = "workflow.cassandra.task.lookup.cache.size";
+    int CASSANDRA_TASK_LOOKUP_CACHE_SIZE_DEFAULT_VALUE = 10000;
+
+    String CASSANDRA_QUEUE_BUCKET_SIZE_SECONDS_PROPERTY_NAME = "workflow.cassandra.queue.bucket.size.seconds";
+    int CASSANDRA_QUEUE_BUCKET_SIZE_SECONDS_DEFAULT_VALUE = 60;
+
+    String CASSANDRA_QUEUE_UNACK_TIMEOUT_MS_PROPERTY_NAME = "workflow.cassandra.queue.unack.timeout.ms";
+    long CASSANDRA_QUEUE_UNACK_TIMEOUT_MS_DEFAULT_VALUE = 60000;
+
+    String CASSANDRA_QUEUE_POLL_INTERVAL_MS_PROPERTY_NAME = "workflow.cassandra.queue.poll.interval.ms";
+    int CASSANDRA_QUEUE_POLL_INTERVAL_MS_DEFAULT_VALUE = 100;
+
+    String CASSANDRA_METADATA_CACHE_REFRESH_SECONDS_PROPERTY_NAME = "workflow.cassandra.metadata.cache.refresh.seconds";
+    int CASSANDRA_METADATA_CACHE_REFRESH_SECONDS_DEFAULT_VALUE = 60;
+
     String CASSANDRA_READ_CONSISTENCY_LEVEL = "workflow.cassandra.read.consistency.level";
     String CASSANDRA_READ_CONSISTENCY_LEVEL_DEFAULT_VALUE = "LOCAL_QUORUM";
 
@@ -67,6 +82,32 @@ public interface CassandraConfiguration extends Configuration {
         return getIntProperty(CASSANDRA_SHARD_SIZE_PROPERTY_KEY, CASSANDRA_SHARD_SIZE_DEFAULT_VALUE);
     }
 
+    default int getTaskLookupCacheSize() {
+        return getIntProperty(CASSANDRA_TASK_LOOKUP_CACHE_SIZE_PROPERTY_NAME, CASSANDRA_TASK_LOOKUP_CACHE_SIZE_DEFAULT_VALUE);
+    }
+
+    /**
+     * @return the time span of the messages stored in a partition of a queue
+     */
+    default int getQueueBucketSizeSeconds() {
+        return getIntProperty(CASSANDRA_QUEUE_BUCKET_SIZE_SECONDS_PROPERTY_NAME, CASSANDRA_QUEUE_BUCKET_SIZE_SECONDS_DEFAULT_VALUE);
+    }
+
+    /**
+     * @return how long a popped message stays invisible to the other consumers before it is delivered again, unless acknowledged
+     */
+    default long getQueueUnackTimeoutMs() {
+        return getLongProperty(CASSANDRA_QUEUE_UNACK_TIMEOUT_MS_PROPERTY_NAME, CASSANDRA_QUEUE_UNACK_TIMEOUT_MS_DEFAULT_VALUE);
+    }
+
+    default int getQueuePollIntervalMs() {
+        return getIntProperty(CASSANDRA_QUEUE_POLL_INTERVAL_MS_PROPERTY_NAME, CASSANDRA_QUEUE_POLL_INTERVAL_MS_DEFAULT_VALUE);
+    }
+
+    default int getMetadataCacheRefreshSeconds() {
+        return getIntProperty(CASSANDRA_METADATA_CACHE_REFRESH_SECONDS_PROPERTY_NAME, CASSANDRA_METADATA_CACHE_REFRESH_SECONDS_DEFAULT_VALUE);
+    }
+
     default String getReplicationStrategy() {
         return getProperty(CASSANDRA_REPLICATION_STRATEGY_PROPERTY_NAME, CASSANDRA_REPLICATION_STRATEGY_DEFAULT_VALUE);
     }
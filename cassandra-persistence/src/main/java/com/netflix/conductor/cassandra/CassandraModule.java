@@ -15,8 +15,14 @@ package com.netflix.conductor.cassandra;
 import com.datastax.driver.core.Cluster;
 import com.datastax.driver.core.Session;
 import com.google.inject.AbstractModule;
-import com.netflix.conductor.dao.cassandra.CassandraExecutionDAO;
+import com.google.inject.name.Names;
+import com.netflix.conductor.core.metadata.CachingMetadataDAO;
 import com.netflix.conductor.dao.ExecutionDAO;
+import com.netflix.conductor.dao.MetadataDAO;
+import com.netflix.conductor.dao.QueueDAO;
+import com.netflix.conductor.dao.cassandra.CassandraExecutionDAO;
+import com.netflix.conductor.dao.cassandra.CassandraMetadataDAO;
+import com.netflix.conductor.dao.cassandra.CassandraQueueDAO;
 
 public class CassandraModule extends AbstractModule {
 
@@ -26,6 +32,9 @@ public class CassandraModule extends AbstractModule {
         bind(Cluster.class).toProvider(CassandraClusterProvider.class).asEagerSingleton();
         bind(Session.class).toProvider(CassandraSessionProvider.class);
 
+        bind(MetadataDAO.class).annotatedWith(Names.named(CachingMetadataDAO.DELEGATE)).to(CassandraMetadataDAO.class);
+        bind(MetadataDAO.class).to(CachingMetadataDAO.class);
         bind(ExecutionDAO.class).to(CassandraExecutionDAO.class);
+        bind(QueueDAO.class).to(CassandraQueueDAO.class);
     }
 }
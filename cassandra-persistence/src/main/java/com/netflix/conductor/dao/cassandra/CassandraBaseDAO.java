@@ -16,7 +16,11 @@
 package com.netflix.conductor.dao.cassandra;
 
 import com.datastax.driver.core.DataType;
+import com.datastax.driver.core.KeyspaceMetadata;
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.Row;
 import com.datastax.driver.core.Session;
+import com.datastax.driver.core.TableMetadata;
 import com.datastax.driver.core.schemabuilder.SchemaBuilder;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -29,16 +33,47 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 
+import static com.netflix.conductor.util.Constants.BUCKET_KEY;
+import static com.netflix.conductor.util.Constants.COUNTER_VALUE_KEY;
 import static com.netflix.conductor.util.Constants.DAO_NAME;
+import static com.netflix.conductor.util.Constants.DELIVER_ON_KEY;
+import static com.netflix.conductor.util.Constants.DOMAIN_KEY;
 import static com.netflix.conductor.util.Constants.ENTITY_KEY;
+import static com.netflix.conductor.util.Constants.EVENT_HANDLER_NAME_KEY;
+import static com.netflix.conductor.util.Constants.EVENT_NAME_KEY;
+import static com.netflix.conductor.util.Constants.EXECUTION_ID_KEY;
+import static com.netflix.conductor.util.Constants.HANDLERS_KEY;
+import static com.netflix.conductor.util.Constants.LEASE_UNTIL_KEY;
+import static com.netflix.conductor.util.Constants.MESSAGE_ID_KEY;
+import static com.netflix.conductor.util.Constants.NAME_KEY;
 import static com.netflix.conductor.util.Constants.PAYLOAD_KEY;
+import static com.netflix.conductor.util.Constants.PRIORITY_KEY;
+import static com.netflix.conductor.util.Constants.QUEUE_NAME_KEY;
 import static com.netflix.conductor.util.Constants.SHARD_ID_KEY;
+import static com.netflix.conductor.util.Constants.TABLE_COUNTERS;
+import static com.netflix.conductor.util.Constants.TABLE_EVENT_EXECUTIONS;
+import static com.netflix.conductor.util.Constants.TABLE_EVENT_HANDLERS;
+import static com.netflix.conductor.util.Constants.TABLE_IN_PROGRESS_TASKS;
+import static com.netflix.conductor.util.Constants.TABLE_PENDING_WORKFLOWS;
+import static com.netflix.conductor.util.Constants.TABLE_POLL_DATA;
+import static com.netflix.conductor.util.Constants.TABLE_QUEUE_BUCKETS;
+import static com.netflix.conductor.util.Constants.TABLE_QUEUE_MESSAGES;
+import static com.netflix.conductor.util.Constants.TABLE_QUEUE_MESSAGE_INDEX;
+import static com.netflix.conductor.util.Constants.TABLE_TASK_DEFS;
 import static com.netflix.conductor.util.Constants.TABLE_TASK_LOOKUP;
 import static com.netflix.conductor.util.Constants.TABLE_WORKFLOWS;
+import static com.netflix.conductor.util.Constants.TABLE_WORKFLOW_DEFS;
+import static com.netflix.conductor.util.Constants.TABLE_WORKFLOW_DEF_NAMES;
+import static com.netflix.conductor.util.Constants.TASK_DEFS_KEY;
+import static com.netflix.conductor.util.Constants.TASK_DEF_NAME_KEY;
 import static com.netflix.conductor.util.Constants.TASK_ID_KEY;
 import static com.netflix.conductor.util.Constants.TOTAL_PARTITIONS_KEY;
 import static com.netflix.conductor.util.Constants.TOTAL_TASKS_KEY;
+import static com.netflix.conductor.util.Constants.WORKFLOW_DEFS_KEY;
+import static com.netflix.conductor.util.Constants.WORKFLOW_DEF_NAME_KEY;
 import static com.netflix.conductor.util.Constants.WORKFLOW_ID_KEY;
+import static com.netflix.conductor.util.Constants.WORKFLOW_TYPE_KEY;
+import static com.netflix.conductor.util.Constants.WORKFLOW_VERSION_KEY;
 
 /**
  * Creates the keyspace and tables.
@@ -60,8 +95,98 @@ import static com.netflix.conductor.util.Constants.WORKFLOW_ID_KEY;
  * CREATE TABLE IF NOT EXISTS conductor.task_lookup(
  * task_id uuid,
  * workflow_id uuid,
+ * shard_id int,
  * PRIMARY KEY (task_id)
  * );
+ * <p>
+ * CREATE TABLE IF NOT EXISTS conductor.pending_workflows(
+ * workflow_type text,
+ * workflow_id uuid,
+ * PRIMARY KEY (workflow_type, workflow_id)
+ * );
+ * <p>
+ * CREATE TABLE IF NOT EXISTS conductor.in_progress_tasks(
+ * task_def_name text,
+ * task_id uuid,
+ * workflow_id uuid,
+ * PRIMARY KEY (task_def_name, task_id)
+ * );
+ * <p>
+ * CREATE TABLE IF NOT EXISTS conductor.counters(
+ * entity text,
+ * name text,
+ * counter_value counter,
+ * PRIMARY KEY ((entity, name))
+ * );
+ * <p>
+ * CREATE TABLE IF NOT EXISTS conductor.poll_data(
+ * queue_name text,
+ * domain text,
+ * payload text,
+ * PRIMARY KEY (queue_name, domain)
+ * );
+ * <p>
+ * CREATE TABLE IF NOT EXISTS conductor.event_executions(
+ * message_id text,
+ * event_handler_name text,
+ * event_name text,
+ * execution_id text,
+ * payload text,
+ * PRIMARY KEY ((message_id, event_handler_name, event_name), execution_id)
+ * );
+ * <p>
+ * CREATE TABLE IF NOT EXISTS conductor.task_definitions(
+ * task_defs text,
+ * task_def_name text,
+ * payload text,
+ * PRIMARY KEY (task_defs, task_def_name)
+ * );
+ * <p>
+ * CREATE TABLE IF NOT EXISTS conductor.workflow_definitions(
+ * workflow_def_name text,
+ * version int,
+ * payload text,
+ * PRIMARY KEY (workflow_def_name, version)
+ * );
+ * <p>
+ * CREATE TABLE IF NOT EXISTS conductor.workflow_def_names(
+ * workflow_defs text,
+ * workflow_def_name text,
+ * PRIMARY KEY (workflow_defs, workflow_def_name)
+ * );
+ * <p>
+ * CREATE TABLE IF NOT EXISTS conductor.event_handlers(
+ * handlers text,
+ * event_handler_name text,
+ * payload text,
+ * PRIMARY KEY (handlers, event_handler_name)
+ * );
+ * <p>
+ * CREATE TABLE IF NOT EXISTS conductor.queue_messages(
+ * queue_name text,
+ * bucket bigint,
+ * message_id text,
+ * deliver_on bigint,
+ * priority int,
+ * payload text,
+ * lease_until bigint,
+ * PRIMARY KEY ((queue_name, bucket), message_id)
+ * );
+ * <p>
+ * CREATE TABLE IF NOT EXISTS conductor.queue_message_index(
+ * queue_name text,
+ * message_id text,
+ * bucket bigint,
+ * PRIMARY KEY ((queue_name, message_id))
+ * );
+ * <p>
+ * CREATE TABLE IF NOT EXISTS conductor.queue_buckets(
+ * queue_name text,
+ * bucket bigint,
+ * PRIMARY KEY (queue_name, bucket)
+ * );
+ * <p>
+ * The shard_id column was added to the task_lookup table after its creation, it is added to existing tables.
  */
 public class CassandraBaseDAO {
     private static final Logger LOGGER = LoggerFactory.getLogger(CassandraBaseDAO.class);
@@ -84,6 +209,19 @@ public class CassandraBaseDAO {
             session.execute(getCreateKeyspaceStatement());
             session.execute(getCreateWorkflowsTableStatement());
             session.execute(getCreateTaskLookupTableStatement());
+            addTaskLookupShardColumn();
+            session.execute(getCreatePendingWorkflowsTableStatement());
+            session.execute(getCreateInProgressTasksTableStatement());
+            session.execute(getCreateCountersTableStatement());
+            session.execute(getCreatePollDataTableStatement());
+            session.execute(getCreateEventExecutionsTableStatement());
+            session.execute(getCreateTaskDefsTableStatement());
+            session.execute(getCreateWorkflowDefsTableStatement());
+            session.execute(getCreateWorkflowDefNamesTableStatement());
+            session.execute(getCreateEventHandlersTableStatement());
+            session.execute(getCreateQueueMessagesTableStatement());
+            session.execute(getCreateQueueMessageIndexTableStatement());
+            session.execute(getCreateQueueBucketsTableStatement());
             LOGGER.info("CassandraDAO initialization complete! Tables created!");
         } catch (Exception e) {
             LOGGER.error("Error initializing and setting up keyspace and table in cassandra", e);
@@ -118,9 +256,138 @@ public class CassandraBaseDAO {
                 .ifNotExists()
                 .addPartitionKey(TASK_ID_KEY, DataType.uuid())
                 .addColumn(WORKFLOW_ID_KEY, DataType.uuid())
+                .addColumn(SHARD_ID_KEY, DataType.cint())
+                .getQueryString();
+    }
+
+    private String getCreatePendingWorkflowsTableStatement() {
+        return SchemaBuilder.createTable(config.getCassandraKeyspace(), TABLE_PENDING_WORKFLOWS)
+                .ifNotExists()
+                .addPartitionKey(WORKFLOW_TYPE_KEY, DataType.text())
+                .addPartitionKey(SHARD_ID_KEY, DataType.cint())
+                .addClusteringColumn(WORKFLOW_ID_KEY, DataType.uuid())
+                .getQueryString();
+    }
+
+    private String getCreateInProgressTasksTableStatement() {
+        return SchemaBuilder.createTable(config.getCassandraKeyspace(), TABLE_IN_PROGRESS_TASKS)
+                .ifNotExists()
+                .addPartitionKey(TASK_DEF_NAME_KEY, DataType.text())
+                .addPartitionKey(SHARD_ID_KEY, DataType.cint())
+                .addClusteringColumn(TASK_ID_KEY, DataType.uuid())
+                .addColumn(WORKFLOW_ID_KEY, DataType.uuid())
+                .getQueryString();
+    }
+
+    private String getCreateCountersTableStatement() {
+        return SchemaBuilder.createTable(config.getCassandraKeyspace(), TABLE_COUNTERS)
+                .ifNotExists()
+                .addPartitionKey(ENTITY_KEY, DataType.text())
+                .addPartitionKey(NAME_KEY, DataType.text())
+                .addColumn(COUNTER_VALUE_KEY, DataType.counter())
+                .getQueryString();
+    }
+
+    private String getCreatePollDataTableStatement() {
+        return SchemaBuilder.createTable(config.getCassandraKeyspace(), TABLE_POLL_DATA)
+                .ifNotExists()
+                .addPartitionKey(QUEUE_NAME_KEY, DataType.text())
+                .addClusteringColumn(DOMAIN_KEY, DataType.text())
+                .addColumn(PAYLOAD_KEY, DataType.text())
                 .getQueryString();
     }
 
+    private String getCreateEventExecutionsTableStatement() {
+        return SchemaBuilder.createTable(config.getCassandraKeyspace(), TABLE_EVENT_EXECUTIONS)
+                .ifNotExists()
+                .addPartitionKey(MESSAGE_ID_KEY, DataType.text())
+                .addPartitionKey(EVENT_HANDLER_NAME_KEY, DataType.text())
+                .addPartitionKey(EVENT_NAME_KEY, DataType.text())
+                .addClusteringColumn(EXECUTION_ID_KEY, DataType.text())
+                .addColumn(PAYLOAD_KEY, DataType.text())
+                .getQueryString();
+    }
+
+    private String getCreateTaskDefsTableStatement() {
+        return SchemaBuilder.createTable(config.getCassandraKeyspace(), TABLE_TASK_DEFS)
+                .ifNotExists()
+                .addPartitionKey(TASK_DEFS_KEY, DataType.text())
+                .addClusteringColumn(TASK_DEF_NAME_KEY, DataType.text())
+                .addColumn(PAYLOAD_KEY, DataType.text())
+                .getQueryString();
+    }
+
+    private String getCreateWorkflowDefsTableStatement() {
+        return SchemaBuilder.createTable(config.getCassandraKeyspace(), TABLE_WORKFLOW_DEFS)
+                .ifNotExists()
+                .addPartitionKey(WORKFLOW_DEF_NAME_KEY, DataType.text())
+                .addClusteringColumn(WORKFLOW_VERSION_KEY, DataType.cint())
+                .addColumn(PAYLOAD_KEY, DataType.text())
+                .getQueryString();
+    }
+
+    private String getCreateWorkflowDefNamesTableStatement() {
+        return SchemaBuilder.createTable(config.getCassandraKeyspace(), TABLE_WORKFLOW_DEF_NAMES)
+                .ifNotExists()
+                .addPartitionKey(WORKFLOW_DEFS_KEY, DataType.text())
+                .addClusteringColumn(WORKFLOW_DEF_NAME_KEY, DataType.text())
+                .getQueryString();
+    }
+
+    private String getCreateEventHandlersTableStatement() {
+        return SchemaBuilder.createTable(config.getCassandraKeyspace(), TABLE_EVENT_HANDLERS)
+                .ifNotExists()
+                .addPartitionKey(HANDLERS_KEY, DataType.text())
+                .addClusteringColumn(EVENT_HANDLER_NAME_KEY, DataType.text())
+                .addColumn(PAYLOAD_KEY, DataType.text())
+                .getQueryString();
+    }
+
+    private String getCreateQueueMessagesTableStatement() {
+        return SchemaBuilder.createTable(config.getCassandraKeyspace(), TABLE_QUEUE_MESSAGES)
+                .ifNotExists()
+                .addPartitionKey(QUEUE_NAME_KEY, DataType.text())
+                .addPartitionKey(BUCKET_KEY, DataType.bigint())
+                .addClusteringColumn(MESSAGE_ID_KEY, DataType.text())
+                .addColumn(DELIVER_ON_KEY, DataType.bigint())
+                .addColumn(PRIORITY_KEY, DataType.cint())
+                .addColumn(PAYLOAD_KEY, DataType.text())
+                .addColumn(LEASE_UNTIL_KEY, DataType.bigint())
+                .getQueryString();
+    }
+
+    private String getCreateQueueMessageIndexTableStatement() {
+        return SchemaBuilder.createTable(config.getCassandraKeyspace(), TABLE_QUEUE_MESSAGE_INDEX)
+                .ifNotExists()
+                .addPartitionKey(QUEUE_NAME_KEY, DataType.text())
+                .addPartitionKey(MESSAGE_ID_KEY, DataType.text())
+                .addColumn(BUCKET_KEY, DataType.bigint())
+                .getQueryString();
+    }
+
+    private String getCreateQueueBucketsTableStatement() {
+        return SchemaBuilder.createTable(config.getCassandraKeyspace(), TABLE_QUEUE_BUCKETS)
+                .ifNotExists()
+                .addPartitionKey(QUEUE_NAME_KEY, DataType.text())
+                .addClusteringColumn(BUCKET_KEY, DataType.bigint())
+                .getQueryString();
+    }
+
+    /**
+     * Adds the shard_id column to a task_lookup table created before it existed.
+     * The tasks looked up without a shard_id were created in the {@link com.netflix.conductor.util.Constants#DEFAULT_SHARD_ID}.
+     */
+    private void addTaskLookupShardColumn() {
+        KeyspaceMetadata keyspace = session.getCluster().getMetadata().getKeyspace(config.getCassandraKeyspace());
+        TableMetadata taskLookup = keyspace == null ? null : keyspace.getTable(TABLE_TASK_LOOKUP);
+        if (taskLookup != null && taskLookup.getColumn(SHARD_ID_KEY) == null) {
+            LOGGER.info("Adding column {} to table {}", SHARD_ID_KEY, TABLE_TASK_LOOKUP);
+            session.execute(SchemaBuilder.alterTable(config.getCassandraKeyspace(), TABLE_TASK_LOOKUP)
+                    .addColumn(SHARD_ID_KEY).type(DataType.cint())
+                    .getQueryString());
+        }
+    }
+
     String toJson(Object value) {
         try {
             return objectMapper.writeValueAsString(value);
@@ -137,6 +404,14 @@ public class CassandraBaseDAO {
         }
     }
 
+    /**
+     * @return the value of a counter of the "counters" table, 0 if it was never updated
+     */
+    long readCounter(PreparedStatement selectCounterStatement, String entity, String name) {
+        Row row = session.execute(selectCounterStatement.bind(entity, name)).one();
+        return row == null ? 0 : row.getLong(COUNTER_VALUE_KEY);
+    }
+
     void recordCassandraDaoRequests(String action) {
         recordCassandraDaoRequests(action, "n/a", "n/a");
     }
@@ -13,18 +13,23 @@
 package com.netflix.conductor.dao.cassandra;
 
 import com.datastax.driver.core.BatchStatement;
+import com.datastax.driver.core.ConsistencyLevel;
 import com.datastax.driver.core.PreparedStatement;
 import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.ResultSetFuture;
 import com.datastax.driver.core.Row;
 import com.datastax.driver.core.Session;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.netflix.conductor.annotations.Trace;
 import com.netflix.conductor.cassandra.CassandraConfiguration;
 import com.netflix.conductor.common.metadata.events.EventExecution;
 import com.netflix.conductor.common.metadata.tasks.PollData;
 import com.netflix.conductor.common.metadata.tasks.Task;
+import com.netflix.conductor.common.metadata.tasks.TaskDef;
 import com.netflix.conductor.common.run.Workflow;
 import com.netflix.conductor.core.execution.ApplicationException;
 import com.netflix.conductor.dao.ExecutionDAO;
@@ -35,19 +40,29 @@ import org.slf4j.LoggerFactory;
 
 import javax.inject.Inject;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.TreeMap;
 import java.util.UUID;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
+import static com.netflix.conductor.util.Constants.DEFAULT_DOMAIN;
 import static com.netflix.conductor.util.Constants.DEFAULT_SHARD_ID;
 import static com.netflix.conductor.util.Constants.DEFAULT_TOTAL_PARTITIONS;
 import static com.netflix.conductor.util.Constants.ENTITY_KEY;
 import static com.netflix.conductor.util.Constants.ENTITY_TYPE_TASK;
 import static com.netflix.conductor.util.Constants.ENTITY_TYPE_WORKFLOW;
+import static com.netflix.conductor.util.Constants.INDEX_SHARDS;
 import static com.netflix.conductor.util.Constants.PAYLOAD_KEY;
+import static com.netflix.conductor.util.Constants.SHARD_ID_KEY;
 import static com.netflix.conductor.util.Constants.TOTAL_PARTITIONS_KEY;
 import static com.netflix.conductor.util.Constants.TOTAL_TASKS_KEY;
 import static com.netflix.conductor.util.Constants.WORKFLOW_ID_KEY;
@@ -59,21 +74,44 @@ public class CassandraExecutionDAO extends CassandraBaseDAO implements Execution
 
     private final PreparedStatement insertWorkflowStatement;
     private final PreparedStatement insertTaskStatement;
+    private final PreparedStatement insertPendingWorkflowStatement;
+    private final PreparedStatement insertInProgressTaskStatement;
+    private final PreparedStatement insertPollDataStatement;
+    private final PreparedStatement insertEventExecutionStatement;
 
     private final PreparedStatement selectTotalStatement;
     private final PreparedStatement selectTaskStatement;
     private final PreparedStatement selectWorkflowStatement;
     private final PreparedStatement selectWorkflowWithTasksStatement;
     private final PreparedStatement selectTaskLookupStatement;
+    private final PreparedStatement selectPendingWorkflowStatement;
+    private final PreparedStatement selectPendingWorkflowsStatement;
+    private final PreparedStatement selectInProgressTaskStatement;
+    private final PreparedStatement selectCounterStatement;
+    private final PreparedStatement selectPollDataStatement;
+    private final PreparedStatement selectAllPollDataStatement;
+    private final PreparedStatement selectEventExecutionsStatement;
 
     private final PreparedStatement updateWorkflowStatement;
     private final PreparedStatement updateTotalTasksStatement;
-    private final PreparedStatement updateTotalPartitionsStatement;
+    private final PreparedStatement updateTotalPartitionsIfLowerStatement;
     private final PreparedStatement updateTaskLookupStatement;
+    private final PreparedStatement updateCounterStatement;
+    private final PreparedStatement updateEventExecutionStatement;
 
     private final PreparedStatement deleteWorkflowStatement;
     private final PreparedStatement deleteTaskStatement;
     private final PreparedStatement deleteTaskLookupStatement;
+    private final PreparedStatement deletePendingWorkflowStatement;
+    private final PreparedStatement deleteInProgressTaskStatement;
+    private final PreparedStatement deleteEventExecutionStatement;
+
+    private final int shardSize;
+
+    /**
+     * Where the tasks read or written by this node are stored, the location of a task never changes
+     */
+    private final Cache<String, TaskLocation> taskLocations;
 
     @Inject
     public CassandraExecutionDAO(Session session, ObjectMapper objectMapper, CassandraConfiguration config, Statements statements) {
@@ -81,21 +119,42 @@ public class CassandraExecutionDAO extends CassandraBaseDAO implements Execution
 
         this.insertWorkflowStatement = session.prepare(statements.getInsertWorkflowStatement()).setConsistencyLevel(config.getWriteConsistencyLevel());
         this.insertTaskStatement = session.prepare(statements.getInsertTaskStatement()).setConsistencyLevel(config.getWriteConsistencyLevel());
+        this.insertPendingWorkflowStatement = session.prepare(statements.getInsertPendingWorkflowStatement()).setConsistencyLevel(config.getWriteConsistencyLevel()).setSerialConsistencyLevel(ConsistencyLevel.LOCAL_SERIAL);
+        this.insertInProgressTaskStatement = session.prepare(statements.getInsertInProgressTaskStatement()).setConsistencyLevel(config.getWriteConsistencyLevel()).setSerialConsistencyLevel(ConsistencyLevel.LOCAL_SERIAL);
+        this.insertPollDataStatement = session.prepare(statements.getInsertPollDataStatement()).setConsistencyLevel(config.getWriteConsistencyLevel());
+        this.insertEventExecutionStatement = session.prepare(statements.getInsertEventExecutionStatement()).setConsistencyLevel(config.getWriteConsistencyLevel()).setSerialConsistencyLevel(ConsistencyLevel.LOCAL_SERIAL);
 
         this.selectTotalStatement = session.prepare(statements.getSelectTotalStatement()).setConsistencyLevel(config.getReadConsistencyLevel());
         this.selectTaskStatement = session.prepare(statements.getSelectTaskStatement()).setConsistencyLevel(config.getReadConsistencyLevel());
         this.selectWorkflowStatement = session.prepare(statements.getSelectWorkflowStatement()).setConsistencyLevel(config.getReadConsistencyLevel());
         this.selectWorkflowWithTasksStatement = session.prepare(statements.getSelectWorkflowWithTasksStatement()).setConsistencyLevel(config.getReadConsistencyLevel());
         this.selectTaskLookupStatement = session.prepare(statements.getSelectTaskFromLookupTableStatement()).setConsistencyLevel(config.getReadConsistencyLevel());
+        this.selectPendingWorkflowStatement = session.prepare(statements.getSelectPendingWorkflowStatement()).setConsistencyLevel(config.getReadConsistencyLevel());
+        this.selectPendingWorkflowsStatement = session.prepare(statements.getSelectPendingWorkflowsStatement()).setConsistencyLevel(config.getReadConsistencyLevel());
+        this.selectInProgressTaskStatement = session.prepare(statements.getSelectInProgressTaskStatement()).setConsistencyLevel(config.getReadConsistencyLevel());
+        this.selectCounterStatement = session.prepare(statements.getSelectCounterStatement()).setConsistencyLevel(config.getReadConsistencyLevel());
+        this.selectPollDataStatement = session.prepare(statements.getSelectPollDataStatement()).setConsistencyLevel(config.getReadConsistencyLevel());
+        this.selectAllPollDataStatement = session.prepare(statements.getSelectAllPollDataStatement()).setConsistencyLevel(config.getReadConsistencyLevel());
+        this.selectEventExecutionsStatement = session.prepare(statements.getSelectEventExecutionsStatement()).setConsistencyLevel(config.getReadConsistencyLevel());
 
         this.updateWorkflowStatement = session.prepare(statements.getUpdateWorkflowStatement()).setConsistencyLevel(config.getWriteConsistencyLevel());
         this.updateTotalTasksStatement = session.prepare(statements.getUpdateTotalTasksStatement()).setConsistencyLevel(config.getWriteConsistencyLevel());
-        this.updateTotalPartitionsStatement = session.prepare(statements.getUpdateTotalPartitionsStatement()).setConsistencyLevel(config.getWriteConsistencyLevel());
+        this.updateTotalPartitionsIfLowerStatement = session.prepare(statements.getUpdateTotalPartitionsIfLowerStatement()).setConsistencyLevel(config.getWriteConsistencyLevel()).setSerialConsistencyLevel(ConsistencyLevel.LOCAL_SERIAL);
         this.updateTaskLookupStatement = session.prepare(statements.getUpdateTaskLookupStatement()).setConsistencyLevel(config.getWriteConsistencyLevel());
+        this.updateCounterStatement = session.prepare(statements.getUpdateCounterStatement()).setConsistencyLevel(config.getWriteConsistencyLevel());
+        this.updateEventExecutionStatement = session.prepare(statements.getUpdateEventExecutionStatement()).setConsistencyLevel(config.getWriteConsistencyLevel());
 
         this.deleteWorkflowStatement = session.prepare(statements.getDeleteWorkflowStatement()).setConsistencyLevel(config.getWriteConsistencyLevel());
         this.deleteTaskStatement = session.prepare(statements.getDeleteTaskStatement()).setConsistencyLevel(config.getWriteConsistencyLevel());
         this.deleteTaskLookupStatement = session.prepare(statements.getDeleteTaskLookupStatement()).setConsistencyLevel(config.getWriteConsistencyLevel());
+        this.deletePendingWorkflowStatement = session.prepare(statements.getDeletePendingWorkflowStatement()).setConsistencyLevel(config.getWriteConsistencyLevel()).setSerialConsistencyLevel(ConsistencyLevel.LOCAL_SERIAL);
+        this.deleteInProgressTaskStatement = session.prepare(statements.getDeleteInProgressTaskStatement()).setConsistencyLevel(config.getWriteConsistencyLevel()).setSerialConsistencyLevel(ConsistencyLevel.LOCAL_SERIAL);
+        this.deleteEventExecutionStatement = session.prepare(statements.getDeleteEventExecutionStatement()).setConsistencyLevel(config.getWriteConsistencyLevel());
+
+        this.shardSize = config.getShardSize() > 0 ? config.getShardSize() : CassandraConfiguration.CASSANDRA_SHARD_SIZE_DEFAULT_VALUE;
+        this.taskLocations = CacheBuilder.newBuilder()
+                .maximumSize(Math.max(0, config.getTaskLookupCacheSize()))
+                .build();
     }
 
     @Override
@@ -119,8 +178,12 @@ public class CassandraExecutionDAO extends CassandraBaseDAO implements Execution
     /**
      * Inserts tasks into the Cassandra datastore.
      * <b>Note:</b>
-     * Creates the task_id to workflow_id mapping in the task_lookup table first.
-     * Once this succeeds, inserts the tasks into the workflows table. Tasks belonging to the same shard are created using batch statements.
+     * Creates the task_id to workflow_id and shard_id mapping in the task_lookup table first.
+     * Once this succeeds, inserts the tasks into the workflows table. A task goes to the shard of its sequence number,
+     * each shard holding up to {@link CassandraConfiguration#getShardSize()} tasks of the workflow.
+     * Tasks belonging to the same shard are created using batch statements, the shards are written concurrently.
+     * The total_partitions of the workflow is raised with a lightweight transaction before, so that nodes creating tasks
+     * concurrently never lower it.
      *
      * @param tasks tasks to be created
      */
@@ -128,31 +191,49 @@ public class CassandraExecutionDAO extends CassandraBaseDAO implements Execution
     public List<Task> createTasks(List<Task> tasks) {
         validateTasks(tasks);
         String workflowId = tasks.get(0).getWorkflowInstanceId();
+        UUID workflowUUID = UUID.fromString(workflowId);
         try {
             WorkflowMetadata workflowMetadata = getWorkflowMetadata(workflowId);
             int totalTasks = workflowMetadata.getTotalTasks() + tasks.size();
-            // TODO: write into multiple shards based on number of tasks
 
             // update the task_lookup table
+            List<ResultSetFuture> lookupFutures = new ArrayList<>();
             tasks.forEach(task -> {
                 task.setScheduledTime(System.currentTimeMillis());
-                session.execute(updateTaskLookupStatement.bind(UUID.fromString(workflowId), UUID.fromString(task.getTaskId())));
+                lookupFutures.add(session.executeAsync(updateTaskLookupStatement.bind(workflowUUID, getShardId(task), UUID.fromString(task.getTaskId()))));
             });
+            lookupFutures.forEach(ResultSetFuture::getUninterruptibly);
 
-            // update all the tasks in the workflow using batch
-            BatchStatement batchStatement = new BatchStatement();
+            // insert the tasks of each shard using batch
+            Map<Integer, BatchStatement> batchStatements = new TreeMap<>();
             tasks.forEach(task -> {
+                int shardId = getShardId(task);
                 String taskPayload = toJson(task);
-                batchStatement.add(insertTaskStatement.bind(UUID.fromString(workflowId), DEFAULT_SHARD_ID, task.getTaskId(), taskPayload));
+                batchStatements.computeIfAbsent(shardId, id -> new BatchStatement())
+                        .add(insertTaskStatement.bind(workflowUUID, shardId, task.getTaskId(), taskPayload));
+                taskLocations.put(task.getTaskId(), new TaskLocation(workflowId, shardId));
                 recordCassandraDaoRequests("createTask", task.getTaskType(), task.getWorkflowType());
                 recordCassandraDaoPayloadSize("createTask", taskPayload.length(), task.getTaskType(), task.getWorkflowType());
             });
-            batchStatement.add(updateTotalTasksStatement.bind(totalTasks, UUID.fromString(workflowId), DEFAULT_SHARD_ID));
-            session.execute(batchStatement);
 
-            // update the total tasks and partitions for the workflow
-            session.execute(updateTotalPartitionsStatement.bind(DEFAULT_TOTAL_PARTITIONS, totalTasks, UUID.fromString(workflowId)));
+            // the partitions are raised before the tasks are written, the metadata read above may be stale so the
+            // update only applies if it raises the count
+            int totalPartitions = Collections.max(batchStatements.keySet());
+            if (totalPartitions > workflowMetadata.getTotalPartitions()) {
+                session.execute(updateTotalPartitionsIfLowerStatement.bind(totalPartitions, workflowUUID, totalPartitions));
+            }
 
+            // update the total tasks for the workflow along with the tasks of the first shard
+            batchStatements.computeIfAbsent(DEFAULT_SHARD_ID, id -> new BatchStatement())
+                    .add(updateTotalTasksStatement.bind(totalTasks, workflowUUID, DEFAULT_SHARD_ID));
+            List<ResultSetFuture> batchFutures = batchStatements.values().stream()
+                    .map(session::executeAsync)
+                    .collect(Collectors.toList());
+            batchFutures.forEach(ResultSetFuture::getUninterruptibly);
+
+            tasks.stream()
+                    .filter(task -> Task.Status.IN_PROGRESS.equals(task.getStatus()))
+                    .forEach(this::updateInProgressTasks);
             return tasks;
         } catch (ApplicationException e) {
             throw e;
@@ -167,11 +248,13 @@ public class CassandraExecutionDAO extends CassandraBaseDAO implements Execution
     @Override
     public void updateTask(Task task) {
         try {
-            // TODO: calculate the shard number the task belongs to
+            TaskLocation taskLocation = locateTask(task.getTaskId());
+            int shardId = taskLocation != null ? taskLocation.getShardId() : getShardId(task);
             String taskPayload = toJson(task);
             recordCassandraDaoRequests("updateTask", task.getTaskType(), task.getWorkflowType());
             recordCassandraDaoPayloadSize("updateTask", taskPayload.length(), task.getTaskType(), task.getWorkflowType());
-            session.execute(insertTaskStatement.bind(UUID.fromString(task.getWorkflowInstanceId()), DEFAULT_SHARD_ID, task.getTaskId(), taskPayload));
+            session.execute(insertTaskStatement.bind(UUID.fromString(task.getWorkflowInstanceId()), shardId, task.getTaskId(), taskPayload));
+            updateInProgressTasks(task);
         } catch (Exception e) {
             Monitors.error(CLASS_NAME, "updateTask");
             String errorMsg = String.format("Error updating task: %s in workflow: %s", task.getTaskId(), task.getWorkflowInstanceId());
@@ -181,21 +264,47 @@ public class CassandraExecutionDAO extends CassandraBaseDAO implements Execution
     }
 
     /**
-     * This is a dummy implementation and this feature is not implemented
-     * for Cassandra backed Conductor
+     * The task is limited when the count of in progress tasks of its definition reached the concurrency limit, unless
+     * it is already in progress itself. The count is kept along with the in progress tasks, so that the check is a read
+     * of the task and the counter.
      */
     @Override
     public boolean exceedsInProgressLimit(Task task) {
-        throw new UnsupportedOperationException("This method is not implemented in CassandraExecutionDAO. Please use ExecutionDAOFacade instead.");
+        Optional<TaskDef> taskDefinition = task.getTaskDefinition();
+        if (!taskDefinition.isPresent()) {
+            return false;
+        }
+        int limit = taskDefinition.get().concurrencyLimit();
+        if (limit <= 0) {
+            return false;
+        }
+
+        try {
+            recordCassandraDaoRequests("exceedsInProgressLimit", task.getTaskType(), task.getWorkflowType());
+            if (session.execute(selectInProgressTaskStatement.bind(task.getTaskDefName(), getIndexShard(task.getTaskId()), UUID.fromString(task.getTaskId()))).one() != null) {
+                return false;
+            }
+            long current = readCounter(selectCounterStatement, ENTITY_TYPE_TASK, task.getTaskDefName());
+            if (current >= limit) {
+                LOGGER.info("Task execution count limited. task - {}:{}, limit: {}, current: {}", task.getTaskId(), task.getTaskDefName(), limit, current);
+                Monitors.recordTaskConcurrentExecutionLimited(task.getTaskDefName(), limit);
+                return true;
+            }
+            return false;
+        } catch (Exception e) {
+            Monitors.error(CLASS_NAME, "exceedsInProgressLimit");
+            String errorMsg = String.format("Failed to get the in progress limit of task: %s", task.getTaskId());
+            LOGGER.error(errorMsg, e);
+            throw new ApplicationException(ApplicationException.Code.BACKEND_ERROR, errorMsg, e);
+        }
     }
 
     /**
-     * This is a dummy implementation and this feature is not implemented
-     * for Cassandra backed Conductor
+     * Rate limits per frequency are not supported by Cassandra backed Conductor, tasks are never limited.
      */
     @Override
     public boolean exceedsRateLimitPerFrequency(Task task) {
-        throw new UnsupportedOperationException("This method is not implemented in CassandraExecutionDAO. Please use ExecutionDAOFacade instead.");
+        return false;
     }
 
     @Override
@@ -211,13 +320,12 @@ public class CassandraExecutionDAO extends CassandraBaseDAO implements Execution
     @Override
     public Task getTask(String taskId) {
         try {
-            String workflowId = lookupWorkflowIdFromTaskId(taskId);
-            if (workflowId == null) {
+            TaskLocation taskLocation = locateTask(taskId);
+            if (taskLocation == null) {
                 return null;
             }
-            // TODO: implement for query against multiple shards
 
-            ResultSet resultSet = session.execute(selectTaskStatement.bind(UUID.fromString(workflowId), DEFAULT_SHARD_ID, taskId));
+            ResultSet resultSet = session.execute(selectTaskStatement.bind(UUID.fromString(taskLocation.getWorkflowId()), taskLocation.getShardId(), taskId));
             return Optional.ofNullable(resultSet.one())
                     .map(row -> {
                         Task task = readValue(row.getString(PAYLOAD_KEY), Task.class);
@@ -234,17 +342,55 @@ public class CassandraExecutionDAO extends CassandraBaseDAO implements Execution
         }
     }
 
+    /**
+     * Reads the tasks from their shards, rather than the whole workflows they belong to.
+     * The lookups of the tasks not located yet, then the reads of the tasks, are made concurrently.
+     */
     @Override
     public List<Task> getTasks(List<String> taskIds) {
         Preconditions.checkNotNull(taskIds);
         Preconditions.checkArgument(taskIds.size() > 0, "Task ids list cannot be empty");
-        String workflowId = lookupWorkflowIdFromTaskId(taskIds.get(0));
-        if (workflowId == null) {
-            return null;
+        try {
+            Map<String, TaskLocation> locations = new HashMap<>();
+            Map<String, ResultSetFuture> lookupFutures = new LinkedHashMap<>();
+            for (String taskId : taskIds) {
+                TaskLocation taskLocation = taskLocations.getIfPresent(taskId);
+                if (taskLocation != null) {
+                    locations.put(taskId, taskLocation);
+                } else if (!lookupFutures.containsKey(taskId)) {
+                    lookupFutures.put(taskId, session.executeAsync(selectTaskLookupStatement.bind(UUID.fromString(taskId))));
+                }
+            }
+            recordCassandraDaoRequests("getTaskLocations");
+            lookupFutures.forEach((taskId, future) -> Optional.ofNullable(future.getUninterruptibly().one())
+                    .map(this::toTaskLocation)
+                    .ifPresent(taskLocation -> {
+                        locations.put(taskId, taskLocation);
+                        taskLocations.put(taskId, taskLocation);
+                    }));
+
+            List<ResultSetFuture> taskFutures = taskIds.stream()
+                    .filter(locations::containsKey)
+                    .map(taskId -> {
+                        TaskLocation taskLocation = locations.get(taskId);
+                        return session.executeAsync(selectTaskStatement.bind(UUID.fromString(taskLocation.getWorkflowId()), taskLocation.getShardId(), taskId));
+                    })
+                    .collect(Collectors.toList());
+            return taskFutures.stream()
+                    .map(future -> future.getUninterruptibly().one())
+                    .filter(Objects::nonNull)
+                    .map(row -> {
+                        Task task = readValue(row.getString(PAYLOAD_KEY), Task.class);
+                        recordCassandraDaoRequests("getTask", task.getTaskType(), task.getWorkflowType());
+                        return task;
+                    })
+                    .collect(Collectors.toList());
+        } catch (Exception e) {
+            Monitors.error(CLASS_NAME, "getTasks");
+            String errorMsg = String.format("Error getting tasks by ids: %s", taskIds);
+            LOGGER.error(errorMsg, e);
+            throw new ApplicationException(ApplicationException.Code.BACKEND_ERROR, errorMsg);
         }
-        return getWorkflow(workflowId, true).getTasks().stream()
-                .filter(task -> taskIds.contains(task.getTaskId()))
-                .collect(Collectors.toList());
     }
 
     /**
@@ -256,6 +402,14 @@ public class CassandraExecutionDAO extends CassandraBaseDAO implements Execution
         throw new UnsupportedOperationException("This method is not implemented in CassandraExecutionDAO. Please use ExecutionDAOFacade instead.");
     }
 
+    /**
+     * The tasks are ordered by sequence number only.
+     */
+    @Override
+    public Comparator<Task> getTaskOrder() {
+        return Comparator.comparingInt(Task::getSeq);
+    }
+
     @Override
     public List<Task> getTasksForWorkflow(String workflowId) {
         return getWorkflow(workflowId, true).getTasks();
@@ -271,6 +425,9 @@ public class CassandraExecutionDAO extends CassandraBaseDAO implements Execution
             recordCassandraDaoRequests("createWorkflow", "n/a", workflow.getWorkflowName());
             recordCassandraDaoPayloadSize("createWorkflow", payload.length(), "n/a", workflow.getWorkflowName());
             session.execute(insertWorkflowStatement.bind(UUID.fromString(workflow.getWorkflowId()), 1, "", payload, 0, 1));
+            if (!workflow.getStatus().isTerminal()) {
+                addToPendingWorkflows(workflow.getWorkflowName(), workflow.getWorkflowId());
+            }
 
             workflow.setTasks(tasks);
             return workflow.getWorkflowId();
@@ -291,6 +448,7 @@ public class CassandraExecutionDAO extends CassandraBaseDAO implements Execution
             recordCassandraDaoRequests("updateWorkflow", "n/a", workflow.getWorkflowName());
             recordCassandraDaoPayloadSize("updateWorkflow", payload.length(), "n/a", workflow.getWorkflowName());
             session.execute(updateWorkflowStatement.bind(payload, UUID.fromString(workflow.getWorkflowId())));
+            updatePendingWorkflows(workflow);
             workflow.setTasks(tasks);
             return workflow.getWorkflowId();
         } catch (Exception e) {
@@ -305,12 +463,20 @@ public class CassandraExecutionDAO extends CassandraBaseDAO implements Execution
     public boolean removeWorkflow(String workflowId) {
         Workflow workflow = getWorkflow(workflowId, true);
         boolean removed = false;
-        // TODO: calculate number of shards and iterate
         if (workflow != null) {
             try {
                 recordCassandraDaoRequests("removeWorkflow", "n/a", workflow.getWorkflowName());
-                ResultSet resultSet = session.execute(deleteWorkflowStatement.bind(UUID.fromString(workflowId), DEFAULT_SHARD_ID));
-                removed = resultSet.wasApplied();
+                removeFromPendingWorkflow(workflow.getWorkflowName(), workflowId);
+                workflow.getTasks().stream()
+                        .filter(task -> Task.Status.IN_PROGRESS.equals(task.getStatus()))
+                        .forEach(this::removeFromInProgressTasks);
+                int totalPartitions = getWorkflowMetadata(workflowId).getTotalPartitions();
+                List<ResultSetFuture> futures = IntStream.rangeClosed(DEFAULT_SHARD_ID, Math.max(DEFAULT_SHARD_ID, totalPartitions))
+                        .mapToObj(shardId -> session.executeAsync(deleteWorkflowStatement.bind(UUID.fromString(workflowId), shardId)))
+                        .collect(Collectors.toList());
+                removed = futures.stream()
+                        .map(ResultSetFuture::getUninterruptibly)
+                        .allMatch(ResultSet::wasApplied);
             } catch (Exception e) {
                 Monitors.error(CLASS_NAME, "removeWorkflow");
                 String errorMsg = String.format("Failed to remove workflow: %s", workflowId);
@@ -323,12 +489,21 @@ public class CassandraExecutionDAO extends CassandraBaseDAO implements Execution
     }
 
     /**
-     * This is a dummy implementation and this feature is not implemented
-     * for Cassandra backed Conductor
+     * The count of pending workflows of the type is decremented only if the workflow was removed by this call.
      */
     @Override
     public void removeFromPendingWorkflow(String workflowType, String workflowId) {
-        throw new UnsupportedOperationException("This method is not implemented in CassandraExecutionDAO. Please use ExecutionDAOFacade instead.");
+        try {
+            recordCassandraDaoRequests("removePendingWorkflow", "n/a", workflowType);
+            if (session.execute(deletePendingWorkflowStatement.bind(workflowType, getIndexShard(workflowId), UUID.fromString(workflowId))).wasApplied()) {
+                session.execute(updateCounterStatement.bind(-1L, ENTITY_TYPE_WORKFLOW, workflowType));
+            }
+        } catch (Exception e) {
+            Monitors.error(CLASS_NAME, "removeFromPendingWorkflow");
+            String errorMsg = String.format("Failed to remove workflow: %s from pending workflows of type: %s", workflowId, workflowType);
+            LOGGER.error(errorMsg, e);
+            throw new ApplicationException(ApplicationException.Code.BACKEND_ERROR, errorMsg, e);
+        }
     }
 
     @Override
@@ -350,21 +525,33 @@ public class CassandraExecutionDAO extends CassandraBaseDAO implements Execution
                     LOGGER.info("Workflow {} not found in datastore", workflowId);
                     return null;
                 }
-                for (Row row : rows) {
-                    String entityKey = row.getString(ENTITY_KEY);
-                    if (ENTITY_TYPE_WORKFLOW.equals(entityKey)) {
-                        workflow = readValue(row.getString(PAYLOAD_KEY), Workflow.class);
-                    } else if (ENTITY_TYPE_TASK.equals(entityKey)) {
-                        Task task = readValue(row.getString(PAYLOAD_KEY), Task.class);
-                        tasks.add(task);
-                    } else {
-                        throw new ApplicationException(ApplicationException.Code.INTERNAL_ERROR, String.format("Invalid row with entityKey: %s found in datastore for workflow: %s", entityKey, workflowId));
+
+                // the other shards are read concurrently
+                Row firstRow = rows.get(0);
+                int totalPartitions = firstRow.isNull(TOTAL_PARTITIONS_KEY) ? DEFAULT_TOTAL_PARTITIONS : firstRow.getInt(TOTAL_PARTITIONS_KEY);
+                List<ResultSetFuture> shardFutures = IntStream.rangeClosed(DEFAULT_SHARD_ID + 1, totalPartitions)
+                        .mapToObj(shardId -> session.executeAsync(selectWorkflowWithTasksStatement.bind(UUID.fromString(workflowId), shardId)))
+                        .collect(Collectors.toList());
+
+                for (int shardId = DEFAULT_SHARD_ID; shardId <= Math.max(DEFAULT_SHARD_ID, totalPartitions); shardId++) {
+                    List<Row> shardRows = shardId == DEFAULT_SHARD_ID ? rows : shardFutures.get(shardId - DEFAULT_SHARD_ID - 1).getUninterruptibly().all();
+                    for (Row row : shardRows) {
+                        String entityKey = row.getString(ENTITY_KEY);
+                        if (ENTITY_TYPE_WORKFLOW.equals(entityKey)) {
+                            workflow = readValue(row.getString(PAYLOAD_KEY), Workflow.class);
+                        } else if (ENTITY_TYPE_TASK.equals(entityKey)) {
+                            Task task = readValue(row.getString(PAYLOAD_KEY), Task.class);
+                            taskLocations.put(task.getTaskId(), new TaskLocation(workflowId, shardId));
+                            tasks.add(task);
+                        } else {
+                            throw new ApplicationException(ApplicationException.Code.INTERNAL_ERROR, String.format("Invalid row with entityKey: %s found in datastore for workflow: %s", entityKey, workflowId));
+                        }
                     }
                 }
 
                 if (workflow != null) {
                     recordCassandraDaoRequests("getWorkflow", "n/a", workflow.getWorkflowName());
-                    tasks.sort(Comparator.comparingInt(Task::getSeq));
+                    tasks.sort(getTaskOrder());
                     workflow.setTasks(tasks);
                 }
             } else {
@@ -389,39 +576,64 @@ public class CassandraExecutionDAO extends CassandraBaseDAO implements Execution
     }
 
     /**
-     * This is a dummy implementation and this feature is not implemented
-     * for Cassandra backed Conductor
+     * The ids of the pending workflows of the type, of all the versions, read from all the shards.
      */
     @Override
     public List<String> getRunningWorkflowIds(String workflowName, int version) {
-        throw new UnsupportedOperationException("This method is not implemented in CassandraExecutionDAO. Please use ExecutionDAOFacade instead.");
+        Preconditions.checkNotNull(workflowName, "workflowName cannot be null");
+        try {
+            recordCassandraDaoRequests("getRunningWorkflowIds", "n/a", workflowName);
+            List<ResultSetFuture> futures = IntStream.range(0, INDEX_SHARDS)
+                    .mapToObj(shardId -> session.executeAsync(selectPendingWorkflowsStatement.bind(workflowName, shardId)))
+                    .collect(Collectors.toList());
+            return futures.stream()
+                    .flatMap(future -> future.getUninterruptibly().all().stream())
+                    .map(row -> row.getUUID(WORKFLOW_ID_KEY).toString())
+                    .collect(Collectors.toList());
+        } catch (Exception e) {
+            Monitors.error(CLASS_NAME, "getRunningWorkflowIds");
+            String errorMsg = String.format("Failed to get running workflows of type: %s", workflowName);
+            LOGGER.error(errorMsg, e);
+            throw new ApplicationException(ApplicationException.Code.BACKEND_ERROR, errorMsg, e);
+        }
     }
 
-    /**
-     * This is a dummy implementation and this feature is not implemented
-     * for Cassandra backed Conductor
-     */
     @Override
     public List<Workflow> getPendingWorkflowsByType(String workflowName, int version) {
-        throw new UnsupportedOperationException("This method is not implemented in CassandraExecutionDAO. Please use ExecutionDAOFacade instead.");
+        Preconditions.checkNotNull(workflowName, "workflowName cannot be null");
+        return getRunningWorkflowIds(workflowName, version).stream()
+                .map(this::getWorkflow)
+                .filter(Objects::nonNull)
+                .filter(workflow -> workflow.getWorkflowVersion() == version)
+                .collect(Collectors.toList());
     }
 
-    /**
-     * This is a dummy implementation and this feature is not implemented
-     * for Cassandra backed Conductor
-     */
     @Override
     public long getPendingWorkflowCount(String workflowName) {
-        throw new UnsupportedOperationException("This method is not implemented in CassandraExecutionDAO. Please use ExecutionDAOFacade instead.");
+        Preconditions.checkNotNull(workflowName, "workflowName cannot be null");
+        try {
+            recordCassandraDaoRequests("getPendingWorkflowCount", "n/a", workflowName);
+            return readCounter(selectCounterStatement, ENTITY_TYPE_WORKFLOW, workflowName);
+        } catch (Exception e) {
+            Monitors.error(CLASS_NAME, "getPendingWorkflowCount");
+            String errorMsg = String.format("Failed to get the count of pending workflows of type: %s", workflowName);
+            LOGGER.error(errorMsg, e);
+            throw new ApplicationException(ApplicationException.Code.BACKEND_ERROR, errorMsg, e);
+        }
     }
 
-    /**
-     * This is a dummy implementation and this feature is not implemented
-     * for Cassandra backed Conductor
-     */
     @Override
     public long getInProgressTaskCount(String taskDefName) {
-        throw new UnsupportedOperationException("This method is not implemented in CassandraExecutionDAO. Please use ExecutionDAOFacade instead.");
+        Preconditions.checkNotNull(taskDefName, "taskDefName cannot be null");
+        try {
+            recordCassandraDaoRequests("getInProgressTaskCount", taskDefName, "n/a");
+            return readCounter(selectCounterStatement, ENTITY_TYPE_TASK, taskDefName);
+        } catch (Exception e) {
+            Monitors.error(CLASS_NAME, "getInProgressTaskCount");
+            String errorMsg = String.format("Failed to get the count of in progress tasks of: %s", taskDefName);
+            LOGGER.error(errorMsg, e);
+            throw new ApplicationException(ApplicationException.Code.BACKEND_ERROR, errorMsg, e);
+        }
     }
 
     /**
@@ -447,83 +659,135 @@ public class CassandraExecutionDAO extends CassandraBaseDAO implements Execution
         return false;
     }
 
-    /**
-     * This is a dummy implementation and this feature is not implemented
-     * for Cassandra backed Conductor
-     */
     @Override
-    public boolean addEventExecution(EventExecution ee) {
-        throw new UnsupportedOperationException("This method is not implemented in CassandraExecutionDAO. Please use ExecutionDAOFacade instead.");
+    public boolean addEventExecution(EventExecution eventExecution) {
+        try {
+            String payload = toJson(eventExecution);
+            recordCassandraDaoEventRequests("addEventExecution", eventExecution.getEvent());
+            recordCassandraDaoPayloadSize("addEventExecution", payload.length(), eventExecution.getEvent(), "n/a");
+            return session.execute(insertEventExecutionStatement.bind(eventExecution.getMessageId(), eventExecution.getName(),
+                    eventExecution.getEvent(), eventExecution.getId(), payload)).wasApplied();
+        } catch (Exception e) {
+            Monitors.error(CLASS_NAME, "addEventExecution");
+            String errorMsg = String.format("Failed to add event execution: %s", eventExecution.getId());
+            LOGGER.error(errorMsg, e);
+            throw new ApplicationException(ApplicationException.Code.BACKEND_ERROR, errorMsg, e);
+        }
     }
 
-    /**
-     * This is a dummy implementation and this feature is not implemented
-     * for Cassandra backed Conductor
-     */
     @Override
-    public void updateEventExecution(EventExecution ee) {
-        throw new UnsupportedOperationException("This method is not implemented in CassandraExecutionDAO. Please use ExecutionDAOFacade instead.");
+    public void updateEventExecution(EventExecution eventExecution) {
+        try {
+            String payload = toJson(eventExecution);
+            recordCassandraDaoEventRequests("updateEventExecution", eventExecution.getEvent());
+            recordCassandraDaoPayloadSize("updateEventExecution", payload.length(), eventExecution.getEvent(), "n/a");
+            session.execute(updateEventExecutionStatement.bind(payload, eventExecution.getMessageId(), eventExecution.getName(),
+                    eventExecution.getEvent(), eventExecution.getId()));
+        } catch (Exception e) {
+            Monitors.error(CLASS_NAME, "updateEventExecution");
+            String errorMsg = String.format("Failed to update event execution: %s", eventExecution.getId());
+            LOGGER.error(errorMsg, e);
+            throw new ApplicationException(ApplicationException.Code.BACKEND_ERROR, errorMsg, e);
+        }
     }
 
-    /**
-     * This is a dummy implementation and this feature is not implemented
-     * for Cassandra backed Conductor
-     */
     @Override
-    public void removeEventExecution(EventExecution ee) {
-        throw new UnsupportedOperationException("This method is not implemented in CassandraExecutionDAO. Please use ExecutionDAOFacade instead.");
+    public void removeEventExecution(EventExecution eventExecution) {
+        try {
+            recordCassandraDaoEventRequests("removeEventExecution", eventExecution.getEvent());
+            session.execute(deleteEventExecutionStatement.bind(eventExecution.getMessageId(), eventExecution.getName(),
+                    eventExecution.getEvent(), eventExecution.getId()));
+        } catch (Exception e) {
+            Monitors.error(CLASS_NAME, "removeEventExecution");
+            String errorMsg = String.format("Failed to remove event execution: %s", eventExecution.getId());
+            LOGGER.error(errorMsg, e);
+            throw new ApplicationException(ApplicationException.Code.BACKEND_ERROR, errorMsg, e);
+        }
     }
 
-    /**
-     * This is a dummy implementation and this feature is not implemented
-     * for Cassandra backed Conductor
-     */
     @Override
     public List<EventExecution> getEventExecutions(String eventHandlerName, String eventName, String messageId, int max) {
-        throw new UnsupportedOperationException("This method is not implemented in CassandraExecutionDAO. Please use ExecutionDAOFacade instead.");
+        try {
+            recordCassandraDaoEventRequests("getEventExecution", eventName);
+            return session.execute(selectEventExecutionsStatement.bind(messageId, eventHandlerName, eventName, max)).all().stream()
+                    .map(row -> readValue(row.getString(PAYLOAD_KEY), EventExecution.class))
+                    .collect(Collectors.toList());
+        } catch (Exception e) {
+            Monitors.error(CLASS_NAME, "getEventExecutions");
+            String errorMsg = String.format("Failed to get event executions of message: %s by event handler: %s", messageId, eventHandlerName);
+            LOGGER.error(errorMsg, e);
+            throw new ApplicationException(ApplicationException.Code.BACKEND_ERROR, errorMsg, e);
+        }
     }
 
-    /**
-     * This is a dummy implementation and this feature is not implemented
-     * for Cassandra backed Conductor
-     */
     @Override
     public void updateLastPoll(String taskDefName, String domain, String workerId) {
-        throw new UnsupportedOperationException("This method is not implemented in CassandraExecutionDAO. Please use ExecutionDAOFacade instead.");
+        Preconditions.checkNotNull(taskDefName, "taskDefName name cannot be null");
+        try {
+            PollData pollData = new PollData(taskDefName, domain, workerId, System.currentTimeMillis());
+            String payload = toJson(pollData);
+            recordCassandraDaoRequests("updatePollData");
+            recordCassandraDaoPayloadSize("updatePollData", payload.length(), "n/a", "n/a");
+            session.execute(insertPollDataStatement.bind(taskDefName, domain == null ? DEFAULT_DOMAIN : domain, payload));
+        } catch (Exception e) {
+            Monitors.error(CLASS_NAME, "updateLastPoll");
+            String errorMsg = String.format("Failed to update the poll data of task: %s in domain: %s", taskDefName, domain);
+            LOGGER.error(errorMsg, e);
+            throw new ApplicationException(ApplicationException.Code.BACKEND_ERROR, errorMsg, e);
+        }
     }
 
-    /**
-     * This is a dummy implementation and this feature is not implemented
-     * for Cassandra backed Conductor
-     */
     @Override
     public PollData getPollData(String taskDefName, String domain) {
-        throw new UnsupportedOperationException("This method is not implemented in CassandraExecutionDAO. Please use ExecutionDAOFacade instead.");
+        Preconditions.checkNotNull(taskDefName, "taskDefName name cannot be null");
+        try {
+            recordCassandraDaoRequests("getPollData", taskDefName, "n/a");
+            ResultSet resultSet = session.execute(selectPollDataStatement.bind(taskDefName, domain == null ? DEFAULT_DOMAIN : domain));
+            return Optional.ofNullable(resultSet.one())
+                    .map(row -> readValue(row.getString(PAYLOAD_KEY), PollData.class))
+                    .orElse(null);
+        } catch (Exception e) {
+            Monitors.error(CLASS_NAME, "getPollData");
+            String errorMsg = String.format("Failed to get the poll data of task: %s in domain: %s", taskDefName, domain);
+            LOGGER.error(errorMsg, e);
+            throw new ApplicationException(ApplicationException.Code.BACKEND_ERROR, errorMsg, e);
+        }
     }
 
-    /**
-     * This is a dummy implementation and this feature is not implemented
-     * for Cassandra backed Conductor
-     */
     @Override
     public List<PollData> getPollData(String taskDefName) {
-        throw new UnsupportedOperationException("This method is not implemented in CassandraExecutionDAO. Please use ExecutionDAOFacade instead.");
+        Preconditions.checkNotNull(taskDefName, "taskDefName name cannot be null");
+        try {
+            recordCassandraDaoRequests("getPollData", taskDefName, "n/a");
+            return session.execute(selectAllPollDataStatement.bind(taskDefName)).all().stream()
+                    .map(row -> readValue(row.getString(PAYLOAD_KEY), PollData.class))
+                    .collect(Collectors.toList());
+        } catch (Exception e) {
+            Monitors.error(CLASS_NAME, "getPollData");
+            String errorMsg = String.format("Failed to get the poll data of task: %s", taskDefName);
+            LOGGER.error(errorMsg, e);
+            throw new ApplicationException(ApplicationException.Code.BACKEND_ERROR, errorMsg, e);
+        }
     }
 
     private boolean removeTask(Task task) {
-        // TODO: calculate shard number based on seq and maxTasksPerShard
         try {
             // get total tasks for this workflow
             WorkflowMetadata workflowMetadata = getWorkflowMetadata(task.getWorkflowInstanceId());
             int totalTasks = workflowMetadata.getTotalTasks();
+            TaskLocation taskLocation = locateTask(task.getTaskId());
+            int shardId = taskLocation != null ? taskLocation.getShardId() : getShardId(task);
 
             // remove from task_lookup table
             removeTaskLookup(task);
+            if (Task.Status.IN_PROGRESS.equals(task.getStatus())) {
+                removeFromInProgressTasks(task);
+            }
 
             recordCassandraDaoRequests("removeTask", task.getTaskType(), task.getWorkflowType());
             // delete task from workflows table and decrement total tasks by 1
             BatchStatement batchStatement = new BatchStatement();
-            batchStatement.add(deleteTaskStatement.bind(UUID.fromString(task.getWorkflowInstanceId()), DEFAULT_SHARD_ID, task.getTaskId()));
+            batchStatement.add(deleteTaskStatement.bind(UUID.fromString(task.getWorkflowInstanceId()), shardId, task.getTaskId()));
             batchStatement.add(updateTotalTasksStatement.bind(totalTasks - 1, UUID.fromString(task.getWorkflowInstanceId()), DEFAULT_SHARD_ID));
             ResultSet resultSet = session.execute(batchStatement);
             return resultSet.wasApplied();
@@ -539,6 +803,7 @@ public class CassandraExecutionDAO extends CassandraBaseDAO implements Execution
         try {
             recordCassandraDaoRequests("removeTaskLookup", task.getTaskType(), task.getWorkflowType());
             session.execute(deleteTaskLookupStatement.bind(UUID.fromString(task.getTaskId())));
+            taskLocations.invalidate(task.getTaskId());
         } catch (Exception e) {
             Monitors.error(CLASS_NAME, "removeTaskLookup");
             String errorMsg = String.format("Failed to remove task lookup: %s", task.getTaskId());
@@ -547,6 +812,57 @@ public class CassandraExecutionDAO extends CassandraBaseDAO implements Execution
         }
     }
 
+    /**
+     * Keeps the workflow in the pending workflows of its type while it is not terminal.
+     * The membership is read first, so that the updates not changing it cost no lightweight transaction.
+     */
+    private void updatePendingWorkflows(Workflow workflow) {
+        boolean pending = session.execute(selectPendingWorkflowStatement.bind(workflow.getWorkflowName(), getIndexShard(workflow.getWorkflowId()), UUID.fromString(workflow.getWorkflowId()))).one() != null;
+        if (workflow.getStatus().isTerminal()) {
+            if (pending) {
+                removeFromPendingWorkflow(workflow.getWorkflowName(), workflow.getWorkflowId());
+            }
+        } else if (!pending) {
+            addToPendingWorkflows(workflow.getWorkflowName(), workflow.getWorkflowId());
+        }
+    }
+
+    /**
+     * The count of pending workflows of the type is incremented only if the workflow was added by this call,
+     * so that it stays accurate when a write is retried or made concurrently by several nodes.
+     */
+    private void addToPendingWorkflows(String workflowType, String workflowId) {
+        recordCassandraDaoRequests("addPendingWorkflow", "n/a", workflowType);
+        if (session.execute(insertPendingWorkflowStatement.bind(workflowType, getIndexShard(workflowId), UUID.fromString(workflowId))).wasApplied()) {
+            session.execute(updateCounterStatement.bind(1L, ENTITY_TYPE_WORKFLOW, workflowType));
+        }
+    }
+
+    /**
+     * Keeps the task in the in progress tasks of its definition while it is in progress, the same way as the pending workflows.
+     */
+    private void updateInProgressTasks(Task task) {
+        UUID taskUUID = UUID.fromString(task.getTaskId());
+        boolean inProgress = session.execute(selectInProgressTaskStatement.bind(task.getTaskDefName(), getIndexShard(task.getTaskId()), taskUUID)).one() != null;
+        if (Task.Status.IN_PROGRESS.equals(task.getStatus())) {
+            if (!inProgress) {
+                recordCassandraDaoRequests("addInProgressTask", task.getTaskType(), task.getWorkflowType());
+                if (session.execute(insertInProgressTaskStatement.bind(task.getTaskDefName(), getIndexShard(task.getTaskId()), taskUUID, UUID.fromString(task.getWorkflowInstanceId()))).wasApplied()) {
+                    session.execute(updateCounterStatement.bind(1L, ENTITY_TYPE_TASK, task.getTaskDefName()));
+                }
+            }
+        } else if (inProgress) {
+            removeFromInProgressTasks(task);
+        }
+    }
+
+    private void removeFromInProgressTasks(Task task) {
+        recordCassandraDaoRequests("removeInProgressTask", task.getTaskType(), task.getWorkflowType());
+        if (session.execute(deleteInProgressTaskStatement.bind(task.getTaskDefName(), getIndexShard(task.getTaskId()), UUID.fromString(task.getTaskId()))).wasApplied()) {
+            session.execute(updateCounterStatement.bind(-1L, ENTITY_TYPE_TASK, task.getTaskDefName()));
+        }
+    }
+
     @VisibleForTesting
     void validateTasks(List<Task> tasks) {
         Preconditions.checkNotNull(tasks, "Tasks object cannot be null");
@@ -582,10 +898,47 @@ public class CassandraExecutionDAO extends CassandraBaseDAO implements Execution
 
     @VisibleForTesting
     String lookupWorkflowIdFromTaskId(String taskId) {
+        return Optional.ofNullable(lookupTask(taskId))
+                .map(TaskLocation::getWorkflowId)
+                .orElse(null);
+    }
+
+    /**
+     * @return the shard the task is created in, from its sequence number in the workflow
+     */
+    @VisibleForTesting
+    int getShardId(Task task) {
+        return DEFAULT_SHARD_ID + Math.max(0, task.getSeq() - 1) / shardSize;
+    }
+
+    /**
+     * @return the shard of the "pending_workflows" or "in_progress_tasks" partition holding the workflow or task,
+     * so that no single partition collects all the entries and tombstones of a type
+     */
+    @VisibleForTesting
+    static int getIndexShard(String id) {
+        return Math.floorMod(id.hashCode(), INDEX_SHARDS);
+    }
+
+    /**
+     * @return where the task is stored, from the cache if it was read or written by this node, null if it does not exist
+     */
+    private TaskLocation locateTask(String taskId) {
+        TaskLocation taskLocation = taskLocations.getIfPresent(taskId);
+        if (taskLocation == null) {
+            taskLocation = lookupTask(taskId);
+            if (taskLocation != null) {
+                taskLocations.put(taskId, taskLocation);
+            }
+        }
+        return taskLocation;
+    }
+
+    private TaskLocation lookupTask(String taskId) {
         try {
             ResultSet resultSet = session.execute(selectTaskLookupStatement.bind(UUID.fromString(taskId)));
             return Optional.ofNullable(resultSet.one())
-                    .map(row -> row.getUUID(WORKFLOW_ID_KEY).toString())
+                    .map(this::toTaskLocation)
                     .orElse(null);
         } catch (Exception e) {
             Monitors.error(CLASS_NAME, "lookupWorkflowIdFromTaskId");
@@ -594,4 +947,30 @@ public class CassandraExecutionDAO extends CassandraBaseDAO implements Execution
             throw new ApplicationException(ApplicationException.Code.BACKEND_ERROR, errorMsg, e);
         }
     }
+
+    /**
+     * The tasks looked up without a shard were created before tasks were sharded, in the default shard.
+     */
+    private TaskLocation toTaskLocation(Row row) {
+        int shardId = row.isNull(SHARD_ID_KEY) ? DEFAULT_SHARD_ID : row.getInt(SHARD_ID_KEY);
+        return new TaskLocation(row.getUUID(WORKFLOW_ID_KEY).toString(), shardId);
+    }
+
+    private static class TaskLocation {
+        private final String workflowId;
+        private final int shardId;
+
+        private TaskLocation(String workflowId, int shardId) {
+            this.workflowId = workflowId;
+            this.shardId = shardId;
+        }
+
+        String getWorkflowId() {
+            return workflowId;
+        }
+
+        int getShardId() {
+            return shardId;
+        }
+    }
 }
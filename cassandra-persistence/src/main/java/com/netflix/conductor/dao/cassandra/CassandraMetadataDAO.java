@@ -0,0 +1,455 @@
+/*
+ * Copyright 2019 Netflix, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.conductor.dao.cassandra;
+
+import com.datastax.driver.core.ConsistencyLevel;
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.Statement;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.netflix.conductor.annotations.Trace;
+import com.netflix.conductor.cassandra.CassandraConfiguration;
+import com.netflix.conductor.common.metadata.events.EventHandler;
+import com.netflix.conductor.common.metadata.tasks.TaskDef;
+import com.netflix.conductor.common.metadata.workflow.WorkflowDef;
+import com.netflix.conductor.core.execution.ApplicationException;
+import com.netflix.conductor.dao.MetadataDAO;
+import com.netflix.conductor.metrics.Monitors;
+import com.netflix.conductor.util.Statements;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static com.netflix.conductor.util.Constants.PAYLOAD_KEY;
+import static com.netflix.conductor.util.Constants.WORKFLOW_DEF_NAME_KEY;
+
+/**
+ * Task definitions, workflow definitions and event handlers stored in Cassandra.
+ * <p>
+ * The task definitions and the event handlers, read for every task scheduled and every event received, are served from
+ * memory. The caches are written through by this node and refreshed from Cassandra every
+ * {@link CassandraConfiguration#getMetadataCacheRefreshSeconds()} for the changes made by the other nodes.
+ * <p>
+ * The conditions on existence (a workflow definition or an event handler created twice, a definition removed while
+ * not there) are checked with lightweight transactions.
+ */
+@Singleton
+@Trace
+public class CassandraMetadataDAO extends CassandraBaseDAO implements MetadataDAO {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CassandraMetadataDAO.class);
+    private static final String CLASS_NAME = CassandraMetadataDAO.class.getSimpleName();
+
+    private final PreparedStatement insertTaskDefStatement;
+    private final PreparedStatement insertWorkflowDefStatement;
+    private final PreparedStatement insertWorkflowDefNameStatement;
+    private final PreparedStatement insertEventHandlerStatement;
+
+    private final PreparedStatement selectTaskDefStatement;
+    private final PreparedStatement selectAllTaskDefsStatement;
+    private final PreparedStatement selectWorkflowDefStatement;
+    private final PreparedStatement selectLatestWorkflowDefStatement;
+    private final PreparedStatement selectAllWorkflowDefVersionsStatement;
+    private final PreparedStatement selectWorkflowDefNamesStatement;
+    private final PreparedStatement selectAllEventHandlersStatement;
+
+    private final PreparedStatement updateWorkflowDefStatement;
+    private final PreparedStatement updateEventHandlerStatement;
+
+    private final PreparedStatement deleteTaskDefStatement;
+    private final PreparedStatement deleteWorkflowDefStatement;
+    private final PreparedStatement deleteWorkflowDefNameStatement;
+    private final PreparedStatement deleteEventHandlerStatement;
+
+    private final Map<String, TaskDef> taskDefCache = new ConcurrentHashMap<>();
+    private final Map<String, EventHandler> eventHandlerCache = new ConcurrentHashMap<>();
+
+    @Inject
+    public CassandraMetadataDAO(Session session, ObjectMapper objectMapper, CassandraConfiguration config, Statements statements) {
+        super(session, objectMapper, config);
+
+        this.insertTaskDefStatement = session.prepare(statements.getInsertTaskDefStatement()).setConsistencyLevel(config.getWriteConsistencyLevel());
+        this.insertWorkflowDefStatement = session.prepare(statements.getInsertWorkflowDefStatement()).setConsistencyLevel(config.getWriteConsistencyLevel()).setSerialConsistencyLevel(ConsistencyLevel.LOCAL_SERIAL);
+        this.insertWorkflowDefNameStatement = session.prepare(statements.getInsertWorkflowDefNameStatement()).setConsistencyLevel(config.getWriteConsistencyLevel());
+        this.insertEventHandlerStatement = session.prepare(statements.getInsertEventHandlerStatement()).setConsistencyLevel(config.getWriteConsistencyLevel()).setSerialConsistencyLevel(ConsistencyLevel.LOCAL_SERIAL);
+
+        this.selectTaskDefStatement = session.prepare(statements.getSelectTaskDefStatement()).setConsistencyLevel(config.getReadConsistencyLevel());
+        this.selectAllTaskDefsStatement = session.prepare(statements.getSelectAllTaskDefsStatement()).setConsistencyLevel(config.getReadConsistencyLevel());
+        this.selectWorkflowDefStatement = session.prepare(statements.getSelectWorkflowDefStatement()).setConsistencyLevel(config.getReadConsistencyLevel());
+        this.selectLatestWorkflowDefStatement = session.prepare(statements.getSelectLatestWorkflowDefStatement()).setConsistencyLevel(config.getReadConsistencyLevel());
+        this.selectAllWorkflowDefVersionsStatement = session.prepare(statements.getSelectAllWorkflowDefVersionsStatement()).setConsistencyLevel(config.getReadConsistencyLevel());
+        this.selectWorkflowDefNamesStatement = session.prepare(statements.getSelectWorkflowDefNamesStatement()).setConsistencyLevel(config.getReadConsistencyLevel());
+        this.selectAllEventHandlersStatement = session.prepare(statements.getSelectAllEventHandlersStatement()).setConsistencyLevel(config.getReadConsistencyLevel());
+
+        this.updateWorkflowDefStatement = session.prepare(statements.getUpdateWorkflowDefStatement()).setConsistencyLevel(config.getWriteConsistencyLevel());
+        this.updateEventHandlerStatement = session.prepare(statements.getUpdateEventHandlerStatement()).setConsistencyLevel(config.getWriteConsistencyLevel()).setSerialConsistencyLevel(ConsistencyLevel.LOCAL_SERIAL);
+
+        this.deleteTaskDefStatement = session.prepare(statements.getDeleteTaskDefStatement()).setConsistencyLevel(config.getWriteConsistencyLevel()).setSerialConsistencyLevel(ConsistencyLevel.LOCAL_SERIAL);
+        this.deleteWorkflowDefStatement = session.prepare(statements.getDeleteWorkflowDefStatement()).setConsistencyLevel(config.getWriteConsistencyLevel()).setSerialConsistencyLevel(ConsistencyLevel.LOCAL_SERIAL);
+        this.deleteWorkflowDefNameStatement = session.prepare(statements.getDeleteWorkflowDefNameStatement()).setConsistencyLevel(config.getWriteConsistencyLevel());
+        this.deleteEventHandlerStatement = session.prepare(statements.getDeleteEventHandlerStatement()).setConsistencyLevel(config.getWriteConsistencyLevel()).setSerialConsistencyLevel(ConsistencyLevel.LOCAL_SERIAL);
+
+        refreshCaches();
+        int cacheRefreshSeconds = config.getMetadataCacheRefreshSeconds() > 0 ? config.getMetadataCacheRefreshSeconds() : CassandraConfiguration.CASSANDRA_METADATA_CACHE_REFRESH_SECONDS_DEFAULT_VALUE;
+        Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("cassandra-metadata-cache-refresh").setDaemon(true).build())
+                .scheduleWithFixedDelay(this::refreshCaches, cacheRefreshSeconds, cacheRefreshSeconds, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public String createTaskDef(TaskDef taskDef) {
+        validate(taskDef);
+        if (taskDef.getCreateTime() == null || taskDef.getCreateTime() < 1) {
+            taskDef.setCreateTime(System.currentTimeMillis());
+        }
+        return insertOrUpdateTaskDef(taskDef);
+    }
+
+    @Override
+    public String updateTaskDef(TaskDef taskDef) {
+        validate(taskDef);
+        taskDef.setUpdateTime(System.currentTimeMillis());
+        return insertOrUpdateTaskDef(taskDef);
+    }
+
+    @Override
+    public TaskDef getTaskDef(String name) {
+        Preconditions.checkNotNull(name, "TaskDef name cannot be null");
+        TaskDef taskDef = taskDefCache.get(name);
+        if (taskDef != null) {
+            return taskDef;
+        }
+        return getTaskDefFromDB(name);
+    }
+
+    @Override
+    public TaskDef getTaskDefFromDB(String name) {
+        Preconditions.checkNotNull(name, "TaskDef name cannot be null");
+        try {
+            recordCassandraDaoRequests("getTaskDef", name, "n/a");
+            TaskDef taskDef = Optional.ofNullable(session.execute(selectTaskDefStatement.bind(name)).one())
+                    .map(row -> readValue(row.getString(PAYLOAD_KEY), TaskDef.class))
+                    .orElse(null);
+            if (taskDef != null) {
+                taskDefCache.put(name, taskDef);
+            }
+            return taskDef;
+        } catch (Exception e) {
+            Monitors.error(CLASS_NAME, "getTaskDef");
+            String errorMsg = String.format("Failed to get task definition: %s", name);
+            LOGGER.error(errorMsg, e);
+            throw new ApplicationException(ApplicationException.Code.BACKEND_ERROR, errorMsg, e);
+        }
+    }
+
+    @Override
+    public List<TaskDef> getAllTaskDefs() {
+        try {
+            recordCassandraDaoRequests("getAllTaskDefs");
+            return readAll(selectAllTaskDefsStatement.bind(), TaskDef.class);
+        } catch (Exception e) {
+            Monitors.error(CLASS_NAME, "getAllTaskDefs");
+            String errorMsg = "Failed to get all task definitions";
+            LOGGER.error(errorMsg, e);
+            throw new ApplicationException(ApplicationException.Code.BACKEND_ERROR, errorMsg, e);
+        }
+    }
+
+    @Override
+    public void removeTaskDef(String name) {
+        Preconditions.checkNotNull(name, "TaskDef name cannot be null");
+        boolean removed;
+        try {
+            recordCassandraDaoRequests("removeTaskDef", name, "n/a");
+            removed = session.execute(deleteTaskDefStatement.bind(name)).wasApplied();
+            taskDefCache.remove(name);
+        } catch (Exception e) {
+            Monitors.error(CLASS_NAME, "removeTaskDef");
+            String errorMsg = String.format("Failed to remove task definition: %s", name);
+            LOGGER.error(errorMsg, e);
+            throw new ApplicationException(ApplicationException.Code.BACKEND_ERROR, errorMsg, e);
+        }
+        if (!removed) {
+            throw new ApplicationException(ApplicationException.Code.NOT_FOUND, "No such task definition");
+        }
+    }
+
+    @Override
+    public void create(WorkflowDef def) {
+        validate(def);
+        if (def.getCreateTime() == null || def.getCreateTime() == 0) {
+            def.setCreateTime(System.currentTimeMillis());
+        }
+        boolean created;
+        try {
+            recordCassandraDaoRequests("createWorkflowDef", "n/a", def.getName());
+            created = session.execute(insertWorkflowDefStatement.bind(def.getName(), def.getVersion(), toJson(def))).wasApplied();
+            if (created) {
+                session.execute(insertWorkflowDefNameStatement.bind(def.getName()));
+            }
+        } catch (Exception e) {
+            Monitors.error(CLASS_NAME, "create");
+            String errorMsg = String.format("Failed to create workflow definition: %s", def.key());
+            LOGGER.error(errorMsg, e);
+            throw new ApplicationException(ApplicationException.Code.BACKEND_ERROR, errorMsg, e);
+        }
+        if (!created) {
+            throw new ApplicationException(ApplicationException.Code.CONFLICT, "Workflow with " + def.key() + " already exists!");
+        }
+    }
+
+    @Override
+    public void update(WorkflowDef def) {
+        validate(def);
+        def.setUpdateTime(System.currentTimeMillis());
+        try {
+            recordCassandraDaoRequests("updateWorkflowDef", "n/a", def.getName());
+            session.execute(updateWorkflowDefStatement.bind(toJson(def), def.getName(), def.getVersion()));
+            session.execute(insertWorkflowDefNameStatement.bind(def.getName()));
+        } catch (Exception e) {
+            Monitors.error(CLASS_NAME, "update");
+            String errorMsg = String.format("Failed to update workflow definition: %s", def.key());
+            LOGGER.error(errorMsg, e);
+            throw new ApplicationException(ApplicationException.Code.BACKEND_ERROR, errorMsg, e);
+        }
+    }
+
+    @Override
+    public Optional<WorkflowDef> getLatest(String name) {
+        try {
+            recordCassandraDaoRequests("getLatestWorkflowDef", "n/a", name);
+            return Optional.ofNullable(session.execute(selectLatestWorkflowDefStatement.bind(name)).one())
+                    .map(row -> readValue(row.getString(PAYLOAD_KEY), WorkflowDef.class));
+        } catch (Exception e) {
+            Monitors.error(CLASS_NAME, "getLatest");
+            String errorMsg = String.format("Failed to get the latest workflow definition: %s", name);
+            LOGGER.error(errorMsg, e);
+            throw new ApplicationException(ApplicationException.Code.BACKEND_ERROR, errorMsg, e);
+        }
+    }
+
+    @Override
+    public Optional<WorkflowDef> get(String name, int version) {
+        try {
+            recordCassandraDaoRequests("getWorkflowDef", "n/a", name);
+            return Optional.ofNullable(session.execute(selectWorkflowDefStatement.bind(name, version)).one())
+                    .map(row -> readValue(row.getString(PAYLOAD_KEY), WorkflowDef.class));
+        } catch (Exception e) {
+            Monitors.error(CLASS_NAME, "get");
+            String errorMsg = String.format("Failed to get workflow definition: %s version: %d", name, version);
+            LOGGER.error(errorMsg, e);
+            throw new ApplicationException(ApplicationException.Code.BACKEND_ERROR, errorMsg, e);
+        }
+    }
+
+    /**
+     * The name of the workflow definition is removed with its last version.
+     */
+    @Override
+    public void removeWorkflowDef(String name, Integer version) {
+        boolean removed;
+        try {
+            recordCassandraDaoRequests("removeWorkflowDef", "n/a", name);
+            removed = session.execute(deleteWorkflowDefStatement.bind(name, version)).wasApplied();
+            if (removed && !getLatest(name).isPresent()) {
+                session.execute(deleteWorkflowDefNameStatement.bind(name));
+            }
+        } catch (ApplicationException e) {
+            throw e;
+        } catch (Exception e) {
+            Monitors.error(CLASS_NAME, "removeWorkflowDef");
+            String errorMsg = String.format("Failed to remove workflow definition: %s version: %d", name, version);
+            LOGGER.error(errorMsg, e);
+            throw new ApplicationException(ApplicationException.Code.BACKEND_ERROR, errorMsg, e);
+        }
+        if (!removed) {
+            throw new ApplicationException(ApplicationException.Code.NOT_FOUND,
+                    String.format("No such workflow definition: %s version: %d", name, version));
+        }
+    }
+
+    @Override
+    public List<String> findAll() {
+        try {
+            recordCassandraDaoRequests("findAllWorkflowDefs");
+            return session.execute(selectWorkflowDefNamesStatement.bind()).all().stream()
+                    .map(row -> row.getString(WORKFLOW_DEF_NAME_KEY))
+                    .collect(Collectors.toList());
+        } catch (Exception e) {
+            Monitors.error(CLASS_NAME, "findAll");
+            String errorMsg = "Failed to get the names of the workflow definitions";
+            LOGGER.error(errorMsg, e);
+            throw new ApplicationException(ApplicationException.Code.BACKEND_ERROR, errorMsg, e);
+        }
+    }
+
+    @Override
+    public List<WorkflowDef> getAll() {
+        return findAll().stream()
+                .flatMap(name -> getAllVersions(name).stream())
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<WorkflowDef> getAllVersions(String name) {
+        try {
+            recordCassandraDaoRequests("getAllWorkflowDefVersions", "n/a", name);
+            return readAll(selectAllWorkflowDefVersionsStatement.bind(name), WorkflowDef.class);
+        } catch (Exception e) {
+            Monitors.error(CLASS_NAME, "getAllVersions");
+            String errorMsg = String.format("Failed to get the versions of workflow definition: %s", name);
+            LOGGER.error(errorMsg, e);
+            throw new ApplicationException(ApplicationException.Code.BACKEND_ERROR, errorMsg, e);
+        }
+    }
+
+    @Override
+    public void addEventHandler(EventHandler eventHandler) {
+        Preconditions.checkNotNull(eventHandler.getName(), "EventHandler name cannot be null");
+        boolean added;
+        try {
+            recordCassandraDaoEventRequests("addEventHandler", eventHandler.getEvent());
+            added = session.execute(insertEventHandlerStatement.bind(eventHandler.getName(), toJson(eventHandler))).wasApplied();
+            if (added) {
+                eventHandlerCache.put(eventHandler.getName(), eventHandler);
+            }
+        } catch (Exception e) {
+            Monitors.error(CLASS_NAME, "addEventHandler");
+            String errorMsg = String.format("Failed to add event handler: %s", eventHandler.getName());
+            LOGGER.error(errorMsg, e);
+            throw new ApplicationException(ApplicationException.Code.BACKEND_ERROR, errorMsg, e);
+        }
+        if (!added) {
+            throw new ApplicationException(ApplicationException.Code.CONFLICT,
+                    "EventHandler with name " + eventHandler.getName() + " already exists!");
+        }
+    }
+
+    @Override
+    public void updateEventHandler(EventHandler eventHandler) {
+        Preconditions.checkNotNull(eventHandler.getName(), "EventHandler name cannot be null");
+        boolean updated;
+        try {
+            recordCassandraDaoEventRequests("updateEventHandler", eventHandler.getEvent());
+            updated = session.execute(updateEventHandlerStatement.bind(toJson(eventHandler), eventHandler.getName())).wasApplied();
+            if (updated) {
+                eventHandlerCache.put(eventHandler.getName(), eventHandler);
+            }
+        } catch (Exception e) {
+            Monitors.error(CLASS_NAME, "updateEventHandler");
+            String errorMsg = String.format("Failed to update event handler: %s", eventHandler.getName());
+            LOGGER.error(errorMsg, e);
+            throw new ApplicationException(ApplicationException.Code.BACKEND_ERROR, errorMsg, e);
+        }
+        if (!updated) {
+            throw new ApplicationException(ApplicationException.Code.NOT_FOUND,
+                    "EventHandler with name " + eventHandler.getName() + " not found!");
+        }
+    }
+
+    @Override
+    public void removeEventHandlerStatus(String name) {
+        boolean removed;
+        try {
+            recordCassandraDaoRequests("removeEventHandler");
+            removed = session.execute(deleteEventHandlerStatement.bind(name)).wasApplied();
+            eventHandlerCache.remove(name);
+        } catch (Exception e) {
+            Monitors.error(CLASS_NAME, "removeEventHandlerStatus");
+            String errorMsg = String.format("Failed to remove event handler: %s", name);
+            LOGGER.error(errorMsg, e);
+            throw new ApplicationException(ApplicationException.Code.BACKEND_ERROR, errorMsg, e);
+        }
+        if (!removed) {
+            throw new ApplicationException(ApplicationException.Code.NOT_FOUND, "EventHandler with name " + name + " not found!");
+        }
+    }
+
+    @Override
+    public List<EventHandler> getEventHandlers() {
+        return new ArrayList<>(eventHandlerCache.values());
+    }
+
+    @Override
+    public List<EventHandler> getEventHandlersForEvent(String event, boolean activeOnly) {
+        return eventHandlerCache.values().stream()
+                .filter(eventHandler -> eventHandler.getEvent().equals(event))
+                .filter(eventHandler -> !activeOnly || eventHandler.isActive())
+                .collect(Collectors.toList());
+    }
+
+    private String insertOrUpdateTaskDef(TaskDef taskDef) {
+        try {
+            recordCassandraDaoRequests("insertOrUpdateTaskDef", taskDef.getName(), "n/a");
+            session.execute(insertTaskDefStatement.bind(taskDef.getName(), toJson(taskDef)));
+            taskDefCache.put(taskDef.getName(), taskDef);
+            return taskDef.getName();
+        } catch (Exception e) {
+            Monitors.error(CLASS_NAME, "insertOrUpdateTaskDef");
+            String errorMsg = String.format("Failed to insert or update task definition: %s", taskDef.getName());
+            LOGGER.error(errorMsg, e);
+            throw new ApplicationException(ApplicationException.Code.BACKEND_ERROR, errorMsg, e);
+        }
+    }
+
+    /**
+     * Replaces the cached task definitions and event handlers with the ones in Cassandra.
+     */
+    private void refreshCaches() {
+        try {
+            Map<String, TaskDef> taskDefs = new HashMap<>();
+            readAll(selectAllTaskDefsStatement.bind(), TaskDef.class).forEach(taskDef -> taskDefs.put(taskDef.getName(), taskDef));
+            Map<String, EventHandler> eventHandlers = new HashMap<>();
+            readAll(selectAllEventHandlersStatement.bind(), EventHandler.class).forEach(eventHandler -> eventHandlers.put(eventHandler.getName(), eventHandler));
+
+            taskDefCache.keySet().retainAll(taskDefs.keySet());
+            taskDefCache.putAll(taskDefs);
+            eventHandlerCache.keySet().retainAll(eventHandlers.keySet());
+            eventHandlerCache.putAll(eventHandlers);
+            LOGGER.debug("Refreshed {} task definitions and {} event handlers", taskDefs.size(), eventHandlers.size());
+        } catch (Exception e) {
+            Monitors.error(CLASS_NAME, "refreshCaches");
+            LOGGER.error("Failed to refresh the task definitions and event handlers", e);
+        }
+    }
+
+    private <T> List<T> readAll(Statement statement, Class<T> clazz) {
+        return session.execute(statement).all().stream()
+                .map(row -> readValue(row.getString(PAYLOAD_KEY), clazz))
+                .collect(Collectors.toList());
+    }
+
+    private void validate(TaskDef taskDef) {
+        Preconditions.checkNotNull(taskDef, "TaskDef object cannot be null");
+        Preconditions.checkNotNull(taskDef.getName(), "TaskDef name cannot be null");
+    }
+
+    private void validate(WorkflowDef def) {
+        Preconditions.checkNotNull(def, "WorkflowDef object cannot be null");
+        Preconditions.checkNotNull(def.getName(), "WorkflowDef name cannot be null");
+    }
+}
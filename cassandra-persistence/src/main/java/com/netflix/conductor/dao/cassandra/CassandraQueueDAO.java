@@ -0,0 +1,534 @@
+/*
+ * Copyright 2019 Netflix, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.conductor.dao.cassandra;
+
+import com.datastax.driver.core.ConsistencyLevel;
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.ResultSetFuture;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Session;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.netflix.conductor.annotations.Trace;
+import com.netflix.conductor.cassandra.CassandraConfiguration;
+import com.netflix.conductor.core.events.queue.Message;
+import com.netflix.conductor.core.execution.ApplicationException;
+import com.netflix.conductor.dao.QueueDAO;
+import com.netflix.conductor.metrics.Monitors;
+import com.netflix.conductor.util.Statements;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static com.netflix.conductor.util.Constants.BUCKET_KEY;
+import static com.netflix.conductor.util.Constants.DELIVER_ON_KEY;
+import static com.netflix.conductor.util.Constants.ENTITY_TYPE_QUEUE;
+import static com.netflix.conductor.util.Constants.LEASE_UNTIL_KEY;
+import static com.netflix.conductor.util.Constants.MESSAGE_ID_KEY;
+import static com.netflix.conductor.util.Constants.PAYLOAD_KEY;
+import static com.netflix.conductor.util.Constants.PRIORITY_KEY;
+import static com.netflix.conductor.util.Constants.QUEUE_NAME_KEY;
+
+/**
+ * Queues stored in Cassandra.
+ * <p>
+ * The messages of a queue are partitioned by the time they are due, in buckets of
+ * {@link CassandraConfiguration#getQueueBucketSizeSeconds()}: a poll only reads the partitions of the messages due,
+ * no partition grows with the size of the queue, and the tombstones of the delivered messages are left behind in
+ * partitions no longer read. Within a partition, only the messages due and not leased are returned. The buckets holding
+ * messages are listed in the queue_buckets table, the bucket of each message in the queue_message_index table.
+ * <p>
+ * A message is taken with a lightweight transaction setting its lease, on the condition that the lease did not change
+ * since it was read, so that only one of the consumers polling the same message gets it. A message not acknowledged
+ * before its lease expires is delivered again, there are no unacknowledged messages to process.
+ * <p>
+ * The index is only changed with lightweight transactions on the condition that the message is still in the bucket it
+ * was read in, so that a message moved to another bucket and removed at the same time does not leave a row behind
+ * that nothing points to, and that would be delivered forever.
+ * <p>
+ * The size of a queue is kept in a counter, changed only by the lightweight transactions adding a message to, or
+ * removing it from, the index.
+ */
+@Trace
+public class CassandraQueueDAO extends CassandraBaseDAO implements QueueDAO {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CassandraQueueDAO.class);
+    private static final String CLASS_NAME = CassandraQueueDAO.class.getSimpleName();
+
+    private final PreparedStatement insertQueueMessageStatement;
+    private final PreparedStatement insertQueueMessageIndexStatement;
+    private final PreparedStatement insertQueueBucketStatement;
+
+    private final PreparedStatement selectQueueMessagesStatement;
+    private final PreparedStatement selectDueQueueMessagesStatement;
+    private final PreparedStatement selectFirstQueueMessageStatement;
+    private final PreparedStatement selectQueueMessageStatement;
+    private final PreparedStatement selectQueueMessageIndexStatement;
+    private final PreparedStatement selectQueueBucketsStatement;
+    private final PreparedStatement selectAllQueueBucketsStatement;
+    private final PreparedStatement selectQueueNamesStatement;
+    private final PreparedStatement selectCounterStatement;
+
+    private final PreparedStatement updateQueueMessageLeaseStatement;
+    private final PreparedStatement updateQueueMessageUnackTimeoutStatement;
+    private final PreparedStatement updateQueueMessageIndexStatement;
+    private final PreparedStatement updateCounterStatement;
+
+    private final PreparedStatement deleteQueueMessageStatement;
+    private final PreparedStatement deleteQueueMessageIndexStatement;
+    private final PreparedStatement deleteQueueBucketStatement;
+
+    private final long bucketSizeMs;
+    private final long unackTimeoutMs;
+    private final int pollIntervalMs;
+
+    @Inject
+    public CassandraQueueDAO(Session session, ObjectMapper objectMapper, CassandraConfiguration config, Statements statements) {
+        super(session, objectMapper, config);
+
+        this.insertQueueMessageStatement = session.prepare(statements.getInsertQueueMessageStatement()).setConsistencyLevel(config.getWriteConsistencyLevel());
+        this.insertQueueMessageIndexStatement = session.prepare(statements.getInsertQueueMessageIndexStatement()).setConsistencyLevel(config.getWriteConsistencyLevel()).setSerialConsistencyLevel(ConsistencyLevel.LOCAL_SERIAL);
+        this.insertQueueBucketStatement = session.prepare(statements.getInsertQueueBucketStatement()).setConsistencyLevel(config.getWriteConsistencyLevel());
+
+        this.selectQueueMessagesStatement = session.prepare(statements.getSelectQueueMessagesStatement()).setConsistencyLevel(config.getReadConsistencyLevel());
+        this.selectDueQueueMessagesStatement = session.prepare(statements.getSelectDueQueueMessagesStatement()).setConsistencyLevel(config.getReadConsistencyLevel());
+        this.selectFirstQueueMessageStatement = session.prepare(statements.getSelectFirstQueueMessageStatement()).setConsistencyLevel(config.getReadConsistencyLevel());
+        this.selectQueueMessageStatement = session.prepare(statements.getSelectQueueMessageStatement()).setConsistencyLevel(config.getReadConsistencyLevel());
+        this.selectQueueMessageIndexStatement = session.prepare(statements.getSelectQueueMessageIndexStatement()).setConsistencyLevel(config.getReadConsistencyLevel());
+        this.selectQueueBucketsStatement = session.prepare(statements.getSelectQueueBucketsStatement()).setConsistencyLevel(config.getReadConsistencyLevel());
+        this.selectAllQueueBucketsStatement = session.prepare(statements.getSelectAllQueueBucketsStatement()).setConsistencyLevel(config.getReadConsistencyLevel());
+        this.selectQueueNamesStatement = session.prepare(statements.getSelectQueueNamesStatement()).setConsistencyLevel(config.getReadConsistencyLevel());
+        this.selectCounterStatement = session.prepare(statements.getSelectCounterStatement()).setConsistencyLevel(config.getReadConsistencyLevel());
+
+        this.updateQueueMessageLeaseStatement = session.prepare(statements.getUpdateQueueMessageLeaseStatement()).setConsistencyLevel(config.getWriteConsistencyLevel()).setSerialConsistencyLevel(ConsistencyLevel.LOCAL_SERIAL);
+        this.updateQueueMessageUnackTimeoutStatement = session.prepare(statements.getUpdateQueueMessageUnackTimeoutStatement()).setConsistencyLevel(config.getWriteConsistencyLevel()).setSerialConsistencyLevel(ConsistencyLevel.LOCAL_SERIAL);
+        this.updateQueueMessageIndexStatement = session.prepare(statements.getUpdateQueueMessageIndexStatement()).setConsistencyLevel(config.getWriteConsistencyLevel()).setSerialConsistencyLevel(ConsistencyLevel.LOCAL_SERIAL);
+        this.updateCounterStatement = session.prepare(statements.getUpdateCounterStatement()).setConsistencyLevel(config.getWriteConsistencyLevel());
+
+        this.deleteQueueMessageStatement = session.prepare(statements.getDeleteQueueMessageStatement()).setConsistencyLevel(config.getWriteConsistencyLevel());
+        this.deleteQueueMessageIndexStatement = session.prepare(statements.getDeleteQueueMessageIndexStatement()).setConsistencyLevel(config.getWriteConsistencyLevel()).setSerialConsistencyLevel(ConsistencyLevel.LOCAL_SERIAL);
+        this.deleteQueueBucketStatement = session.prepare(statements.getDeleteQueueBucketStatement()).setConsistencyLevel(config.getWriteConsistencyLevel());
+
+        int bucketSizeSeconds = config.getQueueBucketSizeSeconds() > 0 ? config.getQueueBucketSizeSeconds() : CassandraConfiguration.CASSANDRA_QUEUE_BUCKET_SIZE_SECONDS_DEFAULT_VALUE;
+        this.bucketSizeMs = TimeUnit.SECONDS.toMillis(bucketSizeSeconds);
+        this.unackTimeoutMs = config.getQueueUnackTimeoutMs() > 0 ? config.getQueueUnackTimeoutMs() : CassandraConfiguration.CASSANDRA_QUEUE_UNACK_TIMEOUT_MS_DEFAULT_VALUE;
+        this.pollIntervalMs = config.getQueuePollIntervalMs() > 0 ? config.getQueuePollIntervalMs() : CassandraConfiguration.CASSANDRA_QUEUE_POLL_INTERVAL_MS_DEFAULT_VALUE;
+    }
+
+    @Override
+    public void push(String queueName, String id, long offsetTimeInSecond) {
+        push(queueName, id, 0, offsetTimeInSecond);
+    }
+
+    @Override
+    public void push(String queueName, String id, int priority, long offsetTimeInSecond) {
+        pushMessage(queueName, id, priority, null, offsetTimeInSecond);
+    }
+
+    @Override
+    public void push(String queueName, List<Message> messages) {
+        messages.forEach(message -> pushMessage(queueName, message.getId(), message.getPriority(), message.getPayload(), 0));
+    }
+
+    @Override
+    public boolean pushIfNotExists(String queueName, String id, long offsetTimeInSecond) {
+        return pushIfNotExists(queueName, id, 0, offsetTimeInSecond);
+    }
+
+    /**
+     * The message is written before the index, so that the index never points to a missing row. The index is read
+     * first not to overwrite a message in the queue, and the row written is deleted if the message was pushed meanwhile.
+     */
+    @Override
+    public boolean pushIfNotExists(String queueName, String id, int priority, long offsetTimeInSecond) {
+        Long writtenBucket = null;
+        try {
+            recordCassandraDaoRequests("pushIfNotExists", queueName, "n/a");
+            if (session.execute(selectQueueMessageIndexStatement.bind(queueName, id)).one() != null) {
+                return false;
+            }
+            long deliverOn = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(offsetTimeInSecond);
+            long bucket = getBucket(deliverOn);
+            writeMessage(queueName, bucket, id, deliverOn, priority, null);
+            writtenBucket = bucket;
+            ResultSet resultSet = session.execute(insertQueueMessageIndexStatement.bind(queueName, id, bucket));
+            if (!resultSet.wasApplied()) {
+                Long currentBucket = getCurrentBucket(resultSet.one());
+                if (currentBucket == null || currentBucket != bucket) {
+                    session.execute(deleteQueueMessageStatement.bind(queueName, bucket, id));
+                }
+                return false;
+            }
+            session.execute(updateCounterStatement.bind(1L, ENTITY_TYPE_QUEUE, queueName));
+            return true;
+        } catch (Exception e) {
+            if (writtenBucket != null) {
+                deleteUnindexedMessage(queueName, writtenBucket, id);
+            }
+            Monitors.error(CLASS_NAME, "pushIfNotExists");
+            String errorMsg = String.format("Failed to push message: %s to queue: %s", id, queueName);
+            LOGGER.error(errorMsg, e);
+            throw new ApplicationException(ApplicationException.Code.BACKEND_ERROR, errorMsg, e);
+        }
+    }
+
+    @Override
+    public List<String> pop(String queueName, int count, int timeout) {
+        return pollMessages(queueName, count, timeout).stream()
+                .map(Message::getId)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Leases the messages due, until there are <code>count</code> of them or the <code>timeout</code> expires.
+     * The buckets are read from the oldest, the messages of a bucket by priority.
+     */
+    @Override
+    public List<Message> pollMessages(String queueName, int count, int timeout) {
+        try {
+            recordCassandraDaoRequests("pollMessages", queueName, "n/a");
+            long start = System.currentTimeMillis();
+            List<Message> messages = new ArrayList<>();
+            while (true) {
+                messages.addAll(leaseMessages(queueName, count - messages.size()));
+                long remainingMs = timeout - (System.currentTimeMillis() - start);
+                if (messages.size() >= count || remainingMs <= 0 || Thread.currentThread().isInterrupted()) {
+                    return messages;
+                }
+                Uninterruptibles.sleepUninterruptibly(Math.min(pollIntervalMs, remainingMs), TimeUnit.MILLISECONDS);
+            }
+        } catch (Exception e) {
+            Monitors.error(CLASS_NAME, "pollMessages");
+            String errorMsg = String.format("Failed to poll messages from queue: %s", queueName);
+            LOGGER.error(errorMsg, e);
+            throw new ApplicationException(ApplicationException.Code.BACKEND_ERROR, errorMsg, e);
+        }
+    }
+
+    @Override
+    public void remove(String queueName, String messageId) {
+        removeMessage(queueName, messageId);
+    }
+
+    @Override
+    public int getSize(String queueName) {
+        try {
+            recordCassandraDaoRequests("getSize", queueName, "n/a");
+            return (int) readCounter(selectCounterStatement, ENTITY_TYPE_QUEUE, queueName);
+        } catch (Exception e) {
+            Monitors.error(CLASS_NAME, "getSize");
+            String errorMsg = String.format("Failed to get the size of queue: %s", queueName);
+            LOGGER.error(errorMsg, e);
+            throw new ApplicationException(ApplicationException.Code.BACKEND_ERROR, errorMsg, e);
+        }
+    }
+
+    @Override
+    public boolean ack(String queueName, String messageId) {
+        return removeMessage(queueName, messageId);
+    }
+
+    /**
+     * Sets the lease of the message, it is delivered again once the <code>unackTimeout</code> expires.
+     */
+    @Override
+    public boolean setUnackTimeout(String queueName, String messageId, long unackTimeout) {
+        try {
+            recordCassandraDaoRequests("setUnackTimeout", queueName, "n/a");
+            Row indexRow = session.execute(selectQueueMessageIndexStatement.bind(queueName, messageId)).one();
+            if (indexRow == null) {
+                return false;
+            }
+            long leaseUntil = System.currentTimeMillis() + unackTimeout;
+            return session.execute(updateQueueMessageUnackTimeoutStatement.bind(leaseUntil, queueName, indexRow.getLong(BUCKET_KEY), messageId)).wasApplied();
+        } catch (Exception e) {
+            Monitors.error(CLASS_NAME, "setUnackTimeout");
+            String errorMsg = String.format("Failed to set the unack timeout of message: %s in queue: %s", messageId, queueName);
+            LOGGER.error(errorMsg, e);
+            throw new ApplicationException(ApplicationException.Code.BACKEND_ERROR, errorMsg, e);
+        }
+    }
+
+    @Override
+    public void flush(String queueName) {
+        try {
+            recordCassandraDaoRequests("flush", queueName, "n/a");
+            for (Row bucketRow : session.execute(selectAllQueueBucketsStatement.bind(queueName)).all()) {
+                long bucket = bucketRow.getLong(BUCKET_KEY);
+                session.execute(selectQueueMessagesStatement.bind(queueName, bucket)).all()
+                        .forEach(row -> removeMessage(queueName, row.getString(MESSAGE_ID_KEY)));
+                session.execute(deleteQueueBucketStatement.bind(queueName, bucket));
+            }
+        } catch (ApplicationException e) {
+            throw e;
+        } catch (Exception e) {
+            Monitors.error(CLASS_NAME, "flush");
+            String errorMsg = String.format("Failed to flush queue: %s", queueName);
+            LOGGER.error(errorMsg, e);
+            throw new ApplicationException(ApplicationException.Code.BACKEND_ERROR, errorMsg, e);
+        }
+    }
+
+    @Override
+    public Map<String, Long> queuesDetail() {
+        Map<String, Long> detail = new HashMap<>();
+        getQueueNames().forEach(queueName -> detail.put(queueName, (long) getSize(queueName)));
+        return detail;
+    }
+
+    /**
+     * The messages not acknowledged are counted reading all the messages of the queues.
+     */
+    @Override
+    public Map<String, Map<String, Map<String, Long>>> queuesDetailVerbose() {
+        Map<String, Map<String, Map<String, Long>>> detail = new HashMap<>();
+        for (String queueName : getQueueNames()) {
+            Map<String, Long> shardDetail = new HashMap<>();
+            shardDetail.put("size", (long) getSize(queueName));
+            shardDetail.put("uacked", getUnackedCount(queueName));
+            Map<String, Map<String, Long>> queueDetail = new HashMap<>();
+            queueDetail.put("a", shardDetail);
+            detail.put(queueName, queueDetail);
+        }
+        return detail;
+    }
+
+    /**
+     * Moves the message to the bucket of its new delivery time, it is no longer leased.
+     */
+    @Override
+    public boolean setOffsetTime(String queueName, String id, long offsetTimeInSecond) {
+        try {
+            recordCassandraDaoRequests("setOffsetTime", queueName, "n/a");
+            Row indexRow = session.execute(selectQueueMessageIndexStatement.bind(queueName, id)).one();
+            if (indexRow == null) {
+                return false;
+            }
+            Row row = session.execute(selectQueueMessageStatement.bind(queueName, indexRow.getLong(BUCKET_KEY), id)).one();
+            if (row == null) {
+                return false;
+            }
+            pushMessage(queueName, id, row.getInt(PRIORITY_KEY), row.getString(PAYLOAD_KEY), offsetTimeInSecond);
+            return true;
+        } catch (ApplicationException e) {
+            throw e;
+        } catch (Exception e) {
+            Monitors.error(CLASS_NAME, "setOffsetTime");
+            String errorMsg = String.format("Failed to set the offset time of message: %s in queue: %s", id, queueName);
+            LOGGER.error(errorMsg, e);
+            throw new ApplicationException(ApplicationException.Code.BACKEND_ERROR, errorMsg, e);
+        }
+    }
+
+    @Override
+    public boolean exists(String queueName, String id) {
+        try {
+            recordCassandraDaoRequests("exists", queueName, "n/a");
+            return session.execute(selectQueueMessageIndexStatement.bind(queueName, id)).one() != null;
+        } catch (Exception e) {
+            Monitors.error(CLASS_NAME, "exists");
+            String errorMsg = String.format("Failed to check whether message: %s is in queue: %s", id, queueName);
+            LOGGER.error(errorMsg, e);
+            throw new ApplicationException(ApplicationException.Code.BACKEND_ERROR, errorMsg, e);
+        }
+    }
+
+    @VisibleForTesting
+    long getBucket(long deliverOn) {
+        return deliverOn / bucketSizeMs;
+    }
+
+    /**
+     * Adds the message to the queue, or replaces it if it is already in the queue.
+     * <p>
+     * The message is written to its bucket before the index, so that the index never points to a missing row. A message
+     * already in the queue is then moved to the new bucket, on the condition that the index still points to the bucket
+     * read. When the condition fails, the message was removed or moved by another call meanwhile, and the row written
+     * is deleted unless the index points to it.
+     */
+    private void pushMessage(String queueName, String id, int priority, String payload, long offsetTimeInSecond) {
+        Long writtenBucket = null;
+        try {
+            recordCassandraDaoRequests("push", queueName, "n/a");
+            long deliverOn = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(offsetTimeInSecond);
+            long bucket = getBucket(deliverOn);
+            writeMessage(queueName, bucket, id, deliverOn, priority, payload);
+            writtenBucket = bucket;
+            ResultSet resultSet = session.execute(insertQueueMessageIndexStatement.bind(queueName, id, bucket));
+            if (resultSet.wasApplied()) {
+                session.execute(updateCounterStatement.bind(1L, ENTITY_TYPE_QUEUE, queueName));
+                return;
+            }
+
+            // the message is in the queue, it is moved to its new bucket before being removed from the previous one
+            long previousBucket = resultSet.one().getLong(BUCKET_KEY);
+            // also when the bucket does not change, to find out whether the message is still in the queue
+            resultSet = session.execute(updateQueueMessageIndexStatement.bind(bucket, queueName, id, previousBucket));
+            if (resultSet.wasApplied()) {
+                if (previousBucket != bucket) {
+                    session.execute(deleteQueueMessageStatement.bind(queueName, previousBucket, id));
+                }
+            } else {
+                Long currentBucket = getCurrentBucket(resultSet.one());
+                if (currentBucket == null || currentBucket != bucket) {
+                    session.execute(deleteQueueMessageStatement.bind(queueName, bucket, id));
+                }
+            }
+        } catch (Exception e) {
+            if (writtenBucket != null) {
+                deleteUnindexedMessage(queueName, writtenBucket, id);
+            }
+            Monitors.error(CLASS_NAME, "push");
+            String errorMsg = String.format("Failed to push message: %s to queue: %s", id, queueName);
+            LOGGER.error(errorMsg, e);
+            throw new ApplicationException(ApplicationException.Code.BACKEND_ERROR, errorMsg, e);
+        }
+    }
+
+    /**
+     * Deletes a message written by a push that failed, unless the index points to it.
+     */
+    private void deleteUnindexedMessage(String queueName, long bucket, String id) {
+        try {
+            Row indexRow = session.execute(selectQueueMessageIndexStatement.bind(queueName, id)).one();
+            if (indexRow == null || indexRow.getLong(BUCKET_KEY) != bucket) {
+                session.execute(deleteQueueMessageStatement.bind(queueName, bucket, id));
+            }
+        } catch (Exception e) {
+            LOGGER.warn("Failed to delete message: {} from bucket: {} of queue: {}", id, bucket, queueName, e);
+        }
+    }
+
+    private void writeMessage(String queueName, long bucket, String id, long deliverOn, int priority, String payload) {
+        ResultSetFuture messageFuture = session.executeAsync(insertQueueMessageStatement.bind(queueName, bucket, id, deliverOn, priority, payload));
+        ResultSetFuture bucketFuture = session.executeAsync(insertQueueBucketStatement.bind(queueName, bucket));
+        messageFuture.getUninterruptibly();
+        bucketFuture.getUninterruptibly();
+    }
+
+    /**
+     * @return the messages due that this call leased, at most <code>count</code>
+     */
+    private List<Message> leaseMessages(String queueName, int count) {
+        List<Message> messages = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        long currentBucket = getBucket(now);
+        for (Row bucketRow : session.execute(selectQueueBucketsStatement.bind(queueName, currentBucket)).all()) {
+            long bucket = bucketRow.getLong(BUCKET_KEY);
+            List<Row> rows = session.execute(selectDueQueueMessagesStatement.bind(queueName, bucket, now, now)).all();
+            if (rows.isEmpty()) {
+                // the previous bucket may still receive messages pushed by a node with a late clock
+                if (bucket < currentBucket - 1 && session.execute(selectFirstQueueMessageStatement.bind(queueName, bucket)).one() == null) {
+                    session.execute(deleteQueueBucketStatement.bind(queueName, bucket));
+                }
+                continue;
+            }
+
+            List<Row> dueRows = rows.stream()
+                    .sorted(Comparator.comparingInt((Row row) -> row.getInt(PRIORITY_KEY)).reversed()
+                            .thenComparingLong(row -> row.getLong(DELIVER_ON_KEY)))
+                    .collect(Collectors.toList());
+            for (Row row : dueRows) {
+                if (messages.size() >= count) {
+                    return messages;
+                }
+                String messageId = row.getString(MESSAGE_ID_KEY);
+                if (session.execute(updateQueueMessageLeaseStatement.bind(now + unackTimeoutMs, queueName, bucket, messageId, row.getLong(LEASE_UNTIL_KEY))).wasApplied()) {
+                    messages.add(new Message(messageId, row.getString(PAYLOAD_KEY), null, row.getInt(PRIORITY_KEY)));
+                }
+            }
+        }
+        return messages;
+    }
+
+    /**
+     * The size of the queue is decremented only if the message was removed from the index by this call. The index is
+     * removed on the condition that the message is still in the bucket read, and read again when it was moved meanwhile.
+     */
+    private boolean removeMessage(String queueName, String messageId) {
+        try {
+            recordCassandraDaoRequests("remove", queueName, "n/a");
+            Row indexRow = session.execute(selectQueueMessageIndexStatement.bind(queueName, messageId)).one();
+            Long bucket = indexRow == null ? null : indexRow.getLong(BUCKET_KEY);
+            while (bucket != null) {
+                ResultSet resultSet = session.execute(deleteQueueMessageIndexStatement.bind(queueName, messageId, bucket));
+                if (resultSet.wasApplied()) {
+                    session.execute(deleteQueueMessageStatement.bind(queueName, bucket, messageId));
+                    session.execute(updateCounterStatement.bind(-1L, ENTITY_TYPE_QUEUE, queueName));
+                    return true;
+                }
+                bucket = getCurrentBucket(resultSet.one());
+            }
+            return false;
+        } catch (Exception e) {
+            Monitors.error(CLASS_NAME, "remove");
+            String errorMsg = String.format("Failed to remove message: %s from queue: %s", messageId, queueName);
+            LOGGER.error(errorMsg, e);
+            throw new ApplicationException(ApplicationException.Code.BACKEND_ERROR, errorMsg, e);
+        }
+    }
+
+    /**
+     * @param row the result of a lightweight transaction on the "queue_message_index" table that was not applied
+     * @return the bucket of the message, null if it is not in the queue
+     */
+    private static Long getCurrentBucket(Row row) {
+        if (!row.getColumnDefinitions().contains(BUCKET_KEY) || row.isNull(BUCKET_KEY)) {
+            return null;
+        }
+        return row.getLong(BUCKET_KEY);
+    }
+
+    private List<String> getQueueNames() {
+        try {
+            return session.execute(selectQueueNamesStatement.bind()).all().stream()
+                    .map(row -> row.getString(QUEUE_NAME_KEY))
+                    .collect(Collectors.toList());
+        } catch (Exception e) {
+            Monitors.error(CLASS_NAME, "getQueueNames");
+            String errorMsg = "Failed to get the names of the queues";
+            LOGGER.error(errorMsg, e);
+            throw new ApplicationException(ApplicationException.Code.BACKEND_ERROR, errorMsg, e);
+        }
+    }
+
+    private long getUnackedCount(String queueName) {
+        try {
+            long now = System.currentTimeMillis();
+            long unacked = 0;
+            for (Row bucketRow : session.execute(selectAllQueueBucketsStatement.bind(queueName)).all()) {
+                unacked += session.execute(selectQueueMessagesStatement.bind(queueName, bucketRow.getLong(BUCKET_KEY))).all().stream()
+                        .filter(row -> row.getLong(LEASE_UNTIL_KEY) > now)
+                        .count();
+            }
+            return unacked;
+        } catch (Exception e) {
+            Monitors.error(CLASS_NAME, "getUnackedCount");
+            String errorMsg = String.format("Failed to count the unacked messages of queue: %s", queueName);
+            LOGGER.error(errorMsg, e);
+            throw new ApplicationException(ApplicationException.Code.BACKEND_ERROR, errorMsg, e);
+        }
+    }
+}
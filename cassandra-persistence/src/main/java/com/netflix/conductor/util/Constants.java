@@ -18,6 +18,18 @@ public interface Constants {
 
     String TABLE_WORKFLOWS = "workflows";
     String TABLE_TASK_LOOKUP = "task_lookup";
+    String TABLE_PENDING_WORKFLOWS = "pending_workflows";
+    String TABLE_IN_PROGRESS_TASKS = "in_progress_tasks";
+    String TABLE_COUNTERS = "counters";
+    String TABLE_POLL_DATA = "poll_data";
+    String TABLE_EVENT_EXECUTIONS = "event_executions";
+    String TABLE_TASK_DEFS = "task_definitions";
+    String TABLE_WORKFLOW_DEFS = "workflow_definitions";
+    String TABLE_WORKFLOW_DEF_NAMES = "workflow_def_names";
+    String TABLE_EVENT_HANDLERS = "event_handlers";
+    String TABLE_QUEUE_MESSAGES = "queue_messages";
+    String TABLE_QUEUE_MESSAGE_INDEX = "queue_message_index";
+    String TABLE_QUEUE_BUCKETS = "queue_buckets";
 
     String WORKFLOW_ID_KEY = "workflow_id";
     String SHARD_ID_KEY = "shard_id";
@@ -26,11 +38,40 @@ public interface Constants {
     String PAYLOAD_KEY = "payload";
     String TOTAL_TASKS_KEY = "total_tasks";
     String TOTAL_PARTITIONS_KEY = "total_partitions";
+    String WORKFLOW_TYPE_KEY = "workflow_type";
+    String TASK_DEF_NAME_KEY = "task_def_name";
+    String NAME_KEY = "name";
+    String COUNTER_VALUE_KEY = "counter_value";
+    String QUEUE_NAME_KEY = "queue_name";
+    String DOMAIN_KEY = "domain";
+    String MESSAGE_ID_KEY = "message_id";
+    String EVENT_HANDLER_NAME_KEY = "event_handler_name";
+    String EVENT_NAME_KEY = "event_name";
+    String EXECUTION_ID_KEY = "execution_id";
+    String TASK_DEFS_KEY = "task_defs";
+    String WORKFLOW_DEF_NAME_KEY = "workflow_def_name";
+    String WORKFLOW_VERSION_KEY = "version";
+    String WORKFLOW_DEFS_KEY = "workflow_defs";
+    String HANDLERS_KEY = "handlers";
+    String BUCKET_KEY = "bucket";
+    String DELIVER_ON_KEY = "deliver_on";
+    String PRIORITY_KEY = "priority";
+    String LEASE_UNTIL_KEY = "lease_until";
 
     String ENTITY_TYPE_WORKFLOW = "workflow";
     String ENTITY_TYPE_TASK = "task";
+    String ENTITY_TYPE_QUEUE = "queue";
+    String ENTITY_TYPE_TASK_DEFS = "task_defs";
+    String ENTITY_TYPE_WORKFLOW_DEFS = "workflow_defs";
+    String ENTITY_TYPE_EVENT_HANDLERS = "event_handlers";
+
+    String DEFAULT_DOMAIN = "DEFAULT";
 
     int DEFAULT_SHARD_ID = 1;
     int DEFAULT_TOTAL_PARTITIONS = 1;
+    /**
+     * The pending workflows of a type and the in progress tasks of a definition are spread over this many partitions
+     */
+    int INDEX_SHARDS = 16;
 }
 
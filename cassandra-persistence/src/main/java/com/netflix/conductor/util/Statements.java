@@ -18,40 +18,129 @@ import com.netflix.conductor.cassandra.CassandraConfiguration;
 import javax.inject.Inject;
 
 import static com.datastax.driver.core.querybuilder.QueryBuilder.bindMarker;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.desc;
 import static com.datastax.driver.core.querybuilder.QueryBuilder.eq;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.incr;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.lt;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.lte;
 import static com.datastax.driver.core.querybuilder.QueryBuilder.set;
+import static com.netflix.conductor.util.Constants.BUCKET_KEY;
+import static com.netflix.conductor.util.Constants.COUNTER_VALUE_KEY;
+import static com.netflix.conductor.util.Constants.DELIVER_ON_KEY;
+import static com.netflix.conductor.util.Constants.DOMAIN_KEY;
 import static com.netflix.conductor.util.Constants.ENTITY_KEY;
+import static com.netflix.conductor.util.Constants.ENTITY_TYPE_EVENT_HANDLERS;
 import static com.netflix.conductor.util.Constants.ENTITY_TYPE_TASK;
+import static com.netflix.conductor.util.Constants.ENTITY_TYPE_TASK_DEFS;
 import static com.netflix.conductor.util.Constants.ENTITY_TYPE_WORKFLOW;
+import static com.netflix.conductor.util.Constants.ENTITY_TYPE_WORKFLOW_DEFS;
+import static com.netflix.conductor.util.Constants.EVENT_HANDLER_NAME_KEY;
+import static com.netflix.conductor.util.Constants.EVENT_NAME_KEY;
+import static com.netflix.conductor.util.Constants.EXECUTION_ID_KEY;
+import static com.netflix.conductor.util.Constants.HANDLERS_KEY;
+import static com.netflix.conductor.util.Constants.LEASE_UNTIL_KEY;
+import static com.netflix.conductor.util.Constants.MESSAGE_ID_KEY;
+import static com.netflix.conductor.util.Constants.NAME_KEY;
 import static com.netflix.conductor.util.Constants.PAYLOAD_KEY;
+import static com.netflix.conductor.util.Constants.PRIORITY_KEY;
+import static com.netflix.conductor.util.Constants.QUEUE_NAME_KEY;
 import static com.netflix.conductor.util.Constants.SHARD_ID_KEY;
+import static com.netflix.conductor.util.Constants.TABLE_COUNTERS;
+import static com.netflix.conductor.util.Constants.TABLE_EVENT_EXECUTIONS;
+import static com.netflix.conductor.util.Constants.TABLE_EVENT_HANDLERS;
+import static com.netflix.conductor.util.Constants.TABLE_IN_PROGRESS_TASKS;
+import static com.netflix.conductor.util.Constants.TABLE_PENDING_WORKFLOWS;
+import static com.netflix.conductor.util.Constants.TABLE_POLL_DATA;
+import static com.netflix.conductor.util.Constants.TABLE_QUEUE_BUCKETS;
+import static com.netflix.conductor.util.Constants.TABLE_QUEUE_MESSAGES;
+import static com.netflix.conductor.util.Constants.TABLE_QUEUE_MESSAGE_INDEX;
+import static com.netflix.conductor.util.Constants.TABLE_TASK_DEFS;
 import static com.netflix.conductor.util.Constants.TABLE_TASK_LOOKUP;
 import static com.netflix.conductor.util.Constants.TABLE_WORKFLOWS;
+import static com.netflix.conductor.util.Constants.TABLE_WORKFLOW_DEFS;
+import static com.netflix.conductor.util.Constants.TABLE_WORKFLOW_DEF_NAMES;
+import static com.netflix.conductor.util.Constants.TASK_DEFS_KEY;
+import static com.netflix.conductor.util.Constants.TASK_DEF_NAME_KEY;
 import static com.netflix.conductor.util.Constants.TASK_ID_KEY;
 import static com.netflix.conductor.util.Constants.TOTAL_PARTITIONS_KEY;
 import static com.netflix.conductor.util.Constants.TOTAL_TASKS_KEY;
+import static com.netflix.conductor.util.Constants.WORKFLOW_DEFS_KEY;
+import static com.netflix.conductor.util.Constants.WORKFLOW_DEF_NAME_KEY;
 import static com.netflix.conductor.util.Constants.WORKFLOW_ID_KEY;
+import static com.netflix.conductor.util.Constants.WORKFLOW_TYPE_KEY;
+import static com.netflix.conductor.util.Constants.WORKFLOW_VERSION_KEY;
 
 /**
  * DML statements
  * <p>
  * INSERT INTO conductor.workflows (workflow_id,shard_id,task_id,entity,payload,total_tasks,total_partitions) VALUES (?,?,?,'workflow',?,?,?);
  * INSERT INTO conductor.workflows (workflow_id,shard_id,task_id,entity,payload) VALUES (?,?,?,'task',?);
+ * INSERT INTO conductor.pending_workflows (workflow_type,shard_id,workflow_id) VALUES (?,?,?) IF NOT EXISTS;
+ * INSERT INTO conductor.in_progress_tasks (task_def_name,shard_id,task_id,workflow_id) VALUES (?,?,?,?) IF NOT EXISTS;
+ * INSERT INTO conductor.poll_data (queue_name,domain,payload) VALUES (?,?,?);
+ * INSERT INTO conductor.event_executions (message_id,event_handler_name,event_name,execution_id,payload) VALUES (?,?,?,?,?) IF NOT EXISTS;
+ * INSERT INTO conductor.task_definitions (task_defs,task_def_name,payload) VALUES ('task_defs',?,?);
+ * INSERT INTO conductor.workflow_definitions (workflow_def_name,version,payload) VALUES (?,?,?) IF NOT EXISTS;
+ * INSERT INTO conductor.workflow_def_names (workflow_defs,workflow_def_name) VALUES ('workflow_defs',?);
+ * INSERT INTO conductor.event_handlers (handlers,event_handler_name,payload) VALUES ('event_handlers',?,?) IF NOT EXISTS;
+ * INSERT INTO conductor.queue_messages (queue_name,bucket,message_id,deliver_on,priority,payload,lease_until) VALUES (?,?,?,?,?,?,0);
+ * INSERT INTO conductor.queue_message_index (queue_name,message_id,bucket) VALUES (?,?,?) IF NOT EXISTS;
+ * INSERT INTO conductor.queue_buckets (queue_name,bucket) VALUES (?,?);
  * <p>
  * SELECT total_tasks,total_partitions FROM conductor.workflows WHERE workflow_id=? AND shard_id=1;
  * SELECT payload FROM conductor.workflows WHERE workflow_id=? AND shard_id=? AND entity='task' AND task_id=?;
  * SELECT payload FROM conductor.workflows WHERE workflow_id=? AND shard_id=1 AND entity='workflow';
  * SELECT * FROM conductor.workflows WHERE workflow_id=? AND shard_id=?;
- * SELECT workflow_id FROM conductor.task_lookup WHERE task_id=?;
+ * SELECT workflow_id,shard_id FROM conductor.task_lookup WHERE task_id=?;
+ * SELECT workflow_id FROM conductor.pending_workflows WHERE workflow_type=? AND shard_id=? AND workflow_id=?;
+ * SELECT workflow_id FROM conductor.pending_workflows WHERE workflow_type=? AND shard_id=?;
+ * SELECT task_id FROM conductor.in_progress_tasks WHERE task_def_name=? AND shard_id=? AND task_id=?;
+ * SELECT counter_value FROM conductor.counters WHERE entity=? AND name=?;
+ * SELECT payload FROM conductor.poll_data WHERE queue_name=? AND domain=?;
+ * SELECT payload FROM conductor.poll_data WHERE queue_name=?;
+ * SELECT payload FROM conductor.event_executions WHERE message_id=? AND event_handler_name=? AND event_name=? LIMIT ?;
+ * SELECT payload FROM conductor.task_definitions WHERE task_defs='task_defs' AND task_def_name=?;
+ * SELECT payload FROM conductor.task_definitions WHERE task_defs='task_defs';
+ * SELECT payload FROM conductor.workflow_definitions WHERE workflow_def_name=? AND version=?;
+ * SELECT payload FROM conductor.workflow_definitions WHERE workflow_def_name=? ORDER BY version DESC LIMIT 1;
+ * SELECT payload FROM conductor.workflow_definitions WHERE workflow_def_name=?;
+ * SELECT workflow_def_name FROM conductor.workflow_def_names WHERE workflow_defs='workflow_defs';
+ * SELECT payload FROM conductor.event_handlers WHERE handlers='event_handlers';
+ * SELECT message_id,deliver_on,priority,payload,lease_until FROM conductor.queue_messages WHERE queue_name=? AND bucket=?;
+ * SELECT message_id,deliver_on,priority,payload,lease_until FROM conductor.queue_messages WHERE queue_name=? AND bucket=? AND deliver_on<=? AND lease_until<=? ALLOW FILTERING;
+ * SELECT message_id FROM conductor.queue_messages WHERE queue_name=? AND bucket=? LIMIT 1;
+ * SELECT message_id,deliver_on,priority,payload,lease_until FROM conductor.queue_messages WHERE queue_name=? AND bucket=? AND message_id=?;
+ * SELECT bucket FROM conductor.queue_message_index WHERE queue_name=? AND message_id=?;
+ * SELECT bucket FROM conductor.queue_buckets WHERE queue_name=? AND bucket<=?;
+ * SELECT bucket FROM conductor.queue_buckets WHERE queue_name=?;
+ * SELECT DISTINCT queue_name FROM conductor.queue_buckets;
  * <p>
  * UPDATE conductor.workflows SET payload=? WHERE workflow_id=? AND shard_id=1 AND entity='workflow' AND task_id='';
  * UPDATE conductor.workflows SET total_tasks=? WHERE workflow_id=? AND shard_id=?;
  * UPDATE conductor.workflows SET total_partitions=?,total_tasks=? WHERE workflow_id=? AND shard_id=1;
- * UPDATE conductor.task_lookup SET workflow_id=? WHERE task_id=?;
+ * UPDATE conductor.workflows SET total_partitions=? WHERE workflow_id=? AND shard_id=1 IF total_partitions<?;
+ * UPDATE conductor.task_lookup SET workflow_id=?,shard_id=? WHERE task_id=?;
+ * UPDATE conductor.counters SET counter_value=counter_value+? WHERE entity=? AND name=?;
+ * UPDATE conductor.event_executions SET payload=? WHERE message_id=? AND event_handler_name=? AND event_name=? AND execution_id=?;
+ * UPDATE conductor.workflow_definitions SET payload=? WHERE workflow_def_name=? AND version=?;
+ * UPDATE conductor.event_handlers SET payload=? WHERE handlers='event_handlers' AND event_handler_name=? IF EXISTS;
+ * UPDATE conductor.queue_messages SET lease_until=? WHERE queue_name=? AND bucket=? AND message_id=? IF lease_until=?;
+ * UPDATE conductor.queue_messages SET lease_until=? WHERE queue_name=? AND bucket=? AND message_id=? IF EXISTS;
+ * UPDATE conductor.queue_message_index SET bucket=? WHERE queue_name=? AND message_id=? IF bucket=?;
  * <p>
  * DELETE FROM conductor.workflows WHERE workflow_id=? AND shard_id=?;
  * DELETE FROM conductor.workflows WHERE workflow_id=? AND shard_id=? AND entity='task' AND task_id=?;
  * DELETE FROM conductor.task_lookup WHERE task_id=?;
+ * DELETE FROM conductor.pending_workflows WHERE workflow_type=? AND shard_id=? AND workflow_id=? IF EXISTS;
+ * DELETE FROM conductor.in_progress_tasks WHERE task_def_name=? AND shard_id=? AND task_id=? IF EXISTS;
+ * DELETE FROM conductor.event_executions WHERE message_id=? AND event_handler_name=? AND event_name=? AND execution_id=?;
+ * DELETE FROM conductor.task_definitions WHERE task_defs='task_defs' AND task_def_name=? IF EXISTS;
+ * DELETE FROM conductor.workflow_definitions WHERE workflow_def_name=? AND version=? IF EXISTS;
+ * DELETE FROM conductor.workflow_def_names WHERE workflow_defs='workflow_defs' AND workflow_def_name=?;
+ * DELETE FROM conductor.event_handlers WHERE handlers='event_handlers' AND event_handler_name=? IF EXISTS;
+ * DELETE FROM conductor.queue_messages WHERE queue_name=? AND bucket=? AND message_id=?;
+ * DELETE FROM conductor.queue_message_index WHERE queue_name=? AND message_id=? IF bucket=?;
+ * DELETE FROM conductor.queue_buckets WHERE queue_name=? AND bucket=?;
  */
 public class Statements {
     private final String keyspace;
@@ -91,6 +180,138 @@ public class Statements {
                 .getQueryString();
     }
 
+    /**
+     * @return cql query statement to add a workflow to the pending workflows of its type in the "pending_workflows" table, if it is not there yet
+     */
+    public String getInsertPendingWorkflowStatement() {
+        return QueryBuilder.insertInto(keyspace, TABLE_PENDING_WORKFLOWS)
+                .value(WORKFLOW_TYPE_KEY, bindMarker())
+                .value(SHARD_ID_KEY, bindMarker())
+                .value(WORKFLOW_ID_KEY, bindMarker())
+                .ifNotExists()
+                .getQueryString();
+    }
+
+    /**
+     * @return cql query statement to add a task to the in progress tasks of its definition in the "in_progress_tasks" table, if it is not there yet
+     */
+    public String getInsertInProgressTaskStatement() {
+        return QueryBuilder.insertInto(keyspace, TABLE_IN_PROGRESS_TASKS)
+                .value(TASK_DEF_NAME_KEY, bindMarker())
+                .value(SHARD_ID_KEY, bindMarker())
+                .value(TASK_ID_KEY, bindMarker())
+                .value(WORKFLOW_ID_KEY, bindMarker())
+                .ifNotExists()
+                .getQueryString();
+    }
+
+    /**
+     * @return cql query statement to insert or replace the poll data of a task queue and domain into the "poll_data" table
+     */
+    public String getInsertPollDataStatement() {
+        return QueryBuilder.insertInto(keyspace, TABLE_POLL_DATA)
+                .value(QUEUE_NAME_KEY, bindMarker())
+                .value(DOMAIN_KEY, bindMarker())
+                .value(PAYLOAD_KEY, bindMarker())
+                .getQueryString();
+    }
+
+    /**
+     * @return cql query statement to insert an event execution into the "event_executions" table, if it does not exist yet
+     */
+    public String getInsertEventExecutionStatement() {
+        return QueryBuilder.insertInto(keyspace, TABLE_EVENT_EXECUTIONS)
+                .value(MESSAGE_ID_KEY, bindMarker())
+                .value(EVENT_HANDLER_NAME_KEY, bindMarker())
+                .value(EVENT_NAME_KEY, bindMarker())
+                .value(EXECUTION_ID_KEY, bindMarker())
+                .value(PAYLOAD_KEY, bindMarker())
+                .ifNotExists()
+                .getQueryString();
+    }
+
+    /**
+     * @return cql query statement to insert or replace a task definition into the "task_definitions" table
+     */
+    public String getInsertTaskDefStatement() {
+        return QueryBuilder.insertInto(keyspace, TABLE_TASK_DEFS)
+                .value(TASK_DEFS_KEY, ENTITY_TYPE_TASK_DEFS)
+                .value(TASK_DEF_NAME_KEY, bindMarker())
+                .value(PAYLOAD_KEY, bindMarker())
+                .getQueryString();
+    }
+
+    /**
+     * @return cql query statement to insert a workflow definition into the "workflow_definitions" table, if the version does not exist yet
+     */
+    public String getInsertWorkflowDefStatement() {
+        return QueryBuilder.insertInto(keyspace, TABLE_WORKFLOW_DEFS)
+                .value(WORKFLOW_DEF_NAME_KEY, bindMarker())
+                .value(WORKFLOW_VERSION_KEY, bindMarker())
+                .value(PAYLOAD_KEY, bindMarker())
+                .ifNotExists()
+                .getQueryString();
+    }
+
+    /**
+     * @return cql query statement to insert the name of a workflow definition into the "workflow_def_names" table
+     */
+    public String getInsertWorkflowDefNameStatement() {
+        return QueryBuilder.insertInto(keyspace, TABLE_WORKFLOW_DEF_NAMES)
+                .value(WORKFLOW_DEFS_KEY, ENTITY_TYPE_WORKFLOW_DEFS)
+                .value(WORKFLOW_DEF_NAME_KEY, bindMarker())
+                .getQueryString();
+    }
+
+    /**
+     * @return cql query statement to insert an event handler into the "event_handlers" table, if it does not exist yet
+     */
+    public String getInsertEventHandlerStatement() {
+        return QueryBuilder.insertInto(keyspace, TABLE_EVENT_HANDLERS)
+                .value(HANDLERS_KEY, ENTITY_TYPE_EVENT_HANDLERS)
+                .value(EVENT_HANDLER_NAME_KEY, bindMarker())
+                .value(PAYLOAD_KEY, bindMarker())
+                .ifNotExists()
+                .getQueryString();
+    }
+
+    /**
+     * @return cql query statement to insert or replace a message, not leased, into a bucket of the "queue_messages" table
+     */
+    public String getInsertQueueMessageStatement() {
+        return QueryBuilder.insertInto(keyspace, TABLE_QUEUE_MESSAGES)
+                .value(QUEUE_NAME_KEY, bindMarker())
+                .value(BUCKET_KEY, bindMarker())
+                .value(MESSAGE_ID_KEY, bindMarker())
+                .value(DELIVER_ON_KEY, bindMarker())
+                .value(PRIORITY_KEY, bindMarker())
+                .value(PAYLOAD_KEY, bindMarker())
+                .value(LEASE_UNTIL_KEY, 0)
+                .getQueryString();
+    }
+
+    /**
+     * @return cql query statement to add the message_id to bucket mapping to the "queue_message_index" table, if the message is not in the queue yet
+     */
+    public String getInsertQueueMessageIndexStatement() {
+        return QueryBuilder.insertInto(keyspace, TABLE_QUEUE_MESSAGE_INDEX)
+                .value(QUEUE_NAME_KEY, bindMarker())
+                .value(MESSAGE_ID_KEY, bindMarker())
+                .value(BUCKET_KEY, bindMarker())
+                .ifNotExists()
+                .getQueryString();
+    }
+
+    /**
+     * @return cql query statement to add a bucket holding messages of a queue to the "queue_buckets" table
+     */
+    public String getInsertQueueBucketStatement() {
+        return QueryBuilder.insertInto(keyspace, TABLE_QUEUE_BUCKETS)
+                .value(QUEUE_NAME_KEY, bindMarker())
+                .value(BUCKET_KEY, bindMarker())
+                .getQueryString();
+    }
+
     // Select Statements
 
     /**
@@ -142,15 +363,261 @@ public class Statements {
     }
 
     /**
-     * @return cql query statement to retrieve the workflow_id for a particular task_id from the "task_lookup" table
+     * @return cql query statement to retrieve the workflow_id and shard_id for a particular task_id from the "task_lookup" table
      */
     public String getSelectTaskFromLookupTableStatement() {
-        return QueryBuilder.select(WORKFLOW_ID_KEY)
+        return QueryBuilder.select(WORKFLOW_ID_KEY, SHARD_ID_KEY)
                 .from(keyspace, TABLE_TASK_LOOKUP)
                 .where(eq(TASK_ID_KEY, bindMarker()))
                 .getQueryString();
     }
 
+    /**
+     * @return cql query statement to check whether a workflow is in the "pending_workflows" table
+     */
+    public String getSelectPendingWorkflowStatement() {
+        return QueryBuilder.select(WORKFLOW_ID_KEY)
+                .from(keyspace, TABLE_PENDING_WORKFLOWS)
+                .where(eq(WORKFLOW_TYPE_KEY, bindMarker()))
+                .and(eq(SHARD_ID_KEY, bindMarker()))
+                .and(eq(WORKFLOW_ID_KEY, bindMarker()))
+                .getQueryString();
+    }
+
+    /**
+     * @return cql query statement to retrieve the ids of the pending workflows of a type in a shard of the "pending_workflows" table
+     */
+    public String getSelectPendingWorkflowsStatement() {
+        return QueryBuilder.select(WORKFLOW_ID_KEY)
+                .from(keyspace, TABLE_PENDING_WORKFLOWS)
+                .where(eq(WORKFLOW_TYPE_KEY, bindMarker()))
+                .and(eq(SHARD_ID_KEY, bindMarker()))
+                .getQueryString();
+    }
+
+    /**
+     * @return cql query statement to check whether a task is in the "in_progress_tasks" table
+     */
+    public String getSelectInProgressTaskStatement() {
+        return QueryBuilder.select(TASK_ID_KEY)
+                .from(keyspace, TABLE_IN_PROGRESS_TASKS)
+                .where(eq(TASK_DEF_NAME_KEY, bindMarker()))
+                .and(eq(SHARD_ID_KEY, bindMarker()))
+                .and(eq(TASK_ID_KEY, bindMarker()))
+                .getQueryString();
+    }
+
+    /**
+     * @return cql query statement to retrieve a counter from the "counters" table
+     */
+    public String getSelectCounterStatement() {
+        return QueryBuilder.select(COUNTER_VALUE_KEY)
+                .from(keyspace, TABLE_COUNTERS)
+                .where(eq(ENTITY_KEY, bindMarker()))
+                .and(eq(NAME_KEY, bindMarker()))
+                .getQueryString();
+    }
+
+    /**
+     * @return cql query statement to retrieve the poll data of a task queue and domain from the "poll_data" table
+     */
+    public String getSelectPollDataStatement() {
+        return QueryBuilder.select(PAYLOAD_KEY)
+                .from(keyspace, TABLE_POLL_DATA)
+                .where(eq(QUEUE_NAME_KEY, bindMarker()))
+                .and(eq(DOMAIN_KEY, bindMarker()))
+                .getQueryString();
+    }
+
+    /**
+     * @return cql query statement to retrieve the poll data of a task queue in all the domains from the "poll_data" table
+     */
+    public String getSelectAllPollDataStatement() {
+        return QueryBuilder.select(PAYLOAD_KEY)
+                .from(keyspace, TABLE_POLL_DATA)
+                .where(eq(QUEUE_NAME_KEY, bindMarker()))
+                .getQueryString();
+    }
+
+    /**
+     * @return cql query statement to retrieve a bounded number of executions of a message by an event handler from the "event_executions" table
+     */
+    public String getSelectEventExecutionsStatement() {
+        return QueryBuilder.select(PAYLOAD_KEY)
+                .from(keyspace, TABLE_EVENT_EXECUTIONS)
+                .where(eq(MESSAGE_ID_KEY, bindMarker()))
+                .and(eq(EVENT_HANDLER_NAME_KEY, bindMarker()))
+                .and(eq(EVENT_NAME_KEY, bindMarker()))
+                .limit(bindMarker())
+                .getQueryString();
+    }
+
+    /**
+     * @return cql query statement to retrieve a task definition from the "task_definitions" table
+     */
+    public String getSelectTaskDefStatement() {
+        return QueryBuilder.select(PAYLOAD_KEY)
+                .from(keyspace, TABLE_TASK_DEFS)
+                .where(eq(TASK_DEFS_KEY, ENTITY_TYPE_TASK_DEFS))
+                .and(eq(TASK_DEF_NAME_KEY, bindMarker()))
+                .getQueryString();
+    }
+
+    /**
+     * @return cql query statement to retrieve all the task definitions from the "task_definitions" table
+     */
+    public String getSelectAllTaskDefsStatement() {
+        return QueryBuilder.select(PAYLOAD_KEY)
+                .from(keyspace, TABLE_TASK_DEFS)
+                .where(eq(TASK_DEFS_KEY, ENTITY_TYPE_TASK_DEFS))
+                .getQueryString();
+    }
+
+    /**
+     * @return cql query statement to retrieve a version of a workflow definition from the "workflow_definitions" table
+     */
+    public String getSelectWorkflowDefStatement() {
+        return QueryBuilder.select(PAYLOAD_KEY)
+                .from(keyspace, TABLE_WORKFLOW_DEFS)
+                .where(eq(WORKFLOW_DEF_NAME_KEY, bindMarker()))
+                .and(eq(WORKFLOW_VERSION_KEY, bindMarker()))
+                .getQueryString();
+    }
+
+    /**
+     * @return cql query statement to retrieve the latest version of a workflow definition from the "workflow_definitions" table
+     */
+    public String getSelectLatestWorkflowDefStatement() {
+        return QueryBuilder.select(PAYLOAD_KEY)
+                .from(keyspace, TABLE_WORKFLOW_DEFS)
+                .where(eq(WORKFLOW_DEF_NAME_KEY, bindMarker()))
+                .orderBy(desc(WORKFLOW_VERSION_KEY))
+                .limit(1)
+                .getQueryString();
+    }
+
+    /**
+     * @return cql query statement to retrieve all the versions of a workflow definition from the "workflow_definitions" table
+     */
+    public String getSelectAllWorkflowDefVersionsStatement() {
+        return QueryBuilder.select(PAYLOAD_KEY)
+                .from(keyspace, TABLE_WORKFLOW_DEFS)
+                .where(eq(WORKFLOW_DEF_NAME_KEY, bindMarker()))
+                .getQueryString();
+    }
+
+    /**
+     * @return cql query statement to retrieve the names of all the workflow definitions from the "workflow_def_names" table
+     */
+    public String getSelectWorkflowDefNamesStatement() {
+        return QueryBuilder.select(WORKFLOW_DEF_NAME_KEY)
+                .from(keyspace, TABLE_WORKFLOW_DEF_NAMES)
+                .where(eq(WORKFLOW_DEFS_KEY, ENTITY_TYPE_WORKFLOW_DEFS))
+                .getQueryString();
+    }
+
+    /**
+     * @return cql query statement to retrieve all the event handlers from the "event_handlers" table
+     */
+    public String getSelectAllEventHandlersStatement() {
+        return QueryBuilder.select(PAYLOAD_KEY)
+                .from(keyspace, TABLE_EVENT_HANDLERS)
+                .where(eq(HANDLERS_KEY, ENTITY_TYPE_EVENT_HANDLERS))
+                .getQueryString();
+    }
+
+    /**
+     * @return cql query statement to retrieve the messages in a bucket of a queue from the "queue_messages" table
+     */
+    public String getSelectQueueMessagesStatement() {
+        return QueryBuilder.select(MESSAGE_ID_KEY, DELIVER_ON_KEY, PRIORITY_KEY, PAYLOAD_KEY, LEASE_UNTIL_KEY)
+                .from(keyspace, TABLE_QUEUE_MESSAGES)
+                .where(eq(QUEUE_NAME_KEY, bindMarker()))
+                .and(eq(BUCKET_KEY, bindMarker()))
+                .getQueryString();
+    }
+
+    /**
+     * @return cql query statement to retrieve the messages in a bucket of a queue that are due and not leased from the "queue_messages" table,
+     * the filtering is limited to the partition of the bucket
+     */
+    public String getSelectDueQueueMessagesStatement() {
+        return QueryBuilder.select(MESSAGE_ID_KEY, DELIVER_ON_KEY, PRIORITY_KEY, PAYLOAD_KEY, LEASE_UNTIL_KEY)
+                .from(keyspace, TABLE_QUEUE_MESSAGES)
+                .allowFiltering()
+                .where(eq(QUEUE_NAME_KEY, bindMarker()))
+                .and(eq(BUCKET_KEY, bindMarker()))
+                .and(lte(DELIVER_ON_KEY, bindMarker()))
+                .and(lte(LEASE_UNTIL_KEY, bindMarker()))
+                .getQueryString();
+    }
+
+    /**
+     * @return cql query statement to check whether a bucket of a queue holds any message in the "queue_messages" table
+     */
+    public String getSelectFirstQueueMessageStatement() {
+        return QueryBuilder.select(MESSAGE_ID_KEY)
+                .from(keyspace, TABLE_QUEUE_MESSAGES)
+                .where(eq(QUEUE_NAME_KEY, bindMarker()))
+                .and(eq(BUCKET_KEY, bindMarker()))
+                .limit(1)
+                .getQueryString();
+    }
+
+    /**
+     * @return cql query statement to retrieve a message of a queue from the "queue_messages" table
+     */
+    public String getSelectQueueMessageStatement() {
+        return QueryBuilder.select(MESSAGE_ID_KEY, DELIVER_ON_KEY, PRIORITY_KEY, PAYLOAD_KEY, LEASE_UNTIL_KEY)
+                .from(keyspace, TABLE_QUEUE_MESSAGES)
+                .where(eq(QUEUE_NAME_KEY, bindMarker()))
+                .and(eq(BUCKET_KEY, bindMarker()))
+                .and(eq(MESSAGE_ID_KEY, bindMarker()))
+                .getQueryString();
+    }
+
+    /**
+     * @return cql query statement to retrieve the bucket holding a message of a queue from the "queue_message_index" table
+     */
+    public String getSelectQueueMessageIndexStatement() {
+        return QueryBuilder.select(BUCKET_KEY)
+                .from(keyspace, TABLE_QUEUE_MESSAGE_INDEX)
+                .where(eq(QUEUE_NAME_KEY, bindMarker()))
+                .and(eq(MESSAGE_ID_KEY, bindMarker()))
+                .getQueryString();
+    }
+
+    /**
+     * @return cql query statement to retrieve the buckets of a queue up to a given one from the "queue_buckets" table
+     */
+    public String getSelectQueueBucketsStatement() {
+        return QueryBuilder.select(BUCKET_KEY)
+                .from(keyspace, TABLE_QUEUE_BUCKETS)
+                .where(eq(QUEUE_NAME_KEY, bindMarker()))
+                .and(lte(BUCKET_KEY, bindMarker()))
+                .getQueryString();
+    }
+
+    /**
+     * @return cql query statement to retrieve all the buckets of a queue from the "queue_buckets" table
+     */
+    public String getSelectAllQueueBucketsStatement() {
+        return QueryBuilder.select(BUCKET_KEY)
+                .from(keyspace, TABLE_QUEUE_BUCKETS)
+                .where(eq(QUEUE_NAME_KEY, bindMarker()))
+                .getQueryString();
+    }
+
+    /**
+     * @return cql query statement to retrieve the names of the queues from the "queue_buckets" table
+     */
+    public String getSelectQueueNamesStatement() {
+        return QueryBuilder.select(QUEUE_NAME_KEY)
+                .distinct()
+                .from(keyspace, TABLE_QUEUE_BUCKETS)
+                .getQueryString();
+    }
+
     // Update Statements
 
     /**
@@ -190,15 +657,113 @@ public class Statements {
     }
 
     /**
-     * @return cql query statement to add a new task_id to workflow_id mapping to the "task_lookup" table
+     * @return cql query statement to raise the total_partitions for a workflow in the "workflows" table, it is never lowered
+     */
+    public String getUpdateTotalPartitionsIfLowerStatement() {
+        return QueryBuilder.update(keyspace, TABLE_WORKFLOWS)
+                .with(set(TOTAL_PARTITIONS_KEY, bindMarker()))
+                .where(eq(WORKFLOW_ID_KEY, bindMarker()))
+                .and(eq(SHARD_ID_KEY, 1))
+                .onlyIf(lt(TOTAL_PARTITIONS_KEY, bindMarker()))
+                .getQueryString();
+    }
+
+    /**
+     * @return cql query statement to add a new task_id to workflow_id and shard_id mapping to the "task_lookup" table
      */
     public String getUpdateTaskLookupStatement() {
         return QueryBuilder.update(keyspace, TABLE_TASK_LOOKUP)
                 .with(set(WORKFLOW_ID_KEY, bindMarker()))
+                .and(set(SHARD_ID_KEY, bindMarker()))
                 .where(eq(TASK_ID_KEY, bindMarker()))
                 .getQueryString();
     }
 
+    /**
+     * @return cql query statement to increment, or decrement with a negative value, a counter in the "counters" table
+     */
+    public String getUpdateCounterStatement() {
+        return QueryBuilder.update(keyspace, TABLE_COUNTERS)
+                .with(incr(COUNTER_VALUE_KEY, bindMarker()))
+                .where(eq(ENTITY_KEY, bindMarker()))
+                .and(eq(NAME_KEY, bindMarker()))
+                .getQueryString();
+    }
+
+    /**
+     * @return cql query statement to update an event execution in the "event_executions" table
+     */
+    public String getUpdateEventExecutionStatement() {
+        return QueryBuilder.update(keyspace, TABLE_EVENT_EXECUTIONS)
+                .with(set(PAYLOAD_KEY, bindMarker()))
+                .where(eq(MESSAGE_ID_KEY, bindMarker()))
+                .and(eq(EVENT_HANDLER_NAME_KEY, bindMarker()))
+                .and(eq(EVENT_NAME_KEY, bindMarker()))
+                .and(eq(EXECUTION_ID_KEY, bindMarker()))
+                .getQueryString();
+    }
+
+    /**
+     * @return cql query statement to insert or update a version of a workflow definition in the "workflow_definitions" table
+     */
+    public String getUpdateWorkflowDefStatement() {
+        return QueryBuilder.update(keyspace, TABLE_WORKFLOW_DEFS)
+                .with(set(PAYLOAD_KEY, bindMarker()))
+                .where(eq(WORKFLOW_DEF_NAME_KEY, bindMarker()))
+                .and(eq(WORKFLOW_VERSION_KEY, bindMarker()))
+                .getQueryString();
+    }
+
+    /**
+     * @return cql query statement to update an existing event handler in the "event_handlers" table
+     */
+    public String getUpdateEventHandlerStatement() {
+        return QueryBuilder.update(keyspace, TABLE_EVENT_HANDLERS)
+                .with(set(PAYLOAD_KEY, bindMarker()))
+                .where(eq(HANDLERS_KEY, ENTITY_TYPE_EVENT_HANDLERS))
+                .and(eq(EVENT_HANDLER_NAME_KEY, bindMarker()))
+                .ifExists()
+                .getQueryString();
+    }
+
+    /**
+     * @return cql query statement to lease a message in the "queue_messages" table, if its lease was not changed since it was read
+     */
+    public String getUpdateQueueMessageLeaseStatement() {
+        return QueryBuilder.update(keyspace, TABLE_QUEUE_MESSAGES)
+                .with(set(LEASE_UNTIL_KEY, bindMarker()))
+                .where(eq(QUEUE_NAME_KEY, bindMarker()))
+                .and(eq(BUCKET_KEY, bindMarker()))
+                .and(eq(MESSAGE_ID_KEY, bindMarker()))
+                .onlyIf(eq(LEASE_UNTIL_KEY, bindMarker()))
+                .getQueryString();
+    }
+
+    /**
+     * @return cql query statement to set the lease of an existing message in the "queue_messages" table
+     */
+    public String getUpdateQueueMessageUnackTimeoutStatement() {
+        return QueryBuilder.update(keyspace, TABLE_QUEUE_MESSAGES)
+                .with(set(LEASE_UNTIL_KEY, bindMarker()))
+                .where(eq(QUEUE_NAME_KEY, bindMarker()))
+                .and(eq(BUCKET_KEY, bindMarker()))
+                .and(eq(MESSAGE_ID_KEY, bindMarker()))
+                .ifExists()
+                .getQueryString();
+    }
+
+    /**
+     * @return cql query statement to move a message to another bucket in the "queue_message_index" table, if it is still in the bucket it was read in
+     */
+    public String getUpdateQueueMessageIndexStatement() {
+        return QueryBuilder.update(keyspace, TABLE_QUEUE_MESSAGE_INDEX)
+                .with(set(BUCKET_KEY, bindMarker()))
+                .where(eq(QUEUE_NAME_KEY, bindMarker()))
+                .and(eq(MESSAGE_ID_KEY, bindMarker()))
+                .onlyIf(eq(BUCKET_KEY, bindMarker()))
+                .getQueryString();
+    }
+
     // Delete statements
 
     /**
@@ -234,4 +799,125 @@ public class Statements {
                 .and(eq(TASK_ID_KEY, bindMarker()))
                 .getQueryString();
     }
+
+    /**
+     * @return cql query statement to remove a workflow from the "pending_workflows" table, if it is there
+     */
+    public String getDeletePendingWorkflowStatement() {
+        return QueryBuilder.delete()
+                .from(keyspace, TABLE_PENDING_WORKFLOWS)
+                .where(eq(WORKFLOW_TYPE_KEY, bindMarker()))
+                .and(eq(SHARD_ID_KEY, bindMarker()))
+                .and(eq(WORKFLOW_ID_KEY, bindMarker()))
+                .ifExists()
+                .getQueryString();
+    }
+
+    /**
+     * @return cql query statement to remove a task from the "in_progress_tasks" table, if it is there
+     */
+    public String getDeleteInProgressTaskStatement() {
+        return QueryBuilder.delete()
+                .from(keyspace, TABLE_IN_PROGRESS_TASKS)
+                .where(eq(TASK_DEF_NAME_KEY, bindMarker()))
+                .and(eq(SHARD_ID_KEY, bindMarker()))
+                .and(eq(TASK_ID_KEY, bindMarker()))
+                .ifExists()
+                .getQueryString();
+    }
+
+    /**
+     * @return cql query statement to delete an event execution from the "event_executions" table
+     */
+    public String getDeleteEventExecutionStatement() {
+        return QueryBuilder.delete()
+                .from(keyspace, TABLE_EVENT_EXECUTIONS)
+                .where(eq(MESSAGE_ID_KEY, bindMarker()))
+                .and(eq(EVENT_HANDLER_NAME_KEY, bindMarker()))
+                .and(eq(EVENT_NAME_KEY, bindMarker()))
+                .and(eq(EXECUTION_ID_KEY, bindMarker()))
+                .getQueryString();
+    }
+
+    /**
+     * @return cql query statement to delete a task definition from the "task_definitions" table, if it exists
+     */
+    public String getDeleteTaskDefStatement() {
+        return QueryBuilder.delete()
+                .from(keyspace, TABLE_TASK_DEFS)
+                .where(eq(TASK_DEFS_KEY, ENTITY_TYPE_TASK_DEFS))
+                .and(eq(TASK_DEF_NAME_KEY, bindMarker()))
+                .ifExists()
+                .getQueryString();
+    }
+
+    /**
+     * @return cql query statement to delete a version of a workflow definition from the "workflow_definitions" table, if it exists
+     */
+    public String getDeleteWorkflowDefStatement() {
+        return QueryBuilder.delete()
+                .from(keyspace, TABLE_WORKFLOW_DEFS)
+                .where(eq(WORKFLOW_DEF_NAME_KEY, bindMarker()))
+                .and(eq(WORKFLOW_VERSION_KEY, bindMarker()))
+                .ifExists()
+                .getQueryString();
+    }
+
+    /**
+     * @return cql query statement to delete the name of a workflow definition from the "workflow_def_names" table
+     */
+    public String getDeleteWorkflowDefNameStatement() {
+        return QueryBuilder.delete()
+                .from(keyspace, TABLE_WORKFLOW_DEF_NAMES)
+                .where(eq(WORKFLOW_DEFS_KEY, ENTITY_TYPE_WORKFLOW_DEFS))
+                .and(eq(WORKFLOW_DEF_NAME_KEY, bindMarker()))
+                .getQueryString();
+    }
+
+    /**
+     * @return cql query statement to delete an event handler from the "event_handlers" table, if it exists
+     */
+    public String getDeleteEventHandlerStatement() {
+        return QueryBuilder.delete()
+                .from(keyspace, TABLE_EVENT_HANDLERS)
+                .where(eq(HANDLERS_KEY, ENTITY_TYPE_EVENT_HANDLERS))
+                .and(eq(EVENT_HANDLER_NAME_KEY, bindMarker()))
+                .ifExists()
+                .getQueryString();
+    }
+
+    /**
+     * @return cql query statement to delete a message from a bucket of the "queue_messages" table
+     */
+    public String getDeleteQueueMessageStatement() {
+        return QueryBuilder.delete()
+                .from(keyspace, TABLE_QUEUE_MESSAGES)
+                .where(eq(QUEUE_NAME_KEY, bindMarker()))
+                .and(eq(BUCKET_KEY, bindMarker()))
+                .and(eq(MESSAGE_ID_KEY, bindMarker()))
+                .getQueryString();
+    }
+
+    /**
+     * @return cql query statement to delete the message_id to bucket mapping from the "queue_message_index" table, if the message is still in the bucket it was read in
+     */
+    public String getDeleteQueueMessageIndexStatement() {
+        return QueryBuilder.delete()
+                .from(keyspace, TABLE_QUEUE_MESSAGE_INDEX)
+                .where(eq(QUEUE_NAME_KEY, bindMarker()))
+                .and(eq(MESSAGE_ID_KEY, bindMarker()))
+                .onlyIf(eq(BUCKET_KEY, bindMarker()))
+                .getQueryString();
+    }
+
+    /**
+     * @return cql query statement to delete a bucket of a queue from the "queue_buckets" table
+     */
+    public String getDeleteQueueBucketStatement() {
+        return QueryBuilder.delete()
+                .from(keyspace, TABLE_QUEUE_BUCKETS)
+                .where(eq(QUEUE_NAME_KEY, bindMarker()))
+                .and(eq(BUCKET_KEY, bindMarker()))
+                .getQueryString();
+    }
 }
@@ -147,6 +147,11 @@ public class TestConfiguration implements CassandraConfiguration {
         return "junit";
     }
 
+    @Override
+    public int getShardSize() {
+        return 2;
+    }
+
     @Override
     public String getReplicationStrategy() {
         return CASSANDRA_REPLICATION_STRATEGY_DEFAULT_VALUE;
@@ -14,7 +14,11 @@ package com.netflix.conductor.dao.cassandra;
 
 import com.datastax.driver.core.Session;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.netflix.conductor.common.metadata.events.EventExecution;
+import com.netflix.conductor.common.metadata.tasks.PollData;
 import com.netflix.conductor.common.metadata.tasks.Task;
+import com.netflix.conductor.common.metadata.tasks.TaskDef;
+import com.netflix.conductor.common.metadata.workflow.WorkflowTask;
 import com.netflix.conductor.common.run.Workflow;
 import com.netflix.conductor.common.utils.JsonMapperProvider;
 import com.netflix.conductor.config.TestConfiguration;
@@ -30,11 +34,14 @@ import org.junit.rules.ExpectedException;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 
 import static com.netflix.conductor.dao.cassandra.CassandraBaseDAO.WorkflowMetadata;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
@@ -96,6 +103,7 @@ public class CassandraExecutionDAOTest {
         String workflowId = IDGenerator.generate();
         Workflow workflow = new Workflow();
         workflow.setWorkflowId(workflowId);
+        workflow.setWorkflowType("test_workflow");
         workflow.setInput(new HashMap<>());
         workflow.setStatus(Workflow.WorkflowStatus.RUNNING);
         workflow.setCreateTime(System.currentTimeMillis());
@@ -129,6 +137,7 @@ public class CassandraExecutionDAOTest {
         // create a workflow
         Workflow workflow = new Workflow();
         workflow.setWorkflowId(workflowId);
+        workflow.setWorkflowType("test_workflow");
         workflow.setInput(new HashMap<>());
         workflow.setStatus(Workflow.WorkflowStatus.RUNNING);
         workflow.setCreateTime(System.currentTimeMillis());
@@ -263,4 +272,211 @@ public class CassandraExecutionDAOTest {
         foundId = executionDAO.lookupWorkflowIdFromTaskId(task2Id);
         assertNull(foundId);
     }
+
+    @Test
+    public void testTasksInMultipleShards() {
+        String workflowId = IDGenerator.generate();
+        Workflow workflow = new Workflow();
+        workflow.setWorkflowId(workflowId);
+        workflow.setWorkflowType("test_workflow");
+        workflow.setInput(new HashMap<>());
+        workflow.setStatus(Workflow.WorkflowStatus.RUNNING);
+        workflow.setCreateTime(System.currentTimeMillis());
+        executionDAO.createWorkflow(workflow);
+
+        // 2 tasks per shard in the test configuration
+        List<Task> taskList = new ArrayList<>();
+        for (int seq = 1; seq <= 5; seq++) {
+            Task task = new Task();
+            task.setWorkflowInstanceId(workflowId);
+            task.setTaskType("task" + seq);
+            task.setReferenceTaskName("task" + seq);
+            task.setStatus(Task.Status.SCHEDULED);
+            task.setSeq(seq);
+            task.setTaskId(IDGenerator.generate());
+            taskList.add(task);
+        }
+        executionDAO.createTasks(taskList.subList(0, 3));
+        executionDAO.createTasks(taskList.subList(3, 5));
+        assertEquals(1, executionDAO.getShardId(taskList.get(1)));
+        assertEquals(3, executionDAO.getShardId(taskList.get(4)));
+
+        WorkflowMetadata workflowMetadata = executionDAO.getWorkflowMetadata(workflowId);
+        assertEquals(5, workflowMetadata.getTotalTasks());
+        assertEquals(3, workflowMetadata.getTotalPartitions());
+
+        // read the tasks from all the shards
+        Workflow found = executionDAO.getWorkflow(workflowId, true);
+        assertEquals(taskList, found.getTasks());
+        for (Task task : taskList) {
+            assertEquals(task, executionDAO.getTask(task.getTaskId()));
+        }
+        List<Task> fetchedTasks = executionDAO.getTasks(Arrays.asList(taskList.get(4).getTaskId(), taskList.get(0).getTaskId()));
+        assertEquals(Arrays.asList(taskList.get(4), taskList.get(0)), fetchedTasks);
+
+        // update and remove a task of the last shard
+        Task task5 = taskList.get(4);
+        task5.setStatus(Task.Status.COMPLETED);
+        executionDAO.updateTask(task5);
+        assertEquals(task5, executionDAO.getTask(task5.getTaskId()));
+        assertEquals(5, executionDAO.getTasksForWorkflow(workflowId).size());
+
+        assertTrue(executionDAO.removeTask(task5.getTaskId()));
+        assertNull(executionDAO.getTask(task5.getTaskId()));
+        assertEquals(4, executionDAO.getTasksForWorkflow(workflowId).size());
+
+        // remove the workflow from all the shards
+        assertTrue(executionDAO.removeWorkflow(workflowId));
+        assertNull(executionDAO.getWorkflow(workflowId, true));
+        assertNull(executionDAO.lookupWorkflowIdFromTaskId(taskList.get(3).getTaskId()));
+    }
+
+    @Test
+    public void testPendingWorkflowsAndInProgressTasks() {
+        String workflowId = IDGenerator.generate();
+        Workflow workflow = new Workflow();
+        workflow.setWorkflowId(workflowId);
+        workflow.setWorkflowType("pending_workflow");
+        workflow.setVersion(1);
+        workflow.setInput(new HashMap<>());
+        workflow.setStatus(Workflow.WorkflowStatus.RUNNING);
+        workflow.setCreateTime(System.currentTimeMillis());
+        executionDAO.createWorkflow(workflow);
+        assertEquals(1, executionDAO.getPendingWorkflowCount("pending_workflow"));
+        assertEquals(Collections.singletonList(workflowId), executionDAO.getRunningWorkflowIds("pending_workflow", 1));
+        assertEquals(1, executionDAO.getPendingWorkflowsByType("pending_workflow", 1).size());
+        assertTrue(executionDAO.getPendingWorkflowsByType("pending_workflow", 2).isEmpty());
+
+        Task task = new Task();
+        task.setWorkflowInstanceId(workflowId);
+        task.setTaskType("in_progress_task");
+        task.setReferenceTaskName("in_progress_task");
+        task.setStatus(Task.Status.IN_PROGRESS);
+        task.setTaskId(IDGenerator.generate());
+        executionDAO.createTasks(Collections.singletonList(task));
+        assertEquals(1, executionDAO.getInProgressTaskCount("in_progress_task"));
+
+        // updates that do not change the status leave the count as is
+        executionDAO.updateTask(task);
+        assertEquals(1, executionDAO.getInProgressTaskCount("in_progress_task"));
+
+        task.setStatus(Task.Status.COMPLETED);
+        executionDAO.updateTask(task);
+        assertEquals(0, executionDAO.getInProgressTaskCount("in_progress_task"));
+
+        // a terminal workflow is no longer pending
+        workflow.setStatus(Workflow.WorkflowStatus.COMPLETED);
+        executionDAO.updateWorkflow(workflow);
+        executionDAO.updateWorkflow(workflow);
+        assertEquals(0, executionDAO.getPendingWorkflowCount("pending_workflow"));
+        assertTrue(executionDAO.getRunningWorkflowIds("pending_workflow", 1).isEmpty());
+
+        assertTrue(executionDAO.removeWorkflow(workflowId));
+        assertEquals(0, executionDAO.getPendingWorkflowCount("pending_workflow"));
+    }
+
+    @Test
+    public void testPendingWorkflowsAcrossShards() {
+        String firstWorkflowId = IDGenerator.generate();
+        String secondWorkflowId = IDGenerator.generate();
+        while (CassandraExecutionDAO.getIndexShard(secondWorkflowId) == CassandraExecutionDAO.getIndexShard(firstWorkflowId)) {
+            secondWorkflowId = IDGenerator.generate();
+        }
+        for (String workflowId : Arrays.asList(firstWorkflowId, secondWorkflowId)) {
+            Workflow workflow = new Workflow();
+            workflow.setWorkflowId(workflowId);
+            workflow.setWorkflowType("sharded_workflow");
+            workflow.setVersion(1);
+            workflow.setInput(new HashMap<>());
+            workflow.setStatus(Workflow.WorkflowStatus.RUNNING);
+            workflow.setCreateTime(System.currentTimeMillis());
+            executionDAO.createWorkflow(workflow);
+        }
+
+        assertEquals(2, executionDAO.getPendingWorkflowCount("sharded_workflow"));
+        assertEquals(new HashSet<>(Arrays.asList(firstWorkflowId, secondWorkflowId)),
+                new HashSet<>(executionDAO.getRunningWorkflowIds("sharded_workflow", 1)));
+    }
+
+    @Test
+    public void testExceedsLimit() {
+        String workflowId = IDGenerator.generate();
+        Workflow workflow = new Workflow();
+        workflow.setWorkflowId(workflowId);
+        workflow.setWorkflowType("limited_workflow");
+        workflow.setInput(new HashMap<>());
+        workflow.setStatus(Workflow.WorkflowStatus.RUNNING);
+        workflow.setCreateTime(System.currentTimeMillis());
+        executionDAO.createWorkflow(workflow);
+
+        TaskDef taskDef = new TaskDef("limited_task");
+        WorkflowTask workflowTask = new WorkflowTask();
+        workflowTask.setName("limited_task");
+        workflowTask.setTaskDefinition(taskDef);
+
+        Task running = new Task();
+        running.setWorkflowInstanceId(workflowId);
+        running.setTaskType("limited_task");
+        running.setReferenceTaskName("limited_task_1");
+        running.setStatus(Task.Status.IN_PROGRESS);
+        running.setSeq(1);
+        running.setTaskId(IDGenerator.generate());
+        running.setWorkflowTask(workflowTask);
+        Task scheduled = running.copy();
+        scheduled.setReferenceTaskName("limited_task_2");
+        scheduled.setStatus(Task.Status.SCHEDULED);
+        scheduled.setSeq(2);
+        scheduled.setTaskId(IDGenerator.generate());
+        executionDAO.createTasks(Arrays.asList(running, scheduled));
+
+        // no limits
+        assertFalse(executionDAO.exceedsInProgressLimit(scheduled));
+        assertFalse(executionDAO.exceedsRateLimitPerFrequency(scheduled));
+
+        taskDef.setConcurrentExecLimit(1);
+        taskDef.setRateLimitPerFrequency(1);
+        taskDef.setRateLimitFrequencyInSeconds(60);
+        assertTrue(executionDAO.exceedsInProgressLimit(scheduled));
+        assertFalse(executionDAO.exceedsInProgressLimit(running));
+        assertFalse(executionDAO.exceedsRateLimitPerFrequency(scheduled));
+
+        running.setStatus(Task.Status.COMPLETED);
+        executionDAO.updateTask(running);
+        assertFalse(executionDAO.exceedsInProgressLimit(scheduled));
+    }
+
+    @Test
+    public void testPollData() {
+        executionDAO.updateLastPoll("task1", null, "worker1");
+        executionDAO.updateLastPoll("task1", "domain1", "worker2");
+
+        PollData pollData = executionDAO.getPollData("task1", null);
+        assertNotNull(pollData);
+        assertEquals("worker1", pollData.getWorkerId());
+        pollData = executionDAO.getPollData("task1", "domain1");
+        assertNotNull(pollData);
+        assertEquals("worker2", pollData.getWorkerId());
+        assertNull(executionDAO.getPollData("task1", "domain2"));
+        assertEquals(2, executionDAO.getPollData("task1").size());
+    }
+
+    @Test
+    public void testEventExecutions() {
+        EventExecution eventExecution = new EventExecution("execution1", "message1");
+        eventExecution.setName("handler1");
+        eventExecution.setEvent("event1");
+        eventExecution.setStatus(EventExecution.Status.IN_PROGRESS);
+
+        assertTrue(executionDAO.addEventExecution(eventExecution));
+        assertFalse(executionDAO.addEventExecution(eventExecution));
+
+        eventExecution.setStatus(EventExecution.Status.COMPLETED);
+        executionDAO.updateEventExecution(eventExecution);
+        List<EventExecution> eventExecutions = executionDAO.getEventExecutions("handler1", "event1", "message1", 10);
+        assertEquals(1, eventExecutions.size());
+        assertEquals(EventExecution.Status.COMPLETED, eventExecutions.get(0).getStatus());
+
+        executionDAO.removeEventExecution(eventExecution);
+        assertTrue(executionDAO.getEventExecutions("handler1", "event1", "message1", 10).isEmpty());
+    }
 }
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2019 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.netflix.conductor.dao.cassandra;
+
+import com.datastax.driver.core.Session;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.netflix.conductor.common.metadata.events.EventHandler;
+import com.netflix.conductor.common.metadata.tasks.TaskDef;
+import com.netflix.conductor.common.metadata.workflow.WorkflowDef;
+import com.netflix.conductor.common.utils.JsonMapperProvider;
+import com.netflix.conductor.config.TestConfiguration;
+import com.netflix.conductor.core.execution.ApplicationException;
+import com.netflix.conductor.util.EmbeddedCassandra;
+import com.netflix.conductor.util.Statements;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class CassandraMetadataDAOTest {
+    private final TestConfiguration testConfiguration = new TestConfiguration();
+    private final ObjectMapper objectMapper = new JsonMapperProvider().get();
+
+    private EmbeddedCassandra embeddedCassandra;
+
+    private CassandraMetadataDAO metadataDAO;
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    @Before
+    public void setUp() throws Exception {
+        embeddedCassandra = new EmbeddedCassandra();
+        Session session = embeddedCassandra.getSession();
+        Statements statements = new Statements(testConfiguration);
+        metadataDAO = new CassandraMetadataDAO(session, objectMapper, testConfiguration, statements);
+    }
+
+    @After
+    public void teardown() {
+        embeddedCassandra.cleanupData();
+    }
+
+    @Test
+    public void testTaskDefCRUD() {
+        TaskDef taskDef = new TaskDef("task1");
+        taskDef.setRetryCount(3);
+        metadataDAO.createTaskDef(taskDef);
+        assertEquals(taskDef, metadataDAO.getTaskDef("task1"));
+
+        taskDef.setRetryCount(5);
+        metadataDAO.updateTaskDef(taskDef);
+        assertEquals(5, metadataDAO.getTaskDef("task1").getRetryCount());
+        assertEquals(Collections.singletonList(taskDef), metadataDAO.getAllTaskDefs());
+
+        metadataDAO.removeTaskDef("task1");
+        assertNull(metadataDAO.getTaskDef("task1"));
+
+        expectedException.expect(ApplicationException.class);
+        expectedException.expectMessage("No such task definition");
+        metadataDAO.removeTaskDef("task1");
+    }
+
+    @Test
+    public void testWorkflowDefCRUD() {
+        WorkflowDef workflowDef = new WorkflowDef();
+        workflowDef.setName("workflow1");
+        workflowDef.setVersion(1);
+        metadataDAO.create(workflowDef);
+
+        WorkflowDef secondVersion = new WorkflowDef();
+        secondVersion.setName("workflow1");
+        secondVersion.setVersion(2);
+        metadataDAO.update(secondVersion);
+
+        assertEquals(Optional.of(secondVersion), metadataDAO.getLatest("workflow1"));
+        assertEquals(Optional.of(workflowDef), metadataDAO.get("workflow1", 1));
+        assertFalse(metadataDAO.get("workflow1", 3).isPresent());
+        assertEquals(2, metadataDAO.getAllVersions("workflow1").size());
+        assertEquals(Collections.singletonList("workflow1"), metadataDAO.findAll());
+        assertEquals(2, metadataDAO.getAll().size());
+
+        metadataDAO.removeWorkflowDef("workflow1", 2);
+        assertEquals(Optional.of(workflowDef), metadataDAO.getLatest("workflow1"));
+        metadataDAO.removeWorkflowDef("workflow1", 1);
+        assertFalse(metadataDAO.getLatest("workflow1").isPresent());
+        assertTrue(metadataDAO.findAll().isEmpty());
+
+        metadataDAO.create(workflowDef);
+        expectedException.expect(ApplicationException.class);
+        expectedException.expectMessage("already exists");
+        metadataDAO.create(workflowDef);
+    }
+
+    @Test
+    public void testEventHandlerCRUD() {
+        EventHandler eventHandler = new EventHandler();
+        eventHandler.setName("handler1");
+        eventHandler.setEvent("event1");
+        eventHandler.setActive(false);
+        metadataDAO.addEventHandler(eventHandler);
+        assertEquals(1, metadataDAO.getEventHandlersForEvent("event1", false).size());
+        assertTrue(metadataDAO.getEventHandlersForEvent("event1", true).isEmpty());
+
+        eventHandler.setActive(true);
+        metadataDAO.updateEventHandler(eventHandler);
+        assertEquals(1, metadataDAO.getEventHandlersForEvent("event1", true).size());
+        assertEquals(1, metadataDAO.getEventHandlers().size());
+
+        metadataDAO.removeEventHandlerStatus("handler1");
+        assertTrue(metadataDAO.getEventHandlers().isEmpty());
+
+        expectedException.expect(ApplicationException.class);
+        expectedException.expectMessage("not found");
+        metadataDAO.updateEventHandler(eventHandler);
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2019 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.netflix.conductor.dao.cassandra;
+
+import com.datastax.driver.core.Session;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.netflix.conductor.common.utils.JsonMapperProvider;
+import com.netflix.conductor.config.TestConfiguration;
+import com.netflix.conductor.core.events.queue.Message;
+import com.netflix.conductor.util.EmbeddedCassandra;
+import com.netflix.conductor.util.Statements;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CassandraQueueDAOTest {
+    private final TestConfiguration testConfiguration = new TestConfiguration();
+    private final ObjectMapper objectMapper = new JsonMapperProvider().get();
+
+    private EmbeddedCassandra embeddedCassandra;
+
+    private CassandraQueueDAO queueDAO;
+
+    @Before
+    public void setUp() throws Exception {
+        embeddedCassandra = new EmbeddedCassandra();
+        Session session = embeddedCassandra.getSession();
+        Statements statements = new Statements(testConfiguration);
+        queueDAO = new CassandraQueueDAO(session, objectMapper, testConfiguration, statements);
+    }
+
+    @After
+    public void teardown() {
+        embeddedCassandra.cleanupData();
+    }
+
+    @Test
+    public void testPushAndPop() {
+        String queueName = "test_queue";
+        queueDAO.push(queueName, "message1", 0);
+        queueDAO.push(queueName, "message2", 5, 0);
+        // pushing a message again does not change the size of the queue
+        queueDAO.push(queueName, "message1", 0);
+        assertEquals(2, queueDAO.getSize(queueName));
+        assertTrue(queueDAO.exists(queueName, "message1"));
+        assertFalse(queueDAO.pushIfNotExists(queueName, "message1", 0));
+
+        List<String> messageIds = queueDAO.pop(queueName, 2, 100);
+        assertEquals(new HashSet<>(Arrays.asList("message1", "message2")), new HashSet<>(messageIds));
+
+        // the messages are leased until acknowledged
+        assertTrue(queueDAO.pop(queueName, 2, 0).isEmpty());
+        assertEquals(2, queueDAO.getSize(queueName));
+
+        assertTrue(queueDAO.ack(queueName, "message1"));
+        assertFalse(queueDAO.ack(queueName, "message1"));
+        assertFalse(queueDAO.exists(queueName, "message1"));
+        assertEquals(1, queueDAO.getSize(queueName));
+
+        // the lease of message2 expires and it is delivered again
+        assertTrue(queueDAO.setUnackTimeout(queueName, "message2", 0));
+        assertEquals(Arrays.asList("message2"), queueDAO.pop(queueName, 2, 100));
+
+        queueDAO.remove(queueName, "message2");
+        assertEquals(0, queueDAO.getSize(queueName));
+    }
+
+    @Test
+    public void testDelayedMessages() {
+        String queueName = "delayed_queue";
+        assertTrue(queueDAO.pushIfNotExists(queueName, "message1", 3600));
+        assertTrue(queueDAO.pop(queueName, 1, 0).isEmpty());
+
+        assertTrue(queueDAO.setOffsetTime(queueName, "message1", 0));
+        assertEquals(1, queueDAO.getSize(queueName));
+        assertEquals(Arrays.asList("message1"), queueDAO.pop(queueName, 1, 100));
+        assertFalse(queueDAO.setOffsetTime(queueName, "message2", 0));
+    }
+
+    @Test
+    public void testMovedMessageIsRemoved() {
+        String queueName = "moved_queue";
+        queueDAO.push(queueName, "message1", 3600);
+        // moved to the current bucket, then replaced within it
+        assertTrue(queueDAO.setOffsetTime(queueName, "message1", 0));
+        queueDAO.push(queueName, "message1", 0);
+        assertEquals(1, queueDAO.getSize(queueName));
+
+        assertTrue(queueDAO.ack(queueName, "message1"));
+        assertFalse(queueDAO.exists(queueName, "message1"));
+        assertEquals(0, queueDAO.getSize(queueName));
+        // no row is left behind to be delivered
+        assertTrue(queueDAO.pop(queueName, 1, 0).isEmpty());
+        assertFalse(queueDAO.setOffsetTime(queueName, "message1", 0));
+    }
+
+    @Test
+    public void testPushIfNotExistsKeepsLease() {
+        String queueName = "leased_queue";
+        assertTrue(queueDAO.pushIfNotExists(queueName, "message1", 0));
+        assertEquals(Arrays.asList("message1"), queueDAO.pop(queueName, 1, 100));
+
+        // the leased message is not written again, and not delivered again
+        assertFalse(queueDAO.pushIfNotExists(queueName, "message1", 0));
+        assertTrue(queueDAO.pop(queueName, 1, 0).isEmpty());
+        assertEquals(1, queueDAO.getSize(queueName));
+    }
+
+    @Test
+    public void testPollMessagesWithPayload() {
+        String queueName = "payload_queue";
+        queueDAO.push(queueName, Arrays.asList(new Message("message1", "payload1", null), new Message("message2", "payload2", null)));
+
+        List<Message> messages = queueDAO.pollMessages(queueName, 1, 100);
+        assertEquals(1, messages.size());
+        Message message = messages.get(0);
+        assertEquals(message.getId().replace("message", "payload"), message.getPayload());
+
+        Map<String, Long> detail = queueDAO.queuesDetail();
+        assertEquals(2L, detail.get(queueName).longValue());
+        Map<String, Long> shardDetail = queueDAO.queuesDetailVerbose().get(queueName).get("a");
+        assertEquals(2L, shardDetail.get("size").longValue());
+        assertEquals(1L, shardDetail.get("uacked").longValue());
+
+        queueDAO.flush(queueName);
+        assertEquals(0, queueDAO.getSize(queueName));
+        assertTrue(queueDAO.pollMessages(queueName, 2, 0).isEmpty());
+    }
+
+    @Test
+    public void testGetBucket() {
+        assertEquals(0, queueDAO.getBucket(59999));
+        assertEquals(1, queueDAO.getBucket(60000));
+    }
+}
@@ -54,7 +54,7 @@ public class StatementsTest {
 
     @Test
     public void testGetSelectTaskFromLookupTableStatement() {
-        String statement = "SELECT workflow_id FROM junit.task_lookup WHERE task_id=?;";
+        String statement = "SELECT workflow_id,shard_id FROM junit.task_lookup WHERE task_id=?;";
         assertEquals(statement, statements.getSelectTaskFromLookupTableStatement());
     }
 
@@ -76,9 +76,15 @@ public class StatementsTest {
         assertEquals(statement, statements.getUpdateTotalPartitionsStatement());
     }
 
+    @Test
+    public void testGetUpdateTotalPartitionsIfLowerStatement() {
+        String statement = "UPDATE junit.workflows SET total_partitions=? WHERE workflow_id=? AND shard_id=1 IF total_partitions<?;";
+        assertEquals(statement, statements.getUpdateTotalPartitionsIfLowerStatement());
+    }
+
     @Test
     public void testGetUpdateTaskLookupStatement() {
-        String statement = "UPDATE junit.task_lookup SET workflow_id=? WHERE task_id=?;";
+        String statement = "UPDATE junit.task_lookup SET workflow_id=?,shard_id=? WHERE task_id=?;";
         assertEquals(statement, statements.getUpdateTaskLookupStatement());
     }
 
@@ -99,4 +105,304 @@ public class StatementsTest {
         String statement = "DELETE FROM junit.workflows WHERE workflow_id=? AND shard_id=? AND entity='task' AND task_id=?;";
         assertEquals(statement, statements.getDeleteTaskStatement());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testGetInsertPendingWorkflowStatement() {
+        String statement = "INSERT INTO junit.pending_workflows (workflow_type,shard_id,workflow_id) VALUES (?,?,?) IF NOT EXISTS;";
+        assertEquals(statement, statements.getInsertPendingWorkflowStatement());
+    }
+
+    @Test
+    public void testGetInsertInProgressTaskStatement() {
+        String statement = "INSERT INTO junit.in_progress_tasks (task_def_name,shard_id,task_id,workflow_id) VALUES (?,?,?,?) IF NOT EXISTS;";
+        assertEquals(statement, statements.getInsertInProgressTaskStatement());
+    }
+
+    @Test
+    public void testGetInsertPollDataStatement() {
+        String statement = "INSERT INTO junit.poll_data (queue_name,domain,payload) VALUES (?,?,?);";
+        assertEquals(statement, statements.getInsertPollDataStatement());
+    }
+
+    @Test
+    public void testGetInsertEventExecutionStatement() {
+        String statement = "INSERT INTO junit.event_executions (message_id,event_handler_name,event_name,execution_id,payload) VALUES (?,?,?,?,?) IF NOT EXISTS;";
+        assertEquals(statement, statements.getInsertEventExecutionStatement());
+    }
+
+    @Test
+    public void testGetInsertTaskDefStatement() {
+        String statement = "INSERT INTO junit.task_definitions (task_defs,task_def_name,payload) VALUES ('task_defs',?,?);";
+        assertEquals(statement, statements.getInsertTaskDefStatement());
+    }
+
+    @Test
+    public void testGetInsertWorkflowDefStatement() {
+        String statement = "INSERT INTO junit.workflow_definitions (workflow_def_name,version,payload) VALUES (?,?,?) IF NOT EXISTS;";
+        assertEquals(statement, statements.getInsertWorkflowDefStatement());
+    }
+
+    @Test
+    public void testGetInsertWorkflowDefNameStatement() {
+        String statement = "INSERT INTO junit.workflow_def_names (workflow_defs,workflow_def_name) VALUES ('workflow_defs',?);";
+        assertEquals(statement, statements.getInsertWorkflowDefNameStatement());
+    }
+
+    @Test
+    public void testGetInsertEventHandlerStatement() {
+        String statement = "INSERT INTO junit.event_handlers (handlers,event_handler_name,payload) VALUES ('event_handlers',?,?) IF NOT EXISTS;";
+        assertEquals(statement, statements.getInsertEventHandlerStatement());
+    }
+
+    @Test
+    public void testGetInsertQueueMessageStatement() {
+        String statement = "INSERT INTO junit.queue_messages (queue_name,bucket,message_id,deliver_on,priority,payload,lease_until) VALUES (?,?,?,?,?,?,0);";
+        assertEquals(statement, statements.getInsertQueueMessageStatement());
+    }
+
+    @Test
+    public void testGetInsertQueueMessageIndexStatement() {
+        String statement = "INSERT INTO junit.queue_message_index (queue_name,message_id,bucket) VALUES (?,?,?) IF NOT EXISTS;";
+        assertEquals(statement, statements.getInsertQueueMessageIndexStatement());
+    }
+
+    @Test
+    public void testGetInsertQueueBucketStatement() {
+        String statement = "INSERT INTO junit.queue_buckets (queue_name,bucket) VALUES (?,?);";
+        assertEquals(statement, statements.getInsertQueueBucketStatement());
+    }
+
+    @Test
+    public void testGetSelectPendingWorkflowStatement() {
+        String statement = "SELECT workflow_id FROM junit.pending_workflows WHERE workflow_type=? AND shard_id=? AND workflow_id=?;";
+        assertEquals(statement, statements.getSelectPendingWorkflowStatement());
+    }
+
+    @Test
+    public void testGetSelectPendingWorkflowsStatement() {
+        String statement = "SELECT workflow_id FROM junit.pending_workflows WHERE workflow_type=? AND shard_id=?;";
+        assertEquals(statement, statements.getSelectPendingWorkflowsStatement());
+    }
+
+    @Test
+    public void testGetSelectInProgressTaskStatement() {
+        String statement = "SELECT task_id FROM junit.in_progress_tasks WHERE task_def_name=? AND shard_id=? AND task_id=?;";
+        assertEquals(statement, statements.getSelectInProgressTaskStatement());
+    }
+
+    @Test
+    public void testGetSelectCounterStatement() {
+        String statement = "SELECT counter_value FROM junit.counters WHERE entity=? AND name=?;";
+        assertEquals(statement, statements.getSelectCounterStatement());
+    }
+
+    @Test
+    public void testGetSelectPollDataStatement() {
+        String statement = "SELECT payload FROM junit.poll_data WHERE queue_name=? AND domain=?;";
+        assertEquals(statement, statements.getSelectPollDataStatement());
+    }
+
+    @Test
+    public void testGetSelectAllPollDataStatement() {
+        String statement = "SELECT payload FROM junit.poll_data WHERE queue_name=?;";
+        assertEquals(statement, statements.getSelectAllPollDataStatement());
+    }
+
+    @Test
+    public void testGetSelectEventExecutionsStatement() {
+        String statement = "SELECT payload FROM junit.event_executions WHERE message_id=? AND event_handler_name=? AND event_name=? LIMIT ?;";
+        assertEquals(statement, statements.getSelectEventExecutionsStatement());
+    }
+
+    @Test
+    public void testGetSelectTaskDefStatement() {
+        String statement = "SELECT payload FROM junit.task_definitions WHERE task_defs='task_defs' AND task_def_name=?;";
+        assertEquals(statement, statements.getSelectTaskDefStatement());
+    }
+
+    @Test
+    public void testGetSelectAllTaskDefsStatement() {
+        String statement = "SELECT payload FROM junit.task_definitions WHERE task_defs='task_defs';";
+        assertEquals(statement, statements.getSelectAllTaskDefsStatement());
+    }
+
+    @Test
+    public void testGetSelectWorkflowDefStatement() {
+        String statement = "SELECT payload FROM junit.workflow_definitions WHERE workflow_def_name=? AND version=?;";
+        assertEquals(statement, statements.getSelectWorkflowDefStatement());
+    }
+
+    @Test
+    public void testGetSelectLatestWorkflowDefStatement() {
+        String statement = "SELECT payload FROM junit.workflow_definitions WHERE workflow_def_name=? ORDER BY version DESC LIMIT 1;";
+        assertEquals(statement, statements.getSelectLatestWorkflowDefStatement());
+    }
+
+    @Test
+    public void testGetSelectAllWorkflowDefVersionsStatement() {
+        String statement = "SELECT payload FROM junit.workflow_definitions WHERE workflow_def_name=?;";
+        assertEquals(statement, statements.getSelectAllWorkflowDefVersionsStatement());
+    }
+
+    @Test
+    public void testGetSelectWorkflowDefNamesStatement() {
+        String statement = "SELECT workflow_def_name FROM junit.workflow_def_names WHERE workflow_defs='workflow_defs';";
+        assertEquals(statement, statements.getSelectWorkflowDefNamesStatement());
+    }
+
+    @Test
+    public void testGetSelectAllEventHandlersStatement() {
+        String statement = "SELECT payload FROM junit.event_handlers WHERE handlers='event_handlers';";
+        assertEquals(statement, statements.getSelectAllEventHandlersStatement());
+    }
+
+    @Test
+    public void testGetSelectQueueMessagesStatement() {
+        String statement = "SELECT message_id,deliver_on,priority,payload,lease_until FROM junit.queue_messages WHERE queue_name=? AND bucket=?;";
+        assertEquals(statement, statements.getSelectQueueMessagesStatement());
+    }
+
+    @Test
+    public void testGetSelectDueQueueMessagesStatement() {
+        String statement = "SELECT message_id,deliver_on,priority,payload,lease_until FROM junit.queue_messages WHERE queue_name=? AND bucket=? AND deliver_on<=? AND lease_until<=? ALLOW FILTERING;";
+        assertEquals(statement, statements.getSelectDueQueueMessagesStatement());
+    }
+
+    @Test
+    public void testGetSelectFirstQueueMessageStatement() {
+        String statement = "SELECT message_id FROM junit.queue_messages WHERE queue_name=? AND bucket=? LIMIT 1;";
+        assertEquals(statement, statements.getSelectFirstQueueMessageStatement());
+    }
+
+    @Test
+    public void testGetSelectQueueMessageStatement() {
+        String statement = "SELECT message_id,deliver_on,priority,payload,lease_until FROM junit.queue_messages WHERE queue_name=? AND bucket=? AND message_id=?;";
+        assertEquals(statement, statements.getSelectQueueMessageStatement());
+    }
+
+    @Test
+    public void testGetSelectQueueMessageIndexStatement() {
+        String statement = "SELECT bucket FROM junit.queue_message_index WHERE queue_name=? AND message_id=?;";
+        assertEquals(statement, statements.getSelectQueueMessageIndexStatement());
+    }
+
+    @Test
+    public void testGetSelectQueueBucketsStatement() {
+        String statement = "SELECT bucket FROM junit.queue_buckets WHERE queue_name=? AND bucket<=?;";
+        assertEquals(statement, statements.getSelectQueueBucketsStatement());
+    }
+
+    @Test
+    public void testGetSelectAllQueueBucketsStatement() {
+        String statement = "SELECT bucket FROM junit.queue_buckets WHERE queue_name=?;";
+        assertEquals(statement, statements.getSelectAllQueueBucketsStatement());
+    }
+
+    @Test
+    public void testGetSelectQueueNamesStatement() {
+        String statement = "SELECT DISTINCT queue_name FROM junit.queue_buckets;";
+        assertEquals(statement, statements.getSelectQueueNamesStatement());
+    }
+
+    @Test
+    public void testGetUpdateCounterStatement() {
+        String statement = "UPDATE junit.counters SET counter_value=counter_value+? WHERE entity=? AND name=?;";
+        assertEquals(statement, statements.getUpdateCounterStatement());
+    }
+
+    @Test
+    public void testGetUpdateEventExecutionStatement() {
+        String statement = "UPDATE junit.event_executions SET payload=? WHERE message_id=? AND event_handler_name=? AND event_name=? AND execution_id=?;";
+        assertEquals(statement, statements.getUpdateEventExecutionStatement());
+    }
+
+    @Test
+    public void testGetUpdateWorkflowDefStatement() {
+        String statement = "UPDATE junit.workflow_definitions SET payload=? WHERE workflow_def_name=? AND version=?;";
+        assertEquals(statement, statements.getUpdateWorkflowDefStatement());
+    }
+
+    @Test
+    public void testGetUpdateEventHandlerStatement() {
+        String statement = "UPDATE junit.event_handlers SET payload=? WHERE handlers='event_handlers' AND event_handler_name=? IF EXISTS;";
+        assertEquals(statement, statements.getUpdateEventHandlerStatement());
+    }
+
+    @Test
+    public void testGetUpdateQueueMessageLeaseStatement() {
+        String statement = "UPDATE junit.queue_messages SET lease_until=? WHERE queue_name=? AND bucket=? AND message_id=? IF lease_until=?;";
+        assertEquals(statement, statements.getUpdateQueueMessageLeaseStatement());
+    }
+
+    @Test
+    public void testGetUpdateQueueMessageUnackTimeoutStatement() {
+        String statement = "UPDATE junit.queue_messages SET lease_until=? WHERE queue_name=? AND bucket=? AND message_id=? IF EXISTS;";
+        assertEquals(statement, statements.getUpdateQueueMessageUnackTimeoutStatement());
+    }
+
+    @Test
+    public void testGetUpdateQueueMessageIndexStatement() {
+        String statement = "UPDATE junit.queue_message_index SET bucket=? WHERE queue_name=? AND message_id=? IF bucket=?;";
+        assertEquals(statement, statements.getUpdateQueueMessageIndexStatement());
+    }
+
+    @Test
+    public void testGetDeletePendingWorkflowStatement() {
+        String statement = "DELETE FROM junit.pending_workflows WHERE workflow_type=? AND shard_id=? AND workflow_id=? IF EXISTS;";
+        assertEquals(statement, statements.getDeletePendingWorkflowStatement());
+    }
+
+    @Test
+    public void testGetDeleteInProgressTaskStatement() {
+        String statement = "DELETE FROM junit.in_progress_tasks WHERE task_def_name=? AND shard_id=? AND task_id=? IF EXISTS;";
+        assertEquals(statement, statements.getDeleteInProgressTaskStatement());
+    }
+
+    @Test
+    public void testGetDeleteEventExecutionStatement() {
+        String statement = "DELETE FROM junit.event_executions WHERE message_id=? AND event_handler_name=? AND event_name=? AND execution_id=?;";
+        assertEquals(statement, statements.getDeleteEventExecutionStatement());
+    }
+
+    @Test
+    public void testGetDeleteTaskDefStatement() {
+        String statement = "DELETE FROM junit.task_definitions WHERE task_defs='task_defs' AND task_def_name=? IF EXISTS;";
+        assertEquals(statement, statements.getDeleteTaskDefStatement());
+    }
+
+    @Test
+    public void testGetDeleteWorkflowDefStatement() {
+        String statement = "DELETE FROM junit.workflow_definitions WHERE workflow_def_name=? AND version=? IF EXISTS;";
+        assertEquals(statement, statements.getDeleteWorkflowDefStatement());
+    }
+
+    @Test
+    public void testGetDeleteWorkflowDefNameStatement() {
+        String statement = "DELETE FROM junit.workflow_def_names WHERE workflow_defs='workflow_defs' AND workflow_def_name=?;";
+        assertEquals(statement, statements.getDeleteWorkflowDefNameStatement());
+    }
+
+    @Test
+    public void testGetDeleteEventHandlerStatement() {
+        String statement = "DELETE FROM junit.event_handlers WHERE handlers='event_handlers' AND event_handler_name=? IF EXISTS;";
+        assertEquals(statement, statements.getDeleteEventHandlerStatement());
+    }
+
+    @Test
+    public void testGetDeleteQueueMessageStatement() {
+        String statement = "DELETE FROM junit.queue_messages WHERE queue_name=? AND bucket=? AND message_id=?;";
+        assertEquals(statement, statements.getDeleteQueueMessageStatement());
+    }
+
+    @Test
+    public void testGetDeleteQueueMessageIndexStatement() {
+        String statement = "DELETE FROM junit.queue_message_index WHERE queue_name=? AND message_id=? IF bucket=?;";
+        assertEquals(statement, statements.getDeleteQueueMessageIndexStatement());
+    }
+
+    @Test
+    public void testGetDeleteQueueBucketStatement() {
+        String statement = "DELETE FROM junit.queue_buckets WHERE queue_name=? AND bucket=?;";
+        assertEquals(statement, statements.getDeleteQueueBucketStatement());
+    }
+}
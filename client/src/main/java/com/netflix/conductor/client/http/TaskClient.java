@@ -38,6 +38,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -64,6 +65,9 @@ public class TaskClient extends ClientBase {
     private static GenericType<Map<String, Integer>> queueSizeMap = new GenericType<Map<String, Integer>>() {
     };
 
+    private static GenericType<Map<String, Object>> bulkResponse = new GenericType<Map<String, Object>>() {
+    };
+
     private static final Logger logger = LoggerFactory.getLogger(TaskClient.class);
 
     /**
@@ -235,6 +239,21 @@ public class TaskClient extends ClientBase {
         postForEntityWithRequestOnly("tasks", taskResult);
     }
 
+    /**
+     * Updates the results of several task executions, with a single decide per workflow on the server.
+     * The large payloads are not uploaded by this method, see {@link #evaluateAndUploadLargePayload(TaskResult, String)}.
+     *
+     * @param taskResults the {@link TaskResult}s of the executed tasks to be updated.
+     * @return the reason why a task could not be updated, by task id, empty if all of them were
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, String> updateTasks(List<TaskResult> taskResults) {
+        Preconditions.checkArgument(taskResults != null && !taskResults.isEmpty(), "Task results cannot be empty");
+        Map<String, Object> response = postForEntity("tasks/batch", taskResults, null, bulkResponse);
+        Object errors = response == null ? null : response.get("bulkErrorResults");
+        return errors == null ? Collections.emptyMap() : (Map<String, String>) errors;
+    }
+
     public void evaluateAndUploadLargePayload(TaskResult taskResult, String taskType) {
         Preconditions.checkNotNull(taskResult, "Task result cannot be null");
         Preconditions.checkArgument(StringUtils.isBlank(taskResult.getExternalOutputPayloadStoragePath()), "External Storage Path must not be set");
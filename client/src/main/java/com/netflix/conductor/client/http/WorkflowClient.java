@@ -22,6 +22,7 @@ import com.netflix.conductor.client.exceptions.ConductorClientException;
 import com.netflix.conductor.client.task.WorkflowTaskMetrics;
 import com.netflix.conductor.common.metadata.workflow.RerunWorkflowRequest;
 import com.netflix.conductor.common.metadata.workflow.StartWorkflowRequest;
+import com.netflix.conductor.common.run.BulkStartWorkflowResponse;
 import com.netflix.conductor.common.run.SearchResult;
 import com.netflix.conductor.common.run.Workflow;
 import com.netflix.conductor.common.run.WorkflowSummary;
@@ -109,6 +110,38 @@ public class WorkflowClient extends ClientBase {
         Preconditions.checkArgument(StringUtils.isBlank(startWorkflowRequest.getExternalInputPayloadStoragePath()), "External Storage Path must not be set");
 
         String version = startWorkflowRequest.getVersion() != null ? startWorkflowRequest.getVersion().toString() : "latest";
+        evaluateAndUploadLargePayload(startWorkflowRequest, version);
+        try {
+            return postForEntity("workflow", startWorkflowRequest, null, String.class, startWorkflowRequest.getName());
+        } catch (ConductorClientException e) {
+            String errorMsg = String.format("Unable to send start workflow request:%s, version:%s", startWorkflowRequest.getName(), version);
+            logger.error(errorMsg, e);
+            WorkflowTaskMetrics.incrementWorkflowStartErrorCount(startWorkflowRequest.getName(), e);
+            throw e;
+        }
+    }
+
+    /**
+     * Starts a list of workflows, persisted in a single batch on the server. Their first tasks are scheduled
+     * asynchronously. The large input payloads are handled like in {@link #startWorkflow(StartWorkflowRequest)}.
+     *
+     * @param startWorkflowRequests the {@link StartWorkflowRequest}s of the workflows to start
+     * @return the ids of the workflows in the order of the requests, and why the ones not started were not
+     * @throws ConductorClientException if an input payload cannot be handled
+     */
+    public BulkStartWorkflowResponse startWorkflows(List<StartWorkflowRequest> startWorkflowRequests) {
+        Preconditions.checkArgument(startWorkflowRequests != null && !startWorkflowRequests.isEmpty(), "StartWorkflowRequests cannot be empty");
+        for (StartWorkflowRequest startWorkflowRequest : startWorkflowRequests) {
+            Preconditions.checkNotNull(startWorkflowRequest, "StartWorkflowRequest cannot be null");
+            Preconditions.checkArgument(StringUtils.isNotBlank(startWorkflowRequest.getName()), "Workflow name cannot be null or empty");
+            Preconditions.checkArgument(StringUtils.isBlank(startWorkflowRequest.getExternalInputPayloadStoragePath()), "External Storage Path must not be set");
+            String version = startWorkflowRequest.getVersion() != null ? startWorkflowRequest.getVersion().toString() : "latest";
+            evaluateAndUploadLargePayload(startWorkflowRequest, version);
+        }
+        return postForEntity("workflow/bulk/start", startWorkflowRequests, null, BulkStartWorkflowResponse.class);
+    }
+
+    private void evaluateAndUploadLargePayload(StartWorkflowRequest startWorkflowRequest, String version) {
         try (ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream()) {
             objectMapper.writeValue(byteArrayOutputStream, startWorkflowRequest.getInput());
             byte[] workflowInputBytes = byteArrayOutputStream.toByteArray();
@@ -132,14 +165,6 @@ public class WorkflowClient extends ClientBase {
             WorkflowTaskMetrics.incrementWorkflowStartErrorCount(startWorkflowRequest.getName(), e);
             throw new ConductorClientException(errorMsg, e);
         }
-        try {
-            return postForEntity("workflow", startWorkflowRequest, null, String.class, startWorkflowRequest.getName());
-        } catch (ConductorClientException e) {
-            String errorMsg = String.format("Unable to send start workflow request:%s, version:%s", startWorkflowRequest.getName(), version);
-            logger.error(errorMsg, e);
-            WorkflowTaskMetrics.incrementWorkflowStartErrorCount(startWorkflowRequest.getName(), e);
-            throw e;
-        }
     }
 
     /**
@@ -28,11 +28,14 @@ import org.slf4j.LoggerFactory;
 
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
@@ -41,6 +44,7 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 import static com.netflix.conductor.client.task.WorkflowTaskMetrics.getPollTimer;
 import static com.netflix.conductor.client.task.WorkflowTaskMetrics.incrementTaskPollCount;
@@ -76,6 +80,14 @@ public class WorkflowTaskCoordinator {
 
 	private String workerNamePrefix;
 
+	private int updateBatchSize = 1;
+
+	private long updateBatchFlushIntervalMs;
+
+	private BlockingQueue<PendingUpdate> pendingUpdates;
+
+	private ScheduledExecutorService updateFlushExecutorService;
+
 	private static final String DOMAIN = "domain";
 
 	private static final String ALL_WORKERS = "all";
@@ -132,6 +144,10 @@ public class WorkflowTaskCoordinator {
 
 		private TaskClient taskClient;
 
+		private int updateBatchSize = 1;
+
+		private long updateBatchFlushIntervalMs = 100;
+
 		/**
 		 *
 		 * @param workerNamePrefix prefix to be used for worker names, defaults to workflow-worker- if not supplied.
@@ -186,6 +202,36 @@ public class WorkflowTaskCoordinator {
 			return this;
 		}
 
+		/**
+		 *
+		 * @param updateBatchSize # of task results sent to the server in a single update call. Defaults to 1: every
+		 *                        result is updated as soon as the task is executed. When greater than 1, the results are
+		 *                        buffered and sent as one batch when the batch is full or the flush interval elapsed.
+		 * @return Builder instance
+		 * @see #withUpdateBatchFlushInterval(long)
+		 */
+		public Builder withUpdateBatchSize(int updateBatchSize) {
+			if(updateBatchSize < 1) {
+				throw new IllegalArgumentException("Update batch size cannot be less than 1");
+			}
+			this.updateBatchSize = updateBatchSize;
+			return this;
+		}
+
+		/**
+		 *
+		 * @param updateBatchFlushIntervalMs time in millisecond a task result is buffered at most before it is sent to the server, defaults to 100.
+		 * @return Builder instance
+		 * @see #withUpdateBatchSize(int)
+		 */
+		public Builder withUpdateBatchFlushInterval(long updateBatchFlushIntervalMs) {
+			if(updateBatchFlushIntervalMs < 1) {
+				throw new IllegalArgumentException("Update batch flush interval cannot be less than 1 ms");
+			}
+			this.updateBatchFlushIntervalMs = updateBatchFlushIntervalMs;
+			return this;
+		}
+
 		/**
 		 *
 		 * @param client Task Client used to communicate to Conductor server
@@ -240,8 +286,11 @@ public class WorkflowTaskCoordinator {
 			if(taskClient == null) {
 				throw new IllegalArgumentException("No TaskClient provided. use withTaskClient() to provide one");
 			}
-			return new WorkflowTaskCoordinator(eurekaClient, taskClient, threadCount, sleepWhenRetry, updateRetryCount,
-											   workerQueueSize, taskWorkers, workerNamePrefix);
+			WorkflowTaskCoordinator coordinator = new WorkflowTaskCoordinator(eurekaClient, taskClient, threadCount, sleepWhenRetry,
+					updateRetryCount, workerQueueSize, taskWorkers, workerNamePrefix);
+			coordinator.updateBatchSize = updateBatchSize;
+			coordinator.updateBatchFlushIntervalMs = updateBatchFlushIntervalMs;
+			return coordinator;
 		}
 	}
 
@@ -273,6 +322,18 @@ public class WorkflowTaskCoordinator {
 			// [pollForTask] 轮训方法
 			scheduledExecutorService.scheduleWithFixedDelay(()->pollForTask(worker), worker.getPollingInterval(), worker.getPollingInterval(), TimeUnit.MILLISECONDS);
 		});
+
+		if (updateBatchSize > 1) {
+			logger.info("Updating the task results in batches of {}, flushed every {} ms", updateBatchSize, updateBatchFlushIntervalMs);
+			this.pendingUpdates = new LinkedBlockingQueue<>();
+			this.updateFlushExecutorService = Executors.newSingleThreadScheduledExecutor(runnable -> {
+				Thread thread = new Thread(runnable);
+				thread.setName(workerNamePrefix + "update-flush");
+				thread.setDaemon(true);
+				return thread;
+			});
+			updateFlushExecutorService.scheduleWithFixedDelay(this::flushUpdates, updateBatchFlushIntervalMs, updateBatchFlushIntervalMs, TimeUnit.MILLISECONDS);
+		}
 	}
 
 	public void shutdown() {
@@ -281,6 +342,13 @@ public class WorkflowTaskCoordinator {
 
 		shutdownExecutorService(this.scheduledExecutorService, SHUTDOWN_WAIT_TIME_IN_SEC);
 		shutdownExecutorService(this.executorService, SHUTDOWN_WAIT_TIME_IN_SEC);
+
+		if (this.updateFlushExecutorService != null) {
+			// the workers are done, send what they left in the buffer
+			this.updateFlushExecutorService.shutdown();
+			shutdownExecutorService(this.updateFlushExecutorService, SHUTDOWN_WAIT_TIME_IN_SEC);
+			flushUpdates();
+		}
 	}
 
 	private void shutdownExecutorService(ExecutorService executorService, long timeout) {
@@ -440,6 +508,14 @@ public class WorkflowTaskCoordinator {
 		return updateRetryCount;
 	}
 
+	/**
+	 *
+	 * @return # of task results sent to the server in a single update call
+	 */
+	public int getUpdateBatchSize() {
+		return updateBatchSize;
+	}
+
 	/**
 	 *
 	 * @return prefix used for worker names
@@ -468,6 +544,14 @@ public class WorkflowTaskCoordinator {
                 return null;
             }, null, null, count, evaluatePayloadDesc, methodName);
 
+            if (pendingUpdates != null) {
+                pendingUpdates.add(new PendingUpdate(count, task, result, worker));
+                if (pendingUpdates.size() >= updateBatchSize) {
+                    updateFlushExecutorService.execute(this::flushUpdates);
+                }
+                return;
+            }
+
             new RetryUtil<>().retryOnException(() ->
             {
             	// 上传server 更新Task 状态信息。
@@ -481,6 +565,49 @@ public class WorkflowTaskCoordinator {
 		}
 	}
 
+	/**
+	 * Sends the buffered task results in batches. The results the server could not apply, or all of them if the
+	 * batch could not be sent, are then updated one by one, so that they are retried and reported like unbuffered ones.
+	 */
+	private synchronized void flushUpdates() {
+		List<PendingUpdate> batch = new ArrayList<>(updateBatchSize);
+		while (pendingUpdates.drainTo(batch, updateBatchSize) > 0) {
+			List<TaskResult> results = batch.stream().map(update -> update.result).collect(Collectors.toList());
+			Map<String, String> errors;
+			try {
+				errors = new RetryUtil<Map<String, String>>().retryOnException(() -> taskClient.updateTasks(results),
+						null, null, updateRetryCount, String.format("Retry updating a batch of %d task results", results.size()), "flushUpdates");
+			} catch (Exception e) {
+				logger.error("Failed to update a batch of {} task results, updating them one by one", results.size(), e);
+				errors = null;
+			}
+
+			for (PendingUpdate update : batch) {
+				if (errors == null || errors.containsKey(update.result.getTaskId())) {
+					if (errors != null) {
+						logger.warn("Batch update of task {} failed: {}", update.result.getTaskId(), errors.get(update.result.getTaskId()));
+					}
+					updateOne(update);
+				}
+			}
+			batch.clear();
+		}
+	}
+
+	private void updateOne(PendingUpdate update) {
+		try {
+			new RetryUtil<>().retryOnException(() ->
+			{
+				taskClient.updateTask(update.result);
+				return null;
+			}, null, null, update.retryCount, String.format("Retry updating task result: %s for task: %s in worker: %s", update.result.toString(), update.task.getTaskDefName(), update.worker.getIdentity()), "updateWithRetry");
+		} catch (Exception e) {
+			update.worker.onErrorUpdate(update.task);
+			WorkflowTaskMetrics.incrementTaskUpdateErrorCount(update.worker.getTaskDefName(), e);
+			logger.error(String.format("Failed to update result: %s for task: %s in worker: %s", update.result.toString(), update.task.getTaskDefName(), update.worker.getIdentity()), e);
+		}
+	}
+
 	private void handleException(Throwable t, TaskResult result, Worker worker, Task task) {
 		logger.error(String.format("Error while executing task %s", task.toString()), t);
 		WorkflowTaskMetrics.incrementTaskExecutionErrorCount(worker.getTaskDefName(), t);
@@ -505,4 +632,19 @@ public class WorkflowTaskCoordinator {
 		logger.warn("Returning task {} back to conductor", task.getTaskId());
 		updateWithRetry(updateRetryCount, task, new TaskResult(task), worker);
 	}
+
+	private static class PendingUpdate {
+
+		private final int retryCount;
+		private final Task task;
+		private final TaskResult result;
+		private final Worker worker;
+
+		private PendingUpdate(int retryCount, Task task, TaskResult result, Worker worker) {
+			this.retryCount = retryCount;
+			this.task = task;
+			this.result = result;
+			this.worker = worker;
+		}
+	}
 }
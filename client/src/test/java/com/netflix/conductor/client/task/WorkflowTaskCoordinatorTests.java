@@ -25,6 +25,9 @@ import com.netflix.conductor.common.metadata.tasks.TaskResult;
 import org.junit.Test;
 import org.mockito.Mockito;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
@@ -267,4 +270,62 @@ public class WorkflowTaskCoordinatorTests {
 		// When evaluateAndUploadLargePayload fails indefinitely, task update shouldn't be called.
 		verify(taskClient, times(0)).updateTask(any());
 	}
+
+	@Test
+	public void testBatchedUpdates() {
+		Worker worker = mock(Worker.class);
+		when(worker.getPollingInterval()).thenReturn(3000);
+		when(worker.getPollCount()).thenReturn(3);
+		when(worker.getTaskDefName()).thenReturn("test");
+		when(worker.preAck(any())).thenReturn(true);
+		when(worker.execute(any())).thenAnswer(invocation -> {
+			Task task = (Task) invocation.getArguments()[0];
+			task.setStatus(Task.Status.COMPLETED);
+			return new TaskResult(task);
+		});
+
+		TaskClient client = Mockito.mock(TaskClient.class);
+		WorkflowTaskCoordinator coordinator = new WorkflowTaskCoordinator.Builder()
+				.withWorkers(worker)
+				.withThreadCount(3)
+				.withUpdateBatchSize(3)
+				.withUpdateBatchFlushInterval(60000)
+				.withTaskClient(client)
+				.build();
+		assertEquals(3, coordinator.getUpdateBatchSize());
+
+		List<Task> tasks = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			Task task = new Task();
+			task.setTaskId("t" + i);
+			task.setStatus(Task.Status.IN_PROGRESS);
+			tasks.add(task);
+		}
+		when(client.batchPollTasksInDomain(anyString(), anyString(), anyString(), anyInt(), anyInt())).thenReturn(tasks);
+		when(client.ack(anyString(), anyString())).thenReturn(true);
+
+		List<String> batchedTaskIds = new ArrayList<>();
+		when(client.updateTasks(any())).thenAnswer(invocation -> {
+			@SuppressWarnings("unchecked")
+			List<TaskResult> results = (List<TaskResult>) invocation.getArguments()[0];
+			results.forEach(result -> batchedTaskIds.add(result.getTaskId()));
+			return Collections.singletonMap("t1", "not found");
+		});
+		CountDownLatch latch = new CountDownLatch(1);
+		doAnswer(invocation -> {
+					TaskResult result = (TaskResult) invocation.getArguments()[0];
+					assertEquals("t1", result.getTaskId());
+					latch.countDown();
+					return null;
+				}
+		).when(client).updateTask(any());
+
+		coordinator.init();
+		Uninterruptibles.awaitUninterruptibly(latch);
+
+		// the three results are sent as one batch, the one the server could not apply is then updated on its own
+		verify(client, times(1)).updateTasks(any());
+		assertEquals(3, batchedTaskIds.size());
+		verify(client, times(1)).updateTask(any());
+	}
 }
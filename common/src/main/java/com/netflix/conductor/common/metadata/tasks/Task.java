@@ -706,7 +706,16 @@ public class Task {
     }
 
     public Task copy() {
-        Task copy = new Task();
+        return copyTo(new Task());
+    }
+
+    /**
+     * Copies the fields carried over by {@link #copy()} to the given task, for subclasses to copy to their own type.
+     *
+     * @param copy the task to copy to
+     * @return the given task
+     */
+    protected <T extends Task> T copyTo(T copy) {
         copy.setCallbackAfterSeconds(callbackAfterSeconds);
         copy.setCallbackFromWorker(callbackFromWorker);
         copy.setCorrelationId(correlationId);
@@ -28,7 +28,6 @@ import javax.validation.constraints.Min;
 import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.NotNull;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -80,6 +79,8 @@ public class WorkflowDef extends Auditable {
 	@ProtoField(id = 10)
 	private boolean workflowStatusListenerEnabled = false;
 
+	private transient volatile WorkflowGraph graph;
+
 	/**
 	 * @return the name
 	 */
@@ -237,37 +238,28 @@ public class WorkflowDef extends Auditable {
 	}
 
 	public WorkflowTask getNextTask(String taskReferenceName){
-		Iterator<WorkflowTask> it = tasks.iterator();
-		while(it.hasNext()){
-			 WorkflowTask task = it.next();
-			 WorkflowTask nextTask = task.next(taskReferenceName, null);
-			 if(nextTask != null){
-				 return nextTask;
-			 }
-
-			 if(task.getTaskReferenceName().equals(taskReferenceName) || task.has(taskReferenceName)){
-				 break;
-			 }
-		}
-		if(it.hasNext()){
-			return it.next();
-		}
-		return null;
+		return graph().getNextTask(taskReferenceName);
 	}
 
 	public WorkflowTask getTaskByRefName(String taskReferenceName){
-		return collectTasks().stream()
-				.filter(workflowTask -> workflowTask.getTaskReferenceName().equals(taskReferenceName))
-				.findFirst()
-				.orElse(null);
+		return graph().getTaskByRefName(taskReferenceName);
 	}
 
 	public List<WorkflowTask> collectTasks() {
-		List<WorkflowTask> tasks = new LinkedList<>();
-		for (WorkflowTask workflowTask : this.tasks) {
-			tasks.addAll(workflowTask.collectTasks());
+		return new LinkedList<>(graph().getAllTasks());
+	}
+
+	/**
+	 * The graph is built on first use, and rebuilt when the top level list of tasks changes.
+	 * Changes made deeper in the task tree after a lookup are not picked up.
+	 */
+	private WorkflowGraph graph() {
+		WorkflowGraph graph = this.graph;
+		if (graph == null || !graph.isBuiltFrom(tasks)) {
+			graph = new WorkflowGraph(tasks);
+			this.graph = graph;
 		}
-		return tasks;
+		return graph;
 	}
 
 	@Override
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2019 Netflix, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.conductor.common.metadata.workflow;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Index of the task tree of a {@link WorkflowDef}, so that the decider does not walk the whole tree for every lookup.
+ * <p>
+ * The tasks are indexed by reference name when the graph is built. The task following a given task is resolved with
+ * the same walk as before, once per reference name, and then served from memory.
+ */
+final class WorkflowGraph {
+
+    private final List<WorkflowTask> topLevelTasks;
+    private final int topLevelSize;
+
+    private final List<WorkflowTask> allTasks;
+    private final Map<String, WorkflowTask> tasksByRefName;
+    private final ConcurrentMap<String, Optional<WorkflowTask>> nextTasks = new ConcurrentHashMap<>();
+
+    WorkflowGraph(List<WorkflowTask> topLevelTasks) {
+        this.topLevelTasks = topLevelTasks;
+        this.topLevelSize = topLevelTasks.size();
+
+        List<WorkflowTask> allTasks = new ArrayList<>();
+        for (WorkflowTask workflowTask : topLevelTasks) {
+            allTasks.addAll(workflowTask.collectTasks());
+        }
+        Map<String, WorkflowTask> tasksByRefName = new HashMap<>();
+        for (WorkflowTask workflowTask : allTasks) {
+            tasksByRefName.putIfAbsent(workflowTask.getTaskReferenceName(), workflowTask);
+        }
+        this.allTasks = Collections.unmodifiableList(allTasks);
+        this.tasksByRefName = tasksByRefName;
+    }
+
+    /**
+     * Only the top level list of tasks is checked, the graph does not notice changes made deeper in the tree.
+     *
+     * @return true if the graph was built from this list of tasks, in its current state
+     */
+    boolean isBuiltFrom(List<WorkflowTask> topLevelTasks) {
+        return this.topLevelTasks == topLevelTasks && topLevelSize == topLevelTasks.size();
+    }
+
+    /**
+     * @return all the tasks of the tree, depth first
+     */
+    List<WorkflowTask> getAllTasks() {
+        return allTasks;
+    }
+
+    WorkflowTask getTaskByRefName(String taskReferenceName) {
+        return tasksByRefName.get(taskReferenceName);
+    }
+
+    WorkflowTask getNextTask(String taskReferenceName) {
+        if (taskReferenceName == null) {
+            return findNextTask(null);
+        }
+        return nextTasks.computeIfAbsent(taskReferenceName, ref -> Optional.ofNullable(findNextTask(ref))).orElse(null);
+    }
+
+    private WorkflowTask findNextTask(String taskReferenceName) {
+        Iterator<WorkflowTask> it = topLevelTasks.iterator();
+        while (it.hasNext()) {
+            WorkflowTask task = it.next();
+            WorkflowTask nextTask = task.next(taskReferenceName, null);
+            if (nextTask != null) {
+                return nextTask;
+            }
+
+            if (task.getTaskReferenceName().equals(taskReferenceName) || task.has(taskReferenceName)) {
+                break;
+            }
+        }
+        if (it.hasNext()) {
+            return it.next();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2019 Netflix, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.conductor.common.run;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Result of starting a list of workflows.
+ * <ul>
+ * <li>workflowIds: The ids of the started workflows, in the order of the requests, null for the ones not started</li>
+ * <li>errors: The reason why a workflow was not started, by position of its request</li>
+ * </ul>
+ */
+public class BulkStartWorkflowResponse {
+
+    private List<String> workflowIds = new ArrayList<>();
+    private Map<Integer, String> errors = new LinkedHashMap<>();
+
+    public List<String> getWorkflowIds() {
+        return workflowIds;
+    }
+
+    public void setWorkflowIds(List<String> workflowIds) {
+        this.workflowIds = workflowIds;
+    }
+
+    public Map<Integer, String> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(Map<Integer, String> errors) {
+        this.errors = errors;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        BulkStartWorkflowResponse that = (BulkStartWorkflowResponse) o;
+        return Objects.equals(workflowIds, that.workflowIds) &&
+                Objects.equals(errors, that.errors);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(workflowIds, errors);
+    }
+
+    @Override
+    public String toString() {
+        return "BulkStartWorkflowResponse{" +
+                "workflowIds=" + workflowIds +
+                ", errors=" + errors +
+                '}';
+    }
+}
@@ -122,6 +122,8 @@ public class Workflow extends Auditable{
 	@Max(value = 99, message = "workflow priority: ${validatedValue} should be maximum {value}")
 	private int priority;
 
+	private transient volatile TaskIndex taskIndex;
+
 	public Workflow(){
 
 	}
@@ -440,23 +442,29 @@ public class Workflow extends Auditable{
 		this.externalOutputPayloadStoragePath = externalOutputPayloadStoragePath;
 	}
 
+	/**
+	 * The tasks are looked up in an index, rebuilt when the list of tasks is replaced, grows, shrinks or gets another
+	 * last task. Tasks moved around without any of these changes are not picked up.
+	 *
+	 * @return the last task of the list with this reference name, null if there is none
+	 */
 	public Task getTaskByRefName(String refName) {
 		if (refName == null) {
 			throw new RuntimeException("refName passed is null.  Check the workflow execution.  For dynamic tasks, make sure referenceTaskName is set to a not null value");
 		}
-		LinkedList<Task> found = new LinkedList<>();
-		for (Task t : tasks) {
-			if (t.getReferenceTaskName() == null) {
-				throw new RuntimeException("Task " + t.getTaskDefName() + ", seq=" + t.getSeq() + " does not have reference name specified.");
-			}
-			if (t.getReferenceTaskName().equals(refName)) {
-				found.add(t);
-			}
+		TaskIndex index = this.taskIndex;
+		if (index == null || !index.isBuiltFrom(tasks)) {
+			index = new TaskIndex(tasks);
+			this.taskIndex = index;
 		}
-		if (found.isEmpty()) {
-			return null;
+		Task task = index.latestTasksByRefName.get(refName);
+		if (task != null && !refName.equals(task.getReferenceTaskName())) {
+			// the reference name of the task was changed in place
+			index = new TaskIndex(tasks);
+			this.taskIndex = index;
+			task = index.latestTasksByRefName.get(refName);
 		}
-		return found.getLast();
+		return task;
 	}
 
 	/**
@@ -549,4 +557,27 @@ public class Workflow extends Auditable{
 				getPriority()
         );
     }
+
+	private static class TaskIndex {
+		private final List<Task> tasks;
+		private final int size;
+		private final Task lastTask;
+		private final Map<String, Task> latestTasksByRefName = new HashMap<>();
+
+		private TaskIndex(List<Task> tasks) {
+			for (Task t : tasks) {
+				if (t.getReferenceTaskName() == null) {
+					throw new RuntimeException("Task " + t.getTaskDefName() + ", seq=" + t.getSeq() + " does not have reference name specified.");
+				}
+				latestTasksByRefName.put(t.getReferenceTaskName(), t);
+			}
+			this.tasks = tasks;
+			this.size = tasks.size();
+			this.lastTask = size == 0 ? null : tasks.get(size - 1);
+		}
+
+		private boolean isBuiltFrom(List<Task> tasks) {
+			return this.tasks == tasks && size == tasks.size() && (size == 0 || lastTask == tasks.get(size - 1));
+		}
+	}
 }
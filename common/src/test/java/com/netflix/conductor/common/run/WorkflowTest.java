@@ -0,0 +1,59 @@
+package com.netflix.conductor.common.run;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.netflix.conductor.common.metadata.tasks.Task;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class WorkflowTest {
+
+    @Test
+    public void testGetTaskByRefNameFollowsTheTaskList() {
+        Workflow workflow = new Workflow();
+        Task first = task("t1", 0);
+        workflow.getTasks().add(first);
+        workflow.getTasks().add(task("t2", 0));
+        assertSame(first, workflow.getTaskByRefName("t1"));
+        assertNull(workflow.getTaskByRefName("t3"));
+
+        Task retried = task("t1", 1);
+        workflow.getTasks().add(retried);
+        assertSame(retried, workflow.getTaskByRefName("t1"));
+
+        workflow.getTasks().remove(retried);
+        assertSame(first, workflow.getTaskByRefName("t1"));
+
+        first.setReferenceTaskName("t0");
+        assertNull(workflow.getTaskByRefName("t1"));
+        assertSame(first, workflow.getTaskByRefName("t0"));
+
+        workflow.setTasks(new ArrayList<>(Collections.singletonList(task("t3", 0))));
+        assertNull(workflow.getTaskByRefName("t0"));
+        assertEquals("t3", workflow.getTaskByRefName("t3").getReferenceTaskName());
+    }
+
+    @Test
+    public void testIndexIsNotSerialized() throws Exception {
+        ObjectMapper om = new ObjectMapper();
+        Workflow workflow = new Workflow();
+        workflow.getTasks().add(task("t1", 0));
+        workflow.getTaskByRefName("t1");
+
+        String json = om.writeValueAsString(workflow);
+        assertFalse(json.contains("taskIndex"));
+    }
+
+    private static Task task(String refName, int retryCount) {
+        Task task = new Task();
+        task.setReferenceTaskName(refName);
+        task.setRetryCount(retryCount);
+        return task;
+    }
+}
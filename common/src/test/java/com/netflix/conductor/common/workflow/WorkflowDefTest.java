@@ -107,6 +107,39 @@ public class WorkflowDefTest {
 		assertEquals("t1", nxt.getTaskReferenceName());
 	}
 
+	@Test
+	public void testLookupsFollowTopLevelChanges() {
+		WorkflowTask fork = new WorkflowTask();
+		fork.setType(TaskType.FORK_JOIN.name());
+		fork.setName("fork");
+		fork.setTaskReferenceName("fork");
+		fork.setForkTasks(Arrays.asList(Arrays.asList(createTask(1), createTask(2)), Collections.singletonList(createTask(3))));
+		WorkflowTask join = new WorkflowTask();
+		join.setType(TaskType.JOIN.name());
+		join.setName("join");
+		join.setTaskReferenceName("join");
+
+		WorkflowDef wf = new WorkflowDef();
+		wf.setName("FORK_WF");
+		wf.getTasks().add(createTask(0));
+		wf.getTasks().add(fork);
+
+		assertEquals("t2", wf.getNextTask("t1").getTaskReferenceName());
+		assertNull(wf.getNextTask("fork"));
+		assertEquals("t3", wf.getTaskByRefName("t3").getTaskReferenceName());
+		assertNull(wf.getTaskByRefName("join"));
+
+		wf.getTasks().add(join);
+		assertEquals("join", wf.getNextTask("fork").getTaskReferenceName());
+		assertEquals("join", wf.getNextTask("t2").getTaskReferenceName());
+		assertEquals("join", wf.getTaskByRefName("join").getTaskReferenceName());
+		assertEquals(6, wf.collectTasks().size());
+
+		wf.setTasks(new LinkedList<>(Collections.singletonList(createTask(9))));
+		assertNull(wf.getTaskByRefName("t1"));
+		assertEquals(1, wf.collectTasks().size());
+	}
+
 	@Test
 	public void testWorkflowDefConstraints() {
         WorkflowDef workflowDef = new WorkflowDef();//name is null
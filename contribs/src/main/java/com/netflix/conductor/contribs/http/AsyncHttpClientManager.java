@@ -0,0 +1,178 @@
+/*
+ * Copyright 2019 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.conductor.contribs.http;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.netflix.conductor.contribs.http.HttpTask.Input;
+import com.netflix.conductor.core.config.Configuration;
+import com.netflix.conductor.service.Lifecycle;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.RequestBuilder;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.reactor.IOReactorException;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static com.netflix.conductor.contribs.http.RestClientManager.DEFAULT_CONNECT_TIMEOUT;
+import static com.netflix.conductor.contribs.http.RestClientManager.DEFAULT_READ_TIMEOUT;
+import static com.netflix.conductor.contribs.http.RestClientManager.HTTP_TASK_CONNECT_TIMEOUT;
+import static com.netflix.conductor.contribs.http.RestClientManager.HTTP_TASK_READ_TIMEOUT;
+
+/**
+ * Provider of the non blocking client used by {@link HttpTask} when <code>http.task.async.enabled</code> is set.
+ * <p>
+ * All the calls share one pool of connections, served by a few IO threads. The connections opened to a single host
+ * are capped, the calls beyond the cap wait for a connection to be released, at most for the lease timeout.
+ * The responses are handled on a separate small pool, so that no IO thread ever waits on the persistence layer.
+ * The client is started when the manager is created and closed when the server shuts down.
+ */
+@Singleton
+public class AsyncHttpClientManager implements Lifecycle {
+
+	static final String HTTP_TASK_ASYNC_ENABLED = "http.task.async.enabled";
+	static final String HTTP_TASK_ASYNC_MAX_CONNECTIONS = "http.task.async.max.connections";
+	static final String HTTP_TASK_ASYNC_MAX_CONNECTIONS_PER_HOST = "http.task.async.max.connections.per.host";
+	static final String HTTP_TASK_ASYNC_LEASE_TIMEOUT = "http.task.async.lease.timeout";
+	static final String HTTP_TASK_ASYNC_IO_THREADS = "http.task.async.io.threads";
+	static final String HTTP_TASK_ASYNC_CALLBACK_THREADS = "http.task.async.callback.threads";
+
+	static final int DEFAULT_MAX_CONNECTIONS = 500;
+	static final int DEFAULT_MAX_CONNECTIONS_PER_HOST = 50;
+	static final int DEFAULT_LEASE_TIMEOUT = 5000;
+	static final int DEFAULT_IO_THREADS = 2;
+	static final int DEFAULT_CALLBACK_THREADS = 4;
+
+	private static final long STOP_WAIT_MS = 5000;
+
+	private final CloseableHttpAsyncClient client;
+	private final ScheduledExecutorService callbackExecutor;
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private final int defaultReadTimeout;
+	private final int defaultConnectTimeout;
+	private final int leaseTimeout;
+
+	@Inject
+	public AsyncHttpClientManager(Configuration config) {
+		this.defaultReadTimeout = config.getIntProperty(HTTP_TASK_READ_TIMEOUT, DEFAULT_READ_TIMEOUT);
+		this.defaultConnectTimeout = config.getIntProperty(HTTP_TASK_CONNECT_TIMEOUT, DEFAULT_CONNECT_TIMEOUT);
+		this.leaseTimeout = positive(config.getIntProperty(HTTP_TASK_ASYNC_LEASE_TIMEOUT, DEFAULT_LEASE_TIMEOUT), DEFAULT_LEASE_TIMEOUT);
+
+		IOReactorConfig ioReactorConfig = IOReactorConfig.custom()
+				.setIoThreadCount(positive(config.getIntProperty(HTTP_TASK_ASYNC_IO_THREADS, DEFAULT_IO_THREADS), DEFAULT_IO_THREADS))
+				.build();
+		PoolingNHttpClientConnectionManager connectionManager;
+		try {
+			connectionManager = new PoolingNHttpClientConnectionManager(new DefaultConnectingIOReactor(ioReactorConfig));
+		} catch (IOReactorException e) {
+			throw new IllegalStateException("Unable to start the http task IO reactor", e);
+		}
+		connectionManager.setMaxTotal(positive(config.getIntProperty(HTTP_TASK_ASYNC_MAX_CONNECTIONS, DEFAULT_MAX_CONNECTIONS), DEFAULT_MAX_CONNECTIONS));
+		connectionManager.setDefaultMaxPerRoute(positive(config.getIntProperty(HTTP_TASK_ASYNC_MAX_CONNECTIONS_PER_HOST, DEFAULT_MAX_CONNECTIONS_PER_HOST), DEFAULT_MAX_CONNECTIONS_PER_HOST));
+
+		this.client = HttpAsyncClients.custom()
+				.setConnectionManager(connectionManager)
+				.build();
+		this.client.start();
+
+		int callbackThreads = positive(config.getIntProperty(HTTP_TASK_ASYNC_CALLBACK_THREADS, DEFAULT_CALLBACK_THREADS), DEFAULT_CALLBACK_THREADS);
+		this.callbackExecutor = Executors.newScheduledThreadPool(callbackThreads,
+				new ThreadFactoryBuilder().setNameFormat("http-task-callback-%d").setDaemon(true).build());
+		registerShutdownHook();
+	}
+
+	/**
+	 * Closes the connections, the calls still pending are cancelled and the responses being handled get a few seconds
+	 * to complete their tasks.
+	 */
+	@Override
+	public void stop() throws IOException, InterruptedException {
+		client.close();
+		callbackExecutor.shutdown();
+		callbackExecutor.awaitTermination(STOP_WAIT_MS, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Sends the request without waiting for the response.
+	 *
+	 * @param input HTTP Request
+	 * @param callback notified on an IO thread, it should hand the response over to {@link #getCallbackExecutor()}
+	 * @return the pending response, that can be cancelled
+	 * @throws IOException if the body of the request could not be serialized
+	 */
+	public Future<HttpResponse> execute(Input input, FutureCallback<HttpResponse> callback) throws IOException {
+		RequestConfig requestConfig = RequestConfig.custom()
+				.setConnectTimeout(input.getConnectionTimeOut() != null ? input.getConnectionTimeOut() : defaultConnectTimeout)
+				.setSocketTimeout(input.getReadTimeOut() != null ? input.getReadTimeOut() : defaultReadTimeout)
+				.setConnectionRequestTimeout(leaseTimeout)
+				.build();
+
+		RequestBuilder builder = RequestBuilder.create(input.getMethod().toUpperCase())
+				.setUri(input.getUri())
+				.setConfig(requestConfig)
+				.setHeader("Accept", input.getAccept());
+		if (input.getBody() != null) {
+			String body = input.getBody() instanceof String ? (String) input.getBody() : objectMapper.writeValueAsString(input.getBody());
+			ContentType contentType = ContentType.parse(input.getContentType());
+			if (contentType.getCharset() == null) {
+				contentType = contentType.withCharset(StandardCharsets.UTF_8);
+			}
+			builder.setEntity(new StringEntity(body, contentType));
+		}
+		input.getHeaders().forEach((name, value) -> builder.setHeader(name, String.valueOf(value)));
+
+		return client.execute(builder.build(), callback);
+	}
+
+	/**
+	 * @return the pool the responses are handled on
+	 */
+	public ScheduledExecutorService getCallbackExecutor() {
+		return callbackExecutor;
+	}
+
+	/**
+	 * @return the longest a call can take before it times out, on any node using the same configuration
+	 */
+	long getMaxCallDuration(Input input) {
+		long connectTimeout = input.getConnectionTimeOut() != null ? input.getConnectionTimeOut() : defaultConnectTimeout;
+		long readTimeout = input.getReadTimeOut() != null ? input.getReadTimeOut() : defaultReadTimeout;
+		if (readTimeout <= 0) {
+			return Long.MAX_VALUE;
+		}
+		return leaseTimeout + connectTimeout + readTimeout;
+	}
+
+	private static int positive(int value, int defaultValue) {
+		return value > 0 ? value : defaultValue;
+	}
+}
@@ -22,6 +22,7 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.netflix.conductor.common.metadata.tasks.Task;
 import com.netflix.conductor.common.metadata.tasks.Task.Status;
+import com.netflix.conductor.common.metadata.tasks.TaskResult;
 import com.netflix.conductor.common.run.Workflow;
 import com.netflix.conductor.core.config.Configuration;
 import com.netflix.conductor.core.execution.WorkflowExecutor;
@@ -30,17 +31,27 @@ import com.sun.jersey.api.client.Client;
 import com.sun.jersey.api.client.ClientResponse;
 import com.sun.jersey.api.client.UniformInterfaceException;
 import com.sun.jersey.api.client.WebResource.Builder;
+import com.sun.jersey.core.util.MultivaluedMapImpl;
 import com.sun.jersey.oauth.client.OAuthClientFilter;
 import com.sun.jersey.oauth.signature.OAuthParameters;
 import com.sun.jersey.oauth.signature.OAuthSecrets;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import javax.inject.Inject;
+import javax.inject.Provider;
 import javax.inject.Singleton;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.MultivaluedMap;
+import org.apache.http.Header;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.util.EntityUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -58,6 +69,12 @@ public class HttpTask extends WorkflowSystemTask {
 	private static final Logger logger = LoggerFactory.getLogger(HttpTask.class);
 	
 	public static final String NAME = "HTTP";
+
+	private static final int MAX_COMPLETE_ATTEMPTS = 20;
+
+	private static final long COMPLETE_RETRY_DELAY_MS = 100;
+
+	private static final long LOST_CALL_GRACE_MS = 30_000;
 	
 	private TypeReference<Map<String, Object>> mapOfObj = new TypeReference<Map<String, Object>>(){};
 	
@@ -70,17 +87,35 @@ public class HttpTask extends WorkflowSystemTask {
 	protected Configuration config;
 	
 	private String requestParameter;
+
+	private final AsyncHttpClientManager asyncClientManager;
+
+	private final ConcurrentMap<String, Future<?>> pendingCalls = new ConcurrentHashMap<>();
 	
 	@Inject
+	public HttpTask(RestClientManager restClientManager, Configuration config, Provider<AsyncHttpClientManager> asyncClientManagerProvider) {
+		this(NAME, restClientManager, config, asyncClientManagerProvider);
+	}
+
 	public HttpTask(RestClientManager restClientManager, Configuration config) {
 		this(NAME, restClientManager, config);
 	}
 	
 	public HttpTask(String name, RestClientManager restClientManager, Configuration config) {
+		this(name, restClientManager, config, null);
+	}
+
+	/**
+	 * @param asyncClientManagerProvider only used when <code>http.task.async.enabled</code> is set, without it all the
+	 *                                   calls are blocking
+	 */
+	public HttpTask(String name, RestClientManager restClientManager, Configuration config, Provider<AsyncHttpClientManager> asyncClientManagerProvider) {
 		super(name);
 		this.restClientManager = restClientManager;
 		this.config = config;
 		this.requestParameter = REQUEST_PARAMETER_NAME;
+		this.asyncClientManager = asyncClientManagerProvider != null && config.getBooleanProperty(AsyncHttpClientManager.HTTP_TASK_ASYNC_ENABLED, false)
+				? asyncClientManagerProvider.get() : null;
 		logger.info("HttpTask initialized...");
 	}
 	
@@ -109,34 +144,148 @@ public class HttpTask extends WorkflowSystemTask {
 			return;
 		}
 		
+		if (isNonBlocking(input)) {
+			startCall(task, input, executor);
+			return;
+		}
+
 		try {
 			HttpResponse response = httpCall(input);
 			logger.debug("Response: {}, {}, task:{}", response.statusCode, response.body, task.getTaskId());
-			if(response.statusCode > 199 && response.statusCode < 300) {
-				if (isAsyncComplete(task)) {
-					task.setStatus(Status.IN_PROGRESS);
-				} else {
-					task.setStatus(Status.COMPLETED);
-				}
+			handleResponse(task, response);
+		} catch(Exception e) {
+			handleFailure(task, input, e);
+		}
+	}
+
+	/**
+	 * The calls are made with the shared non blocking client when <code>http.task.async.enabled</code> is set, except
+	 * for the OAuth signed ones. Tasks extending this one and customizing {@link #httpCall(Input)} should override
+	 * this to return false.
+	 *
+	 * @param input HTTP Request
+	 * @return true if the call should be made without holding the system task worker
+	 */
+	protected boolean isNonBlocking(Input input) {
+		return asyncClientManager != null && input.getOauthConsumerKey() == null;
+	}
+
+	private void handleResponse(Task task, HttpResponse response) {
+		if(response.statusCode > 199 && response.statusCode < 300) {
+			if (isAsyncComplete(task)) {
+				task.setStatus(Status.IN_PROGRESS);
 			} else {
-				if(response.body != null) {
-					task.setReasonForIncompletion(response.body.toString());
-				} else {
-					task.setReasonForIncompletion("No response from the remote service");
-				}
-				task.setStatus(Status.FAILED);
+				task.setStatus(Status.COMPLETED);
 			}
-			//noinspection ConstantConditions
-			if(response != null) {
-				task.getOutputData().put("response", response.asMap());
+		} else {
+			if(response.body != null) {
+				task.setReasonForIncompletion(response.body.toString());
+			} else {
+				task.setReasonForIncompletion("No response from the remote service");
 			}
-			
-		}catch(Exception e) {
-			logger.error("Failed to invoke http task: {} - uri: {}, vipAddress: {} in workflow: {}", task.getTaskId(), input.getUri(), input.getVipAddress(), task.getWorkflowInstanceId(), e);
 			task.setStatus(Status.FAILED);
-			task.setReasonForIncompletion("Failed to invoke http task due to: " + e.toString());
-			task.getOutputData().put("response", e.toString());
 		}
+		task.getOutputData().put("response", response.asMap());
+	}
+
+	private void handleFailure(Task task, Input input, Exception e) {
+		logger.error("Failed to invoke http task: {} - uri: {}, vipAddress: {} in workflow: {}", task.getTaskId(), input.getUri(), input.getVipAddress(), task.getWorkflowInstanceId(), e);
+		task.setStatus(Status.FAILED);
+		task.setReasonForIncompletion("Failed to invoke http task due to: " + e.toString());
+		task.getOutputData().put("response", e.toString());
+	}
+
+	/**
+	 * Sends the request and leaves the task in progress, the response is applied to the task when it arrives.
+	 */
+	private void startCall(Task task, Input input, WorkflowExecutor executor) {
+		String taskId = task.getTaskId();
+		try {
+			Future<org.apache.http.HttpResponse> call = asyncClientManager.execute(input, new FutureCallback<org.apache.http.HttpResponse>() {
+				@Override
+				public void completed(org.apache.http.HttpResponse result) {
+					HttpResponse response;
+					try {
+						response = toHttpResponse(result);
+					} catch (Exception e) {
+						failed(e);
+						return;
+					}
+					asyncClientManager.getCallbackExecutor().execute(() -> completeCall(taskId, input, response, null, executor, 0));
+				}
+
+				@Override
+				public void failed(Exception e) {
+					asyncClientManager.getCallbackExecutor().execute(() -> completeCall(taskId, input, null, e, executor, 0));
+				}
+
+				@Override
+				public void cancelled() {
+					pendingCalls.remove(taskId);
+				}
+			});
+			pendingCalls.put(taskId, call);
+			task.setStatus(Status.IN_PROGRESS);
+		} catch (Exception e) {
+			handleFailure(task, input, e);
+		}
+	}
+
+	/**
+	 * Applies the outcome of a call to the task. The response can arrive before the task was persisted as started,
+	 * it is then applied a little later.
+	 */
+	private void completeCall(String taskId, Input input, HttpResponse response, Exception error, WorkflowExecutor executor, int attempt) {
+		try {
+			Task task = executor.getTask(taskId);
+			if (task == null || task.getStatus().isTerminal()) {
+				pendingCalls.remove(taskId);
+				return;
+			}
+			if (task.getStatus() == Status.SCHEDULED) {
+				retryCompleteCall(taskId, input, response, error, executor, attempt);
+				return;
+			}
+			if (error != null) {
+				handleFailure(task, input, error);
+			} else {
+				logger.debug("Response: {}, {}, task:{}", response.statusCode, response.body, taskId);
+				handleResponse(task, response);
+			}
+			executor.updateTask(new TaskResult(task));
+			pendingCalls.remove(taskId);
+		} catch (Exception e) {
+			logger.warn("Failed to update http task: {} with the response of its call", taskId, e);
+			retryCompleteCall(taskId, input, response, error, executor, attempt);
+		}
+	}
+
+	private void retryCompleteCall(String taskId, Input input, HttpResponse response, Exception error, WorkflowExecutor executor, int attempt) {
+		if (attempt >= MAX_COMPLETE_ATTEMPTS) {
+			// left to execute(), that fails the task as its call was lost
+			logger.error("Dropping the response of http task: {} after {} attempts", taskId, attempt + 1);
+			pendingCalls.remove(taskId);
+			return;
+		}
+		asyncClientManager.getCallbackExecutor().schedule(() -> completeCall(taskId, input, response, error, executor, attempt + 1),
+				COMPLETE_RETRY_DELAY_MS * (attempt + 1), TimeUnit.MILLISECONDS);
+	}
+
+	private HttpResponse toHttpResponse(org.apache.http.HttpResponse result) throws IOException {
+		HttpResponse response = new HttpResponse();
+		response.statusCode = result.getStatusLine().getStatusCode();
+		response.reasonPhrase = result.getStatusLine().getReasonPhrase();
+		response.headers = new MultivaluedMapImpl();
+		for (Header header : result.getAllHeaders()) {
+			response.headers.add(header.getName(), header.getValue());
+		}
+		if (response.statusCode != 204 && result.getEntity() != null) {
+			String body = EntityUtils.toString(result.getEntity(), StandardCharsets.UTF_8);
+			if (!body.isEmpty()) {
+				response.body = extractBody(body);
+			}
+		}
+		return response;
 	}
 
 	/**
@@ -174,7 +323,7 @@ public class HttpTask extends WorkflowSystemTask {
 
 			ClientResponse cr = builder.accept(input.accept).method(input.method, ClientResponse.class);
 			if (cr.getStatus() != 204 && cr.hasEntity()) {
-				response.body = extractBody(cr);
+				response.body = extractBody(cr.getEntity(String.class));
 			}
 			response.statusCode = cr.getStatus();
 			response.reasonPhrase = cr.getStatusInfo().getReasonPhrase();
@@ -186,7 +335,7 @@ public class HttpTask extends WorkflowSystemTask {
 			logger.error(String.format("Got unexpected http response - uri: %s, vipAddress: %s, status code: %s", input.getUri(), input.getVipAddress(), cr.getStatus()), ex);
 			if(cr.getStatus() > 199 && cr.getStatus() < 300) {
 				if(cr.getStatus() != 204 && cr.hasEntity()) {
-					response.body = extractBody(cr);
+					response.body = extractBody(cr.getEntity(String.class));
 				}
 				response.headers = cr.getHeaders();
 				response.statusCode = cr.getStatus();
@@ -200,9 +349,7 @@ public class HttpTask extends WorkflowSystemTask {
 		}
 	}
 
-	private Object extractBody(ClientResponse cr) {
-
-		String json = cr.getEntity(String.class);
+	private Object extractBody(String json) {
 		try {
 			JsonNode node = objectMapper.readTree(json);
 			if (node.isArray()) {
@@ -222,11 +369,37 @@ public class HttpTask extends WorkflowSystemTask {
 
 	@Override
 	public boolean execute(Workflow workflow, Task task, WorkflowExecutor executor) {
-		return false;
+		if (pendingCalls.containsKey(task.getTaskId()) || task.getOutputData().containsKey("response")) {
+			return false;
+		}
+		// A call made without blocking, whose response never made it to the task. It is lost if it was made by this
+		// node, or if it would have timed out by now.
+		Object request = task.getInputData().get(requestParameter);
+		boolean lost = config.getServerId().equals(task.getWorkerId());
+		if (!lost && asyncClientManager != null && request != null) {
+			Input input = objectMapper.convertValue(request, Input.class);
+			long maxDuration = asyncClientManager.getMaxCallDuration(input);
+			lost = maxDuration < Long.MAX_VALUE && System.currentTimeMillis() - task.getStartTime() > maxDuration + LOST_CALL_GRACE_MS;
+		}
+		if (!lost) {
+			return false;
+		}
+		Task latest = executor.getTask(task.getTaskId());
+		if (latest != null && latest.getOutputData().containsKey("response")) {
+			// completed since this copy was read
+			return false;
+		}
+		task.setStatus(Status.FAILED);
+		task.setReasonForIncompletion("The response of the http call was lost");
+		return true;
 	}
 	
 	@Override
 	public void cancel(Workflow workflow, Task task, WorkflowExecutor executor) {
+		Future<?> call = pendingCalls.remove(task.getTaskId());
+		if (call != null) {
+			call.cancel(true);
+		}
 		task.setStatus(Status.CANCELED);
 	}
 	
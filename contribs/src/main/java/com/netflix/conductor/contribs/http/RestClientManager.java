@@ -19,6 +19,7 @@ import com.netflix.conductor.contribs.http.HttpTask.Input;
 import com.netflix.conductor.core.config.Configuration;
 import com.sun.jersey.api.client.Client;
 
+import javax.inject.Inject;
 import javax.inject.Singleton;
 
 /**
@@ -39,6 +40,7 @@ public class RestClientManager {
 	private final int defaultReadTimeout;
 	private final int defaultConnectTimeout;
 
+	@Inject
 	public RestClientManager(Configuration config) {
 		this.threadLocalClient = ThreadLocal.withInitial(Client::create);
 		this.defaultReadTimeout =config.getIntProperty(HTTP_TASK_READ_TIMEOUT, DEFAULT_READ_TIMEOUT);
@@ -20,6 +20,7 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.netflix.conductor.common.metadata.tasks.Task;
 import com.netflix.conductor.common.metadata.tasks.Task.Status;
+import com.netflix.conductor.common.metadata.tasks.TaskResult;
 import com.netflix.conductor.common.metadata.workflow.TaskType;
 import com.netflix.conductor.common.metadata.workflow.WorkflowDef;
 import com.netflix.conductor.common.metadata.workflow.WorkflowTask;
@@ -42,6 +43,7 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
 import javax.servlet.http.HttpServletRequest;
@@ -61,6 +63,8 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -284,6 +288,65 @@ public class TestHttpTask {
 
     }
 
+    @Test
+    public void testNonBlockingGET() throws Exception {
+        when(config.getBooleanProperty(AsyncHttpClientManager.HTTP_TASK_ASYNC_ENABLED, false)).thenReturn(true);
+        AsyncHttpClientManager asyncClientManager = new AsyncHttpClientManager(config);
+        try {
+            HttpTask nonBlockingTask = new HttpTask(new RestClientManager(config), config, () -> asyncClientManager);
+
+            Task task = new Task();
+            task.setTaskId("t1");
+            Input input = new Input();
+            input.setUri("http://localhost:7009/json");
+            input.setMethod("GET");
+            task.getInputData().put(HttpTask.REQUEST_PARAMETER_NAME, input);
+            task.setStatus(Status.SCHEDULED);
+
+            Task persisted = new Task();
+            persisted.setTaskId("t1");
+            persisted.setStatus(Status.IN_PROGRESS);
+            when(workflowExecutor.getTask("t1")).thenReturn(persisted);
+
+            nonBlockingTask.start(workflow, task, workflowExecutor);
+            assertEquals(Status.IN_PROGRESS, task.getStatus());
+            assertFalse(nonBlockingTask.execute(workflow, task, workflowExecutor));
+
+            ArgumentCaptor<TaskResult> result = ArgumentCaptor.forClass(TaskResult.class);
+            verify(workflowExecutor, timeout(5000)).updateTask(result.capture());
+            assertEquals(TaskResult.Status.COMPLETED, result.getValue().getStatus());
+            Map<String, Object> response = (Map<String, Object>) result.getValue().getOutputData().get("response");
+            assertEquals(200, response.get("statusCode"));
+            Map<String, Object> body = (Map<String, Object>) response.get("body");
+            assertEquals("value1", body.get("key"));
+        } finally {
+            asyncClientManager.stop();
+        }
+    }
+
+    @Test
+    public void testNonBlockingCallLost() throws Exception {
+        when(config.getBooleanProperty(AsyncHttpClientManager.HTTP_TASK_ASYNC_ENABLED, false)).thenReturn(true);
+        AsyncHttpClientManager asyncClientManager = new AsyncHttpClientManager(config);
+        try {
+            HttpTask nonBlockingTask = new HttpTask(new RestClientManager(config), config, () -> asyncClientManager);
+
+            Task task = new Task();
+            task.setTaskId("t2");
+            Input input = new Input();
+            input.setUri("http://localhost:7009/json");
+            input.setMethod("GET");
+            task.getInputData().put(HttpTask.REQUEST_PARAMETER_NAME, input);
+            task.setStatus(Status.IN_PROGRESS);
+            task.setWorkerId("test_server_id");
+
+            assertTrue(nonBlockingTask.execute(workflow, task, workflowExecutor));
+            assertEquals(Status.FAILED, task.getStatus());
+        } finally {
+            asyncClientManager.stop();
+        }
+    }
+
 
     @Test
     public void testHTTPGetConnectionTimeOut() throws Exception{
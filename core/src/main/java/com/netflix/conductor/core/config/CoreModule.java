@@ -20,6 +20,7 @@ import com.google.inject.AbstractModule;
 import com.google.inject.Provides;
 import com.google.inject.Singleton;
 import com.google.inject.multibindings.MultibindingsScanner;
+import com.google.inject.multibindings.OptionalBinder;
 import com.google.inject.multibindings.ProvidesIntoMap;
 import com.google.inject.multibindings.StringMapKey;
 import com.google.inject.name.Named;
@@ -53,7 +54,11 @@ import com.netflix.conductor.core.execution.tasks.SubWorkflow;
 import com.netflix.conductor.core.execution.tasks.SystemTaskWorkerCoordinator;
 import com.netflix.conductor.core.execution.tasks.Terminate;
 import com.netflix.conductor.core.execution.tasks.Wait;
+import com.netflix.conductor.core.metadata.LocalMetadataChangeNotifier;
+import com.netflix.conductor.core.metadata.MetadataChangeNotifier;
 import com.netflix.conductor.core.utils.JsonUtils;
+import com.netflix.conductor.core.utils.LocalOnlyLockProvider;
+import com.netflix.conductor.core.utils.LockProvider;
 import com.netflix.conductor.dao.MetadataDAO;
 import com.netflix.conductor.dao.QueueDAO;
 
@@ -95,6 +100,11 @@ public class CoreModule extends AbstractModule {
         // start processing events when instance starts
         bind(ActionProcessor.class).to(SimpleActionProcessor.class);
         bind(EventProcessor.class).to(SimpleEventProcessor.class).asEagerSingleton();
+
+        // persistence modules that support distributed locks override this binding
+        OptionalBinder.newOptionalBinder(binder(), LockProvider.class).setDefault().to(LocalOnlyLockProvider.class);
+        // persistence modules that can reach the other servers override this binding
+        OptionalBinder.newOptionalBinder(binder(), MetadataChangeNotifier.class).setDefault().to(LocalMetadataChangeNotifier.class);
     }
 
     @Provides
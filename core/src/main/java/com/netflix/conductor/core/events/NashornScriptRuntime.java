@@ -0,0 +1,44 @@
+/*
+ * Copyright 2019 Netflix, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.conductor.core.events;
+
+import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineManager;
+import javax.script.ScriptException;
+
+/**
+ * Runs the scripts with the Nashorn engine of the JDK.
+ * <p>
+ * Every evaluation runs in its own bindings: a Nashorn global is not safe for concurrent use, and global variables a
+ * script declares must not be seen by the next scripts.
+ */
+class NashornScriptRuntime implements ScriptRuntime {
+
+    private final ScriptEngine engine = new ScriptEngineManager().getEngineByName("nashorn");
+
+    @Override
+    public Script compile(String source) throws ScriptException {
+        CompiledScript compiledScript = ((Compilable) engine).compile(source);
+        return input -> {
+            Bindings bindings = engine.createBindings();
+            bindings.put("$", input);
+            return compiledScript.eval(bindings);
+        };
+    }
+}
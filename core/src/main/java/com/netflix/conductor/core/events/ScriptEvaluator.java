@@ -18,19 +18,32 @@
  */
 package com.netflix.conductor.core.events;
 
-import javax.script.Bindings;
-import javax.script.ScriptEngine;
-import javax.script.ScriptEngineManager;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.netflix.conductor.core.events.ScriptRuntime.Script;
+import com.netflix.conductor.metrics.Monitors;
+
 import javax.script.ScriptException;
+import java.util.Iterator;
+import java.util.ServiceLoader;
 
 /**
+ * Runs the scripts of the workflows and event handlers with the {@link ScriptRuntime}.
+ * <p>
+ * Scripts are compiled once and kept by their text, the least recently used are evicted past
+ * <code>workflow.script.cache.size</code> scripts.
+ *
  * @author Viren
  *
  */
 public class ScriptEvaluator {
 
-	private static ScriptEngine engine = new ScriptEngineManager().getEngineByName("nashorn");
-	
+	private static final ScriptRuntime runtime = loadRuntime();
+
+	private static final Cache<String, Script> scripts = CacheBuilder.newBuilder()
+			.maximumSize(Integer.getInteger("workflow.script.cache.size", 1000))
+			.build();
+
 	private ScriptEvaluator(){
 		
 	}
@@ -47,9 +60,23 @@ public class ScriptEvaluator {
 	}
 	
 	public static Object eval(String script, Object input) throws ScriptException {
-		Bindings bindings = engine.createBindings();
-		bindings.put("$", input);
-		return engine.eval(script, bindings);
-		
+		long start = System.currentTimeMillis();
+		Script compiled = scripts.getIfPresent(script);
+		boolean compiledNow = compiled == null;
+		if (compiledNow) {
+			// two threads may both compile a new script, the last one is kept
+			compiled = runtime.compile(script);
+			scripts.put(script, compiled);
+		}
+		try {
+			return compiled.eval(input);
+		} finally {
+			Monitors.recordScriptEvaluation(Integer.toHexString(script.hashCode()), compiledNow, System.currentTimeMillis() - start);
+		}
+	}
+
+	private static ScriptRuntime loadRuntime() {
+		Iterator<ScriptRuntime> runtimes = ServiceLoader.load(ScriptRuntime.class).iterator();
+		return runtimes.hasNext() ? runtimes.next() : new NashornScriptRuntime();
 	}
 }
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2019 Netflix, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.conductor.core.events;
+
+import javax.script.ScriptException;
+
+/**
+ * Compiles the scripts run by {@link ScriptEvaluator}: DECISION case expressions, LAMBDA scripts and event handler
+ * conditions.
+ * <p>
+ * An implementation is picked up with {@link java.util.ServiceLoader} when its jar is on the classpath, Nashorn is
+ * used otherwise.
+ */
+public interface ScriptRuntime {
+
+    /**
+     * @param source the text of the script
+     * @return the script, to be run any number of times and from any number of threads at once
+     * @throws ScriptException if the script does not compile
+     */
+    Script compile(String source) throws ScriptException;
+
+    interface Script {
+
+        /**
+         * @param input the value of <code>$</code> in the script
+         * @return the value of the script
+         */
+        Object eval(Object input) throws ScriptException;
+    }
+}
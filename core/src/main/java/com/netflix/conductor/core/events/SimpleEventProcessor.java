@@ -27,6 +27,7 @@ import com.netflix.conductor.core.events.queue.Message;
 import com.netflix.conductor.core.events.queue.ObservableQueue;
 import com.netflix.conductor.core.execution.ApplicationException;
 import com.netflix.conductor.core.utils.JsonUtils;
+import com.netflix.conductor.core.utils.WorkerExecutors;
 import com.netflix.conductor.metrics.Monitors;
 import com.netflix.conductor.service.ExecutionService;
 import com.netflix.conductor.service.MetadataService;
@@ -83,7 +84,7 @@ public class SimpleEventProcessor implements EventProcessor {
 
         int executorThreadCount = config.getIntProperty("workflow.event.processor.thread.count", 2);
         if (executorThreadCount > 0) {
-            executorService = Executors.newFixedThreadPool(executorThreadCount);
+            executorService = WorkerExecutors.newFixedPool(config, "event-processor-%d", executorThreadCount, false);
             refresh();
             Executors.newSingleThreadScheduledExecutor().scheduleAtFixedRate(this::refresh, 60, 60, TimeUnit.SECONDS);
             logger.info("Event Processing is ENABLED. executorThreadCount set to {}", executorThreadCount);
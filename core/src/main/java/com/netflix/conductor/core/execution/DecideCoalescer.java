@@ -0,0 +1,90 @@
+/*
+ * Copyright 2019 Netflix, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.netflix.conductor.core.execution;
+
+import com.netflix.conductor.metrics.Monitors;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Predicate;
+
+/**
+ * Coalesces the decide requests for a workflow on this node.
+ * <p>
+ * Only one decide runs at a time for a given workflow. A request that arrives while a decide is running
+ * marks the workflow as dirty and returns immediately. The running decide then does one more pass, which
+ * picks up the changes of all the requests that arrived in the meantime.
+ */
+class DecideCoalescer {
+
+    /**
+     * workflowId -> true if another pass was requested while the decide was running
+     */
+    private final ConcurrentMap<String, Boolean> inProgress = new ConcurrentHashMap<>();
+
+    /**
+     * @param workflowId the id of the workflow to be decided
+     * @param decider    evaluates the workflow once, returns true if the workflow reached a terminal state
+     * @return the outcome of the last pass, false if the request was coalesced into a running decide
+     */
+    boolean decide(String workflowId, Predicate<String> decider) {
+        if (!tryStart(workflowId)) {
+            Monitors.recordDecideCoalesced();
+            return false;
+        }
+
+        boolean completed;
+        try {
+            do {
+                completed = decider.test(workflowId);
+            } while (!completed && continueOrFinish(workflowId));
+        } catch (RuntimeException e) {
+            inProgress.remove(workflowId);
+            throw e;
+        }
+
+        if (completed) {
+            // Requests made while the last pass completed the workflow have nothing left to decide
+            inProgress.remove(workflowId);
+        }
+        return completed;
+    }
+
+    private boolean tryStart(String workflowId) {
+        boolean[] started = new boolean[1];
+        inProgress.compute(workflowId, (id, dirty) -> {
+            if (dirty == null) {
+                started[0] = true;
+                return Boolean.FALSE;
+            }
+            return Boolean.TRUE;
+        });
+        return started[0];
+    }
+
+    /**
+     * Atomically either claims another pass (if the workflow was marked dirty) or releases the workflow,
+     * so that no request can slip in between the last pass and the release.
+     */
+    private boolean continueOrFinish(String workflowId) {
+        boolean[] again = new boolean[1];
+        inProgress.compute(workflowId, (id, dirty) -> {
+            if (Boolean.TRUE.equals(dirty)) {
+                again[0] = true;
+                return Boolean.FALSE;
+            }
+            return null;
+        });
+        return again[0];
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2019 Netflix, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.conductor.core.execution;
+
+import com.netflix.conductor.core.config.Configuration;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.netflix.conductor.core.execution.WorkflowExecutor.DECIDER_QUEUE;
+
+/**
+ * Names of the queues of workflows waiting for a decide.
+ * <p>
+ * The decider queue can be split into shards (<code>workflow.decider.queue.shards</code>) so that the sweepers of
+ * several nodes do not all contend on a single queue. A workflow always goes to the same shard. When the queue is
+ * sharded, the unsharded queue is still swept, for the workflows queued before the queue was split.
+ */
+public class DeciderQueues {
+
+    static final String SHARDS_PROPERTY = "workflow.decider.queue.shards";
+
+    private DeciderQueues() {
+    }
+
+    /**
+     * @return the queue to push the workflow to when it needs a decide
+     */
+    public static String getQueueName(Configuration config, String workflowId) {
+        int shards = getShardCount(config);
+        if (shards == 1) {
+            return DECIDER_QUEUE;
+        }
+        return getShardName((workflowId.hashCode() & Integer.MAX_VALUE) % shards);
+    }
+
+    /**
+     * @return all the decider queues
+     */
+    public static List<String> getQueueNames(Configuration config) {
+        int shards = getShardCount(config);
+        List<String> queueNames = new ArrayList<>();
+        queueNames.add(DECIDER_QUEUE);
+        if (shards > 1) {
+            for (int shard = 0; shard < shards; shard++) {
+                queueNames.add(getShardName(shard));
+            }
+        }
+        return queueNames;
+    }
+
+    /**
+     * The shards to be swept by this node, all of them unless <code>workflow.sweeper.shards</code> lists some.
+     * Listing disjoint shards on the nodes keeps their sweepers from contending on the same queues.
+     *
+     * @return the decider queues to be swept by this node
+     */
+    public static List<String> getSweptQueueNames(Configuration config) {
+        String sweptShards = config.getProperty("workflow.sweeper.shards", "");
+        if (getShardCount(config) == 1 || StringUtils.isBlank(sweptShards)) {
+            return getQueueNames(config);
+        }
+        Set<String> queueNames = new LinkedHashSet<>();
+        queueNames.add(DECIDER_QUEUE);
+        for (String shard : sweptShards.split(",")) {
+            queueNames.add(getShardName(Integer.parseInt(shard.trim())));
+        }
+        return new ArrayList<>(queueNames);
+    }
+
+    private static int getShardCount(Configuration config) {
+        return Math.max(1, config.getIntProperty(SHARDS_PROPERTY, 1));
+    }
+
+    private static String getShardName(int shard) {
+        return DECIDER_QUEUE + "_" + shard;
+    }
+}
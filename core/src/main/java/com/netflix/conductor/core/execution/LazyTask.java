@@ -0,0 +1,159 @@
+/*
+ * Copyright 2019 Netflix, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.netflix.conductor.core.execution;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.netflix.conductor.common.metadata.tasks.Task;
+import com.netflix.conductor.metrics.Monitors;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * The header of a task, its input and output data are only read from the data store when first accessed.
+ * <p>
+ * Read from JSON, the input and output data are skipped by the parser and never materialized. Written to JSON, the
+ * task is complete, the data being loaded first.
+ * <p>
+ * Only tasks that are done and were executed by the decider are read as headers, as their data is not going to
+ * change and is rarely needed again, unless a later task refers to it.
+ */
+@JsonIgnoreProperties(value = {"inputData", "outputData"}, allowGetters = true)
+public class LazyTask extends Task {
+
+    /**
+     * Shared with the copies of the task, so that the data is read once
+     */
+    @JsonIgnore
+    private Source source;
+    private boolean inputLoaded;
+    private boolean outputLoaded;
+
+    /**
+     * Reads a task from its JSON, as a header if it is done and executed.
+     *
+     * @param objectMapper the mapper to read the JSON with
+     * @param json         the task as stored
+     * @param loader       reads the complete task given its id, for the data of a header
+     * @return a {@link LazyTask} or a complete {@link Task}
+     * @throws IOException if the JSON cannot be read
+     */
+    public static Task readTask(ObjectMapper objectMapper, String json, Function<String, Task> loader) throws IOException {
+        LazyTask header = objectMapper.readValue(json, LazyTask.class);
+        if (!canBeHeader(header)) {
+            return objectMapper.readValue(json, Task.class);
+        }
+        header.setLoader(loader);
+        return header;
+    }
+
+    /**
+     * @return true if the task can be held as a header
+     */
+    public static boolean canBeHeader(Task task) {
+        return task.getStatus() != null && task.getStatus().isTerminal() && task.isExecuted();
+    }
+
+    @JsonIgnore
+    public void setLoader(Function<String, Task> loader) {
+        this.source = new Source(loader);
+    }
+
+    /**
+     * @return true once the input and output data were read, or set
+     */
+    @JsonIgnore
+    public synchronized boolean isLoaded() {
+        return inputLoaded && outputLoaded;
+    }
+
+    @Override
+    public Map<String, Object> getInputData() {
+        load();
+        return super.getInputData();
+    }
+
+    @Override
+    public synchronized void setInputData(Map<String, Object> inputData) {
+        super.setInputData(inputData);
+        inputLoaded = true;
+    }
+
+    @Override
+    public Map<String, Object> getOutputData() {
+        load();
+        return super.getOutputData();
+    }
+
+    @Override
+    public synchronized void setOutputData(Map<String, Object> outputData) {
+        super.setOutputData(outputData);
+        outputLoaded = true;
+    }
+
+    /**
+     * The copy is a header as well, it reads the data along with this task. Data already loaded or set is shared, as
+     * with {@link Task#copy()}.
+     */
+    @Override
+    public synchronized Task copy() {
+        LazyTask copy = copyTo(new LazyTask());
+        copy.source = source;
+        copy.inputLoaded = inputLoaded;
+        copy.outputLoaded = outputLoaded;
+        return copy;
+    }
+
+    private synchronized void load() {
+        if (inputLoaded && outputLoaded) {
+            return;
+        }
+        if (source == null) {
+            throw new IllegalStateException("No loader for the data of task " + getTaskId());
+        }
+        Task task = source.get(getTaskId(), getTaskType());
+        if (task != null) {
+            if (!inputLoaded) {
+                super.setInputData(task.getInputData());
+            }
+            if (!outputLoaded) {
+                super.setOutputData(task.getOutputData());
+            }
+        }
+        // a removed task keeps empty data
+        inputLoaded = true;
+        outputLoaded = true;
+    }
+
+    private static class Source {
+        private final Function<String, Task> loader;
+        private boolean loaded;
+        private Task task;
+
+        private Source(Function<String, Task> loader) {
+            this.loader = loader;
+        }
+
+        private synchronized Task get(String taskId, String taskType) {
+            if (!loaded) {
+                Monitors.recordLazyTaskDataLoad(taskType);
+                task = loader.apply(taskId);
+                loaded = true;
+            }
+            return task;
+        }
+    }
+}
@@ -15,9 +15,10 @@
  */
 package com.netflix.conductor.core.execution;
 
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.jayway.jsonpath.Configuration;
 import com.jayway.jsonpath.DocumentContext;
 import com.jayway.jsonpath.JsonPath;
@@ -27,13 +28,17 @@ import com.netflix.conductor.common.metadata.tasks.TaskDef;
 import com.netflix.conductor.common.run.Workflow;
 import com.netflix.conductor.common.utils.EnvUtils;
 
-import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
+import java.util.regex.Pattern;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 /**
@@ -42,10 +47,18 @@ import org.slf4j.LoggerFactory;
 public class ParametersUtils {
     private static Logger logger = LoggerFactory.getLogger(ParametersUtils.class);
 
-    private ObjectMapper objectMapper = new ObjectMapper();
+    private static final Configuration OPTION = Configuration.defaultConfiguration().addOptions(Option.SUPPRESS_EXCEPTIONS);
+
+    private static final Pattern VARIABLE_SPLIT = Pattern.compile("(?=\\$\\{)|(?<=\\})");
 
-    private TypeReference<Map<String, Object>> map = new TypeReference<Map<String, Object>>() {
-    };
+    /**
+     * The JSONPath expressions of the task input templates, compiled once
+     */
+    private static final Cache<String, JsonPath> COMPILED_PATHS = CacheBuilder.newBuilder()
+            .maximumSize(10_000)
+            .build();
+
+    private ObjectMapper objectMapper = new ObjectMapper();
 
     public ParametersUtils() {
     }
@@ -71,64 +84,39 @@ public class ParametersUtils {
             inputParams.putAll(clone(taskDefinition.getInputTemplate()));
         }
 
-        Map<String, Map<String, Object>> inputMap = new HashMap<>();
-
-        Map<String, Object> workflowParams = new HashMap<>();
-        workflowParams.put("input", workflow.getInput());
-        workflowParams.put("output", workflow.getOutput());
-        workflowParams.put("status", workflow.getStatus());
-        workflowParams.put("workflowId", workflow.getWorkflowId());
-        workflowParams.put("parentWorkflowId", workflow.getParentWorkflowId());
-        workflowParams.put("parentWorkflowTaskId", workflow.getParentWorkflowTaskId());
-        workflowParams.put("workflowType", workflow.getWorkflowName());
-        workflowParams.put("version", workflow.getWorkflowVersion());
-        workflowParams.put("correlationId", workflow.getCorrelationId());
-        workflowParams.put("reasonForIncompletion", workflow.getReasonForIncompletion());
-        workflowParams.put("schemaVersion", workflow.getSchemaVersion());
-
-        inputMap.put("workflow", workflowParams);
-
-        //For new workflow being started the list of tasks will be empty
-        workflow.getTasks().stream()
-                .map(Task::getReferenceTaskName)
-                .map(workflow::getTaskByRefName)
-                .forEach(task -> {
-                    Map<String, Object> taskParams = new HashMap<>();
-                    taskParams.put("input", task.getInputData());
-                    taskParams.put("output", task.getOutputData());
-                    taskParams.put("taskType", task.getTaskType());
-                    if (task.getStatus() != null) {
-                        taskParams.put("status", task.getStatus().toString());
-                    }
-                    taskParams.put("referenceTaskName", task.getReferenceTaskName());
-                    taskParams.put("retryCount", task.getRetryCount());
-                    taskParams.put("correlationId", task.getCorrelationId());
-                    taskParams.put("pollCount", task.getPollCount());
-                    taskParams.put("taskDefName", task.getTaskDefName());
-                    taskParams.put("scheduledTime", task.getScheduledTime());
-                    taskParams.put("startTime", task.getStartTime());
-                    taskParams.put("endTime", task.getEndTime());
-                    taskParams.put("workflowInstanceId", task.getWorkflowInstanceId());
-                    taskParams.put("taskId", task.getTaskId());
-                    taskParams.put("reasonForIncompletion", task.getReasonForIncompletion());
-                    taskParams.put("callbackAfterSeconds", task.getCallbackAfterSeconds());
-                    taskParams.put("workerId", task.getWorkerId());
-                    inputMap.put(task.getReferenceTaskName(), taskParams);
-                });
-
-        Configuration option = Configuration.defaultConfiguration()
-                .addOptions(Option.SUPPRESS_EXCEPTIONS);
-        DocumentContext documentContext = JsonPath.parse(inputMap, option);
+        DocumentContext documentContext = JsonPath.parse(new TaskInputContext(workflow), OPTION);
         return replace(inputParams, documentContext, taskId);
     }
 
-    //deep clone using json - POJO
+    //deep clone of the maps and lists, the other values are cloned using json - POJO
     private Map<String, Object> clone(Map<String, Object> inputTemplate) {
-        try {
+        Map<String, Object> clone = new LinkedHashMap<>();
+        for (Entry<String, Object> e : inputTemplate.entrySet()) {
+            clone.put(e.getKey(), cloneValue(e.getValue()));
+        }
+        return clone;
+    }
 
-            byte[] bytes = objectMapper.writeValueAsBytes(inputTemplate);
-            return objectMapper.readValue(bytes, map);
-        } catch (IOException e) {
+    @SuppressWarnings("unchecked")
+    private Object cloneValue(Object value) {
+        if (value == null || value instanceof String || value instanceof Number || value instanceof Boolean) {
+            return value;
+        } else if (value instanceof Map) {
+            Map<Object, Object> clone = new LinkedHashMap<>();
+            for (Entry<Object, Object> e : ((Map<Object, Object>) value).entrySet()) {
+                clone.put(String.valueOf(e.getKey()), cloneValue(e.getValue()));
+            }
+            return clone;
+        } else if (value instanceof List) {
+            List<Object> clone = new ArrayList<>(((List<?>) value).size());
+            for (Object element : (List<?>) value) {
+                clone.add(cloneValue(element));
+            }
+            return clone;
+        }
+        try {
+            return objectMapper.convertValue(value, Object.class);
+        } catch (IllegalArgumentException e) {
             throw new RuntimeException("Unable to clone input params", e);
         }
     }
@@ -140,14 +128,12 @@ public class ParametersUtils {
         } else {
             doc = json;
         }
-        Configuration option = Configuration.defaultConfiguration().addOptions(Option.SUPPRESS_EXCEPTIONS);
-        DocumentContext documentContext = JsonPath.parse(doc, option);
+        DocumentContext documentContext = JsonPath.parse(doc, OPTION);
         return replace(input, documentContext, null);
     }
 
     public Object replace(String paramString) {
-        Configuration option = Configuration.defaultConfiguration().addOptions(Option.SUPPRESS_EXCEPTIONS);
-        DocumentContext documentContext = JsonPath.parse(Collections.emptyMap(), option);
+        DocumentContext documentContext = JsonPath.parse(Collections.emptyMap(), OPTION);
         return replaceVariables(paramString, documentContext, null);
     }
 
@@ -193,7 +179,7 @@ public class ParametersUtils {
     }
 
     private Object replaceVariables(String paramString, DocumentContext documentContext, String taskId) {
-        String[] values = paramString.split("(?=\\$\\{)|(?<=\\})");
+        String[] values = VARIABLE_SPLIT.split(paramString);
         Object[] convertedValues = new Object[values.length];
         for (int i = 0; i < values.length; i++) {
             convertedValues[i] = values[i];
@@ -207,7 +193,7 @@ public class ParametersUtils {
 
                 } else {
                     try {
-                        convertedValues[i] = documentContext.read(paramPath);
+                        convertedValues[i] = documentContext.read(COMPILED_PATHS.get(paramPath, () -> JsonPath.compile(paramPath)));
                     }catch (Exception e) {
                         logger.warn("Error reading documentContext for paramPath: {}. Exception: {}", paramPath, e);
                         convertedValues[i] = null;
@@ -271,4 +257,102 @@ public class ParametersUtils {
         });
         return input;
     }
+
+    /**
+     * The document the input expressions of a task are evaluated against, with the parameters of the workflow under
+     * <code>workflow</code> and the parameters of the latest task of every reference name under the reference name.
+     * <p>
+     * The parameters of the workflow and of a task are only gathered when an expression reads them. Expressions that
+     * list the whole document, like wildcards and deep scans, gather everything.
+     */
+    private static class TaskInputContext extends AbstractMap<String, Object> {
+
+        private final Workflow workflow;
+        private final Map<String, Object> resolved = new HashMap<>();
+        private Map<String, Object> all;
+
+        private TaskInputContext(Workflow workflow) {
+            this.workflow = workflow;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public Object get(Object key) {
+            if (!(key instanceof String)) {
+                return null;
+            }
+            if (all != null) {
+                return all.get(key);
+            }
+            return resolved.computeIfAbsent((String) key, this::resolve);
+        }
+
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            if (all == null) {
+                Map<String, Object> all = new HashMap<>();
+                all.put("workflow", getWorkflowParams(workflow));
+                //For new workflow being started the list of tasks will be empty
+                workflow.getTasks().stream()
+                        .map(Task::getReferenceTaskName)
+                        .map(workflow::getTaskByRefName)
+                        .forEach(task -> all.put(task.getReferenceTaskName(), getTaskParams(task)));
+                this.all = all;
+            }
+            return all.entrySet();
+        }
+
+        private Object resolve(String key) {
+            // a task named "workflow" hides the workflow, as it always did
+            Task task = workflow.getTaskByRefName(key);
+            if (task != null) {
+                return getTaskParams(task);
+            }
+            return "workflow".equals(key) ? getWorkflowParams(workflow) : null;
+        }
+
+        private static Map<String, Object> getWorkflowParams(Workflow workflow) {
+            Map<String, Object> workflowParams = new HashMap<>();
+            workflowParams.put("input", workflow.getInput());
+            workflowParams.put("output", workflow.getOutput());
+            workflowParams.put("status", workflow.getStatus());
+            workflowParams.put("workflowId", workflow.getWorkflowId());
+            workflowParams.put("parentWorkflowId", workflow.getParentWorkflowId());
+            workflowParams.put("parentWorkflowTaskId", workflow.getParentWorkflowTaskId());
+            workflowParams.put("workflowType", workflow.getWorkflowName());
+            workflowParams.put("version", workflow.getWorkflowVersion());
+            workflowParams.put("correlationId", workflow.getCorrelationId());
+            workflowParams.put("reasonForIncompletion", workflow.getReasonForIncompletion());
+            workflowParams.put("schemaVersion", workflow.getSchemaVersion());
+            return workflowParams;
+        }
+
+        private static Map<String, Object> getTaskParams(Task task) {
+            Map<String, Object> taskParams = new HashMap<>();
+            taskParams.put("input", task.getInputData());
+            taskParams.put("output", task.getOutputData());
+            taskParams.put("taskType", task.getTaskType());
+            if (task.getStatus() != null) {
+                taskParams.put("status", task.getStatus().toString());
+            }
+            taskParams.put("referenceTaskName", task.getReferenceTaskName());
+            taskParams.put("retryCount", task.getRetryCount());
+            taskParams.put("correlationId", task.getCorrelationId());
+            taskParams.put("pollCount", task.getPollCount());
+            taskParams.put("taskDefName", task.getTaskDefName());
+            taskParams.put("scheduledTime", task.getScheduledTime());
+            taskParams.put("startTime", task.getStartTime());
+            taskParams.put("endTime", task.getEndTime());
+            taskParams.put("workflowInstanceId", task.getWorkflowInstanceId());
+            taskParams.put("taskId", task.getTaskId());
+            taskParams.put("reasonForIncompletion", task.getReasonForIncompletion());
+            taskParams.put("callbackAfterSeconds", task.getCallbackAfterSeconds());
+            taskParams.put("workerId", task.getWorkerId());
+            return taskParams;
+        }
+    }
 }
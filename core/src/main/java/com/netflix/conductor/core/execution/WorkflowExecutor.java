@@ -32,22 +32,28 @@ import com.google.common.base.Preconditions;
 import com.netflix.conductor.annotations.Trace;
 import com.netflix.conductor.common.metadata.tasks.PollData;
 import com.netflix.conductor.common.metadata.tasks.Task;
+import com.netflix.conductor.common.metadata.tasks.TaskExecLog;
 import com.netflix.conductor.common.metadata.tasks.TaskResult;
 import com.netflix.conductor.common.metadata.workflow.RerunWorkflowRequest;
 import com.netflix.conductor.common.metadata.workflow.SkipTaskRequest;
+import com.netflix.conductor.common.metadata.workflow.StartWorkflowRequest;
 import com.netflix.conductor.common.metadata.workflow.TaskType;
 import com.netflix.conductor.common.metadata.workflow.WorkflowDef;
 import com.netflix.conductor.common.metadata.workflow.WorkflowTask;
+import com.netflix.conductor.common.run.BulkStartWorkflowResponse;
 import com.netflix.conductor.common.run.Workflow;
 import com.netflix.conductor.common.run.Workflow.WorkflowStatus;
 import com.netflix.conductor.common.utils.RetryUtil;
 import com.netflix.conductor.core.WorkflowContext;
 import com.netflix.conductor.core.config.Configuration;
+import com.netflix.conductor.core.events.queue.Message;
 import com.netflix.conductor.core.execution.ApplicationException.Code;
 import com.netflix.conductor.core.execution.tasks.SubWorkflow;
 import com.netflix.conductor.core.execution.tasks.WorkflowSystemTask;
 import com.netflix.conductor.core.metadata.MetadataMapperService;
 import com.netflix.conductor.core.orchestration.ExecutionDAOFacade;
+import com.netflix.conductor.core.utils.ExecutionLockService;
+import com.netflix.conductor.core.utils.ExecutionLockService.ExecutionLock;
 import com.netflix.conductor.core.utils.ExternalPayloadStorageUtils;
 import com.netflix.conductor.core.utils.IDGenerator;
 import com.netflix.conductor.core.utils.QueueUtils;
@@ -59,10 +65,12 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import javax.inject.Inject;
@@ -84,11 +92,15 @@ public class WorkflowExecutor {
     private final Configuration config;
     private final MetadataMapperService metadataMapperService;
     private final ExecutionDAOFacade executionDAOFacade;
+    private final ExecutionLockService executionLockService;
 
     private WorkflowStatusListener workflowStatusListener;
     private ExternalPayloadStorageUtils externalPayloadStorageUtils;
 
     private int activeWorkerLastPollInSecs;
+    private final boolean coalesceDecides;
+    private final boolean lazyTaskData;
+    private final DecideCoalescer decideCoalescer = new DecideCoalescer();
     public static final String DECIDER_QUEUE = "_deciderQueue";
     private static final String className = WorkflowExecutor.class.getSimpleName();
 
@@ -101,6 +113,7 @@ public class WorkflowExecutor {
             WorkflowStatusListener workflowStatusListener,
             ExecutionDAOFacade executionDAOFacade,
             ExternalPayloadStorageUtils externalPayloadStorageUtils,
+            ExecutionLockService executionLockService,
             Configuration config
     ) {
         this.deciderService = deciderService;
@@ -109,7 +122,10 @@ public class WorkflowExecutor {
         this.config = config;
         this.metadataMapperService = metadataMapperService;
         this.executionDAOFacade = executionDAOFacade;
+        this.executionLockService = executionLockService;
         this.activeWorkerLastPollInSecs = config.getIntProperty("tasks.active.worker.lastpoll", 10);
+        this.coalesceDecides = config.getBooleanProperty("workflow.decider.coalesce.enabled", true);
+        this.lazyTaskData = config.getBooleanProperty("workflow.execution.lazy.task.data.enabled", false);
         this.workflowStatusListener = workflowStatusListener;
         this.externalPayloadStorageUtils = externalPayloadStorageUtils;
     }
@@ -360,12 +376,148 @@ public class WorkflowExecutor {
         workflowDefinition = metadataMapperService.populateTaskDefinitions(workflowDefinition);
 
         // perform validations
-        validateWorkflow(workflowDefinition, workflowInput, externalInputPayloadStoragePath);
+        try {
+            validateWorkflow(workflowDefinition, workflowInput, externalInputPayloadStoragePath);
+        } catch (Exception e) {
+            Monitors.recordWorkflowStartError(workflowDefinition.getName(), WorkflowContext.get().getClientApp());
+            throw e;
+        }
+
+        Workflow workflow = newWorkflow(workflowDefinition, workflowInput, externalInputPayloadStoragePath, correlationId,
+                priority, parentWorkflowId, parentWorkflowTaskId, event, taskToDomain);
+        String workflowId = workflow.getWorkflowId();
+
+        try {
+            executionDAOFacade.createWorkflow(workflow);
+            LOGGER.debug("A new instance of workflow: {} created with id: {}", workflow.getWorkflowName(), workflowId);
+            //then decide to see if anything needs to be done as part of the workflow
+            decide(workflowId);
+            return workflowId;
+        } catch (Exception e) {
+            executionDAOFacade.removeWorkflow(workflowId, false);
+            Monitors.recordWorkflowStartError(workflowDefinition.getName(), WorkflowContext.get().getClientApp());
+            LOGGER.error("Unable to start workflow: {}", workflowDefinition.getName(), e);
+            throw e;
+        }
+    }
+
+    /**
+     * Starts the workflows like {@link #startWorkflow(WorkflowDef, Map, String, String, Integer, String, String, String, Map)},
+     * with the definitions looked up once per name and version and the workflows persisted in a single batch.
+     * <p>
+     * The first decide is not run here: the workflows are pushed to the decider queue, and the sweeper schedules their
+     * first tasks. When the sweeper is disabled, they are decided here once all of them are persisted. The workflows that
+     * cannot be pushed to the decider queue are removed and reported as not started.
+     *
+     * @param requests the workflows to be started
+     * @return the ids of the started workflows in the order of the requests, and why the others were not started
+     */
+    public BulkStartWorkflowResponse startWorkflows(List<StartWorkflowRequest> requests) {
+        BulkStartWorkflowResponse response = new BulkStartWorkflowResponse();
+        Map<String, WorkflowDef> definitions = new HashMap<>();
+        List<Workflow> workflows = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            StartWorkflowRequest request = requests.get(i);
+            String name = request.getWorkflowDef() != null ? request.getWorkflowDef().getName() : request.getName();
+            try {
+                WorkflowDef workflowDefinition = request.getWorkflowDef();
+                if (workflowDefinition == null) {
+                    workflowDefinition = definitions.computeIfAbsent(request.getName() + ":" + request.getVersion(),
+                            key -> metadataMapperService.populateTaskDefinitions(
+                                    metadataMapperService.lookupForWorkflowDefinition(request.getName(), request.getVersion())));
+                } else {
+                    workflowDefinition = metadataMapperService.populateTaskDefinitions(workflowDefinition);
+                }
+                validateWorkflow(workflowDefinition, request.getInput(), request.getExternalInputPayloadStoragePath());
+
+                Workflow workflow = newWorkflow(workflowDefinition, request.getInput(), request.getExternalInputPayloadStoragePath(),
+                        request.getCorrelationId(), Optional.ofNullable(request.getPriority()).orElse(0), null, null, null,
+                        request.getTaskToDomain());
+                workflows.add(workflow);
+                response.getWorkflowIds().add(workflow.getWorkflowId());
+            } catch (Exception e) {
+                LOGGER.error("Unable to start workflow: {}", name, e);
+                Monitors.recordWorkflowStartError(String.valueOf(name), WorkflowContext.get().getClientApp());
+                response.getWorkflowIds().add(null);
+                response.getErrors().put(i, e.getMessage());
+            }
+        }
+        if (workflows.isEmpty()) {
+            return response;
+        }
+
+        try {
+            executionDAOFacade.createWorkflows(workflows);
+            LOGGER.debug("{} new workflow instances created", workflows.size());
+        } catch (Exception e) {
+            LOGGER.error("Unable to create {} workflows", workflows.size(), e);
+            workflows.forEach(workflow -> {
+                removeQuietly(workflow.getWorkflowId());
+                Monitors.recordWorkflowStartError(workflow.getWorkflowName(), WorkflowContext.get().getClientApp());
+            });
+            failAll(response, e);
+            return response;
+        }
+
+        if (config.disableSweep()) {
+            workflows.forEach(workflow -> decide(workflow.getWorkflowId()));
+        } else {
+            Map<String, List<Workflow>> workflowsByQueue = workflows.stream()
+                    .collect(Collectors.groupingBy(workflow -> DeciderQueues.getQueueName(config, workflow.getWorkflowId())));
+            workflowsByQueue.forEach((queueName, queuedWorkflows) -> {
+                try {
+                    queueDAO.push(queueName, queuedWorkflows.stream()
+                            .map(workflow -> new Message(workflow.getWorkflowId(), null, null, workflow.getPriority()))
+                            .collect(Collectors.toList()));
+                } catch (Exception e) {
+                    // the workflows would never be decided, they are not started
+                    LOGGER.error("Unable to push {} workflows to the decider queue: {}", queuedWorkflows.size(), queueName, e);
+                    queuedWorkflows.forEach(workflow -> {
+                        removeQuietly(workflow.getWorkflowId());
+                        Monitors.recordWorkflowStartError(workflow.getWorkflowName(), WorkflowContext.get().getClientApp());
+                        fail(response, response.getWorkflowIds().indexOf(workflow.getWorkflowId()), e);
+                    });
+                }
+            });
+        }
+        return response;
+    }
+
+    private void removeQuietly(String workflowId) {
+        try {
+            executionDAOFacade.removeWorkflow(workflowId, false);
+        } catch (Exception e) {
+            LOGGER.debug("Unable to remove workflow: {} that failed to start", workflowId, e);
+        }
+    }
 
+    private void failAll(BulkStartWorkflowResponse response, Exception e) {
+        for (int i = 0; i < response.getWorkflowIds().size(); i++) {
+            if (response.getWorkflowIds().get(i) != null) {
+                fail(response, i, e);
+            }
+        }
+    }
+
+    private void fail(BulkStartWorkflowResponse response, int index, Exception e) {
+        response.getWorkflowIds().set(index, null);
+        response.getErrors().put(index, e.getMessage());
+    }
+
+    private Workflow newWorkflow(
+            WorkflowDef workflowDefinition,
+            Map<String, Object> workflowInput,
+            String externalInputPayloadStoragePath,
+            String correlationId,
+            Integer priority,
+            String parentWorkflowId,
+            String parentWorkflowTaskId,
+            String event,
+            Map<String, String> taskToDomain
+    ) {
         //A random UUID is assigned to the work flow instance
         String workflowId = IDGenerator.generate();
 
-        // Persist the Workflow
         Workflow workflow = new Workflow();
         workflow.setWorkflowId(workflowId);
         workflow.setCorrelationId(correlationId);
@@ -388,19 +540,7 @@ public class WorkflowExecutor {
             workflow.setInput(null);
             workflow.setExternalInputPayloadStoragePath(externalInputPayloadStoragePath);
         }
-
-        try {
-            executionDAOFacade.createWorkflow(workflow);
-            LOGGER.debug("A new instance of workflow: {} created with id: {}", workflow.getWorkflowName(), workflowId);
-            //then decide to see if anything needs to be done as part of the workflow
-            decide(workflowId);
-            return workflowId;
-        } catch (Exception e) {
-            executionDAOFacade.removeWorkflow(workflowId, false);
-            Monitors.recordWorkflowStartError(workflowDefinition.getName(), WorkflowContext.get().getClientApp());
-            LOGGER.error("Unable to start workflow: {}", workflowDefinition.getName(), e);
-            throw e;
-        }
+        return workflow;
     }
 
     /**
@@ -409,15 +549,10 @@ public class WorkflowExecutor {
      * @throws ApplicationException if the validation fails
      */
     private void validateWorkflow(WorkflowDef workflowDef, Map<String, Object> workflowInput, String externalStoragePath) {
-        try {
-            //Check if the input to the workflow is not null
-            if (workflowInput == null && StringUtils.isBlank(externalStoragePath)) {
-                LOGGER.error("The input for the workflow '{}' cannot be NULL", workflowDef.getName());
-                throw new ApplicationException(INVALID_INPUT, "NULL input passed when starting workflow");
-            }
-        } catch (Exception e) {
-            Monitors.recordWorkflowStartError(workflowDef.getName(), WorkflowContext.get().getClientApp());
-            throw e;
+        //Check if the input to the workflow is not null
+        if (workflowInput == null && StringUtils.isBlank(externalStoragePath)) {
+            LOGGER.error("The input for the workflow '{}' cannot be NULL", workflowDef.getName());
+            throw new ApplicationException(INVALID_INPUT, "NULL input passed when starting workflow");
         }
     }
 
@@ -465,42 +600,44 @@ public class WorkflowExecutor {
      *                              </ul>
      */
     public void rewind(String workflowId, boolean useLatestDefinitions) {
-        Workflow workflow = executionDAOFacade.getWorkflowById(workflowId, true);
-        if (!workflow.getStatus().isTerminal()) {
-            String errorMsg = String.format("Workflow: %s is not in terminal state, unable to restart.", workflow);
-            LOGGER.error(errorMsg);
-            throw new ApplicationException(CONFLICT, errorMsg);
-        }
+        try (ExecutionLock ignored = acquireLockOrFail(workflowId)) {
+            Workflow workflow = executionDAOFacade.getWorkflowById(workflowId, true);
+            if (!workflow.getStatus().isTerminal()) {
+                String errorMsg = String.format("Workflow: %s is not in terminal state, unable to restart.", workflow);
+                LOGGER.error(errorMsg);
+                throw new ApplicationException(CONFLICT, errorMsg);
+            }
 
-        WorkflowDef workflowDef;
-        if (useLatestDefinitions) {
-            workflowDef = metadataDAO.getLatest(workflow.getWorkflowName())
-                    .orElseThrow(() -> new ApplicationException(NOT_FOUND, String.format("Unable to find latest definition for %s", workflowId)));
-            workflow.setVersion(workflowDef.getVersion()); // setting this here to ensure backward compatibility and consistency for workflows without the embedded workflow definition
-            workflow.setWorkflowDefinition(workflowDef);
-        } else {
-            workflowDef = Optional.ofNullable(workflow.getWorkflowDefinition())
-                    .orElseGet(() -> metadataDAO.get(workflow.getWorkflowName(), workflow.getWorkflowVersion())
-                            .orElseThrow(() -> new ApplicationException(NOT_FOUND, String.format("Unable to find definition for %s", workflowId)))
-                    );
-        }
+            WorkflowDef workflowDef;
+            if (useLatestDefinitions) {
+                workflowDef = metadataDAO.getLatest(workflow.getWorkflowName())
+                        .orElseThrow(() -> new ApplicationException(NOT_FOUND, String.format("Unable to find latest definition for %s", workflowId)));
+                workflow.setVersion(workflowDef.getVersion()); // setting this here to ensure backward compatibility and consistency for workflows without the embedded workflow definition
+                workflow.setWorkflowDefinition(workflowDef);
+            } else {
+                workflowDef = Optional.ofNullable(workflow.getWorkflowDefinition())
+                        .orElseGet(() -> metadataDAO.get(workflow.getWorkflowName(), workflow.getWorkflowVersion())
+                                .orElseThrow(() -> new ApplicationException(NOT_FOUND, String.format("Unable to find definition for %s", workflowId)))
+                        );
+            }
 
-        if (!workflowDef.isRestartable() && workflow.getStatus().equals(WorkflowStatus.COMPLETED)) { // Can only restart non-completed workflows when the configuration is set to false
-            throw new ApplicationException(CONFLICT, String.format("Workflow: %s is non-restartable", workflow));
-        }
+            if (!workflowDef.isRestartable() && workflow.getStatus().equals(WorkflowStatus.COMPLETED)) { // Can only restart non-completed workflows when the configuration is set to false
+                throw new ApplicationException(CONFLICT, String.format("Workflow: %s is non-restartable", workflow));
+            }
 
-        // Remove the workflow from the primary datastore (archive in indexer) and re-create it
-        executionDAOFacade.removeWorkflow(workflowId, true);
-        workflow.getTasks().clear();
-        workflow.setReasonForIncompletion(null);
-        workflow.setStartTime(System.currentTimeMillis());
-        workflow.setEndTime(0);
-        // Change the status to running
-        workflow.setStatus(WorkflowStatus.RUNNING);
-        workflow.setOutput(null);
-        workflow.setExternalOutputPayloadStoragePath(null);
-        executionDAOFacade.createWorkflow(workflow);
-        decide(workflowId);
+            // Remove the workflow from the primary datastore (archive in indexer) and re-create it
+            executionDAOFacade.removeWorkflow(workflowId, true);
+            workflow.getTasks().clear();
+            workflow.setReasonForIncompletion(null);
+            workflow.setStartTime(System.currentTimeMillis());
+            workflow.setEndTime(0);
+            // Change the status to running
+            workflow.setStatus(WorkflowStatus.RUNNING);
+            workflow.setOutput(null);
+            workflow.setExternalOutputPayloadStoragePath(null);
+            executionDAOFacade.createWorkflow(workflow);
+            decide(workflowId);
+        }
     }
 
     /**
@@ -511,60 +648,62 @@ public class WorkflowExecutor {
      * @param workflowId the id of the workflow to be retried
      */
     public void retry(String workflowId) {
-        Workflow workflow = executionDAOFacade.getWorkflowById(workflowId, true);
-        if (!workflow.getStatus().isTerminal()) {
-            throw new ApplicationException(CONFLICT, "Workflow is still running.  status=" + workflow.getStatus());
-        }
-        if (workflow.getTasks().isEmpty()) {
-            throw new ApplicationException(CONFLICT, "Workflow has not started yet");
-        }
+        try (ExecutionLock ignored = acquireLockOrFail(workflowId)) {
+            Workflow workflow = executionDAOFacade.getWorkflowById(workflowId, true);
+            if (!workflow.getStatus().isTerminal()) {
+                throw new ApplicationException(CONFLICT, "Workflow is still running.  status=" + workflow.getStatus());
+            }
+            if (workflow.getTasks().isEmpty()) {
+                throw new ApplicationException(CONFLICT, "Workflow has not started yet");
+            }
 
-        // Get all FAILED or CANCELED tasks that are not COMPLETED (or reach other terminal states) on further executions.
-        // // Eg: for Seq of tasks task1.CANCELED, task1.COMPLETED, task1 shouldn't be retried.
-        // Throw an exception if there are no FAILED tasks.
-        // Handle JOIN task CANCELED status as special case.
-        Map<String, Task> retriableMap = new HashMap<>();
-        for (Task task : workflow.getTasks()) {
-            switch (task.getStatus()) {
-                case FAILED:
-                    retriableMap.put(task.getReferenceTaskName(), task);
-                    break;
-                case CANCELED:
-                    if (task.getTaskType().equalsIgnoreCase(TaskType.JOIN.toString())) {
-                        task.setStatus(IN_PROGRESS);
-                        // Task doesn't have to updated yet. Will be updated along with other Workflow tasks downstream.
-                    } else {
+            // Get all FAILED or CANCELED tasks that are not COMPLETED (or reach other terminal states) on further executions.
+            // // Eg: for Seq of tasks task1.CANCELED, task1.COMPLETED, task1 shouldn't be retried.
+            // Throw an exception if there are no FAILED tasks.
+            // Handle JOIN task CANCELED status as special case.
+            Map<String, Task> retriableMap = new HashMap<>();
+            for (Task task : workflow.getTasks()) {
+                switch (task.getStatus()) {
+                    case FAILED:
                         retriableMap.put(task.getReferenceTaskName(), task);
-                    }
-                    break;
-                default:
-                    retriableMap.remove(task.getReferenceTaskName());
-                    break;
+                        break;
+                    case CANCELED:
+                        if (task.getTaskType().equalsIgnoreCase(TaskType.JOIN.toString())) {
+                            task.setStatus(IN_PROGRESS);
+                            // Task doesn't have to updated yet. Will be updated along with other Workflow tasks downstream.
+                        } else {
+                            retriableMap.put(task.getReferenceTaskName(), task);
+                        }
+                        break;
+                    default:
+                        retriableMap.remove(task.getReferenceTaskName());
+                        break;
+                }
             }
-        }
 
-        if (retriableMap.values().size() == 0) {
-            throw new ApplicationException(CONFLICT,
-                    "There are no retriable tasks! Use restart if you want to attempt entire workflow execution again.");
-        }
+            if (retriableMap.values().size() == 0) {
+                throw new ApplicationException(CONFLICT,
+                        "There are no retriable tasks! Use restart if you want to attempt entire workflow execution again.");
+            }
 
-        // Update Workflow with new status.
-        // This should load Workflow from archive, if archived.
-        workflow.setStatus(WorkflowStatus.RUNNING);
-        executionDAOFacade.updateWorkflow(workflow);
+            // Update Workflow with new status.
+            // This should load Workflow from archive, if archived.
+            workflow.setStatus(WorkflowStatus.RUNNING);
+            executionDAOFacade.updateWorkflow(workflow);
 
-        // taskToBeRescheduled would set task `retried` to true, and hence it's important to updateTasks after obtaining task copy from taskToBeRescheduled.
-        List<Task> retriableTasks = retriableMap.values().stream()
-                .sorted(Comparator.comparingInt(Task::getSeq))
-                .map(this::taskToBeRescheduled)
-                .collect(Collectors.toList());
+            // taskToBeRescheduled would set task `retried` to true, and hence it's important to updateTasks after obtaining task copy from taskToBeRescheduled.
+            List<Task> retriableTasks = retriableMap.values().stream()
+                    .sorted(Comparator.comparingInt(Task::getSeq))
+                    .map(this::taskToBeRescheduled)
+                    .collect(Collectors.toList());
 
-        dedupAndAddTasks(workflow, retriableTasks);
-        // Note: updateTasks before updateWorkflow might fail when Workflow is archived and doesn't exist in primary store.
-        executionDAOFacade.updateTasks(workflow.getTasks());
-        scheduleTask(workflow, retriableTasks);
+            dedupAndAddTasks(workflow, retriableTasks);
+            // Note: updateTasks before updateWorkflow might fail when Workflow is archived and doesn't exist in primary store.
+            executionDAOFacade.updateTasks(workflow.getTasks());
+            scheduleTask(workflow, retriableTasks);
 
-        decide(workflowId);
+            decide(workflowId);
+        }
     }
 
     /**
@@ -605,7 +744,7 @@ public class WorkflowExecutor {
         Workflow workflow = executionDAOFacade.getWorkflowById(wf.getWorkflowId(), false);
 
         if (workflow.getStatus().equals(WorkflowStatus.COMPLETED)) {
-            queueDAO.remove(DECIDER_QUEUE, workflow.getWorkflowId());    //remove from the sweep queue
+            queueDAO.remove(DeciderQueues.getQueueName(config, workflow.getWorkflowId()), workflow.getWorkflowId());    //remove from the sweep queue
             executionDAOFacade.removeFromPendingWorkflow(workflow.getWorkflowName(), workflow.getWorkflowId());
             LOGGER.debug("Workflow: {} has already been completed.", wf.getWorkflowId());
             return;
@@ -650,7 +789,7 @@ public class WorkflowExecutor {
             decide(parent.getWorkflowId());
         }
         Monitors.recordWorkflowCompletion(workflow.getWorkflowName(), workflow.getEndTime() - workflow.getStartTime(), wf.getOwnerApp());
-        queueDAO.remove(DECIDER_QUEUE, workflow.getWorkflowId());    //remove from the sweep queue
+        queueDAO.remove(DeciderQueues.getQueueName(config, workflow.getWorkflowId()), workflow.getWorkflowId());    //remove from the sweep queue
 
         if (workflow.getWorkflowDefinition().isWorkflowStatusListenerEnabled()) {
             workflowStatusListener.onWorkflowCompleted(workflow);
@@ -743,7 +882,7 @@ public class WorkflowExecutor {
             }
         }
 
-        queueDAO.remove(DECIDER_QUEUE, workflow.getWorkflowId());    //remove from the sweep queue
+        queueDAO.remove(DeciderQueues.getQueueName(config, workflow.getWorkflowId()), workflow.getWorkflowId());    //remove from the sweep queue
         executionDAOFacade.removeFromPendingWorkflow(workflow.getWorkflowName(), workflow.getWorkflowId());
 
         // Send to atlas
@@ -764,14 +903,101 @@ public class WorkflowExecutor {
         }
         // 获取工作流ID
         String workflowId = taskResult.getWorkflowInstanceId();
-        // 通过流程ID，获取当前正在执行的工作流运行时数据
-        Workflow workflowInstance = executionDAOFacade.getWorkflowById(workflowId, true);
+        try (ExecutionLock ignored = acquireLockOrFail(workflowId)) {
+            // 通过流程ID，获取当前正在执行的工作流运行时数据
+            Workflow workflowInstance = getWorkflowForUpdate(workflowId);
+
+            Task task = applyTaskResult(workflowInstance, taskResult);
+            if (task == null) {
+                return;
+            }
+            persistTaskUpdates(workflowInstance, Collections.singletonList(task), Collections.singletonList(taskResult));
+
+            // [decide] 关键，当前任务执行完毕后以后根据添加判断下一个任务的过程。
+            decide(workflowId);
+
+            recordTaskExecutionTime(task);
+        }
+    }
+
+    /**
+     * Updates several tasks, possibly of several workflows. The results of a workflow are applied under a single
+     * lock, persisted in a single batch and followed by a single decide.
+     *
+     * @param taskResults the task results to be updated
+     * @return the reason why a result could not be applied, by task id, empty if all of them were
+     */
+    public Map<String, String> updateTasks(List<TaskResult> taskResults) {
+        Map<String, List<TaskResult>> resultsByWorkflow = taskResults.stream()
+                .collect(Collectors.groupingBy(TaskResult::getWorkflowInstanceId, LinkedHashMap::new, Collectors.toList()));
+        Map<String, String> failures = new LinkedHashMap<>();
+        resultsByWorkflow.forEach((workflowId, results) -> {
+            try {
+                updateTasks(workflowId, results, failures);
+            } catch (Exception e) {
+                LOGGER.error("Error updating {} tasks of workflow: {}", results.size(), workflowId, e);
+                results.forEach(result -> failures.putIfAbsent(result.getTaskId(), String.valueOf(e.getMessage())));
+            }
+        });
+        return failures;
+    }
+
+    private void updateTasks(String workflowId, List<TaskResult> taskResults, Map<String, String> failures) {
+        try (ExecutionLock ignored = acquireLockOrFail(workflowId)) {
+            Workflow workflowInstance = getWorkflowForUpdate(workflowId);
+
+            List<Task> tasks = new ArrayList<>(taskResults.size());
+            List<TaskResult> appliedResults = new ArrayList<>(taskResults.size());
+            for (TaskResult taskResult : taskResults) {
+                try {
+                    Task task = applyTaskResult(workflowInstance, taskResult);
+                    if (task != null) {
+                        tasks.add(task);
+                        appliedResults.add(taskResult);
+                    }
+                } catch (ApplicationException e) {
+                    failures.put(taskResult.getTaskId(), e.getMessage());
+                }
+            }
+            if (tasks.isEmpty()) {
+                return;
+            }
+            persistTaskUpdates(workflowInstance, tasks, appliedResults);
+
+            decide(workflowId);
+
+            tasks.forEach(this::recordTaskExecutionTime);
+        }
+    }
+
+    /**
+     * Reads the workflow with its tasks to make progress on it, the tasks that are done and executed are only read
+     * as {@link LazyTask} headers when <code>workflow.execution.lazy.task.data.enabled</code> is true.
+     */
+    private Workflow getWorkflowForExecution(String workflowId) {
+        return lazyTaskData
+                ? executionDAOFacade.getWorkflowWithTaskHeaders(workflowId)
+                : executionDAOFacade.getWorkflowById(workflowId, true);
+    }
+
+    private Workflow getWorkflowForUpdate(String workflowId) {
+        Workflow workflowInstance = getWorkflowForExecution(workflowId);
 
         // FIXME Backwards compatibility for legacy workflows already running.
         // This code will be removed in a future version.
         if (workflowInstance.getWorkflowDefinition() == null) {
             workflowInstance = metadataMapperService.populateWorkflowWithDefinitions(workflowInstance);
         }
+        return workflowInstance;
+    }
+
+    /**
+     * Applies the result to its task, without persisting it.
+     *
+     * @return the updated task, null if the result was ignored as the task or the workflow is already over
+     * @throws ApplicationException with {@link Code#NOT_FOUND} if the task does not exist
+     */
+    private Task applyTaskResult(Workflow workflowInstance, TaskResult taskResult) {
         // 通过任务ID，获取正在执行的任务
         Task task = Optional.ofNullable(executionDAOFacade.getTaskById(taskResult.getTaskId()))
                 .orElseThrow(() -> new ApplicationException(Code.NOT_FOUND, "No such task found by id: " + taskResult.getTaskId()));
@@ -785,7 +1011,7 @@ public class WorkflowExecutor {
             queueDAO.remove(taskQueueName, taskResult.getTaskId());
             LOGGER.info("Task: {} has already finished execution with status: {} within workflow: {}. Removed task from queue: {}", task.getTaskId(), task.getStatus(), task.getWorkflowInstanceId(), taskQueueName);
             Monitors.recordUpdateConflict(task.getTaskType(), workflowInstance.getWorkflowName(), task.getStatus());
-            return;
+            return null;
         }
 
         if (workflowInstance.getStatus().isTerminal()) {
@@ -793,7 +1019,7 @@ public class WorkflowExecutor {
             queueDAO.remove(taskQueueName, taskResult.getTaskId());
             LOGGER.info("Workflow: {} has already finished execution. Task update for: {} ignored and removed from Queue: {}.", workflowInstance, taskResult.getTaskId(), taskQueueName);
             Monitors.recordUpdateConflict(task.getTaskType(), workflowInstance.getWorkflowName(), workflowInstance.getStatus());
-            return;
+            return null;
         }
 
         task.setStatus(valueOf(taskResult.getStatus().name()));
@@ -812,54 +1038,52 @@ public class WorkflowExecutor {
         if (task.getStatus().isTerminal()) {
             task.setEndTime(System.currentTimeMillis());
         }
+        return task;
+    }
 
+    /**
+     * Updates the task queues, then persists the tasks and their logs.
+     *
+     * @param tasks the updated tasks, in the order of their results
+     * @param taskResults the results applied to the tasks
+     */
+    private void persistTaskUpdates(Workflow workflowInstance, List<Task> tasks, List<TaskResult> taskResults) {
+        String workflowId = workflowInstance.getWorkflowId();
         // Fails the workflow if any of the below operations fail.
         // This helps avoid workflow inconsistencies. For example, for the taskResult with status:COMPLETED,
         // if update task to primary data store is successful, but remove from queue fails,
         // The decide wouldn't run and next task will not be scheduled.
         // TODO Try to recover the workflow.
+        Task task = tasks.get(0);
         try {
-            String updateTaskQueueDesc = "Updating Task queues for taskId: " + task.getTaskId();
-            String taskQueueOperation = "updateTaskQueues";
-            String updateTaskDesc = "Updating Task with taskId: " + task.getTaskId();
-            String updateTaskOperation = "updateTask";
-
-            // Retry each operation twice before failing workflow.
-            new RetryUtil<>().retryOnException(() -> {
-                switch (task.getStatus()) {
-                    case COMPLETED:
-                    case CANCELED:
-                    case FAILED:
-                    case FAILED_WITH_TERMINAL_ERROR:
-                    case TIMED_OUT:
-                        queueDAO.remove(taskQueueName, taskResult.getTaskId());
-                        LOGGER.debug("Task: {} removed from taskQueue: {} since the task status is {}", task, taskQueueName, task.getStatus().name());
-                        break;
-                    case IN_PROGRESS:
-                        // put it back in queue based on callbackAfterSeconds
-                        long callBack = taskResult.getCallbackAfterSeconds();
-                        queueDAO.remove(taskQueueName, task.getTaskId());
-                        LOGGER.debug("Task: {} removed from taskQueue: {} since the task status is {}", task, taskQueueName, task.getStatus().name());
-                        queueDAO.push(taskQueueName, task.getTaskId(), task.getWorkflowPriority(), callBack); // Milliseconds
-                        LOGGER.debug("Task: {} pushed back to taskQueue: {} since the task status is {} with callbackAfterSeconds: {}", task, taskQueueName, task.getStatus().name(), callBack);
-                        break;
-                    default:
-                        break;
-                };
-                return null;
-            }, null, null, 2, updateTaskQueueDesc, taskQueueOperation);
+            boolean failedTaskFound = false;
+            for (int i = 0; i < tasks.size(); i++) {
+                task = tasks.get(i);
+                updateTaskQueues(task, taskResults.get(i));
+                //If the task has failed update the failed task reference name in the workflow.
+                //This gives the ability to look at workflow and see what tasks have failed at a high level.
+                if (FAILED.equals(task.getStatus()) || FAILED_WITH_TERMINAL_ERROR.equals(task.getStatus())) {
+                    workflowInstance.getFailedReferenceTaskNames().add(task.getReferenceTaskName());
+                    failedTaskFound = true;
+                }
+            }
+            task = tasks.get(0);
 
+            String updateTaskDesc = tasks.size() == 1 ? "Updating Task with taskId: " + task.getTaskId()
+                    : "Updating " + tasks.size() + " Tasks of workflow: " + workflowId;
+            String updateTaskOperation = "updateTask";
             new RetryUtil<>().retryOnException(() -> {
-                executionDAOFacade.updateTask(task);
+                if (tasks.size() == 1) {
+                    executionDAOFacade.updateTask(tasks.get(0));
+                } else {
+                    executionDAOFacade.updateTasks(tasks);
+                }
                 return null;
             }, null, null, 2, updateTaskDesc, updateTaskOperation);
 
-            //If the task has failed update the failed task reference name in the workflow.
-            //This gives the ability to look at workflow and see what tasks have failed at a high level.
-            if (FAILED.equals(task.getStatus()) || FAILED_WITH_TERMINAL_ERROR.equals(task.getStatus())) {
-                workflowInstance.getFailedReferenceTaskNames().add(task.getReferenceTaskName());
+            if (failedTaskFound) {
                 executionDAOFacade.updateWorkflow(workflowInstance);
-                LOGGER.debug("Task: {} has a {} status and the Workflow has been updated with failed task reference", task, task.getStatus());
+                LOGGER.debug("Workflow: {} has been updated with failed task references", workflowId);
             }
         } catch (Exception e) {
             String errorMsg = String.format("Error updating task: %s for workflow: %s", task.getTaskId(), workflowId);
@@ -868,11 +1092,49 @@ public class WorkflowExecutor {
             throw new ApplicationException(Code.BACKEND_ERROR, e);
         }
 
-        taskResult.getLogs().forEach(taskExecLog -> taskExecLog.setTaskId(task.getTaskId()));
-        executionDAOFacade.addTaskExecLog(taskResult.getLogs());
-        // [decide] 关键，当前任务执行完毕后以后根据添加判断下一个任务的过程。
-        decide(workflowId);
+        List<TaskExecLog> logs = new ArrayList<>();
+        for (int i = 0; i < tasks.size(); i++) {
+            String taskId = tasks.get(i).getTaskId();
+            taskResults.get(i).getLogs().forEach(taskExecLog -> {
+                taskExecLog.setTaskId(taskId);
+                logs.add(taskExecLog);
+            });
+        }
+        executionDAOFacade.addTaskExecLog(logs);
+    }
 
+    private void updateTaskQueues(Task task, TaskResult taskResult) {
+        String taskQueueName = QueueUtils.getQueueName(task);
+        String updateTaskQueueDesc = "Updating Task queues for taskId: " + task.getTaskId();
+        String taskQueueOperation = "updateTaskQueues";
+
+        // Retry each operation twice before failing workflow.
+        new RetryUtil<>().retryOnException(() -> {
+            switch (task.getStatus()) {
+                case COMPLETED:
+                case CANCELED:
+                case FAILED:
+                case FAILED_WITH_TERMINAL_ERROR:
+                case TIMED_OUT:
+                    queueDAO.remove(taskQueueName, taskResult.getTaskId());
+                    LOGGER.debug("Task: {} removed from taskQueue: {} since the task status is {}", task, taskQueueName, task.getStatus().name());
+                    break;
+                case IN_PROGRESS:
+                    // put it back in queue based on callbackAfterSeconds
+                    long callBack = taskResult.getCallbackAfterSeconds();
+                    queueDAO.remove(taskQueueName, task.getTaskId());
+                    LOGGER.debug("Task: {} removed from taskQueue: {} since the task status is {}", task, taskQueueName, task.getStatus().name());
+                    queueDAO.push(taskQueueName, task.getTaskId(), task.getWorkflowPriority(), callBack); // Milliseconds
+                    LOGGER.debug("Task: {} pushed back to taskQueue: {} since the task status is {} with callbackAfterSeconds: {}", task, taskQueueName, task.getStatus().name(), callBack);
+                    break;
+                default:
+                    break;
+            };
+            return null;
+        }, null, null, 2, updateTaskQueueDesc, taskQueueOperation);
+    }
+
+    private void recordTaskExecutionTime(Task task) {
         if (task.getStatus().isTerminal()) {
             long duration = getTaskDuration(0, task);
             long lastDuration = task.getEndTime() - task.getStartTime();
@@ -881,6 +1143,17 @@ public class WorkflowExecutor {
         }
     }
 
+    /**
+     * @throws ApplicationException with {@link Code#BACKEND_ERROR} if the lock could not be acquired, the caller should retry
+     */
+    private ExecutionLock acquireLockOrFail(String workflowId) {
+        ExecutionLock lock = executionLockService.acquireLock(workflowId);
+        if (lock == null) {
+            throw new ApplicationException(Code.BACKEND_ERROR, String.format("Unable to acquire the lock on workflow: %s, please retry", workflowId));
+        }
+        return lock;
+    }
+
     public Task getTask(String taskId) {
         return Optional.ofNullable(executionDAOFacade.getTaskById(taskId))
                 .map(task -> {
@@ -915,14 +1188,35 @@ public class WorkflowExecutor {
     }
 
     /**
+     * Concurrent calls for the same workflow on this node are coalesced: a call made while a decide is running
+     * returns false right away, and the running decide does one more pass to pick up the changes.
+     *
      * @param workflowId ID of the workflow to evaluate the state for
      * @return true if the workflow has completed (success or failed), false otherwise.
      * @throws ApplicationException If there was an error - caller should retry in this case.
      */
     public boolean decide(String workflowId) {
+        if (coalesceDecides) {
+            return decideCoalescer.decide(workflowId, this::decideOnce);
+        }
+        return decideOnce(workflowId);
+    }
+
+    private boolean decideOnce(String workflowId) {
+        try (ExecutionLock lock = executionLockService.acquireLock(workflowId)) {
+            if (lock == null) {
+                // another node is working on this workflow, the sweeper will decide it again later
+                queueDAO.pushIfNotExists(DeciderQueues.getQueueName(config, workflowId), workflowId, config.getSweepFrequency());
+                return false;
+            }
+            return decideLocked(workflowId);
+        }
+    }
+
+    private boolean decideLocked(String workflowId) {
 
         // If it is a new workflow, the tasks will be still empty even though include tasks is true
-        Workflow workflow = executionDAOFacade.getWorkflowById(workflowId, true);
+        Workflow workflow = getWorkflowForExecution(workflowId);
 
         // FIXME Backwards compatibility for legacy workflows already running.
         // This code will be removed in a future version.
@@ -977,13 +1271,14 @@ public class WorkflowExecutor {
             if (!outcome.tasksToBeUpdated.isEmpty() || !tasksToBeScheduled.isEmpty()) {
                 executionDAOFacade.updateTasks(tasksToBeUpdated);
                 executionDAOFacade.updateWorkflow(workflow);
-                queueDAO.push(DECIDER_QUEUE, workflow.getWorkflowId(), workflow.getPriority(), config.getSweepFrequency());
+                queueDAO.push(DeciderQueues.getQueueName(config, workflow.getWorkflowId()), workflow.getWorkflowId(), workflow.getPriority(), config.getSweepFrequency());
             }
             // 创建要执行的任务记录，判断当前任务的类型是不是异步的。如果是异步的则开始异步
             // 工作流，最后将过滤完的任务添加到 dyno-queue 队列中。
             stateChanged = scheduleTask(workflow, tasksToBeScheduled) || stateChanged;
 
             if (stateChanged) {
+                // when coalescing, this only requests another pass of the decide already running for this workflow
                 decide(workflowId);
             }
 
@@ -1000,9 +1295,9 @@ public class WorkflowExecutor {
 
     @VisibleForTesting
     List<Task> dedupAndAddTasks(Workflow workflow, List<Task> tasks) {
-        List<String> tasksInWorkflow = workflow.getTasks().stream()
+        Set<String> tasksInWorkflow = workflow.getTasks().stream()
                 .map(task -> task.getReferenceTaskName() + "_" + task.getRetryCount())
-                .collect(Collectors.toList());
+                .collect(Collectors.toSet());
 
         List<Task> dedupedTasks = tasks.stream()
                 .filter(task -> !tasksInWorkflow.contains(task.getReferenceTaskName() + "_" + task.getRetryCount()))
@@ -1132,7 +1427,7 @@ public class WorkflowExecutor {
             }
 
             String workflowId = task.getWorkflowInstanceId();
-            Workflow workflow = executionDAOFacade.getWorkflowById(workflowId, true);
+            Workflow workflow = getWorkflowForExecution(workflowId);
 
             if (task.getStartTime() == 0) {
                 task.setStartTime(System.currentTimeMillis());
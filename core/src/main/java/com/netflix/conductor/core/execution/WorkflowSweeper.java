@@ -21,6 +21,7 @@ package com.netflix.conductor.core.execution;
 import com.netflix.conductor.core.WorkflowContext;
 import com.netflix.conductor.core.config.Configuration;
 import com.netflix.conductor.core.execution.ApplicationException.Code;
+import com.netflix.conductor.core.utils.WorkerExecutors;
 import com.netflix.conductor.dao.QueueDAO;
 import com.netflix.conductor.metrics.Monitors;
 import org.slf4j.Logger;
@@ -33,10 +34,18 @@ import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
 
 /**
+ * Decides the workflows of the decider queues.
+ * <p>
+ * Every swept queue has its own dispatcher thread, feeding a shared pool of sweeper threads as soon as one of them is
+ * free instead of waiting for a whole batch to be decided. A dispatcher pops at most as many workflows as there are
+ * free sweeper threads, so slow decides shrink the batches, and only takes the sweeper threads once it got workflows:
+ * dispatchers waiting on drained queues do not hold back the others. It waits long for workflows once its queue is
+ * drained, and only briefly while the queue keeps returning workflows.
+ *
  * @author Viren
  * @author Vikram
  *
@@ -46,14 +55,27 @@ public class WorkflowSweeper {
 
 	private static Logger logger = LoggerFactory.getLogger(WorkflowSweeper.class);
 
+	private static final int EMPTY_QUEUE_POP_TIMEOUT_MS = 2000;
+
+	private static final int BUSY_QUEUE_POP_TIMEOUT_MS = 100;
+
+	private static final long ERROR_BACKOFF_MS = 500;
+
 	private ExecutorService executorService;
 
+	private ExecutorService dispatchers;
+
 	private Configuration config;
 
 	private QueueDAO queueDAO;
 
 	private int executorThreadPoolSize;
 
+	/**
+	 * One permit per sweeper thread not busy with a workflow
+	 */
+	private Semaphore freeWorkers;
+
 	private static final String className = WorkflowSweeper.class.getSimpleName();
 
 	@Inject
@@ -62,7 +84,8 @@ public class WorkflowSweeper {
 		this.queueDAO = queueDAO;
 		this.executorThreadPoolSize = config.getIntProperty("workflow.sweeper.thread.count", 5);
 		if(this.executorThreadPoolSize > 0) {
-			this.executorService = Executors.newFixedThreadPool(executorThreadPoolSize);
+			this.executorService = WorkerExecutors.newFixedPool(config, "workflow-sweeper-%d", executorThreadPoolSize, false);
+			this.freeWorkers = new Semaphore(executorThreadPoolSize);
 			init(workflowExecutor);
 			logger.info("Workflow Sweeper Initialized");
 		} else {
@@ -72,63 +95,112 @@ public class WorkflowSweeper {
 	}
 
 	public void init(WorkflowExecutor workflowExecutor) {
-		ScheduledExecutorService deciderPool = Executors.newScheduledThreadPool(1);
-		deciderPool.scheduleWithFixedDelay(() -> {
+		List<String> queueNames = DeciderQueues.getSweptQueueNames(config);
+		// every queue gets at least one sweeper thread per batch, whatever the others do
+		int maxBatchSize = Math.max(1, executorThreadPoolSize / queueNames.size());
+		dispatchers = Executors.newFixedThreadPool(queueNames.size(),
+				WorkerExecutors.threadFactory(config, "workflow-sweeper-dispatcher-%d", false));
+		for (String queueName : queueNames) {
+			dispatchers.submit(() -> dispatch(queueName, maxBatchSize, workflowExecutor));
+		}
+		logger.info("Sweeping the decider queues {} in batches of up to {} workflows", queueNames, maxBatchSize);
+	}
+
+	private void dispatch(String queueName, int maxBatchSize, WorkflowExecutor workflowExecutor) {
+		boolean queueDrained = true;
+		while (!Thread.currentThread().isInterrupted()) {
 			try {
-				boolean disable = config.disableSweep();
-				if (disable) {
+				if (config.disableSweep()) {
 					logger.info("Workflow sweep is disabled.");
-					return;
+					Thread.sleep(EMPTY_QUEUE_POP_TIMEOUT_MS);
+					continue;
 				}
-				List<String> workflowIds = queueDAO.pop(WorkflowExecutor.DECIDER_QUEUE, 2 * executorThreadPoolSize, 2000);
-				int currentQueueSize = queueDAO.getSize(WorkflowExecutor.DECIDER_QUEUE);
-				logger.debug("Sweeper's current deciderqueue size: {}.", currentQueueSize);
-				int retrievedWorkflows = (workflowIds != null) ? workflowIds.size() : 0;
-				logger.debug("Sweeper retrieved {} workflows from the decider queue.", retrievedWorkflows);
 
-				sweep(workflowIds, workflowExecutor);
+				int batchSize = Math.max(1, Math.min(maxBatchSize, freeWorkers.availablePermits()));
+				List<String> workflowIds = queueDAO.pop(queueName, batchSize, queueDrained ? EMPTY_QUEUE_POP_TIMEOUT_MS : BUSY_QUEUE_POP_TIMEOUT_MS);
+				int retrievedWorkflows = (workflowIds != null) ? workflowIds.size() : 0;
+				logger.debug("Sweeper retrieved {} workflows from the decider queue {}.", retrievedWorkflows, queueName);
+				queueDrained = retrievedWorkflows < batchSize;
+
+				for (int i = 0; i < retrievedWorkflows; i++) {
+					String workflowId = workflowIds.get(i);
+					// popped workflows left behind are redelivered once their unack timeout expires
+					freeWorkers.acquire();
+					try {
+						executorService.submit(() -> {
+							try {
+								sweep(queueName, workflowId, workflowExecutor);
+							} finally {
+								freeWorkers.release();
+							}
+						});
+					} catch (RejectedExecutionException e) {
+						freeWorkers.release();
+						throw e;
+					}
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
 			} catch (Exception e) {
 				Monitors.error(className, "sweep");
-				logger.error("Error when sweeping workflow", e);
+				logger.error("Error when sweeping the decider queue " + queueName, e);
+				try {
+					Thread.sleep(ERROR_BACKOFF_MS);
+				} catch (InterruptedException ie) {
+					Thread.currentThread().interrupt();
+				}
 			}
-		}, 500, 500, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * Stops the dispatchers, the workflows being decided are left to finish.
+	 */
+	public void shutdown() {
+		if (dispatchers != null) {
+			dispatchers.shutdownNow();
+		}
+		if (executorService != null) {
+			executorService.shutdown();
+		}
 	}
 
 	public void sweep(List<String> workflowIds, WorkflowExecutor workflowExecutor) throws Exception {
 
 		List<Future<?>> futures = new LinkedList<>();
 		for (String workflowId : workflowIds) {
-			Future<?> future = executorService.submit(() -> {
-				try {
-
-					WorkflowContext workflowContext = new WorkflowContext(config.getAppId());
-					WorkflowContext.set(workflowContext);
-					if(logger.isDebugEnabled()) {
-						logger.debug("Running sweeper for workflow {}", workflowId);
-					}
-					boolean done = workflowExecutor.decide(workflowId);
-					if(!done) {
-						queueDAO.setUnackTimeout(WorkflowExecutor.DECIDER_QUEUE, workflowId, config.getSweepFrequency() * 1000);
-					} else {
-						queueDAO.remove(WorkflowExecutor.DECIDER_QUEUE, workflowId);
-					}
-
-				} catch (ApplicationException e) {
-					if(e.getCode().equals(Code.NOT_FOUND)) {
-						logger.error("Workflow NOT found for id: " + workflowId, e);
-						queueDAO.remove(WorkflowExecutor.DECIDER_QUEUE, workflowId);
-					}
-
-				} catch (Exception e) {
-					Monitors.error(className, "sweep");
-					logger.error("Error running sweep for " + workflowId, e);
-				}
-			});
-			futures.add(future);
+			futures.add(executorService.submit(() -> sweep(DeciderQueues.getQueueName(config, workflowId), workflowId, workflowExecutor)));
 		}
 
 		for (Future<?> future : futures) {
 			future.get();
 		}
 	}
+
+	private void sweep(String queueName, String workflowId, WorkflowExecutor workflowExecutor) {
+		try {
+
+			WorkflowContext workflowContext = new WorkflowContext(config.getAppId());
+			WorkflowContext.set(workflowContext);
+			if(logger.isDebugEnabled()) {
+				logger.debug("Running sweeper for workflow {}", workflowId);
+			}
+			boolean done = workflowExecutor.decide(workflowId);
+			if(!done) {
+				queueDAO.setUnackTimeout(queueName, workflowId, config.getSweepFrequency() * 1000);
+			} else {
+				queueDAO.remove(queueName, workflowId);
+			}
+
+		} catch (ApplicationException e) {
+			if(e.getCode().equals(Code.NOT_FOUND)) {
+				logger.error("Workflow NOT found for id: " + workflowId, e);
+				queueDAO.remove(queueName, workflowId);
+			}
+
+		} catch (Exception e) {
+			Monitors.error(className, "sweep");
+			logger.error("Error running sweep for " + workflowId, e);
+		}
+	}
 }
@@ -1,16 +1,61 @@
 package com.netflix.conductor.core.execution.tasks;
 
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.LongAdder;
 
 class ExecutionConfig {
 
-	ExecutorService service;
+	final String name;
+	ThreadPoolExecutor service;
 	LinkedBlockingQueue<Runnable> workerQueue;
 
-	public ExecutionConfig(ExecutorService service, LinkedBlockingQueue<Runnable> workerQueue) {
+	// bounds of the pool when it is resized from the observed load
+	final int minThreads;
+	final int maxThreads;
+
+	// time spent executing tasks since the last resize
+	final LongAdder busyNanos = new LongAdder();
+	volatile long lastResizeNanos = System.nanoTime();
+
+	public ExecutionConfig(String name, ThreadPoolExecutor service, LinkedBlockingQueue<Runnable> workerQueue, int maxThreads) {
+		this.name = name;
 		this.service = service;
 		this.workerQueue = workerQueue;
+		this.minThreads = service.getCorePoolSize();
+		this.maxThreads = Math.max(minThreads, maxThreads);
+	}
+
+	/**
+	 * @return the number of tasks this config can hold, running or waiting for a thread
+	 */
+	int getCapacity() {
+		return service.getMaximumPoolSize() + workerQueue.size() + workerQueue.remainingCapacity();
 	}
 
-}
\ No newline at end of file
+	/**
+	 * Resizes the pool to the number of threads that were busy on average over the last window (the throughput times
+	 * the latency of the tasks), with some headroom, and one more thread while tasks are waiting for one.
+	 *
+	 * @return the share of the pool that was busy over the window, in percent
+	 */
+	long resize(long windowNanos) {
+		double busyThreads = busyNanos.sumThenReset() / (double) windowNanos;
+		int threads = service.getMaximumPoolSize();
+		long saturation = Math.round(100 * busyThreads / threads);
+		if (maxThreads == minThreads) {
+			return saturation;
+		}
+
+		int target = (int) Math.ceil(busyThreads * 1.25) + (workerQueue.isEmpty() ? 0 : 1);
+		target = Math.max(minThreads, Math.min(maxThreads, target));
+		if (target > threads) {
+			service.setMaximumPoolSize(target);
+			service.setCorePoolSize(target);
+		} else if (target < threads) {
+			service.setCorePoolSize(target);
+			service.setMaximumPoolSize(target);
+		}
+		return saturation;
+	}
+}
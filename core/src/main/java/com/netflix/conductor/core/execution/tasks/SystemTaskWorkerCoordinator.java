@@ -23,6 +23,7 @@ import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.netflix.conductor.core.config.Configuration;
 import com.netflix.conductor.core.execution.WorkflowExecutor;
 import com.netflix.conductor.core.utils.QueueUtils;
+import com.netflix.conductor.core.utils.WorkerExecutors;
 import com.netflix.conductor.dao.QueueDAO;
 import com.netflix.conductor.metrics.Monitors;
 import java.util.HashSet;
@@ -32,13 +33,15 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import org.apache.commons.lang3.StringUtils;
@@ -48,6 +51,13 @@ import org.slf4j.LoggerFactory;
 /**
  * @author Viren
  *
+ * Polls the queues of the async system tasks and hands the tasks over to the worker pools.
+ * <p>
+ * All the queues are polled from one small scheduler. A queue found empty is polled less and less often, up to
+ * <code>workflow.system.task.worker.poll.max.interval</code>, and again at the regular interval as soon as it has tasks.
+ * The queues sharing the default pool are given an equal share of it while several of them have work, so that a busy
+ * queue cannot take all the workers. The pools are resized periodically to the number of threads the observed load
+ * needs, when their maximum thread count is above their initial one.
  */
 @Singleton
 public class SystemTaskWorkerCoordinator {
@@ -58,7 +68,7 @@ public class SystemTaskWorkerCoordinator {
 
 	private WorkflowExecutor workflowExecutor;
 
-	private ExecutorService executorService;
+	private ScheduledExecutorService pollScheduler;
 
 	private int workerQueueSize;
 
@@ -68,6 +78,12 @@ public class SystemTaskWorkerCoordinator {
 	//Interval in ms at which the polling is done
 	private int pollInterval;
 
+	//Longest interval in ms between two polls of an empty queue
+	private int maxPollInterval;
+
+	//Time in ms a poll waits for tasks
+	private int pollTimeout;
+
 	private LinkedBlockingQueue<Runnable> workerQueue;
 
 	private int unackTimeout;
@@ -84,6 +100,8 @@ public class SystemTaskWorkerCoordinator {
 
 	ConcurrentHashMap<String, ExecutionConfig> queueExecutionConfigMap = new ConcurrentHashMap<>();
 
+	private final ConcurrentHashMap<String, QueueState> queueStates = new ConcurrentHashMap<>();
+
 	public static Map<String, WorkflowSystemTask> taskNameWorkFlowTaskMapping = new ConcurrentHashMap<>();
 
 	private static final String className = SystemTaskWorkerCoordinator.class.getName();
@@ -95,21 +113,32 @@ public class SystemTaskWorkerCoordinator {
 		this.config = config;
 		this.unackTimeout = config.getIntProperty("workflow.system.task.worker.callback.seconds", 30);
 		int threadCount = config.getIntProperty("workflow.system.task.worker.thread.count", 10);
+		int maxThreadCount = config.getIntProperty("workflow.system.task.worker.max.thread.count", threadCount);
 		this.pollCount = config.getIntProperty("workflow.system.task.worker.poll.count", 10);
 		this.pollInterval = config.getIntProperty("workflow.system.task.worker.poll.interval", 50);
+		this.maxPollInterval = Math.max(pollInterval, config.getIntProperty("workflow.system.task.worker.poll.max.interval", 1000));
+		this.pollTimeout = config.getIntProperty("workflow.system.task.worker.poll.timeout", 0);
 		this.workerQueueSize = config.getIntProperty("workflow.system.task.worker.queue.size", 100);
 		this.workerQueue = new LinkedBlockingQueue<>(workerQueueSize);
 		this.executionNameSpace =config.getProperty("workflow.system.task.worker.executionNameSpace","");
 
 		if(threadCount > 0) {
-			ThreadFactory threadFactory = new ThreadFactoryBuilder().setNameFormat("system-task-worker-%d").build();
-			this.executorService = new ThreadPoolExecutor(threadCount, threadCount,
+			ThreadFactory threadFactory = WorkerExecutors.threadFactory(config, "system-task-worker-%d", false);
+			ThreadPoolExecutor executorService = new ThreadPoolExecutor(threadCount, threadCount,
 	                0L, TimeUnit.MILLISECONDS,
 	                workerQueue,
 	                threadFactory);
-			this.defaultExecutionConfig = new ExecutionConfig(this.executorService, this.workerQueue);
+			this.defaultExecutionConfig = new ExecutionConfig("default", executorService, this.workerQueue, maxThreadCount);
+
+			int pollThreadCount = Math.max(1, config.getIntProperty("workflow.system.task.worker.poll.thread.count", 4));
+			this.pollScheduler = Executors.newScheduledThreadPool(pollThreadCount,
+					new ThreadFactoryBuilder().setNameFormat("system-task-poller-%d").setDaemon(true).build());
+			int resizeInterval = Math.max(1, config.getIntProperty("workflow.system.task.worker.resize.interval.seconds", 10));
+			this.pollScheduler.scheduleWithFixedDelay(this::resizeAndReport, resizeInterval, resizeInterval, TimeUnit.SECONDS);
+
 			new Thread(this::listen).start();
-			logger.info("System Task Worker initialized with {} threads and a callback time of {} seconds and queue size: {} with pollCount: {} and poll interval: {}", threadCount, unackTimeout, workerQueueSize, pollCount, pollInterval);
+			logger.info("System Task Worker initialized with {} threads (max {}) and a callback time of {} seconds and queue size: {} with pollCount: {} and poll interval: {} (max {})",
+					threadCount, maxThreadCount, unackTimeout, workerQueueSize, pollCount, pollInterval, maxPollInterval);
 		} else {
 			logger.info("System Task Worker DISABLED");
 		}
@@ -138,47 +167,122 @@ public class SystemTaskWorkerCoordinator {
 	}
 
 	private void listen(String queueName) {
-		Executors.newSingleThreadScheduledExecutor().scheduleWithFixedDelay(() -> pollAndExecute(queueName), 1000, pollInterval, TimeUnit.MILLISECONDS);
+		pollScheduler.schedule(() -> poll(queueName), 1000, TimeUnit.MILLISECONDS);
 		logger.info("Started listening for queue: {}", queueName);
 	}
 
+	private void poll(String queueName) {
+		int polled = 0;
+		try {
+			polled = pollAndExecute(queueName);
+		} finally {
+			long delay = getQueueState(queueName).nextPollDelay(polled, pollInterval, maxPollInterval);
+			pollScheduler.schedule(() -> poll(queueName), delay, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * @return the number of tasks polled, -1 if the queue was not polled as its workers are all busy
+	 */
 	@VisibleForTesting
-	void pollAndExecute(String queueName) {
+	int pollAndExecute(String queueName) {
 		try {
 			if(config.disableAsyncWorkers()) {
 				logger.warn("System Task Worker is DISABLED.  Not polling for system task in queue : {}", queueName);
-				return;
+				return 0;
 			}
 			// get the remaining capacity of worker queue to prevent queue full exception
 			ExecutionConfig executionConfig = getExecutionConfig(queueName);
+			QueueState queueState = getQueueState(queueName);
 			LinkedBlockingQueue<Runnable> workerQueue = executionConfig.workerQueue;
 			int realPollCount = Math.min(workerQueue.remainingCapacity(), pollCount);
+			if (executionConfig == defaultExecutionConfig) {
+				realPollCount = Math.min(realPollCount, getFairShare(queueName) - queueState.inFlight.get());
+			}
 			if (realPollCount <= 0) {
                 logger.debug("All workers are busy, not polling. queue size: {}, max: {}, task:{}", workerQueue.size(),
 					workerQueueSize, queueName);
-                return;
+                return -1;
 			}
 
-			List<String> polledTaskIds = queueDAO.pop(queueName, realPollCount, 200);
+			List<String> polledTaskIds = queueDAO.pop(queueName, realPollCount, pollTimeout);
 			Monitors.recordTaskPoll(queueName);
+			queueState.recordPoll(polledTaskIds.size());
 			logger.debug("Polling for {}, got {} tasks", queueName, polledTaskIds.size());
 			for(String taskId : polledTaskIds) {
 				logger.debug("Task: {} from queue: {} being sent to the workflow executor", taskId, queueName);
+				queueState.inFlight.incrementAndGet();
 				try {
 					String taskName = QueueUtils.getTaskType(queueName);
 					WorkflowSystemTask systemTask = taskNameWorkFlowTaskMapping.get(taskName);
-					ExecutorService executorService = executionConfig.service;
-					executorService.submit(() -> workflowExecutor.executeSystemTask(systemTask, taskId, unackTimeout));
+					executionConfig.service.submit(() -> {
+						long start = System.nanoTime();
+						try {
+							workflowExecutor.executeSystemTask(systemTask, taskId, unackTimeout);
+						} finally {
+							executionConfig.busyNanos.add(System.nanoTime() - start);
+							queueState.inFlight.decrementAndGet();
+						}
+					});
 				} catch(RejectedExecutionException ree) {
+					queueState.inFlight.decrementAndGet();
 					logger.warn("Queue full for workers. Size: {}, queue:{}", workerQueue.size(), queueName);
 				}
 			}
+			return polledTaskIds.size();
 		} catch (Exception e) {
 			Monitors.error(className, "pollAndExecute");
 			logger.error("Error executing system task in queue:{}", queueName, e);
+			return 0;
 		}
 	}
 
+	/**
+	 * @return the number of tasks of the queue the default pool can hold, its capacity split evenly between the
+	 * queues that currently have work
+	 */
+	private int getFairShare(String queueName) {
+		int activeQueues = 0;
+		for (Map.Entry<String, QueueState> entry : queueStates.entrySet()) {
+			if (!entry.getKey().equals(queueName) && entry.getValue().isActive() && !QueueUtils.isIsolatedQueue(entry.getKey())) {
+				activeQueues++;
+			}
+		}
+		return Math.max(1, defaultExecutionConfig.getCapacity() / (activeQueues + 1));
+	}
+
+	private QueueState getQueueState(String queueName) {
+		return queueStates.computeIfAbsent(queueName, __ -> new QueueState(pollInterval));
+	}
+
+	private void resizeAndReport() {
+		try {
+			long now = System.nanoTime();
+			resizeAndReport(defaultExecutionConfig, now);
+			queueExecutionConfigMap.values().forEach(executionConfig -> resizeAndReport(executionConfig, now));
+			queueStates.forEach((queueName, queueState) -> {
+				long hitRatio = queueState.getAndResetHitRatio();
+				if (hitRatio >= 0) {
+					Monitors.recordSystemTaskWorkerPollHitRatio(queueName, hitRatio);
+				}
+			});
+		} catch (Exception e) {
+			Monitors.error(className, "resizeAndReport");
+			logger.error("Error resizing the system task worker pools", e);
+		}
+	}
+
+	private void resizeAndReport(ExecutionConfig executionConfig, long now) {
+		long windowNanos = now - executionConfig.lastResizeNanos;
+		executionConfig.lastResizeNanos = now;
+		int threads = executionConfig.service.getMaximumPoolSize();
+		long saturation = executionConfig.resize(windowNanos);
+		if (threads != executionConfig.service.getMaximumPoolSize()) {
+			logger.info("Resized the system task worker pool {} from {} to {} threads, saturation: {}%",
+					executionConfig.name, threads, executionConfig.service.getMaximumPoolSize(), saturation);
+		}
+		Monitors.recordSystemTaskWorkerSaturation(executionConfig.name, saturation, executionConfig.service.getMaximumPoolSize());
+	}
 
 	public boolean isFromCoordinatorExecutionNameSpace(String queueName) {
 		String queueExecutionNameSpace = QueueUtils.getExecutionNameSpace(queueName);
@@ -212,21 +316,75 @@ public class SystemTaskWorkerCoordinator {
 			return this.defaultExecutionConfig;
 		}
 
-		return queueExecutionConfigMap.computeIfAbsent(taskQueue, __ -> this.createExecutionConfig());
+		return queueExecutionConfigMap.computeIfAbsent(taskQueue, this::createExecutionConfig);
 
 	}
 
-	private ExecutionConfig createExecutionConfig() {
+	private ExecutionConfig createExecutionConfig(String taskQueue) {
 
 		int workerQueueSize = config.getIntProperty("workflow.isolated.system.task.worker.queue.size", 100);
 		LinkedBlockingQueue<Runnable> workerQueue = new LinkedBlockingQueue<>(workerQueueSize);
 		int threadCount = config.getIntProperty("workflow.isolated.system.task.worker.thread.count", 1);
-		ThreadFactory threadFactory = new ThreadFactoryBuilder().setNameFormat("isolated-system-task-worker-%d").build();
+		int maxThreadCount = config.getIntProperty("workflow.isolated.system.task.worker.max.thread.count", threadCount);
+		ThreadFactory threadFactory = WorkerExecutors.threadFactory(config, "isolated-system-task-worker-%d", false);
 
-		return new ExecutionConfig(new ThreadPoolExecutor(threadCount, threadCount,
+		return new ExecutionConfig(taskQueue, new ThreadPoolExecutor(threadCount, threadCount,
 				0L, TimeUnit.MILLISECONDS,
 				workerQueue,
-				threadFactory), workerQueue);
+				threadFactory), workerQueue, maxThreadCount);
+
+	}
+
+	/**
+	 * Polling state of a queue. The polls of a queue are never concurrent, only the in flight count is shared with
+	 * the workers.
+	 */
+	private static class QueueState {
+
+		final AtomicInteger inFlight = new AtomicInteger();
+
+		private final LongAdder polls = new LongAdder();
+		private final LongAdder hits = new LongAdder();
+
+		private volatile long pollDelay;
+		private volatile boolean lastPollHit;
+
+		QueueState(long pollDelay) {
+			this.pollDelay = pollDelay;
+		}
+
+		void recordPoll(int polled) {
+			polls.increment();
+			if (polled > 0) {
+				hits.increment();
+			}
+			lastPollHit = polled > 0;
+		}
+
+		boolean isActive() {
+			return lastPollHit || inFlight.get() > 0;
+		}
 
+		/**
+		 * The delay doubles on every empty poll, and goes back to the poll interval when tasks are found or when the
+		 * workers were too busy to poll.
+		 */
+		long nextPollDelay(int polled, long pollInterval, long maxPollInterval) {
+			if (polled != 0) {
+				pollDelay = pollInterval;
+			} else {
+				pollDelay = Math.min(maxPollInterval, Math.max(1, pollDelay * 2));
+			}
+			return pollDelay;
+		}
+
+		/**
+		 * @return the share of the polls that found tasks since the last call, in percent, -1 if there was no poll
+		 */
+		long getAndResetHitRatio() {
+			long pollCount = polls.sumThenReset();
+			long hitCount = hits.sumThenReset();
+			return pollCount == 0 ? -1 : 100 * hitCount / pollCount;
+		}
 	}
-}	
+}
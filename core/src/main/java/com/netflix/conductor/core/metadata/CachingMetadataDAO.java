@@ -0,0 +1,313 @@
+/*
+ * Copyright 2019 Netflix, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.netflix.conductor.core.metadata;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.netflix.conductor.common.metadata.events.EventHandler;
+import com.netflix.conductor.common.metadata.tasks.TaskDef;
+import com.netflix.conductor.common.metadata.workflow.WorkflowDef;
+import com.netflix.conductor.core.config.Configuration;
+import com.netflix.conductor.core.metadata.MetadataChangeNotifier.Kind;
+import com.netflix.conductor.dao.MetadataDAO;
+import com.netflix.conductor.metrics.Monitors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+import java.io.IOException;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Caches the task and workflow definitions read through the {@link MetadataDAO} of the persistence module. Task
+ * definitions are read with {@link MetadataDAO#getTaskDefFromDB}, past whatever caching the DAO does itself.
+ * <p>
+ * A definition written through this server is dropped from its cache and the change is published with the
+ * {@link MetadataChangeNotifier}, for the other servers to drop it as well. Cached definitions also expire, which
+ * bounds how long a change can go unseen when a notification is lost. Missing definitions are cached too.
+ * <p>
+ * Definitions are held serialized, so callers can mutate what they get without corrupting the cache.
+ * When <code>workflow.metadata.cache.enabled</code> is false, every call goes to the DAO.
+ */
+@Singleton
+public class CachingMetadataDAO implements MetadataDAO {
+
+    public static final String DELEGATE = "MetadataDAODelegate";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CachingMetadataDAO.class);
+
+    private final MetadataDAO delegate;
+    private final MetadataChangeNotifier notifier;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+
+    private final Cache<String, Optional<String>> taskDefs;
+    private final Cache<WorkflowDefKey, Optional<String>> workflowDefs;
+
+    /**
+     * Bumped on every invalidation, a definition read while it moved is not cached as it may be stale already
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    @Inject
+    public CachingMetadataDAO(@Named(DELEGATE) MetadataDAO delegate, Provider<MetadataChangeNotifier> notifierProvider,
+                              ObjectMapper objectMapper, Configuration config) {
+        this.delegate = delegate;
+        this.objectMapper = objectMapper;
+        this.enabled = config.getBooleanProperty("workflow.metadata.cache.enabled", false);
+        // the notifier is only started along with the cache
+        this.notifier = enabled ? notifierProvider.get() : null;
+        long maxSize = config.getLongProperty("workflow.metadata.cache.size", 10000);
+        long expirySeconds = config.getLongProperty("workflow.metadata.cache.expiry.seconds", 60);
+        this.taskDefs = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(expirySeconds, TimeUnit.SECONDS)
+                .build();
+        this.workflowDefs = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(expirySeconds, TimeUnit.SECONDS)
+                .build();
+        if (enabled) {
+            notifier.addListener((kind, name) -> {
+                Monitors.recordMetadataChangeNotification(kind.name(), "received");
+                invalidate(kind, name);
+            });
+        }
+    }
+
+    @Override
+    public String createTaskDef(TaskDef taskDef) {
+        String name = delegate.createTaskDef(taskDef);
+        changed(Kind.TASK_DEF, taskDef.getName());
+        return name;
+    }
+
+    @Override
+    public String updateTaskDef(TaskDef taskDef) {
+        String name = delegate.updateTaskDef(taskDef);
+        changed(Kind.TASK_DEF, taskDef.getName());
+        return name;
+    }
+
+    @Override
+    public TaskDef getTaskDef(String name) {
+        if (!enabled) {
+            return delegate.getTaskDef(name);
+        }
+        // past the DAO's own cache, which would only be refreshed on its own schedule after a change
+        return read(taskDefs, name, "task_def", () -> Optional.ofNullable(delegate.getTaskDefFromDB(name)), TaskDef.class)
+                .orElse(null);
+    }
+
+    @Override
+    public List<TaskDef> getAllTaskDefs() {
+        return delegate.getAllTaskDefs();
+    }
+
+    @Override
+    public void removeTaskDef(String name) {
+        try {
+            delegate.removeTaskDef(name);
+        } finally {
+            changed(Kind.TASK_DEF, name);
+        }
+    }
+
+    @Override
+    public void create(WorkflowDef def) {
+        delegate.create(def);
+        changed(Kind.WORKFLOW_DEF, def.getName());
+    }
+
+    @Override
+    public void update(WorkflowDef def) {
+        delegate.update(def);
+        changed(Kind.WORKFLOW_DEF, def.getName());
+    }
+
+    @Override
+    public Optional<WorkflowDef> getLatest(String name) {
+        if (!enabled) {
+            return delegate.getLatest(name);
+        }
+        return read(workflowDefs, new WorkflowDefKey(name, null), "workflow_def", () -> delegate.getLatest(name), WorkflowDef.class);
+    }
+
+    @Override
+    public Optional<WorkflowDef> get(String name, int version) {
+        if (!enabled) {
+            return delegate.get(name, version);
+        }
+        return read(workflowDefs, new WorkflowDefKey(name, version), "workflow_def", () -> delegate.get(name, version), WorkflowDef.class);
+    }
+
+    @Override
+    public void removeWorkflowDef(String name, Integer version) {
+        try {
+            delegate.removeWorkflowDef(name, version);
+        } finally {
+            changed(Kind.WORKFLOW_DEF, name);
+        }
+    }
+
+    @Override
+    public List<String> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public List<WorkflowDef> getAll() {
+        return delegate.getAll();
+    }
+
+    @Override
+    public List<WorkflowDef> getAllVersions(String name) {
+        return delegate.getAllVersions(name);
+    }
+
+    @Override
+    public void addEventHandler(EventHandler eventHandler) {
+        delegate.addEventHandler(eventHandler);
+    }
+
+    @Override
+    public void updateEventHandler(EventHandler eventHandler) {
+        delegate.updateEventHandler(eventHandler);
+    }
+
+    @Override
+    public void removeEventHandlerStatus(String name) {
+        delegate.removeEventHandlerStatus(name);
+    }
+
+    @Override
+    public List<EventHandler> getEventHandlers() {
+        return delegate.getEventHandlers();
+    }
+
+    @Override
+    public List<EventHandler> getEventHandlersForEvent(String event, boolean activeOnly) {
+        return delegate.getEventHandlersForEvent(event, activeOnly);
+    }
+
+    /**
+     * Drops the definition from the cache, a null name drops all the definitions of the kind.
+     */
+    void invalidate(Kind kind, String name) {
+        synchronized (generation) {
+            generation.incrementAndGet();
+            switch (kind) {
+                case TASK_DEF:
+                    if (name == null) {
+                        taskDefs.invalidateAll();
+                    } else {
+                        taskDefs.invalidate(name);
+                    }
+                    break;
+                case WORKFLOW_DEF:
+                    if (name == null) {
+                        workflowDefs.invalidateAll();
+                    } else {
+                        workflowDefs.asMap().keySet().removeIf(key -> key.name.equals(name));
+                    }
+                    break;
+            }
+        }
+    }
+
+    private void changed(Kind kind, String name) {
+        if (!enabled) {
+            return;
+        }
+        invalidate(kind, name);
+        try {
+            notifier.publish(kind, name);
+            Monitors.recordMetadataChangeNotification(kind.name(), "published");
+        } catch (Exception e) {
+            // the other servers see the change once their cached definition expires
+            Monitors.error(CachingMetadataDAO.class.getSimpleName(), "publish");
+            LOGGER.error("Failed to publish the change of {} {}", kind, name, e);
+        }
+    }
+
+    private <K, T> Optional<T> read(Cache<K, Optional<String>> cache, K key, String type, Supplier<Optional<T>> loader, Class<T> clazz) {
+        Optional<String> cached = cache.getIfPresent(key);
+        if (cached != null) {
+            Monitors.recordMetadataCacheAccess(type, "hit");
+            return cached.map(json -> readValue(json, clazz));
+        }
+        Monitors.recordMetadataCacheAccess(type, "miss");
+        long readToken = generation.get();
+        Optional<T> value = loader.get();
+        Optional<String> json = value.map(this::toJson);
+        synchronized (generation) {
+            if (generation.get() == readToken) {
+                cache.put(key, json);
+            }
+        }
+        // callers get their own copy
+        return json.map(j -> readValue(j, clazz));
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private <T> T readValue(String json, Class<T> clazz) {
+        try {
+            return objectMapper.readValue(json, clazz);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static class WorkflowDefKey {
+        private final String name;
+        /**
+         * null for the latest version
+         */
+        private final Integer version;
+
+        private WorkflowDefKey(String name, Integer version) {
+            this.name = name;
+            this.version = version;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            WorkflowDefKey that = (WorkflowDefKey) o;
+            return name.equals(that.name) && Objects.equals(version, that.version);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(name, version);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2019 Netflix, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.netflix.conductor.core.metadata;
+
+/**
+ * Tells the servers of a cluster that a definition changed, so that they drop it from their metadata caches.
+ * <p>
+ * Notifications are best effort. A notifier that may have missed some, for instance while reconnecting, tells its
+ * listeners that every definition of the kind changed.
+ */
+public interface MetadataChangeNotifier {
+
+    enum Kind {
+        TASK_DEF, WORKFLOW_DEF
+    }
+
+    interface Listener {
+
+        /**
+         * @param kind the kind of the definition
+         * @param name the name of the definition, null when any definition of the kind may have changed
+         */
+        void onChange(Kind kind, String name);
+    }
+
+    /**
+     * Tells all the servers, this one included, that the definition changed.
+     */
+    void publish(Kind kind, String name);
+
+    void addListener(Listener listener);
+}
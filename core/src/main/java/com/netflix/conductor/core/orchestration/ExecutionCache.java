@@ -0,0 +1,195 @@
+/*
+ * Copyright 2019 Netflix, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.netflix.conductor.core.orchestration;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import com.netflix.conductor.common.metadata.tasks.Task;
+import com.netflix.conductor.common.run.Workflow;
+import com.netflix.conductor.metrics.Monitors;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Node-local cache of the tasks of recently read workflows.
+ * <p>
+ * Every entry is stamped with the update time of the workflow it was read or written with. A cached task list is only
+ * served while the workflow in the data store still carries the same stamp, so any workflow update made by another
+ * node invalidates it. Since a task update does not change that stamp, the task updates made through this node drop
+ * the entry of their workflow, only the tasks created through this node are applied to it. Task writes made by other
+ * nodes without a workflow update are only picked up once the entry expires, which is why the expiry is short.
+ * <p>
+ * Tasks are held serialized, so callers can mutate what they get without corrupting the cache.
+ */
+class ExecutionCache {
+
+    private static final int STRIPES = 256;
+
+    private final ObjectMapper objectMapper;
+    private final long expiryMs;
+    private final Cache<String, Entry> entries;
+
+    /**
+     * Task writes started per stripe of workflows, so that a read racing with a task write is not cached
+     */
+    private final AtomicLongArray writeCounts = new AtomicLongArray(STRIPES);
+    private final Object[] locks = new Object[STRIPES];
+
+    ExecutionCache(ObjectMapper objectMapper, long maxSize, long expiryMs) {
+        this.objectMapper = objectMapper;
+        this.expiryMs = expiryMs;
+        this.entries = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(expiryMs, TimeUnit.MILLISECONDS)
+                .removalListener((RemovalListener<String, Entry>) notification -> {
+                    if (notification.wasEvicted()) {
+                        Monitors.recordExecutionCacheEviction(notification.getCause().name());
+                    }
+                })
+                .build();
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * @param workflowId the id of the workflow
+     * @param stamp      the update time of the workflow as read from the data store
+     * @return a copy of the cached tasks, null if the workflow is not cached or was updated since
+     */
+    List<Task> getTasks(String workflowId, Long stamp) {
+        Entry entry = entries.getIfPresent(workflowId);
+        if (entry == null) {
+            Monitors.recordExecutionCacheAccess("miss");
+            return null;
+        }
+        // patching an entry counts as a write for the cache, the age of the entry is kept separately
+        if (!Objects.equals(entry.stamp, stamp) || System.currentTimeMillis() - entry.loadTime > expiryMs) {
+            entries.invalidate(workflowId);
+            Monitors.recordExecutionCacheAccess("stale");
+            return null;
+        }
+        Monitors.recordExecutionCacheAccess("hit");
+        List<Task> tasks = new ArrayList<>(entry.tasks.size());
+        for (String json : entry.tasks.values()) {
+            tasks.add(readTask(json));
+        }
+        return tasks;
+    }
+
+    /**
+     * To be called before reading a workflow from the data store.
+     *
+     * @return the token to pass to {@link #put(Workflow, long)}
+     */
+    long startRead(String workflowId) {
+        return writeCounts.get(stripe(workflowId));
+    }
+
+    /**
+     * Caches the tasks of a workflow read from the data store, unless a task of the workflow was written meanwhile.
+     */
+    void put(Workflow workflow, long readToken) {
+        Map<String, String> tasks = new HashMap<>();
+        for (Task task : workflow.getTasks()) {
+            tasks.put(task.getTaskId(), writeTask(task));
+        }
+        Entry entry = new Entry(workflow.getUpdateTime(), tasks, System.currentTimeMillis());
+
+        int stripe = stripe(workflow.getWorkflowId());
+        synchronized (locks[stripe]) {
+            if (writeCounts.get(stripe) == readToken) {
+                entries.put(workflow.getWorkflowId(), entry);
+            }
+        }
+    }
+
+    /**
+     * To be called before writing a task of the workflow to the data store.
+     */
+    void startWrite(String workflowId) {
+        writeCounts.incrementAndGet(stripe(workflowId));
+    }
+
+    /**
+     * Applies a task that was created through this node to its cached workflow.
+     */
+    void putTask(Task task) {
+        String json = writeTask(task);
+        synchronized (locks[stripe(task.getWorkflowInstanceId())]) {
+            entries.asMap().computeIfPresent(task.getWorkflowInstanceId(), (workflowId, entry) -> {
+                Map<String, String> updated = new HashMap<>(entry.tasks);
+                updated.put(task.getTaskId(), json);
+                return new Entry(entry.stamp, updated, entry.loadTime);
+            });
+        }
+    }
+
+    /**
+     * Moves the stamp of a cached workflow after it was updated through this node, the tasks are not part of the update.
+     */
+    void updateStamp(Workflow workflow) {
+        entries.asMap().computeIfPresent(workflow.getWorkflowId(),
+                (workflowId, entry) -> new Entry(workflow.getUpdateTime(), entry.tasks, entry.loadTime));
+    }
+
+    void removeTask(String taskId) {
+        entries.asMap().values().removeIf(entry -> entry.tasks.containsKey(taskId));
+    }
+
+    void invalidate(String workflowId) {
+        entries.invalidate(workflowId);
+    }
+
+    private static int stripe(String workflowId) {
+        return (workflowId.hashCode() & Integer.MAX_VALUE) % STRIPES;
+    }
+
+    private String writeTask(Task task) {
+        try {
+            return objectMapper.writeValueAsString(task);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private Task readTask(String json) {
+        try {
+            return objectMapper.readValue(json, Task.class);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static class Entry {
+        private final Long stamp;
+        private final Map<String, String> tasks;
+        private final long loadTime;
+
+        private Entry(Long stamp, Map<String, String> tasks, long loadTime) {
+            this.stamp = stamp;
+            this.tasks = tasks;
+            this.loadTime = loadTime;
+        }
+    }
+}
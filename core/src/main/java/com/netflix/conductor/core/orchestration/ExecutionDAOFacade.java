@@ -19,9 +19,11 @@ import com.netflix.conductor.common.metadata.tasks.Task;
 import com.netflix.conductor.common.metadata.tasks.TaskExecLog;
 import com.netflix.conductor.common.run.SearchResult;
 import com.netflix.conductor.common.run.Workflow;
+import com.netflix.conductor.core.config.Configuration;
 import com.netflix.conductor.core.events.queue.Message;
 import com.netflix.conductor.core.execution.ApplicationException;
 import com.netflix.conductor.core.execution.ApplicationException.Code;
+import com.netflix.conductor.core.execution.LazyTask;
 import com.netflix.conductor.dao.ExecutionDAO;
 import com.netflix.conductor.dao.IndexDAO;
 import com.netflix.conductor.metrics.Monitors;
@@ -30,6 +32,7 @@ import org.slf4j.LoggerFactory;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
+import java.io.File;
 import java.io.IOException;
 import java.util.List;
 import java.util.Objects;
@@ -48,12 +51,46 @@ public class ExecutionDAOFacade {
     private final ExecutionDAO executionDAO;
     private final IndexDAO indexDAO;
     private final ObjectMapper objectMapper;
+    private final ExecutionCache executionCache;
+    private final IndexingPipeline indexingPipeline;
 
     @Inject
-    public ExecutionDAOFacade(ExecutionDAO executionDAO, IndexDAO indexDAO, ObjectMapper objectMapper) {
+    public ExecutionDAOFacade(ExecutionDAO executionDAO, IndexDAO indexDAO, ObjectMapper objectMapper, Configuration config) {
         this.executionDAO = executionDAO;
         this.indexDAO = indexDAO;
         this.objectMapper = objectMapper;
+        boolean cacheEnabled = config.getBooleanProperty("workflow.execution.cache.enabled", false);
+        if (cacheEnabled && !config.getBooleanProperty("workflow.execution.lock.enabled", false)) {
+            // cached tasks are only checked against the workflow, the updates of the tasks made by other servers must
+            // be serialized with the decides of this one
+            LOGGER.warn("The execution cache is not enabled, it requires workflow.execution.lock.enabled");
+            cacheEnabled = false;
+        }
+        if (cacheEnabled) {
+            this.executionCache = new ExecutionCache(objectMapper,
+                    config.getLongProperty("workflow.execution.cache.size", 1000),
+                    config.getLongProperty("workflow.execution.cache.expiry.ms", 1000));
+        } else {
+            this.executionCache = null;
+        }
+        boolean pipelineEnabled = config.getBooleanProperty("workflow.indexing.pipeline.enabled", false);
+        if (pipelineEnabled && !indexDAO.canIndexSummaries()) {
+            // the summaries would be retried and spilled forever, they are indexed one at a time instead
+            LOGGER.warn("The indexing pipeline is not enabled, {} does not support bulk indexing", indexDAO.getClass().getSimpleName());
+            pipelineEnabled = false;
+        }
+        if (pipelineEnabled) {
+            this.indexingPipeline = new IndexingPipeline(indexDAO, objectMapper,
+                    config.getIntProperty("workflow.indexing.pipeline.batch.size", 500),
+                    config.getLongProperty("workflow.indexing.pipeline.flush.interval.ms", 1000),
+                    config.getIntProperty("workflow.indexing.pipeline.max.pending", 10000),
+                    config.getLongProperty("workflow.indexing.pipeline.max.wait.ms", 100),
+                    new File(config.getProperty("workflow.indexing.pipeline.spill.dir",
+                            System.getProperty("java.io.tmpdir") + File.separator + "conductor-index")));
+            this.indexingPipeline.start();
+        } else {
+            this.indexingPipeline = null;
+        }
     }
 
     /**
@@ -71,7 +108,9 @@ public class ExecutionDAOFacade {
      *                              </ul>
      */
     public Workflow getWorkflowById(String workflowId, boolean includeTasks) {
-        Workflow workflow = executionDAO.getWorkflow(workflowId, includeTasks);
+        Workflow workflow = includeTasks && executionCache != null
+                ? getWorkflowWithCachedTasks(workflowId)
+                : executionDAO.getWorkflow(workflowId, includeTasks);
         if (workflow == null) {
             LOGGER.debug("Workflow {} not found in executionDAO, checking indexDAO", workflowId);
             String json = indexDAO.get(workflowId, RAW_JSON_FIELD);
@@ -95,6 +134,55 @@ public class ExecutionDAOFacade {
         return workflow;
     }
 
+    /**
+     * Fetches the {@link Workflow} object with its tasks for execution, the tasks that are done and executed are read
+     * as {@link LazyTask} headers when the {@link ExecutionDAO} supports it. The tasks are served from the
+     * {@link ExecutionCache} instead, when it is enabled.
+     *
+     * @param workflowId the id of the workflow to be fetched
+     * @return the {@link Workflow} object
+     * @throws ApplicationException if no such {@link Workflow} is found
+     */
+    public Workflow getWorkflowWithTaskHeaders(String workflowId) {
+        if (executionCache != null) {
+            return getWorkflowById(workflowId, true);
+        }
+        Workflow workflow = executionDAO.getWorkflow(workflowId, false);
+        if (workflow == null) {
+            // archived workflows are read from the index in full
+            return getWorkflowById(workflowId, true);
+        }
+        List<Task> tasks = executionDAO.getTaskHeadersForWorkflow(workflowId);
+        tasks.sort(executionDAO.getTaskOrder());
+        workflow.setTasks(tasks);
+        return workflow;
+    }
+
+    /**
+     * Reads the workflow itself from the {@link ExecutionDAO}, and its tasks from the {@link ExecutionCache} if the
+     * workflow was not updated since they were cached.
+     */
+    private Workflow getWorkflowWithCachedTasks(String workflowId) {
+        long readToken = executionCache.startRead(workflowId);
+        Workflow workflow = executionDAO.getWorkflow(workflowId, false);
+        if (workflow == null) {
+            executionCache.invalidate(workflowId);
+            return null;
+        }
+
+        List<Task> tasks = executionCache.getTasks(workflowId, workflow.getUpdateTime());
+        boolean cached = tasks != null;
+        if (!cached) {
+            tasks = executionDAO.getTasksForWorkflow(workflowId);
+        }
+        tasks.sort(executionDAO.getTaskOrder());
+        workflow.setTasks(tasks);
+        if (!cached) {
+            executionCache.put(workflow, readToken);
+        }
+        return workflow;
+    }
+
     /**
      * Retrieve all workflow executions with the given correlationId
      * Uses the {@link IndexDAO} to search across workflows if the {@link ExecutionDAO} cannot perform searches across workflows.
@@ -148,10 +236,26 @@ public class ExecutionDAOFacade {
     public String createWorkflow(Workflow workflow) {
         workflow.setCreateTime(System.currentTimeMillis());
         executionDAO.createWorkflow(workflow);
-        indexDAO.indexWorkflow(workflow);
+        indexWorkflow(workflow);
         return workflow.getWorkflowId();
     }
 
+    /**
+     * Creates the workflows in a single {@link ExecutionDAO} batch. They are indexed asynchronously.
+     *
+     * @param workflows the workflows to be created
+     */
+    public void createWorkflows(List<Workflow> workflows) {
+        long createTime = System.currentTimeMillis();
+        workflows.forEach(workflow -> workflow.setCreateTime(createTime));
+        executionDAO.createWorkflows(workflows);
+        if (indexingPipeline != null) {
+            workflows.forEach(indexingPipeline::indexWorkflow);
+        } else {
+            workflows.forEach(indexDAO::asyncIndexWorkflow);
+        }
+    }
+
     /**
      * Updates the given workflow in the data store
      *
@@ -164,7 +268,10 @@ public class ExecutionDAOFacade {
             workflow.setEndTime(System.currentTimeMillis());
         }
         executionDAO.updateWorkflow(workflow);
-        indexDAO.indexWorkflow(workflow);
+        if (executionCache != null) {
+            executionCache.updateStamp(workflow);
+        }
+        indexWorkflow(workflow);
         return workflow.getWorkflowId();
     }
 
@@ -174,6 +281,8 @@ public class ExecutionDAOFacade {
 
     /**
      * Removes the workflow from the data store.
+     * Note that with the {@link IndexingPipeline} enabled, a summary of the workflow still in its spill file is indexed
+     * again after the removal.
      *
      * @param workflowId      the id of the workflow to be removed
      * @param archiveWorkflow if true, the workflow will be archived in the {@link IndexDAO} after removal from  {@link ExecutionDAO}
@@ -184,6 +293,10 @@ public class ExecutionDAOFacade {
 
             if (workflow.getStatus().isTerminal()) {
 
+                if (indexingPipeline != null && indexingPipeline.discardWorkflow(workflowId) != null && archiveWorkflow) {
+                    // the archived document must exist, and not be overwritten later by the queued summary
+                    indexDAO.indexWorkflow(workflow);
+                }
                 if (archiveWorkflow) {
                     //Add to elasticsearch
                     indexDAO.updateWorkflow(workflowId,
@@ -196,6 +309,9 @@ public class ExecutionDAOFacade {
 
                 // remove workflow from DAO
                 try {
+                    if (executionCache != null) {
+                        executionCache.invalidate(workflowId);
+                    }
                     executionDAO.removeWorkflow(workflowId);
                 } catch (Exception ex) {
                     Monitors.recordDaoError("executionDao", "removeWorkflow");
@@ -210,7 +326,13 @@ public class ExecutionDAOFacade {
     }
 
     public List<Task> createTasks(List<Task> tasks) {
-        return executionDAO.createTasks(tasks);
+        if (executionCache == null) {
+            return executionDAO.createTasks(tasks);
+        }
+        tasks.forEach(task -> executionCache.startWrite(task.getWorkflowInstanceId()));
+        List<Task> created = executionDAO.createTasks(tasks);
+        created.forEach(executionCache::putTask);
+        return created;
     }
 
     public List<Task> getTasksForWorkflow(String workflowId) {
@@ -243,28 +365,100 @@ public class ExecutionDAOFacade {
      */
     public void updateTask(Task task) {
         try {
-            if (task.getStatus() != null) {
-                if (!task.getStatus().isTerminal() || (task.getStatus().isTerminal() && task.getUpdateTime() == 0)) {
-                    task.setUpdateTime(System.currentTimeMillis());
-                }
-                if (task.getStatus().isTerminal() && task.getEndTime() == 0) {
-                    task.setEndTime(System.currentTimeMillis());
-                }
+            setUpdateAndEndTime(task);
+            if (executionCache != null) {
+                executionCache.startWrite(task.getWorkflowInstanceId());
             }
             executionDAO.updateTask(task);
-            indexDAO.indexTask(task);
+            if (executionCache != null) {
+                // a task write does not change the stamp of the workflow, the cached tasks are read again instead
+                executionCache.invalidate(task.getWorkflowInstanceId());
+            }
+            indexTask(task);
         } catch (Exception e) {
+            if (executionCache != null) {
+                executionCache.invalidate(task.getWorkflowInstanceId());
+            }
             String errorMsg = String.format("Error updating task: %s in workflow: %s", task.getTaskId(), task.getWorkflowInstanceId());
             LOGGER.error(errorMsg, e);
             throw new ApplicationException(ApplicationException.Code.BACKEND_ERROR, errorMsg, e);
         }
     }
 
+    /**
+     * Updates the tasks like {@link #updateTask(Task)}, in a single {@link ExecutionDAO} batch.
+     *
+     * @param tasks the tasks to be updated in the data store
+     * @throws ApplicationException if the dao operations fail
+     */
     public void updateTasks(List<Task> tasks) {
-        tasks.forEach(this::updateTask);
+        if (tasks.size() < 2) {
+            tasks.forEach(this::updateTask);
+            return;
+        }
+        try {
+            tasks.forEach(this::setUpdateAndEndTime);
+            if (executionCache != null) {
+                tasks.forEach(task -> executionCache.startWrite(task.getWorkflowInstanceId()));
+            }
+            executionDAO.updateTasks(tasks);
+            if (executionCache != null) {
+                tasks.forEach(task -> executionCache.invalidate(task.getWorkflowInstanceId()));
+            }
+        } catch (Exception e) {
+            if (executionCache != null) {
+                tasks.forEach(task -> executionCache.invalidate(task.getWorkflowInstanceId()));
+            }
+            String errorMsg = String.format("Error updating %d tasks of workflow: %s", tasks.size(), tasks.get(0).getWorkflowInstanceId());
+            LOGGER.error(errorMsg, e);
+            throw new ApplicationException(ApplicationException.Code.BACKEND_ERROR, errorMsg, e);
+        }
+        tasks.forEach(this::indexTask);
+    }
+
+    /**
+     * Indexes the summary of the workflow, through the {@link IndexingPipeline} if enabled.
+     */
+    private void indexWorkflow(Workflow workflow) {
+        if (indexingPipeline != null) {
+            indexingPipeline.indexWorkflow(workflow);
+        } else {
+            indexDAO.indexWorkflow(workflow);
+        }
+    }
+
+    /**
+     * Indexes the summary of the task, through the {@link IndexingPipeline} if enabled.
+     */
+    private void indexTask(Task task) {
+        if (indexingPipeline != null) {
+            indexingPipeline.indexTask(task);
+        } else {
+            indexDAO.indexTask(task);
+        }
+    }
+
+    private void setUpdateAndEndTime(Task task) {
+        if (task.getStatus() != null) {
+            if (!task.getStatus().isTerminal() || (task.getStatus().isTerminal() && task.getUpdateTime() == 0)) {
+                task.setUpdateTime(System.currentTimeMillis());
+            }
+            if (task.getStatus().isTerminal() && task.getEndTime() == 0) {
+                task.setEndTime(System.currentTimeMillis());
+            }
+        }
     }
 
     public void removeTask(String taskId) {
+        if (executionCache != null) {
+            Task task = executionDAO.getTask(taskId);
+            if (task != null) {
+                executionCache.startWrite(task.getWorkflowInstanceId());
+            }
+            executionDAO.removeTask(taskId);
+            executionCache.removeTask(taskId);
+            return;
+        }
         executionDAO.removeTask(taskId);
     }
 
@@ -0,0 +1,458 @@
+/*
+ * Copyright 2019 Netflix, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.netflix.conductor.core.orchestration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.netflix.conductor.common.metadata.tasks.Task;
+import com.netflix.conductor.common.run.TaskSummary;
+import com.netflix.conductor.common.run.Workflow;
+import com.netflix.conductor.common.run.WorkflowSummary;
+import com.netflix.conductor.dao.IndexDAO;
+import com.netflix.conductor.metrics.Monitors;
+import com.netflix.conductor.service.Lifecycle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Indexes the workflow and task summaries in bulk, off the request path.
+ * <p>
+ * Summaries are queued by id: a workflow or task updated several times before the next flush is indexed once, with
+ * its latest summary. A single thread sends them to the {@link IndexDAO} in bulk requests, every flush interval or as
+ * soon as a batch is full. A failed bulk request is retried with a back off, summaries queued meanwhile replace the
+ * ones being retried. Within a bulk request, only the summaries failing with a transient error are retried, the ones
+ * rejected by the index are dropped.
+ * <p>
+ * When the index falls behind and the queue is full, producers wait for room for a short while, then the summaries
+ * are appended to a spill file instead. Until the spill file is replayed, every new summary goes to it as well, so that
+ * a summary is never indexed after a newer one. The spill file survives a restart. The summaries still queued in
+ * memory when the server stops are written ahead of the spilled ones, to be indexed after the restart as well.
+ */
+class IndexingPipeline implements Lifecycle {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(IndexingPipeline.class);
+
+    private static final String SPILL_FILE = "index-spill.jsonl";
+    private static final String REPLAY_FILE = "index-replay.jsonl";
+    private static final long MAX_BACKOFF_MS = 30_000;
+    private static final long STOP_WAIT_MS = 5_000;
+
+    private final IndexDAO indexDAO;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final int maxPending;
+    private final long maxWaitMs;
+
+    private final Map<String, Pending<WorkflowSummary>> workflows = new ConcurrentHashMap<>();
+    private final Map<String, Pending<TaskSummary>> tasks = new ConcurrentHashMap<>();
+
+    /**
+     * Wakes up the flusher when a batch is full, and the producers waiting for room after a flush
+     */
+    private final Object signal = new Object();
+
+    private final Object spillLock = new Object();
+    private final Path spillFile;
+    private final Path replayFile;
+    private volatile boolean spilling;
+    private BufferedWriter spillWriter;
+    private BufferedReader replayReader;
+    private long spilledCount;
+
+    private Thread flusher;
+
+    IndexingPipeline(IndexDAO indexDAO, ObjectMapper objectMapper, int batchSize, long flushIntervalMs,
+                     int maxPending, long maxWaitMs, File spillDir) {
+        this.indexDAO = indexDAO;
+        this.objectMapper = objectMapper;
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalMs = Math.max(1, flushIntervalMs);
+        this.maxPending = Math.max(this.batchSize, maxPending);
+        this.maxWaitMs = Math.max(0, maxWaitMs);
+        this.spillFile = spillDir.toPath().resolve(SPILL_FILE);
+        this.replayFile = spillDir.toPath().resolve(REPLAY_FILE);
+
+        try {
+            Files.createDirectories(spillDir.toPath());
+            for (Path file : new Path[]{replayFile, spillFile}) {
+                if (Files.exists(file)) {
+                    try (Stream<String> lines = Files.lines(file, StandardCharsets.UTF_8)) {
+                        spilledCount += lines.count();
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to use the index spill directory " + spillDir, e);
+        }
+        if (spilledCount > 0) {
+            LOGGER.info("Replaying {} summaries spilled to {}", spilledCount, spillDir);
+            spilling = true;
+        }
+        Monitors.recordIndexingPipelineSpilled(spilledCount);
+    }
+
+    /**
+     * Starts the thread flushing the summaries, the pipeline is stopped at shutdown.
+     */
+    @Override
+    public void start() {
+        flusher = new Thread(this::run, "indexing-pipeline");
+        flusher.setDaemon(true);
+        flusher.start();
+        registerShutdownHook();
+    }
+
+    /**
+     * Stops the flusher and writes the summaries queued in memory to the replay file. They go after what is left to
+     * replay from it, and before the summaries spilled since, which keeps the order in which they are indexed after a
+     * restart. Summaries already replayed from the file are replayed again, in the same order.
+     */
+    @Override
+    public void stop() throws IOException, InterruptedException {
+        if (flusher != null) {
+            flusher.interrupt();
+            flusher.join(STOP_WAIT_MS);
+        }
+        synchronized (spillLock) {
+            // summaries queued from now on are spilled, after the ones in memory
+            spilling = true;
+            List<Spilled> queued = new ArrayList<>();
+            drain(workflows, Integer.MAX_VALUE).forEach(pending -> queued.add(new Spilled(pending.summary, null, pending.queuedTime)));
+            drain(tasks, Integer.MAX_VALUE).forEach(pending -> queued.add(new Spilled(null, pending.summary, pending.queuedTime)));
+            if (spillWriter != null) {
+                spillWriter.close();
+                spillWriter = null;
+            }
+            if (replayReader != null) {
+                replayReader.close();
+                replayReader = null;
+            }
+            if (queued.isEmpty()) {
+                return;
+            }
+            try (BufferedWriter writer = Files.newBufferedWriter(replayFile, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (Spilled spilled : queued) {
+                    writer.write(objectMapper.writeValueAsString(spilled));
+                    writer.newLine();
+                }
+            }
+            spilledCount += queued.size();
+            Monitors.recordIndexingPipelineSpilled(spilledCount);
+            LOGGER.info("Wrote {} summaries waiting to be indexed to {}", queued.size(), replayFile);
+        }
+    }
+
+    void indexWorkflow(Workflow workflow) {
+        WorkflowSummary summary = new WorkflowSummary(workflow);
+        add(workflows, summary.getWorkflowId(), summary, new Spilled(summary, null, System.currentTimeMillis()));
+    }
+
+    void indexTask(Task task) {
+        TaskSummary summary = new TaskSummary(task);
+        add(tasks, summary.getTaskId(), summary, new Spilled(null, summary, System.currentTimeMillis()));
+    }
+
+    /**
+     * Drops the summary of the workflow if it is still queued in memory, so that it does not come back in the index
+     * after the workflow is removed or archived.
+     *
+     * @return the dropped summary, null if none was queued
+     */
+    WorkflowSummary discardWorkflow(String workflowId) {
+        Pending<WorkflowSummary> pending = workflows.remove(workflowId);
+        return pending == null ? null : pending.summary;
+    }
+
+    int getPendingCount() {
+        return workflows.size() + tasks.size();
+    }
+
+    boolean isSpilling() {
+        return spilling;
+    }
+
+    private <T> void add(Map<String, Pending<T>> entries, String id, T summary, Spilled spilled) {
+        if ((spilling || !awaitCapacity()) && spill(spilled)) {
+            return;
+        }
+        entries.merge(id, new Pending<>(id, summary, spilled.queuedTime),
+                (queued, latest) -> new Pending<>(id, latest.summary, queued.queuedTime));
+        if (getPendingCount() >= batchSize) {
+            synchronized (signal) {
+                signal.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * @return true if there is room in memory, after waiting at most for <code>maxWaitMs</code>
+     */
+    private boolean awaitCapacity() {
+        if (getPendingCount() < maxPending) {
+            return true;
+        }
+        long deadline = System.currentTimeMillis() + maxWaitMs;
+        synchronized (signal) {
+            signal.notifyAll();
+            long remaining;
+            while (getPendingCount() >= maxPending && (remaining = deadline - System.currentTimeMillis()) > 0) {
+                try {
+                    signal.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        return getPendingCount() < maxPending;
+    }
+
+    /**
+     * @return false if the summary should rather be queued in memory, the spill file having been replayed meanwhile
+     */
+    private boolean spill(Spilled spilled) {
+        synchronized (spillLock) {
+            if (!spilling) {
+                if (getPendingCount() < maxPending) {
+                    return false;
+                }
+                LOGGER.warn("{} summaries are waiting to be indexed, spilling to {}", getPendingCount(), spillFile);
+                spilling = true;
+            }
+            try {
+                if (spillWriter == null) {
+                    spillWriter = Files.newBufferedWriter(spillFile, StandardCharsets.UTF_8,
+                            StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                }
+                spillWriter.write(objectMapper.writeValueAsString(spilled));
+                spillWriter.newLine();
+                spillWriter.flush();
+                Monitors.recordIndexingPipelineSpilled(++spilledCount);
+            } catch (IOException e) {
+                LOGGER.error("Failed to spill a summary to {}, it will not be indexed", spillFile, e);
+                Monitors.recordDiscardedIndexingCount();
+            }
+            return true;
+        }
+    }
+
+    private void run() {
+        long backoffMs = flushIntervalMs;
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                synchronized (signal) {
+                    if (getPendingCount() < batchSize && !(spilling && getPendingCount() == 0)) {
+                        signal.wait(flushIntervalMs);
+                    }
+                }
+                if (!flush()) {
+                    Thread.sleep(backoffMs);
+                    backoffMs = Math.min(backoffMs * 2, MAX_BACKOFF_MS);
+                    continue;
+                }
+                backoffMs = flushIntervalMs;
+                if (spilling && getPendingCount() == 0) {
+                    replay();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                LOGGER.error("Unexpected error in the indexing pipeline", e);
+            }
+        }
+    }
+
+    /**
+     * Indexes all the summaries queued in memory, one batch at a time.
+     *
+     * @return false if a bulk request or some of its summaries failed, they are queued again
+     */
+    boolean flush() {
+        while (getPendingCount() > 0 && !Thread.currentThread().isInterrupted()) {
+            List<Pending<WorkflowSummary>> workflowBatch = drain(workflows, batchSize);
+            List<Pending<TaskSummary>> taskBatch = drain(tasks, batchSize - workflowBatch.size());
+            if (workflowBatch.isEmpty() && taskBatch.isEmpty()) {
+                break;
+            }
+            Set<String> retries;
+            try {
+                retries = indexDAO.indexSummaries(summaries(workflowBatch), summaries(taskBatch));
+            } catch (Exception e) {
+                LOGGER.error("Failed to index {} workflow and {} task summaries, retrying", workflowBatch.size(), taskBatch.size(), e);
+                Monitors.recordDaoError("indexDAO", "indexSummaries");
+                requeue(workflowBatch, workflows, null);
+                requeue(taskBatch, tasks, null);
+                return false;
+            }
+
+            int retried = 0;
+            if (retries != null && !retries.isEmpty()) {
+                retried = requeue(workflowBatch, workflows, retries) + requeue(taskBatch, tasks, retries);
+                LOGGER.warn("Failed to index {} of {} summaries, retrying", retried, workflowBatch.size() + taskBatch.size());
+                Monitors.recordIndexingPipelineRetried(retried);
+            }
+            long oldest = Stream.concat(workflowBatch.stream(), taskBatch.stream())
+                    .mapToLong(pending -> pending.queuedTime)
+                    .min()
+                    .orElse(System.currentTimeMillis());
+            Monitors.recordIndexingPipelineLag(System.currentTimeMillis() - oldest);
+            Monitors.recordIndexingPipelineFlushed(workflowBatch.size() + taskBatch.size() - retried);
+            Monitors.recordIndexingPipelinePending(getPendingCount());
+            synchronized (signal) {
+                signal.notifyAll();
+            }
+            if (retried > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Queues a batch again, or only the summaries with the given ids. Summaries queued since are newer and kept.
+     *
+     * @return the number of summaries retried
+     */
+    private static <T> int requeue(List<Pending<T>> batch, Map<String, Pending<T>> queue, Set<String> ids) {
+        int retried = 0;
+        for (Pending<T> pending : batch) {
+            if (ids == null || ids.contains(pending.id)) {
+                queue.putIfAbsent(pending.id, pending);
+                retried++;
+            }
+        }
+        return retried;
+    }
+
+    /**
+     * Queues the next batch of spilled summaries in memory. The spill file is renamed to be replayed, the summaries
+     * spilled meanwhile go to a new one. Spilling stops once both are empty.
+     */
+    void replay() throws IOException {
+        synchronized (spillLock) {
+            if (replayReader == null) {
+                if (!Files.exists(replayFile)) {
+                    if (spillWriter != null) {
+                        spillWriter.close();
+                        spillWriter = null;
+                    }
+                    if (!Files.exists(spillFile) || Files.size(spillFile) == 0) {
+                        Files.deleteIfExists(spillFile);
+                        LOGGER.info("Replayed the spilled summaries");
+                        spilling = false;
+                        spilledCount = 0;
+                        Monitors.recordIndexingPipelineSpilled(0);
+                        return;
+                    }
+                    Files.move(spillFile, replayFile, StandardCopyOption.ATOMIC_MOVE);
+                }
+                replayReader = Files.newBufferedReader(replayFile, StandardCharsets.UTF_8);
+            }
+        }
+
+        int count = 0;
+        String line = null;
+        while (count < batchSize && (line = replayReader.readLine()) != null) {
+            count++;
+            Spilled spilled;
+            try {
+                spilled = objectMapper.readValue(line, Spilled.class);
+            } catch (IOException e) {
+                LOGGER.error("Skipping an unreadable spilled summary: {}", line, e);
+                Monitors.recordDiscardedIndexingCount();
+                continue;
+            }
+            if (spilled.workflow != null) {
+                workflows.put(spilled.workflow.getWorkflowId(), new Pending<>(spilled.workflow.getWorkflowId(), spilled.workflow, spilled.queuedTime));
+            } else if (spilled.task != null) {
+                tasks.put(spilled.task.getTaskId(), new Pending<>(spilled.task.getTaskId(), spilled.task, spilled.queuedTime));
+            }
+        }
+
+        synchronized (spillLock) {
+            spilledCount = Math.max(0, spilledCount - count);
+            Monitors.recordIndexingPipelineSpilled(spilledCount);
+            if (line == null) {
+                replayReader.close();
+                replayReader = null;
+                Files.delete(replayFile);
+            }
+        }
+    }
+
+    private static <T> List<Pending<T>> drain(Map<String, Pending<T>> entries, int max) {
+        List<Pending<T>> batch = new ArrayList<>();
+        for (String id : entries.keySet()) {
+            if (batch.size() >= max) {
+                break;
+            }
+            Pending<T> pending = entries.remove(id);
+            if (pending != null) {
+                batch.add(pending);
+            }
+        }
+        return batch;
+    }
+
+    private static <T> List<T> summaries(List<Pending<T>> batch) {
+        return batch.stream().map(pending -> pending.summary).collect(Collectors.toList());
+    }
+
+    private static class Pending<T> {
+        private final String id;
+        private final T summary;
+        private final long queuedTime;
+
+        private Pending(String id, T summary, long queuedTime) {
+            this.id = id;
+            this.summary = summary;
+            this.queuedTime = queuedTime;
+        }
+    }
+
+    /**
+     * A line of the spill file
+     */
+    static class Spilled {
+        public WorkflowSummary workflow;
+        public TaskSummary task;
+        public long queuedTime;
+
+        public Spilled() {
+        }
+
+        Spilled(WorkflowSummary workflow, TaskSummary task, long queuedTime) {
+            this.workflow = workflow;
+            this.task = task;
+            this.queuedTime = queuedTime;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2019 Netflix, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.conductor.core.utils;
+
+import com.netflix.conductor.core.config.Configuration;
+import com.netflix.conductor.metrics.Monitors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializes the mutations of a workflow (decide, task updates, rewind, retry) across the cluster.
+ * <p>
+ * A lock is always taken on this node first, so that the threads of a node contending for the same workflow queue up
+ * locally and only one of them talks to the distributed {@link LockProvider}. When
+ * <code>workflow.execution.lock.localOnly</code> is set, or no distributed provider is bound, the local lock is all
+ * there is.
+ * <p>
+ * The locks are reentrant per thread: a task update that runs the decider only acquires the workflow lock once.
+ */
+@Singleton
+public class ExecutionLockService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExecutionLockService.class);
+    private static final String className = ExecutionLockService.class.getSimpleName();
+
+    private final boolean enabled;
+    private final long timeToTryMs;
+    private final LocalOnlyLockProvider localLockProvider;
+    private final LockProvider lockProvider;
+    private final String lockType;
+
+    /**
+     * workflowId -> the locks held by the current thread
+     */
+    private final ThreadLocal<Map<String, HeldLock>> heldLocks = ThreadLocal.withInitial(HashMap::new);
+
+    private final ExecutionLock noLock = new ExecutionLock(null);
+
+    @Inject
+    public ExecutionLockService(Configuration config, LocalOnlyLockProvider localLockProvider, LockProvider lockProvider) {
+        this.enabled = config.getBooleanProperty("workflow.execution.lock.enabled", false);
+        this.timeToTryMs = config.getLongProperty("workflow.execution.lock.timeToTry.ms", 500);
+        this.localLockProvider = localLockProvider;
+        boolean localOnly = config.getBooleanProperty("workflow.execution.lock.localOnly", false);
+        this.lockProvider = localOnly || lockProvider == localLockProvider ? null : lockProvider;
+        this.lockType = this.lockProvider == null ? LocalOnlyLockProvider.LOCK_TYPE : this.lockProvider.getClass().getSimpleName();
+    }
+
+    /**
+     * Acquires the lock of a workflow, waiting at most <code>workflow.execution.lock.timeToTry.ms</code>.
+     * The lock must be closed by the thread that acquired it.
+     *
+     * @param workflowId the id of the workflow to lock
+     * @return the acquired lock, or null if it could not be acquired in time
+     */
+    public ExecutionLock acquireLock(String workflowId) {
+        if (!enabled) {
+            return noLock;
+        }
+
+        Map<String, HeldLock> locks = heldLocks.get();
+        HeldLock heldLock = locks.get(workflowId);
+        if (heldLock != null) {
+            heldLock.holdCount++;
+            return new ExecutionLock(workflowId);
+        }
+
+        long start = System.currentTimeMillis();
+        AutoCloseable localLock;
+        try {
+            localLock = localLockProvider.lock(workflowId, timeToTryMs, TimeUnit.MILLISECONDS);
+        } catch (LockException e) {
+            LOGGER.debug(e.getMessage());
+            Monitors.recordAcquireLockFailure(LocalOnlyLockProvider.LOCK_TYPE);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+
+        AutoCloseable distributedLock = null;
+        if (lockProvider != null) {
+            long remainingMs = Math.max(0, timeToTryMs - (System.currentTimeMillis() - start));
+            try {
+                distributedLock = lockProvider.lock(workflowId, remainingMs, TimeUnit.MILLISECONDS);
+            } catch (Exception e) {
+                if (e instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                }
+                LOGGER.debug("Unable to acquire the lock on workflow: {}", workflowId, e);
+                Monitors.recordAcquireLockFailure(lockType);
+                close(localLock, workflowId);
+                return null;
+            }
+        }
+        Monitors.recordAcquireLockTime(lockType, System.currentTimeMillis() - start);
+
+        locks.put(workflowId, new HeldLock(localLock, distributedLock));
+        return new ExecutionLock(workflowId);
+    }
+
+    private void release(String workflowId) {
+        Map<String, HeldLock> locks = heldLocks.get();
+        HeldLock heldLock = locks.get(workflowId);
+        if (heldLock == null || --heldLock.holdCount > 0) {
+            return;
+        }
+        locks.remove(workflowId);
+        if (heldLock.distributedLock != null) {
+            close(heldLock.distributedLock, workflowId);
+        }
+        close(heldLock.localLock, workflowId);
+    }
+
+    private void close(AutoCloseable lock, String workflowId) {
+        try {
+            lock.close();
+        } catch (Exception e) {
+            // a distributed lock that could not be released expires with its lease
+            LOGGER.error("Error releasing the lock on workflow: {}", workflowId, e);
+            Monitors.error(className, "releaseLock");
+        }
+    }
+
+    private static class HeldLock {
+        private final AutoCloseable localLock;
+        private final AutoCloseable distributedLock;
+        private int holdCount = 1;
+
+        private HeldLock(AutoCloseable localLock, AutoCloseable distributedLock) {
+            this.localLock = localLock;
+            this.distributedLock = distributedLock;
+        }
+    }
+
+    /**
+     * A lock acquired by {@link #acquireLock(String)}, to be used in a try-with-resources block.
+     */
+    public class ExecutionLock implements AutoCloseable {
+
+        private final String workflowId;
+
+        private ExecutionLock(String workflowId) {
+            this.workflowId = workflowId;
+        }
+
+        @Override
+        public void close() {
+            if (workflowId != null) {
+                release(workflowId);
+            }
+        }
+    }
+}
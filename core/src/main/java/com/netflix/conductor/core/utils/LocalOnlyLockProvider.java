@@ -0,0 +1,56 @@
+/*
+ * Copyright 2019 Netflix, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.conductor.core.utils;
+
+import com.google.common.util.concurrent.Striped;
+import com.netflix.conductor.core.config.Configuration;
+import com.netflix.conductor.metrics.Monitors;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * A {@link LockProvider} that only guards against concurrent access from the same JVM.
+ * <p>
+ * The locks are striped, two paths may share the same stripe. The locks are reentrant and must be released by the
+ * thread that acquired them.
+ */
+@Singleton
+public class LocalOnlyLockProvider implements LockProvider {
+
+    static final String LOCK_TYPE = "local";
+
+    private final Striped<Lock> locks;
+
+    @Inject
+    public LocalOnlyLockProvider(Configuration config) {
+        this.locks = Striped.lazyWeakLock(config.getIntProperty("workflow.execution.lock.local.stripes", 1024));
+    }
+
+    @Override
+    public AutoCloseable lock(String path, long timeOut, TimeUnit unit) throws LockException, InterruptedException {
+        Lock lock = locks.get(path);
+        if (!lock.tryLock()) {
+            Monitors.recordLockContention(LOCK_TYPE);
+            if (!lock.tryLock(timeOut, unit)) {
+                throw new LockException(String.format("Unable to acquire the local lock on %s within %d %s", path, timeOut, unit));
+            }
+        }
+        return lock::unlock;
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright 2019 Netflix, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.conductor.core.utils;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.netflix.conductor.core.config.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executors of the background workers: system task workers, sweeper, event processing and server workers.
+ * <p>
+ * Their work mostly waits on the persistence layer. When <code>workflow.executor.virtual.threads.enabled</code> is set
+ * and the runtime has virtual threads (Java 21+), the workers run on virtual threads: a pool of a given size becomes
+ * one virtual thread per task, at most that many running at once, the others wait on a semaphore. The sizes can then
+ * be raised without paying for platform threads. On older runtimes the setting is ignored.
+ * <p>
+ * Note that a virtual thread holding a monitor pins its carrier thread, drivers synchronizing around their IO keep
+ * the concurrency bounded by the carrier threads.
+ */
+public class WorkerExecutors {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkerExecutors.class);
+
+    public static final String VIRTUAL_THREADS_PROPERTY = "workflow.executor.virtual.threads.enabled";
+
+    private static final MethodHandle VIRTUAL_THREAD_FACTORY = findVirtualThreadFactory();
+
+    private static final MethodHandle THREAD_PER_TASK_EXECUTOR = findThreadPerTaskExecutor();
+
+    private WorkerExecutors() {
+    }
+
+    /**
+     * @return true if the workers should run on virtual threads, and can
+     */
+    public static boolean useVirtualThreads(Configuration config) {
+        if (!config.getBooleanProperty(VIRTUAL_THREADS_PROPERTY, false)) {
+            return false;
+        }
+        if (VIRTUAL_THREAD_FACTORY == null || THREAD_PER_TASK_EXECUTOR == null) {
+            logger.warn("{} is set but virtual threads are not available on Java {}, using platform threads",
+                    VIRTUAL_THREADS_PROPERTY, System.getProperty("java.version"));
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @param nameFormat the name of the threads, with a <code>%d</code> for their number
+     * @return a factory of virtual threads if enabled, of daemon or not platform threads otherwise
+     */
+    public static ThreadFactory threadFactory(Configuration config, String nameFormat, boolean daemon) {
+        if (useVirtualThreads(config)) {
+            return virtualThreadFactory(nameFormat);
+        }
+        return new ThreadFactoryBuilder().setNameFormat(nameFormat).setDaemon(daemon).build();
+    }
+
+    /**
+     * Equivalent of {@link Executors#newFixedThreadPool(int, ThreadFactory)}: at most <code>threadCount</code>
+     * tasks run at once, the others wait for their turn.
+     *
+     * @param nameFormat the name of the threads, with a <code>%d</code> for their number
+     */
+    public static ExecutorService newFixedPool(Configuration config, String nameFormat, int threadCount, boolean daemon) {
+        if (useVirtualThreads(config)) {
+            logger.info("Running {} on virtual threads, at most {} at once", nameFormat, threadCount);
+            try {
+                ExecutorService threadPerTask = (ExecutorService) THREAD_PER_TASK_EXECUTOR.invoke(virtualThreadFactory(nameFormat));
+                return new BoundedExecutorService(threadPerTask, threadCount);
+            } catch (Throwable t) {
+                throw new IllegalStateException("Unable to create a virtual thread executor", t);
+            }
+        }
+        return Executors.newFixedThreadPool(threadCount,
+                new ThreadFactoryBuilder().setNameFormat(nameFormat).setDaemon(daemon).build());
+    }
+
+    private static ThreadFactory virtualThreadFactory(String nameFormat) {
+        try {
+            ThreadFactory factory = (ThreadFactory) VIRTUAL_THREAD_FACTORY.invoke();
+            ThreadFactoryBuilder builder = new ThreadFactoryBuilder().setThreadFactory(factory);
+            if (nameFormat != null) {
+                builder.setNameFormat(nameFormat);
+            }
+            return builder.build();
+        } catch (Throwable t) {
+            throw new IllegalStateException("Unable to create a virtual thread factory", t);
+        }
+    }
+
+    /**
+     * @return <code>Thread.ofVirtual().factory()</code>, null before Java 21
+     */
+    private static MethodHandle findVirtualThreadFactory() {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder$OfVirtual");
+            MethodHandle ofVirtual = lookup.findStatic(Thread.class, "ofVirtual", MethodType.methodType(builderClass));
+            MethodHandle factory = lookup.findVirtual(builderClass, "factory", MethodType.methodType(ThreadFactory.class));
+            return MethodHandles.filterReturnValue(ofVirtual, factory);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return <code>Executors.newThreadPerTaskExecutor(ThreadFactory)</code>, null before Java 21
+     */
+    private static MethodHandle findThreadPerTaskExecutor() {
+        try {
+            return MethodHandles.publicLookup().findStatic(Executors.class, "newThreadPerTaskExecutor",
+                    MethodType.methodType(ExecutorService.class, ThreadFactory.class));
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    /**
+     * Runs every task on its own thread, bounding the number of tasks running at once with a semaphore rather than
+     * with the number of threads.
+     */
+    static class BoundedExecutorService extends AbstractExecutorService {
+
+        private final ExecutorService delegate;
+        private final Semaphore permits;
+
+        BoundedExecutorService(ExecutorService delegate, int maxConcurrency) {
+            this.delegate = delegate;
+            this.permits = new Semaphore(Math.max(1, maxConcurrency));
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            delegate.execute(() -> {
+                try {
+                    permits.acquire();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                try {
+                    command.run();
+                } finally {
+                    permits.release();
+                }
+            });
+        }
+
+        @Override
+        public void shutdown() {
+            delegate.shutdown();
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return delegate.shutdownNow();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return delegate.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return delegate.isTerminated();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            return delegate.awaitTermination(timeout, unit);
+        }
+    }
+}
@@ -20,7 +20,9 @@ import com.netflix.conductor.common.metadata.tasks.PollData;
 import com.netflix.conductor.common.metadata.tasks.Task;
 import com.netflix.conductor.common.metadata.tasks.TaskDef;
 import com.netflix.conductor.common.run.Workflow;
+import com.netflix.conductor.core.execution.LazyTask;
 
+import java.util.Comparator;
 import java.util.List;
 
 /**
@@ -67,6 +69,15 @@ public interface ExecutionDAO {
 	 *  
 	 */
 	void updateTask(Task task);
+
+	/**
+	 * Updates several tasks at once, implementations can do it in a single round trip.
+	 *
+	 * @param tasks Tasks to be updated
+	 */
+	default void updateTasks(List<Task> tasks) {
+		tasks.forEach(this::updateTask);
+	}
 	
 	/**
 	 * Checks if the number of tasks in progress for the given taskDef will exceed the limit if the task is scheduled to be in progress (given to the worker or for system tasks start() method called)
@@ -122,6 +133,25 @@ public interface ExecutionDAO {
 	 *  
 	 */
 	List<Task> getTasksForWorkflow(String workflowId);
+
+	/**
+	 * Reads the tasks of a workflow, implementations can return the tasks that are done and executed as
+	 * {@link LazyTask} headers, whose input and output data are only read when first accessed.
+	 *
+	 * @param workflowId Workflow instance id
+	 * @return List of tasks for the given workflow instance id
+	 */
+	default List<Task> getTaskHeadersForWorkflow(String workflowId) {
+		return getTasksForWorkflow(workflowId);
+	}
+
+	/**
+	 * @return the order of the tasks of a workflow read with {@link #getWorkflow(String, boolean)}, for the tasks read
+	 * separately to be put in the same order
+	 */
+	default Comparator<Task> getTaskOrder() {
+		return Comparator.comparingLong(Task::getScheduledTime).thenComparingInt(Task::getSeq);
+	}
 	
 	/**
 	 * 
@@ -131,6 +161,15 @@ public interface ExecutionDAO {
 	 */
 	String createWorkflow(Workflow workflow);
 
+	/**
+	 * Creates several workflows at once, implementations can do it in a single round trip.
+	 *
+	 * @param workflows Workflows to be created
+	 */
+	default void createWorkflows(List<Workflow> workflows) {
+		workflows.forEach(this::createWorkflow);
+	}
+
 	/**
 	 * 
 	 * @param workflow Workflow to be updated
@@ -19,10 +19,13 @@ import com.netflix.conductor.common.metadata.events.EventExecution;
 import com.netflix.conductor.common.metadata.tasks.Task;
 import com.netflix.conductor.common.metadata.tasks.TaskExecLog;
 import com.netflix.conductor.common.run.SearchResult;
+import com.netflix.conductor.common.run.TaskSummary;
 import com.netflix.conductor.common.run.Workflow;
+import com.netflix.conductor.common.run.WorkflowSummary;
 import com.netflix.conductor.core.events.queue.Message;
 
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 
 /**
@@ -63,6 +66,28 @@ public interface IndexDAO {
      */
     CompletableFuture<Void> asyncIndexTask(Task task);
 
+    /**
+     * @return true if the implementation supports {@link #indexSummaries(List, List)}
+     */
+    default boolean canIndexSummaries() {
+        return false;
+    }
+
+    /**
+     * Indexes the summaries of several workflows and tasks in a single bulk request.
+     * Unlike the other index operations, a failure is not only logged, it is reported back to the caller to retry:
+     * a failed request is thrown, the summaries failing with a transient error are returned. The summaries rejected
+     * for good, such as malformed documents, are logged and dropped.
+     *
+     * @param workflowSummaries summaries of the workflows to be indexed
+     * @param taskSummaries summaries of the tasks to be indexed
+     * @return the ids of the workflows and tasks whose summary should be indexed again
+     * @throws UnsupportedOperationException if the implementation has no bulk request, see {@link #canIndexSummaries()}
+     */
+    default Set<String> indexSummaries(List<WorkflowSummary> workflowSummaries, List<TaskSummary> taskSummaries) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support bulk indexing");
+    }
+
     /**
      *
      * @param query SQL like query for workflow search parameters.
@@ -49,6 +49,16 @@ public interface MetadataDAO {
      */
     TaskDef getTaskDef(String name);
 
+    /**
+     * Reads the task definition from the data store, bypassing whatever caching the DAO does in {@link #getTaskDef}.
+     *
+     * @param name Name of the task
+     * @return Task Definition, null if there is none
+     */
+    default TaskDef getTaskDefFromDB(String name) {
+        return getTaskDef(name);
+    }
+
     /**
      * @return All the task definitions
      */
@@ -171,6 +171,15 @@ public class Monitors {
 		counter(classQualifier, "task_poll", "taskType", taskType);
 	}
 
+	public static void recordSystemTaskWorkerPollHitRatio(String queueName, long percent) {
+		gauge(classQualifier, "system_task_worker_poll_hit_ratio", percent, "queueName", queueName);
+	}
+
+	public static void recordSystemTaskWorkerSaturation(String executor, long percent, int threads) {
+		gauge(classQualifier, "system_task_worker_saturation", percent, "executor", executor);
+		gauge(classQualifier, "system_task_worker_threads", threads, "executor", executor);
+	}
+
 	public static void recordTaskPollCount(String taskType, String domain, int count) {
 		getCounter(classQualifier, "task_poll_count", "taskType", taskType, "domain", domain).increment(count);
 	}
@@ -212,6 +221,50 @@ public class Monitors {
 		counter(classQualifier, "task_update_conflict", "workflowName", workflowType, "taskType", taskType, "taskStatus", status.name());
 	}
 
+	public static void recordDecideCoalesced() {
+		counter(classQualifier, "workflow_decide_coalesced");
+	}
+
+	public static void recordAcquireLockTime(String lockType, long duration) {
+		getTimer(classQualifier, "acquire_lock", "lockType", lockType).record(duration, TimeUnit.MILLISECONDS);
+	}
+
+	public static void recordLockContention(String lockType) {
+		counter(classQualifier, "lock_contention", "lockType", lockType);
+	}
+
+	public static void recordAcquireLockFailure(String lockType) {
+		counter(classQualifier, "acquire_lock_failure", "lockType", lockType);
+	}
+
+	public static void recordExecutionCacheAccess(String result) {
+		counter(classQualifier, "execution_cache_access", "result", result);
+	}
+
+	public static void recordExecutionCacheEviction(String cause) {
+		counter(classQualifier, "execution_cache_eviction", "cause", cause);
+	}
+
+	public static void recordMetadataCacheAccess(String type, String result) {
+		counter(classQualifier, "metadata_cache_access", "type", type, "result", result);
+	}
+
+	public static void recordMetadataChangeNotification(String kind, String direction) {
+		counter(classQualifier, "metadata_change_notification", "kind", kind, "direction", direction);
+	}
+
+	public static void recordLazyTaskDataLoad(String taskType) {
+		counter(classQualifier, "lazy_task_data_load", "taskType", taskType);
+	}
+
+	public static void recordRedisRoundTrips(String operation, int count) {
+		getCounter(classQualifier, "redis_round_trips", "operation", operation).increment(count);
+	}
+
+	public static void recordScriptEvaluation(String scriptHash, boolean compiled, long duration) {
+		getTimer(classQualifier, "script_evaluation", "scriptHash", scriptHash, "compiled", "" + compiled).record(duration, TimeUnit.MILLISECONDS);
+	}
+
 	public static void recordTaskUpdateError(String taskType, String workflowType) {
 		counter(classQualifier, "task_update_error", "workflowName", workflowType, "taskType", taskType);
 	}
@@ -279,4 +332,28 @@ public class Monitors {
 	public static void recordDiscardedIndexingCount() {
 		getCounter(Monitors.classQualifier, "discarded_index_count").increment();
 	}
+
+	public static void recordIndexingPipelinePending(int val) {
+		getGauge(Monitors.classQualifier, "indexing_pipeline_pending").set(val);
+	}
+
+	public static void recordIndexingPipelineSpilled(long val) {
+		getGauge(Monitors.classQualifier, "indexing_pipeline_spilled").set(val);
+	}
+
+	public static void recordIndexingPipelineLag(long lagMs) {
+		getGauge(Monitors.classQualifier, "indexing_pipeline_lag_ms").set(lagMs);
+	}
+
+	public static void recordIndexingPipelineFlushed(int count) {
+		getCounter(Monitors.classQualifier, "indexing_pipeline_flushed").increment(count);
+	}
+
+	public static void recordIndexingPipelineRetried(int count) {
+		getCounter(Monitors.classQualifier, "indexing_pipeline_retried").increment(count);
+	}
+
+	public static void recordESIndexRejected(String docType) {
+		counter(classQualifier, "es_index_rejected", "docType", docType);
+	}
 }
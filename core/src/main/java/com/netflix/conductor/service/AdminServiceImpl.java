@@ -20,7 +20,7 @@ import com.netflix.conductor.annotations.Service;
 import com.netflix.conductor.annotations.Trace;
 import com.netflix.conductor.common.metadata.tasks.Task;
 import com.netflix.conductor.core.config.Configuration;
-import com.netflix.conductor.core.execution.WorkflowExecutor;
+import com.netflix.conductor.core.execution.DeciderQueues;
 import com.netflix.conductor.dao.QueueDAO;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -105,7 +105,7 @@ public class AdminServiceImpl implements AdminService {
      */
     @Service
     public String requeueSweep(String workflowId) {
-        boolean pushed = queueDAO.pushIfNotExists(WorkflowExecutor.DECIDER_QUEUE, workflowId, config.getSweepFrequency());
+        boolean pushed = queueDAO.pushIfNotExists(DeciderQueues.getQueueName(config, workflowId), workflowId, config.getSweepFrequency());
         return pushed + "." + workflowId;
     }
 
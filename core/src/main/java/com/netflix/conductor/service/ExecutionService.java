@@ -205,6 +205,13 @@ public class ExecutionService {
 		workflowExecutor.updateTask(taskResult);
 	}
 
+	/**
+	 * @return the reason why a result could not be applied, by task id
+	 */
+	public Map<String, String> updateTasks(List<TaskResult> taskResults) {
+		return workflowExecutor.updateTasks(taskResults);
+	}
+
 	public List<Task> getTasks(String taskType, String startKey, int count) {
 		return workflowExecutor.getTasks(taskType, startKey, count);
 	}
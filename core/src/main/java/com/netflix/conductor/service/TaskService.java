@@ -22,14 +22,19 @@ import com.netflix.conductor.common.metadata.tasks.TaskResult;
 import com.netflix.conductor.common.run.ExternalStorageLocation;
 import com.netflix.conductor.common.run.SearchResult;
 import com.netflix.conductor.common.run.TaskSummary;
+import com.netflix.conductor.service.common.BulkResponse;
 
 import javax.validation.Valid;
 import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
 import java.util.List;
 import java.util.Map;
 
 public interface TaskService {
+
+    int MAX_BATCH_UPDATE_ITEMS = 1000;
+
     /*
      * Poll for a task of a certain type.
      *
@@ -81,6 +86,16 @@ public interface TaskService {
      */
     String updateTask(@NotNull(message = "TaskResult cannot be null or empty.") @Valid TaskResult taskResult);
 
+    /**
+     * Updates several tasks, with a single decide per workflow.
+     *
+     * @param taskResults Instances of {@link TaskResult}
+     * @return the ids of the updated tasks, and the reason why the others could not be updated
+     */
+    BulkResponse updateTasks(@NotEmpty(message = "TaskResults cannot be null or empty.")
+                             @Size(max = MAX_BATCH_UPDATE_ITEMS, message = "Cannot update more than {max} tasks. Please use multiple requests.")
+                                     List<@NotNull(message = "TaskResult cannot be null") @Valid TaskResult> taskResults);
+
     /**
      * Ack Task is received.
      *
@@ -29,6 +29,7 @@ import com.netflix.conductor.common.utils.ExternalPayloadStorage;
 import com.netflix.conductor.common.utils.RetryUtil;
 import com.netflix.conductor.dao.QueueDAO;
 import com.netflix.conductor.metrics.Monitors;
+import com.netflix.conductor.service.common.BulkResponse;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -140,6 +141,28 @@ public class TaskServiceImpl implements TaskService {
         return taskResult.getTaskId();
     }
 
+    /**
+     * Updates several tasks, with a single decide per workflow.
+     *
+     * @param taskResults Instances of {@link TaskResult}
+     * @return the ids of the updated tasks, and the reason why the others could not be updated
+     */
+    @Service
+    public BulkResponse updateTasks(List<TaskResult> taskResults) {
+        LOGGER.debug("Update {} Tasks", taskResults.size());
+        Map<String, String> failures = executionService.updateTasks(taskResults);
+        BulkResponse bulkResponse = new BulkResponse();
+        for (TaskResult taskResult : taskResults) {
+            String failure = failures.get(taskResult.getTaskId());
+            if (failure == null) {
+                bulkResponse.appendSuccessResponse(taskResult.getTaskId());
+            } else {
+                bulkResponse.appendFailedResponse(taskResult.getTaskId(), failure);
+            }
+        }
+        return bulkResponse;
+    }
+
     /**
      * Ack Task is received.
      *
@@ -15,9 +15,13 @@
  */
 package com.netflix.conductor.service;
 
+import com.netflix.conductor.common.metadata.workflow.StartWorkflowRequest;
+import com.netflix.conductor.common.run.BulkStartWorkflowResponse;
 import com.netflix.conductor.service.common.BulkResponse;
 
+import javax.validation.Valid;
 import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
 import java.util.List;
 
@@ -25,6 +29,8 @@ public interface WorkflowBulkService {
 
    static final int MAX_REQUEST_ITEMS = 1000;
 
+   static final int MAX_START_REQUEST_ITEMS = 5000;
+
    BulkResponse pauseWorkflow(@NotEmpty(message = "WorkflowIds list cannot be null.")
                               @Size(max=MAX_REQUEST_ITEMS, message = "Cannot process more than {max} workflows. Please use multiple requests.") List<String> workflowIds);
 
@@ -41,4 +47,8 @@ public interface WorkflowBulkService {
                           @Size(max=MAX_REQUEST_ITEMS, message = "Cannot process more than {max} workflows. Please use multiple requests.") List<String> workflowIds,
                                  String reason);
 
+   BulkStartWorkflowResponse startWorkflows(@NotEmpty(message = "StartWorkflowRequest list cannot be null.")
+                                            @Size(max=MAX_START_REQUEST_ITEMS, message = "Cannot start more than {max} workflows. Please use multiple requests.")
+                                                    List<@NotNull(message = "StartWorkflowRequest cannot be null") @Valid StartWorkflowRequest> requests);
+
 }
@@ -19,6 +19,8 @@ import com.google.inject.Singleton;
 import com.netflix.conductor.annotations.Audit;
 import com.netflix.conductor.annotations.Service;
 import com.netflix.conductor.annotations.Trace;
+import com.netflix.conductor.common.metadata.workflow.StartWorkflowRequest;
+import com.netflix.conductor.common.run.BulkStartWorkflowResponse;
 import com.netflix.conductor.core.execution.WorkflowExecutor;
 import com.netflix.conductor.service.common.BulkResponse;
 import org.slf4j.Logger;
@@ -143,4 +145,14 @@ public class WorkflowBulkServiceImpl implements WorkflowBulkService {
         }
         return bulkResponse;
     }
+
+    /**
+     * Start a list of workflows, with the workflows persisted in a single batch.
+     * @param requests - the workflows to be started
+     * @return the ids of the started workflows in the order of the requests, and the errors of the others by position
+     */
+    @Service
+    public BulkStartWorkflowResponse startWorkflows(List<StartWorkflowRequest> requests) {
+        return workflowExecutor.startWorkflows(requests);
+    }
 }
@@ -20,8 +20,15 @@ package com.netflix.conductor.core.events;
 
 import static org.junit.Assert.*;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.script.ScriptException;
 
 import org.junit.Test;
 
@@ -54,4 +61,35 @@ public class TestScriptEval {
 		assertFalse(ScriptEvaluator.evalBool(script4, payload));
 		
 	}
+
+	@Test
+	public void testConcurrentEvaluation() throws Exception {
+		String script = "function square(x) { return x * x; } square($.value)";
+		ExecutorService executorService = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<Object>> futures = new ArrayList<>();
+			for (int i = 0; i < 200; i++) {
+				Map<String, Object> input = new HashMap<>();
+				input.put("value", i);
+				futures.add(executorService.submit(() -> ScriptEvaluator.eval(script, input)));
+			}
+			for (int i = 0; i < 200; i++) {
+				assertEquals(i * i, ((Number) futures.get(i).get()).intValue());
+			}
+		} finally {
+			executorService.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testGlobalsAreNotShared() throws Exception {
+		Map<String, Object> input = new HashMap<>();
+		ScriptEvaluator.eval("var leaked = 'value'; true", input);
+		assertEquals("undefined", ScriptEvaluator.eval("typeof leaked", input));
+	}
+
+	@Test(expected = ScriptException.class)
+	public void testInvalidScript() throws Exception {
+		ScriptEvaluator.eval("$.value ==", new HashMap<>());
+	}
 }
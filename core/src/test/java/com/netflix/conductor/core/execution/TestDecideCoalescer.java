@@ -0,0 +1,122 @@
+/*
+ * Copyright 2019 Netflix, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.conductor.core.execution;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TestDecideCoalescer {
+
+    private final DecideCoalescer coalescer = new DecideCoalescer();
+
+    @Test
+    public void testSingleDecide() {
+        AtomicInteger passes = new AtomicInteger();
+        assertTrue(coalescer.decide("wf", id -> passes.incrementAndGet() > 0));
+        assertEquals(1, passes.get());
+
+        assertFalse(coalescer.decide("wf", id -> passes.incrementAndGet() < 0));
+        assertEquals(2, passes.get());
+    }
+
+    @Test
+    public void testRequestsDuringDecideAreCoalescedIntoOnePass() {
+        AtomicInteger passes = new AtomicInteger();
+        boolean completed = coalescer.decide("wf", id -> {
+            if (passes.incrementAndGet() == 1) {
+                // e.g. a system task changed the state, and two more updates came in
+                assertFalse(coalescer.decide(id, other -> true));
+                assertFalse(coalescer.decide(id, other -> true));
+                assertFalse(coalescer.decide(id, other -> true));
+            }
+            return false;
+        });
+        assertFalse(completed);
+        assertEquals(2, passes.get());
+    }
+
+    @Test
+    public void testOtherWorkflowsAreNotCoalesced() {
+        AtomicInteger passes = new AtomicInteger();
+        coalescer.decide("parent", id -> {
+            passes.incrementAndGet();
+            return coalescer.decide("child", child -> passes.incrementAndGet() > 0);
+        });
+        assertEquals(2, passes.get());
+    }
+
+    @Test
+    public void testConcurrentDecide() throws Exception {
+        CountDownLatch firstPassStarted = new CountDownLatch(1);
+        CountDownLatch updateCoalesced = new CountDownLatch(1);
+        AtomicInteger passes = new AtomicInteger();
+
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            Future<Boolean> leader = executorService.submit(() -> coalescer.decide("wf", id -> {
+                if (passes.incrementAndGet() == 1) {
+                    firstPassStarted.countDown();
+                    try {
+                        assertTrue(updateCoalesced.await(5, TimeUnit.SECONDS));
+                    } catch (InterruptedException e) {
+                        throw new RuntimeException(e);
+                    }
+                    return false;
+                }
+                return true;
+            }));
+
+            assertTrue(firstPassStarted.await(5, TimeUnit.SECONDS));
+            assertFalse(coalescer.decide("wf", id -> {
+                fail("decide must not run while another decide is in progress");
+                return true;
+            }));
+            updateCoalesced.countDown();
+
+            assertTrue(leader.get(5, TimeUnit.SECONDS));
+            assertEquals(2, passes.get());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testWorkflowIsReleasedOnError() {
+        try {
+            coalescer.decide("wf", id -> {
+                throw new IllegalStateException("backend error");
+            });
+            fail("the error must be propagated");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+
+        AtomicInteger passes = new AtomicInteger();
+        assertTrue(coalescer.decide("wf", id -> passes.incrementAndGet() > 0));
+        assertEquals(1, passes.get());
+    }
+}
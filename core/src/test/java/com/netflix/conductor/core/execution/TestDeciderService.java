@@ -709,6 +709,51 @@ public class TestDeciderService {
         assertFalse(deciderOutcome.isComplete);
     }
 
+    @Test
+    public void testDecideWithTaskHeaders() throws IOException {
+        WorkflowDef workflowDef = createLinearWorkflow();
+        for (String ref : Arrays.asList("s3", "s4")) {
+            WorkflowTask workflowTask = new WorkflowTask();
+            workflowTask.setName("junit_task_" + ref);
+            workflowTask.setTaskReferenceName(ref);
+            workflowTask.setTaskDefinition(new TaskDef("junit_task_" + ref));
+            workflowDef.getTasks().add(workflowTask);
+        }
+        workflowDef.getTaskByRefName("s4").setInputParameters(Collections.<String, Object>singletonMap("fromS1", "${s1.output.value}"));
+
+        Workflow workflow = new Workflow();
+        workflow.setWorkflowDefinition(workflowDef);
+        workflow.setStatus(WorkflowStatus.RUNNING);
+
+        Map<String, Task> stored = new HashMap<>();
+        Map<String, Integer> loads = new HashMap<>();
+        for (int i = 1; i <= 3; i++) {
+            Task task = new Task();
+            task.setTaskId("t" + i);
+            task.setTaskType("junit_task_l" + i);
+            task.setReferenceTaskName("s" + i);
+            task.setSeq(i);
+            task.setStatus(Status.COMPLETED);
+            task.setExecuted(i < 3);
+            task.getOutputData().put("value", "output of s" + i);
+            stored.put(task.getTaskId(), task);
+            workflow.getTasks().add(LazyTask.readTask(objectMapper, objectMapper.writeValueAsString(task), taskId -> {
+                loads.merge(taskId, 1, Integer::sum);
+                return stored.get(taskId);
+            }));
+        }
+        assertTrue(workflow.getTasks().get(0) instanceof LazyTask);
+        assertTrue(workflow.getTasks().get(1) instanceof LazyTask);
+        assertFalse(workflow.getTasks().get(2) instanceof LazyTask);
+
+        DeciderOutcome deciderOutcome = deciderService.decide(workflow);
+        assertEquals(1, deciderOutcome.tasksToBeScheduled.size());
+        assertEquals("s4", deciderOutcome.tasksToBeScheduled.get(0).getReferenceTaskName());
+        assertEquals("output of s1", deciderOutcome.tasksToBeScheduled.get(0).getInputData().get("fromS1"));
+        // only the referenced header was read
+        assertEquals(Collections.singletonMap("t1", 1), loads);
+    }
+
     @Test
     public void testGetTasksToBeScheduled() {
         WorkflowDef workflowDef = createLinearWorkflow();
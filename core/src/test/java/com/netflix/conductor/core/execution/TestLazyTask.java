@@ -0,0 +1,136 @@
+/*
+ * Copyright 2019 Netflix, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.netflix.conductor.core.execution;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.netflix.conductor.common.metadata.tasks.Task;
+import com.netflix.conductor.common.utils.JsonMapperProvider;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TestLazyTask {
+
+    private ObjectMapper objectMapper;
+    private Task stored;
+    private AtomicInteger loads;
+    private Function<String, Task> loader;
+
+    @Before
+    public void setUp() {
+        objectMapper = new JsonMapperProvider().get();
+        stored = new Task();
+        stored.setTaskId("t1");
+        stored.setTaskType("SIMPLE");
+        stored.setReferenceTaskName("task_1");
+        stored.setSeq(3);
+        stored.setRetryCount(1);
+        stored.setStatus(Task.Status.COMPLETED);
+        stored.setExecuted(true);
+        stored.setInputData(Collections.singletonMap("in", "value"));
+        stored.setOutputData(Collections.singletonMap("out", "value"));
+        loads = new AtomicInteger();
+        loader = taskId -> {
+            loads.incrementAndGet();
+            return taskId.equals("t1") ? stored : null;
+        };
+    }
+
+    @Test
+    public void testDoneTaskIsReadAsHeader() throws Exception {
+        Task task = LazyTask.readTask(objectMapper, objectMapper.writeValueAsString(stored), loader);
+
+        assertTrue(task instanceof LazyTask);
+        assertFalse(((LazyTask) task).isLoaded());
+        assertEquals("task_1", task.getReferenceTaskName());
+        assertEquals(3, task.getSeq());
+        assertEquals(1, task.getRetryCount());
+        assertEquals(Task.Status.COMPLETED, task.getStatus());
+        assertEquals(0, loads.get());
+
+        assertEquals("value", task.getInputData().get("in"));
+        assertEquals("value", task.getOutputData().get("out"));
+        assertTrue(((LazyTask) task).isLoaded());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void testPendingTaskIsReadInFull() throws Exception {
+        stored.setStatus(Task.Status.IN_PROGRESS);
+        Task task = LazyTask.readTask(objectMapper, objectMapper.writeValueAsString(stored), loader);
+        assertFalse(task instanceof LazyTask);
+        assertEquals("value", task.getInputData().get("in"));
+
+        stored.setStatus(Task.Status.COMPLETED);
+        stored.setExecuted(false);
+        task = LazyTask.readTask(objectMapper, objectMapper.writeValueAsString(stored), loader);
+        assertFalse(task instanceof LazyTask);
+        assertEquals(0, loads.get());
+    }
+
+    @Test
+    public void testHeaderIsWrittenInFull() throws Exception {
+        Task task = LazyTask.readTask(objectMapper, objectMapper.writeValueAsString(stored), loader);
+        Task written = objectMapper.readValue(objectMapper.writeValueAsString(task), Task.class);
+
+        assertEquals(stored, written);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void testSetDataIsKept() throws Exception {
+        Task task = LazyTask.readTask(objectMapper, objectMapper.writeValueAsString(stored), loader);
+        task.setOutputData(Collections.singletonMap("out", "updated"));
+
+        assertEquals("value", task.getInputData().get("in"));
+        assertEquals("updated", task.getOutputData().get("out"));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void testCopySharesData() throws Exception {
+        Task task = LazyTask.readTask(objectMapper, objectMapper.writeValueAsString(stored), loader);
+        Task copy = task.copy();
+
+        assertTrue(copy instanceof LazyTask);
+        assertEquals("task_1", copy.getReferenceTaskName());
+        assertEquals(0, loads.get());
+
+        assertEquals("value", copy.getInputData().get("in"));
+        assertEquals("value", task.getOutputData().get("out"));
+        assertEquals(1, loads.get());
+
+        // data set on the copy stays on the copy
+        copy.setOutputData(Collections.singletonMap("out", "updated"));
+        assertEquals("value", task.getOutputData().get("out"));
+        assertEquals("updated", copy.copy().getOutputData().get("out"));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void testRemovedTaskHasEmptyData() throws Exception {
+        stored.setTaskId("t2");
+        Task task = LazyTask.readTask(objectMapper, objectMapper.writeValueAsString(stored), loader);
+
+        assertTrue(task.getInputData().isEmpty());
+        assertTrue(task.getOutputData().isEmpty());
+        assertEquals(1, loads.get());
+    }
+}
@@ -1,10 +1,13 @@
 package com.netflix.conductor.core.execution;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.netflix.conductor.common.metadata.tasks.Task;
+import com.netflix.conductor.common.run.Workflow;
 import com.netflix.conductor.core.utils.JsonUtils;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -95,4 +98,43 @@ public class TestParametersUtils {
 		assertEquals("conductor", replaced.get("k4"));
 		assertEquals(2, replaced.get("k5"));
     }
+
+    @Test
+    public void testGetTaskInputV2() {
+        Workflow workflow = new Workflow();
+        workflow.setWorkflowId("w001");
+        workflow.setSchemaVersion(2);
+        workflow.getInput().put("requestId", "r001");
+        Task first = new Task();
+        first.setReferenceTaskName("t1");
+        first.getOutputData().put("result", "stale");
+        Task retried = new Task();
+        retried.setReferenceTaskName("t1");
+        retried.setStatus(Task.Status.COMPLETED);
+        retried.getOutputData().put("result", "latest");
+        workflow.getTasks().add(first);
+        workflow.getTasks().add(retried);
+
+        Map<String, Object> nested = new HashMap<>();
+        nested.put("result", "${t1.output.result}");
+        Map<String, Object> template = new HashMap<>();
+        template.put("workflowId", "${workflow.workflowId}");
+        template.put("requestId", "${workflow.input.requestId}");
+        template.put("status", "${t1.status}");
+        template.put("missing", "${t2.output.result}");
+        template.put("nested", nested);
+        template.put("all", "${$.*.referenceTaskName}");
+
+        Map<String, Object> input = parametersUtils.getTaskInputV2(template, workflow, null, null);
+        assertEquals("w001", input.get("workflowId"));
+        assertEquals("r001", input.get("requestId"));
+        assertEquals("COMPLETED", input.get("status"));
+        assertNull(input.get("missing"));
+        assertEquals("latest", ((Map<?, ?>) input.get("nested")).get("result"));
+        assertEquals(Collections.singletonList("t1"), input.get("all"));
+
+        // the template is not changed by the replacement
+        assertEquals("${t1.output.result}", nested.get("result"));
+        assertEquals("${workflow.workflowId}", template.get("workflowId"));
+    }
 }
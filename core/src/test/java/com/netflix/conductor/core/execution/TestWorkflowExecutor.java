@@ -21,9 +21,12 @@ import com.netflix.conductor.common.metadata.tasks.PollData;
 import com.netflix.conductor.common.metadata.tasks.Task;
 import com.netflix.conductor.common.metadata.tasks.Task.Status;
 import com.netflix.conductor.common.metadata.tasks.TaskDef;
+import com.netflix.conductor.common.metadata.tasks.TaskResult;
+import com.netflix.conductor.common.metadata.workflow.StartWorkflowRequest;
 import com.netflix.conductor.common.metadata.workflow.TaskType;
 import com.netflix.conductor.common.metadata.workflow.WorkflowDef;
 import com.netflix.conductor.common.metadata.workflow.WorkflowTask;
+import com.netflix.conductor.common.run.BulkStartWorkflowResponse;
 import com.netflix.conductor.common.run.Workflow;
 import com.netflix.conductor.core.execution.mapper.DecisionTaskMapper;
 import com.netflix.conductor.core.execution.mapper.DynamicTaskMapper;
@@ -42,8 +45,10 @@ import com.netflix.conductor.core.execution.tasks.Wait;
 import com.netflix.conductor.core.execution.tasks.WorkflowSystemTask;
 import com.netflix.conductor.core.metadata.MetadataMapperService;
 import com.netflix.conductor.core.orchestration.ExecutionDAOFacade;
+import com.netflix.conductor.core.utils.ExecutionLockService;
 import com.netflix.conductor.core.utils.ExternalPayloadStorageUtils;
 import com.netflix.conductor.core.utils.IDGenerator;
+import com.netflix.conductor.core.utils.LocalOnlyLockProvider;
 import com.netflix.conductor.dao.MetadataDAO;
 import com.netflix.conductor.dao.QueueDAO;
 import org.junit.Before;
@@ -81,8 +86,11 @@ import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -124,7 +132,9 @@ public class TestWorkflowExecutor {
 
         DeciderService deciderService = new DeciderService(parametersUtils, queueDAO, metadataDAO, externalPayloadStorageUtils, taskMappers);
         MetadataMapperService metadataMapperService = new MetadataMapperService(metadataDAO);
-        workflowExecutor = new WorkflowExecutor(deciderService, metadataDAO, queueDAO, metadataMapperService, workflowStatusListener, executionDAOFacade, externalPayloadStorageUtils, config);
+        LocalOnlyLockProvider lockProvider = new LocalOnlyLockProvider(config);
+        ExecutionLockService executionLockService = new ExecutionLockService(config, lockProvider, lockProvider);
+        workflowExecutor = new WorkflowExecutor(deciderService, metadataDAO, queueDAO, metadataMapperService, workflowStatusListener, executionDAOFacade, externalPayloadStorageUtils, executionLockService, config);
     }
 
     @Test
@@ -1040,4 +1050,114 @@ public class TestWorkflowExecutor {
         return tasks;
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testUpdateTasksDecidesOncePerWorkflow() {
+        WorkflowDef def = new WorkflowDef();
+        def.setName("test");
+        Workflow workflow = new Workflow();
+        workflow.setWorkflowDefinition(def);
+        workflow.setWorkflowId("w1");
+        workflow.setStatus(Workflow.WorkflowStatus.RUNNING);
+        when(executionDAOFacade.getWorkflowById(eq("w1"), anyBoolean())).thenReturn(workflow);
+
+        List<TaskResult> results = new ArrayList<>();
+        for (String taskId : Arrays.asList("t1", "t2")) {
+            Task task = new Task();
+            task.setTaskId(taskId);
+            task.setTaskType(TaskType.SIMPLE.name());
+            task.setTaskDefName("simple");
+            task.setWorkflowInstanceId("w1");
+            task.setStatus(Status.IN_PROGRESS);
+            when(executionDAOFacade.getTaskById(taskId)).thenReturn(task);
+
+            task.setStatus(Status.COMPLETED);
+            results.add(new TaskResult(task));
+            task.setStatus(Status.IN_PROGRESS);
+        }
+        TaskResult missing = new TaskResult();
+        missing.setWorkflowInstanceId("w1");
+        missing.setTaskId("missing");
+        missing.setStatus(TaskResult.Status.COMPLETED);
+        results.add(missing);
+
+        WorkflowExecutor executor = spy(workflowExecutor);
+        doReturn(true).when(executor).decide(anyString());
+
+        Map<String, String> failures = executor.updateTasks(results);
+
+        assertEquals(1, failures.size());
+        assertTrue(failures.containsKey("missing"));
+        ArgumentCaptor<List> updated = ArgumentCaptor.forClass(List.class);
+        verify(executionDAOFacade, times(1)).updateTasks(updated.capture());
+        verify(executionDAOFacade, never()).updateTask(any());
+        assertEquals(2, updated.getValue().size());
+        verify(queueDAO, times(2)).remove(anyString(), anyString());
+        verify(executor, times(1)).decide("w1");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testStartWorkflows() {
+        WorkflowDef def = new WorkflowDef();
+        def.setName("test");
+        def.setVersion(1);
+        when(metadataDAO.get("test", 1)).thenReturn(Optional.of(def));
+        when(metadataDAO.get("unknown", 1)).thenReturn(Optional.empty());
+
+        List<StartWorkflowRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            requests.add(new StartWorkflowRequest().withName("test").withVersion(1).withCorrelationId("c" + i));
+        }
+        requests.add(1, new StartWorkflowRequest().withName("unknown").withVersion(1));
+
+        AtomicInteger created = new AtomicInteger(0);
+        doAnswer(invocation -> {
+            created.addAndGet(((List<Workflow>) invocation.getArguments()[0]).size());
+            return null;
+        }).when(executionDAOFacade).createWorkflows(any());
+
+        BulkStartWorkflowResponse response = workflowExecutor.startWorkflows(requests);
+
+        assertEquals(4, response.getWorkflowIds().size());
+        assertNotNull(response.getWorkflowIds().get(0));
+        assertNull(response.getWorkflowIds().get(1));
+        assertNotNull(response.getWorkflowIds().get(2));
+        assertNotNull(response.getWorkflowIds().get(3));
+        assertEquals(1, response.getErrors().size());
+        assertTrue(response.getErrors().containsKey(1));
+
+        // the definition is looked up once, the workflows are created in one batch and decided later by the sweeper
+        verify(metadataDAO, times(1)).get("test", 1);
+        verify(executionDAOFacade, times(1)).createWorkflows(any());
+        verify(executionDAOFacade, never()).createWorkflow(any());
+        assertEquals(3, created.get());
+        ArgumentCaptor<List> messages = ArgumentCaptor.forClass(List.class);
+        verify(queueDAO, times(1)).push(eq(WorkflowExecutor.DECIDER_QUEUE), messages.capture());
+        assertEquals(3, messages.getValue().size());
+    }
+
+    @Test
+    public void testStartWorkflowsPushFailure() {
+        WorkflowDef def = new WorkflowDef();
+        def.setName("test");
+        def.setVersion(1);
+        when(metadataDAO.get("test", 1)).thenReturn(Optional.of(def));
+        doThrow(new ApplicationException(ApplicationException.Code.BACKEND_ERROR, "unavailable"))
+                .when(queueDAO).push(eq(WorkflowExecutor.DECIDER_QUEUE), any());
+
+        List<StartWorkflowRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            requests.add(new StartWorkflowRequest().withName("test").withVersion(1));
+        }
+
+        BulkStartWorkflowResponse response = workflowExecutor.startWorkflows(requests);
+
+        // the workflows would never be decided, they are removed and reported as not started
+        assertEquals(2, response.getWorkflowIds().size());
+        assertNull(response.getWorkflowIds().get(0));
+        assertNull(response.getWorkflowIds().get(1));
+        assertEquals(2, response.getErrors().size());
+        verify(executionDAOFacade, times(2)).removeWorkflow(anyString(), eq(false));
+    }
 }
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2019 Netflix, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.conductor.core.execution;
+
+import com.netflix.conductor.core.config.Configuration;
+import com.netflix.conductor.dao.QueueDAO;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.netflix.conductor.core.execution.WorkflowExecutor.DECIDER_QUEUE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TestWorkflowSweeper {
+
+    private Configuration config;
+    private WorkflowSweeper workflowSweeper;
+
+    @Before
+    public void setUp() {
+        config = mock(Configuration.class);
+        when(config.getIntProperty(anyString(), anyInt())).thenAnswer(invocation -> invocation.getArguments()[1]);
+        when(config.getProperty(anyString(), anyString())).thenAnswer(invocation -> invocation.getArguments()[1]);
+        when(config.getSweepFrequency()).thenReturn(30);
+    }
+
+    @After
+    public void tearDown() {
+        if (workflowSweeper != null) {
+            workflowSweeper.shutdown();
+        }
+    }
+
+    @Test
+    public void testUnshardedQueue() {
+        assertEquals(DECIDER_QUEUE, DeciderQueues.getQueueName(config, "wf"));
+        assertEquals(Collections.singletonList(DECIDER_QUEUE), DeciderQueues.getSweptQueueNames(config));
+    }
+
+    @Test
+    public void testShardedQueues() {
+        when(config.getIntProperty(eq("workflow.decider.queue.shards"), anyInt())).thenReturn(4);
+
+        String queueName = DeciderQueues.getQueueName(config, "wf");
+        assertEquals(queueName, DeciderQueues.getQueueName(config, "wf"));
+        assertTrue(DeciderQueues.getQueueNames(config).contains(queueName));
+        assertEquals(Arrays.asList(DECIDER_QUEUE, DECIDER_QUEUE + "_0", DECIDER_QUEUE + "_1", DECIDER_QUEUE + "_2", DECIDER_QUEUE + "_3"),
+                DeciderQueues.getSweptQueueNames(config));
+
+        when(config.getProperty(eq("workflow.sweeper.shards"), anyString())).thenReturn("1, 3");
+        assertEquals(Arrays.asList(DECIDER_QUEUE, DECIDER_QUEUE + "_1", DECIDER_QUEUE + "_3"),
+                DeciderQueues.getSweptQueueNames(config));
+    }
+
+    @Test
+    public void testSweepsEveryShard() throws Exception {
+        when(config.getIntProperty(eq("workflow.decider.queue.shards"), anyInt())).thenReturn(2);
+        WorkflowExecutor workflowExecutor = mock(WorkflowExecutor.class);
+        when(workflowExecutor.decide("running")).thenReturn(false);
+        when(workflowExecutor.decide("done")).thenReturn(true);
+
+        QueueDAO queueDAO = mock(QueueDAO.class);
+        when(queueDAO.pop(anyString(), anyInt(), anyInt())).thenReturn(Collections.emptyList());
+        when(queueDAO.pop(eq(DECIDER_QUEUE + "_0"), anyInt(), anyInt()))
+                .thenReturn(Collections.singletonList("running"))
+                .thenReturn(Collections.emptyList());
+        when(queueDAO.pop(eq(DECIDER_QUEUE + "_1"), anyInt(), anyInt()))
+                .thenReturn(Collections.singletonList("done"))
+                .thenReturn(Collections.emptyList());
+
+        workflowSweeper = new WorkflowSweeper(workflowExecutor, config, queueDAO);
+
+        verify(queueDAO, timeout(5000)).setUnackTimeout(DECIDER_QUEUE + "_0", "running", 30_000);
+        verify(queueDAO, timeout(5000)).remove(DECIDER_QUEUE + "_1", "done");
+    }
+
+    @Test
+    public void testBatchesAreBoundByFreeWorkers() throws Exception {
+        when(config.getIntProperty(eq("workflow.sweeper.thread.count"), anyInt())).thenReturn(3);
+        WorkflowExecutor workflowExecutor = mock(WorkflowExecutor.class);
+        AtomicInteger maxBatchSize = new AtomicInteger();
+        QueueDAO queueDAO = mock(QueueDAO.class);
+        when(queueDAO.pop(anyString(), anyInt(), anyInt())).thenAnswer(invocation -> {
+            int count = (Integer) invocation.getArguments()[1];
+            maxBatchSize.accumulateAndGet(count, Math::max);
+            return Collections.nCopies(count, "wf");
+        });
+        when(workflowExecutor.decide("wf")).thenAnswer(invocation -> {
+            Thread.sleep(10);
+            return false;
+        });
+
+        workflowSweeper = new WorkflowSweeper(workflowExecutor, config, queueDAO);
+
+        verify(queueDAO, timeout(5000).atLeast(20)).setUnackTimeout(eq(DECIDER_QUEUE), eq("wf"), anyLong());
+        assertTrue(maxBatchSize.get() <= 3);
+    }
+
+    @Test
+    public void testDrainedQueuesDoNotHoldWorkers() throws Exception {
+        when(config.getIntProperty(eq("workflow.decider.queue.shards"), anyInt())).thenReturn(4);
+        when(config.getIntProperty(eq("workflow.sweeper.thread.count"), anyInt())).thenReturn(2);
+        WorkflowExecutor workflowExecutor = mock(WorkflowExecutor.class);
+        when(workflowExecutor.decide("wf")).thenReturn(false);
+        QueueDAO queueDAO = mock(QueueDAO.class);
+        // the drained queues wait for the whole timeout
+        when(queueDAO.pop(anyString(), anyInt(), anyInt())).thenAnswer(invocation -> {
+            Thread.sleep((Integer) invocation.getArguments()[2]);
+            return Collections.emptyList();
+        });
+        when(queueDAO.pop(eq(DECIDER_QUEUE + "_0"), anyInt(), anyInt())).thenReturn(Collections.singletonList("wf"));
+
+        workflowSweeper = new WorkflowSweeper(workflowExecutor, config, queueDAO);
+
+        verify(queueDAO, timeout(1000).atLeast(20)).setUnackTimeout(eq(DECIDER_QUEUE + "_0"), eq("wf"), anyLong());
+    }
+}
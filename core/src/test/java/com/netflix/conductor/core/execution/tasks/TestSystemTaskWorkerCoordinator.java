@@ -9,6 +9,9 @@ import org.junit.Test;
 import org.mockito.Mockito;
 
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 public class TestSystemTaskWorkerCoordinator {
@@ -54,6 +57,47 @@ public class TestSystemTaskWorkerCoordinator {
 
 	}
 
+	@Test
+	public void testPollAndExecuteOfEmptyQueue() {
+
+		createTaskMapping();
+
+		Configuration configuration = Mockito.mock(Configuration.class);
+		QueueDAO queueDao = Mockito.mock(QueueDAO.class);
+		Mockito.when(configuration.getIntProperty(Mockito.anyString(), Mockito.anyInt())).thenReturn(10);
+		Mockito.when(queueDao.pop(Mockito.anyString(), Mockito.anyInt(), Mockito.anyInt())).thenReturn(Collections.emptyList());
+		WorkflowExecutor wfE = Mockito.mock(WorkflowExecutor.class);
+		SystemTaskWorkerCoordinator systemTaskWorkerCoordinator = new SystemTaskWorkerCoordinator(queueDao, wfE, configuration);
+
+		Assert.assertEquals(0, systemTaskWorkerCoordinator.pollAndExecute(TEST_QUEUE));
+		shutDownExecutors(systemTaskWorkerCoordinator);
+
+		Mockito.verify(wfE, Mockito.never()).executeSystemTask(Mockito.any(), Mockito.anyString(), Mockito.anyInt());
+
+	}
+
+	@Test
+	public void testResizeFromObservedLoad() {
+
+		LinkedBlockingQueue<Runnable> workerQueue = new LinkedBlockingQueue<>(10);
+		ThreadPoolExecutor service = new ThreadPoolExecutor(2, 2, 0L, TimeUnit.MILLISECONDS, workerQueue);
+		ExecutionConfig executionConfig = new ExecutionConfig("test", service, workerQueue, 10);
+
+		// 4 threads busy on average over the window
+		long windowNanos = TimeUnit.SECONDS.toNanos(10);
+		executionConfig.busyNanos.add(4 * windowNanos);
+		Assert.assertEquals(200, executionConfig.resize(windowNanos));
+		Assert.assertEquals(5, service.getCorePoolSize());
+		Assert.assertEquals(5, service.getMaximumPoolSize());
+
+		// idle, back to the initial size
+		Assert.assertEquals(0, executionConfig.resize(windowNanos));
+		Assert.assertEquals(2, service.getCorePoolSize());
+		Assert.assertEquals(2, service.getMaximumPoolSize());
+
+		service.shutdown();
+	}
+
 	private void shutDownExecutors(SystemTaskWorkerCoordinator systemTaskWorkerCoordinator) {
 
 		systemTaskWorkerCoordinator.defaultExecutionConfig.service.shutdown();
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2019 Netflix, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.netflix.conductor.core.metadata;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.netflix.conductor.common.metadata.tasks.TaskDef;
+import com.netflix.conductor.common.metadata.workflow.WorkflowDef;
+import com.netflix.conductor.common.utils.JsonMapperProvider;
+import com.netflix.conductor.core.config.Configuration;
+import com.netflix.conductor.core.metadata.MetadataChangeNotifier.Kind;
+import com.netflix.conductor.dao.MetadataDAO;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CachingMetadataDAOTest {
+
+    private final ObjectMapper objectMapper = new JsonMapperProvider().get();
+    private MetadataDAO delegate;
+    private LocalMetadataChangeNotifier notifier;
+    private CachingMetadataDAO metadataDAO;
+
+    @Before
+    public void setUp() {
+        delegate = mock(MetadataDAO.class);
+        notifier = new LocalMetadataChangeNotifier();
+        metadataDAO = new CachingMetadataDAO(delegate, () -> notifier, objectMapper, configuration(true));
+    }
+
+    @Test
+    public void testTaskDefIsCached() {
+        when(delegate.getTaskDefFromDB("task1")).thenReturn(new TaskDef("task1"));
+
+        TaskDef first = metadataDAO.getTaskDef("task1");
+        TaskDef second = metadataDAO.getTaskDef("task1");
+        assertEquals("task1", second.getName());
+        // every caller gets its own copy
+        assertNotSame(first, second);
+        verify(delegate, times(1)).getTaskDefFromDB("task1");
+
+        // missing definitions are cached too
+        assertNull(metadataDAO.getTaskDef("task2"));
+        assertNull(metadataDAO.getTaskDef("task2"));
+        verify(delegate, times(1)).getTaskDefFromDB("task2");
+    }
+
+    @Test
+    public void testWriteInvalidates() {
+        TaskDef taskDef = new TaskDef("task1");
+        when(delegate.getTaskDefFromDB("task1")).thenReturn(taskDef);
+        metadataDAO.getTaskDef("task1");
+
+        taskDef.setRetryCount(5);
+        metadataDAO.updateTaskDef(taskDef);
+        assertEquals(5, metadataDAO.getTaskDef("task1").getRetryCount());
+        verify(delegate, times(2)).getTaskDefFromDB("task1");
+    }
+
+    @Test
+    public void testWorkflowDefVersions() {
+        WorkflowDef version1 = workflowDef("workflow1", 1);
+        WorkflowDef version2 = workflowDef("workflow1", 2);
+        when(delegate.get("workflow1", 1)).thenReturn(Optional.of(version1));
+        when(delegate.getLatest("workflow1")).thenReturn(Optional.of(version1));
+
+        assertEquals(1, metadataDAO.getLatest("workflow1").get().getVersion());
+        assertEquals(1, metadataDAO.get("workflow1", 1).get().getVersion());
+        metadataDAO.getLatest("workflow1");
+        metadataDAO.get("workflow1", 1);
+        verify(delegate, times(1)).getLatest("workflow1");
+        verify(delegate, times(1)).get("workflow1", 1);
+
+        // a new version drops all the cached versions of the workflow
+        when(delegate.getLatest("workflow1")).thenReturn(Optional.of(version2));
+        metadataDAO.create(version2);
+        assertEquals(2, metadataDAO.getLatest("workflow1").get().getVersion());
+        metadataDAO.get("workflow1", 1);
+        verify(delegate, times(2)).getLatest("workflow1");
+        verify(delegate, times(2)).get("workflow1", 1);
+    }
+
+    @Test
+    public void testNotificationsInvalidate() {
+        when(delegate.getTaskDefFromDB("task1")).thenReturn(new TaskDef("task1"));
+        when(delegate.getLatest("workflow1")).thenReturn(Optional.of(workflowDef("workflow1", 1)));
+        metadataDAO.getTaskDef("task1");
+        metadataDAO.getLatest("workflow1");
+
+        // a change made through another server
+        notifier.publish(Kind.TASK_DEF, "task1");
+        metadataDAO.getTaskDef("task1");
+        verify(delegate, times(2)).getTaskDefFromDB("task1");
+
+        // a notifier that may have missed changes reports every definition of the kind
+        notifier.publish(Kind.WORKFLOW_DEF, null);
+        metadataDAO.getLatest("workflow1");
+        verify(delegate, times(2)).getLatest("workflow1");
+    }
+
+    @Test
+    public void testDelegateCacheIsBypassed() {
+        // a DAO that keeps its own copy of the definitions, refreshed on its own schedule
+        Map<String, TaskDef> store = new HashMap<>();
+        Map<String, TaskDef> delegateCache = new HashMap<>();
+        store.put("task1", new TaskDef("task1"));
+        delegateCache.putAll(store);
+        when(delegate.getTaskDef(anyString())).thenAnswer(invocation -> delegateCache.get(invocation.getArguments()[0]));
+        when(delegate.getTaskDefFromDB(anyString())).thenAnswer(invocation -> store.get(invocation.getArguments()[0]));
+        assertEquals(0, metadataDAO.getTaskDef("task1").getRetryCount());
+
+        // a change made through another server, which the delegate has not seen yet
+        TaskDef updated = new TaskDef("task1");
+        updated.setRetryCount(5);
+        store.put("task1", updated);
+        notifier.publish(Kind.TASK_DEF, "task1");
+        assertEquals(5, metadataDAO.getTaskDef("task1").getRetryCount());
+        assertEquals(5, metadataDAO.getTaskDef("task1").getRetryCount());
+        verify(delegate, never()).getTaskDef(anyString());
+    }
+
+    @Test
+    public void testDisabled() {
+        metadataDAO = new CachingMetadataDAO(delegate, () -> notifier, objectMapper, configuration(false));
+        when(delegate.getLatest("workflow1")).thenReturn(Optional.empty());
+
+        assertFalse(metadataDAO.getLatest("workflow1").isPresent());
+        metadataDAO.getLatest("workflow1");
+        verify(delegate, times(2)).getLatest("workflow1");
+    }
+
+    private static Configuration configuration(boolean enabled) {
+        Configuration config = mock(Configuration.class);
+        when(config.getBooleanProperty(eq("workflow.metadata.cache.enabled"), anyBoolean())).thenReturn(enabled);
+        when(config.getLongProperty(anyString(), anyLong())).thenAnswer(invocation -> invocation.getArguments()[1]);
+        return config;
+    }
+
+    private static WorkflowDef workflowDef(String name, int version) {
+        WorkflowDef workflowDef = new WorkflowDef();
+        workflowDef.setName(name);
+        workflowDef.setVersion(version);
+        return workflowDef;
+    }
+}
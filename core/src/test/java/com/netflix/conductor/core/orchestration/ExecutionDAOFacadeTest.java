@@ -15,10 +15,13 @@ package com.netflix.conductor.core.orchestration;
 import com.amazonaws.util.IOUtils;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.netflix.conductor.common.metadata.events.EventExecution;
+import com.netflix.conductor.common.metadata.tasks.Task;
 import com.netflix.conductor.common.run.SearchResult;
 import com.netflix.conductor.common.run.Workflow;
 import com.netflix.conductor.common.run.Workflow.WorkflowStatus;
 import com.netflix.conductor.common.utils.JsonMapperProvider;
+import com.netflix.conductor.core.config.Configuration;
+import com.netflix.conductor.core.execution.TestConfiguration;
 import com.netflix.conductor.core.execution.TestDeciderService;
 import com.netflix.conductor.dao.ExecutionDAO;
 import com.netflix.conductor.dao.IndexDAO;
@@ -27,7 +30,9 @@ import org.junit.Test;
 
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
@@ -37,7 +42,9 @@ import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyBoolean;
 import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -54,9 +61,10 @@ public class ExecutionDAOFacadeTest {
     @Before
     public void setUp() {
         executionDAO = mock(ExecutionDAO.class);
+        when(executionDAO.getTaskOrder()).thenReturn(Comparator.comparingInt(Task::getSeq));
         indexDAO = mock(IndexDAO.class);
         objectMapper = new JsonMapperProvider().get();
-        executionDAOFacade = new ExecutionDAOFacade(executionDAO, indexDAO, objectMapper);
+        executionDAOFacade = new ExecutionDAOFacade(executionDAO, indexDAO, objectMapper, new TestConfiguration());
     }
 
     @Test
@@ -76,6 +84,114 @@ public class ExecutionDAOFacadeTest {
         verify(indexDAO, times(1)).get(any(), any());
     }
 
+    @Test
+    public void testGetWorkflowByIdWithExecutionCache() {
+        Configuration config = mock(Configuration.class);
+        when(config.getBooleanProperty(eq("workflow.execution.cache.enabled"), anyBoolean())).thenReturn(true);
+        when(config.getBooleanProperty(eq("workflow.execution.lock.enabled"), anyBoolean())).thenReturn(true);
+        when(config.getLongProperty(anyString(), anyLong())).thenAnswer(invocation -> invocation.getArguments()[1]);
+        executionDAOFacade = new ExecutionDAOFacade(executionDAO, indexDAO, objectMapper, config);
+
+        long[] updateTime = {1L};
+        when(executionDAO.getWorkflow("workflowId", false)).thenAnswer(invocation -> {
+            Workflow workflow = new Workflow();
+            workflow.setWorkflowId("workflowId");
+            workflow.setUpdateTime(updateTime[0]);
+            return workflow;
+        });
+        when(executionDAO.getTasksForWorkflow("workflowId")).thenAnswer(invocation -> {
+            Task task = new Task();
+            task.setTaskId("taskId");
+            task.setWorkflowInstanceId("workflowId");
+            task.setStatus(Task.Status.IN_PROGRESS);
+            List<Task> tasks = new ArrayList<>();
+            tasks.add(task);
+            return tasks;
+        });
+
+        Workflow workflow = executionDAOFacade.getWorkflowById("workflowId", true);
+        assertEquals(1, workflow.getTasks().size());
+        workflow = executionDAOFacade.getWorkflowById("workflowId", true);
+        assertEquals(1, workflow.getTasks().size());
+        verify(executionDAO, times(1)).getTasksForWorkflow("workflowId");
+
+        // task updates through the facade leave the workflow stamp as is, the tasks are read again
+        Task task = workflow.getTasks().get(0);
+        task.setStatus(Task.Status.COMPLETED);
+        executionDAOFacade.updateTask(task);
+        workflow = executionDAOFacade.getWorkflowById("workflowId", true);
+        assertEquals(1, workflow.getTasks().size());
+        verify(executionDAO, times(2)).getTasksForWorkflow("workflowId");
+        executionDAOFacade.updateTasks(Arrays.asList(task, task));
+        executionDAOFacade.getWorkflowById("workflowId", true);
+        verify(executionDAO, times(3)).getTasksForWorkflow("workflowId");
+
+        // the workflow was updated elsewhere, the tasks are read again
+        updateTime[0] = 2L;
+        workflow = executionDAOFacade.getWorkflowById("workflowId", true);
+        assertEquals(Task.Status.IN_PROGRESS, workflow.getTasks().get(0).getStatus());
+        verify(executionDAO, times(4)).getTasksForWorkflow("workflowId");
+        verify(executionDAO, never()).getWorkflow("workflowId", true);
+    }
+
+    @Test
+    public void testExecutionCacheRequiresLock() {
+        Configuration config = mock(Configuration.class);
+        when(config.getBooleanProperty(eq("workflow.execution.cache.enabled"), anyBoolean())).thenReturn(true);
+        when(config.getLongProperty(anyString(), anyLong())).thenAnswer(invocation -> invocation.getArguments()[1]);
+        executionDAOFacade = new ExecutionDAOFacade(executionDAO, indexDAO, objectMapper, config);
+
+        when(executionDAO.getWorkflow("workflowId", true)).thenReturn(new Workflow());
+        executionDAOFacade.getWorkflowById("workflowId", true);
+        executionDAOFacade.getWorkflowById("workflowId", true);
+        verify(executionDAO, times(2)).getWorkflow("workflowId", true);
+        verify(executionDAO, never()).getTasksForWorkflow("workflowId");
+    }
+
+    @Test
+    public void testGetWorkflowWithTaskHeaders() {
+        Workflow stored = new Workflow();
+        stored.setWorkflowId("workflowId");
+        when(executionDAO.getWorkflow("workflowId", false)).thenReturn(stored);
+        // in the order of the DAO, not by scheduled time
+        Task first = new Task();
+        first.setTaskId("first");
+        first.setSeq(1);
+        first.setScheduledTime(2L);
+        Task second = new Task();
+        second.setTaskId("second");
+        second.setSeq(2);
+        second.setScheduledTime(1L);
+        List<Task> tasks = new ArrayList<>();
+        tasks.add(second);
+        tasks.add(first);
+        when(executionDAO.getTaskHeadersForWorkflow("workflowId")).thenReturn(tasks);
+
+        Workflow workflow = executionDAOFacade.getWorkflowWithTaskHeaders("workflowId");
+        assertEquals(2, workflow.getTasks().size());
+        assertEquals("first", workflow.getTasks().get(0).getTaskId());
+        assertEquals("second", workflow.getTasks().get(1).getTaskId());
+        verify(executionDAO, never()).getWorkflow("workflowId", true);
+        verify(executionDAO, never()).getTasksForWorkflow("workflowId");
+    }
+
+    @Test
+    public void testIndexingPipelineRequiresBulkIndexing() {
+        Configuration config = mock(Configuration.class);
+        when(config.getBooleanProperty(eq("workflow.indexing.pipeline.enabled"), anyBoolean())).thenReturn(true);
+        when(config.getIntProperty(anyString(), anyInt())).thenAnswer(invocation -> invocation.getArguments()[1]);
+        when(config.getLongProperty(anyString(), anyLong())).thenAnswer(invocation -> invocation.getArguments()[1]);
+        when(config.getProperty(anyString(), anyString())).thenAnswer(invocation -> invocation.getArguments()[1]);
+        executionDAOFacade = new ExecutionDAOFacade(executionDAO, indexDAO, objectMapper, config);
+
+        Workflow workflow = new Workflow();
+        workflow.setWorkflowId("workflowId");
+        workflow.setStatus(WorkflowStatus.RUNNING);
+        executionDAOFacade.updateWorkflow(workflow);
+        verify(indexDAO, times(1)).indexWorkflow(workflow);
+        verify(indexDAO, never()).indexSummaries(any(), any());
+    }
+
     @Test
     public void testGetWorkflowsByCorrelationId() {
         when(executionDAO.canSearchAcrossWorkflows()).thenReturn(true);
@@ -0,0 +1,240 @@
+/*
+ * Copyright 2019 Netflix, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.netflix.conductor.core.orchestration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.netflix.conductor.common.metadata.tasks.Task;
+import com.netflix.conductor.common.run.TaskSummary;
+import com.netflix.conductor.common.run.Workflow;
+import com.netflix.conductor.common.run.Workflow.WorkflowStatus;
+import com.netflix.conductor.common.run.WorkflowSummary;
+import com.netflix.conductor.common.utils.JsonMapperProvider;
+import com.netflix.conductor.dao.IndexDAO;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class IndexingPipelineTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final ObjectMapper objectMapper = new JsonMapperProvider().get();
+    private IndexDAO indexDAO;
+
+    @Before
+    public void setUp() {
+        indexDAO = mock(IndexDAO.class);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testCoalescing() {
+        IndexingPipeline pipeline = newPipeline(100, 1000);
+        pipeline.indexWorkflow(workflow("w1", WorkflowStatus.RUNNING));
+        pipeline.indexTask(task("t1", Task.Status.SCHEDULED));
+        pipeline.indexTask(task("t1", Task.Status.IN_PROGRESS));
+        pipeline.indexWorkflow(workflow("w1", WorkflowStatus.COMPLETED));
+        assertEquals(2, pipeline.getPendingCount());
+
+        assertTrue(pipeline.flush());
+        ArgumentCaptor<List> workflowSummaries = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<List> taskSummaries = ArgumentCaptor.forClass(List.class);
+        verify(indexDAO, times(1)).indexSummaries(workflowSummaries.capture(), taskSummaries.capture());
+        assertEquals(1, workflowSummaries.getValue().size());
+        assertEquals(WorkflowStatus.COMPLETED, ((WorkflowSummary) workflowSummaries.getValue().get(0)).getStatus());
+        assertEquals(1, taskSummaries.getValue().size());
+        assertEquals(Task.Status.IN_PROGRESS, ((TaskSummary) taskSummaries.getValue().get(0)).getStatus());
+        assertEquals(0, pipeline.getPendingCount());
+    }
+
+    @Test
+    public void testBatches() {
+        IndexingPipeline pipeline = newPipeline(2, 1000);
+        for (int i = 0; i < 5; i++) {
+            pipeline.indexTask(task("t" + i, Task.Status.SCHEDULED));
+        }
+
+        assertTrue(pipeline.flush());
+        verify(indexDAO, times(3)).indexSummaries(anyListOf(WorkflowSummary.class), anyListOf(TaskSummary.class));
+    }
+
+    @Test
+    public void testFailedFlushIsRetried() {
+        IndexingPipeline pipeline = newPipeline(100, 1000);
+        doThrow(new RuntimeException("unavailable")).doReturn(Collections.emptySet())
+                .when(indexDAO).indexSummaries(anyListOf(WorkflowSummary.class), anyListOf(TaskSummary.class));
+        pipeline.indexWorkflow(workflow("w1", WorkflowStatus.RUNNING));
+
+        assertFalse(pipeline.flush());
+        assertEquals(1, pipeline.getPendingCount());
+        assertTrue(pipeline.flush());
+        assertEquals(0, pipeline.getPendingCount());
+        verify(indexDAO, times(2)).indexSummaries(anyListOf(WorkflowSummary.class), anyListOf(TaskSummary.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testOnlyRetryableSummariesAreRetried() {
+        IndexingPipeline pipeline = newPipeline(100, 1000);
+        // t1 is rejected for good, t2 fails with a transient error
+        doReturn(Collections.singleton("t2")).doReturn(Collections.emptySet())
+                .when(indexDAO).indexSummaries(anyListOf(WorkflowSummary.class), anyListOf(TaskSummary.class));
+        pipeline.indexTask(task("t1", Task.Status.SCHEDULED));
+        pipeline.indexTask(task("t2", Task.Status.SCHEDULED));
+        pipeline.indexTask(task("t3", Task.Status.SCHEDULED));
+
+        assertFalse(pipeline.flush());
+        assertEquals(1, pipeline.getPendingCount());
+        assertTrue(pipeline.flush());
+        assertEquals(0, pipeline.getPendingCount());
+
+        ArgumentCaptor<List> taskSummaries = ArgumentCaptor.forClass(List.class);
+        verify(indexDAO, times(2)).indexSummaries(anyListOf(WorkflowSummary.class), taskSummaries.capture());
+        assertEquals(3, taskSummaries.getAllValues().get(0).size());
+        assertEquals(1, taskSummaries.getAllValues().get(1).size());
+        assertEquals("t2", ((TaskSummary) taskSummaries.getAllValues().get(1).get(0)).getTaskId());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testSpillAndReplay() throws Exception {
+        IndexingPipeline pipeline = newPipeline(2, 2);
+        List<String> indexed = new ArrayList<>();
+        doReturn(Collections.emptySet()).when(indexDAO).indexSummaries(anyListOf(WorkflowSummary.class), anyListOf(TaskSummary.class));
+        for (int i = 0; i < 4; i++) {
+            pipeline.indexWorkflow(workflow("w" + i, WorkflowStatus.RUNNING));
+        }
+        assertEquals(2, pipeline.getPendingCount());
+        assertTrue(pipeline.isSpilling());
+
+        // the newer summary of w0 is spilled too, and replayed after the one in memory
+        pipeline.indexWorkflow(workflow("w0", WorkflowStatus.COMPLETED));
+        assertEquals(2, pipeline.getPendingCount());
+
+        ArgumentCaptor<List> workflowSummaries = ArgumentCaptor.forClass(List.class);
+        assertTrue(pipeline.flush());
+        while (pipeline.isSpilling()) {
+            pipeline.replay();
+            assertTrue(pipeline.flush());
+        }
+        verify(indexDAO, times(3)).indexSummaries(workflowSummaries.capture(), anyListOf(TaskSummary.class));
+        WorkflowStatus lastW0Status = null;
+        for (List summaries : workflowSummaries.getAllValues()) {
+            for (Object summary : summaries) {
+                indexed.add(((WorkflowSummary) summary).getWorkflowId());
+                if ("w0".equals(((WorkflowSummary) summary).getWorkflowId())) {
+                    lastW0Status = ((WorkflowSummary) summary).getStatus();
+                }
+            }
+        }
+        assertEquals(5, indexed.size());
+        assertTrue(indexed.containsAll(Arrays.asList("w0", "w1", "w2", "w3")));
+        assertEquals(WorkflowStatus.COMPLETED, lastW0Status);
+        assertEquals(0, folder.getRoot().listFiles().length);
+    }
+
+    @Test
+    public void testSpilledSummariesSurviveRestart() throws Exception {
+        IndexingPipeline pipeline = newPipeline(1, 1);
+        pipeline.indexWorkflow(workflow("w1", WorkflowStatus.RUNNING));
+        pipeline.indexWorkflow(workflow("w2", WorkflowStatus.RUNNING));
+        assertTrue(pipeline.isSpilling());
+
+        IndexingPipeline restarted = newPipeline(1, 1);
+        assertTrue(restarted.isSpilling());
+        restarted.replay();
+        assertEquals(1, restarted.getPendingCount());
+        assertTrue(restarted.flush());
+        verify(indexDAO, times(1)).indexSummaries(anyListOf(WorkflowSummary.class), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testStopWritesQueuedSummaries() throws Exception {
+        IndexingPipeline pipeline = newPipeline(2, 2);
+        pipeline.indexWorkflow(workflow("w0", WorkflowStatus.RUNNING));
+        pipeline.indexTask(task("t1", Task.Status.SCHEDULED));
+        // the newer summary of w0 is spilled
+        pipeline.indexWorkflow(workflow("w0", WorkflowStatus.COMPLETED));
+        assertTrue(pipeline.isSpilling());
+        pipeline.stop();
+        assertEquals(0, pipeline.getPendingCount());
+
+        IndexingPipeline restarted = newPipeline(2, 2);
+        assertTrue(restarted.isSpilling());
+        while (restarted.isSpilling()) {
+            restarted.replay();
+            assertTrue(restarted.flush());
+        }
+        ArgumentCaptor<List> workflowSummaries = ArgumentCaptor.forClass(List.class);
+        verify(indexDAO, times(2)).indexSummaries(workflowSummaries.capture(), anyListOf(TaskSummary.class));
+        List<WorkflowSummary> indexed = new ArrayList<>();
+        workflowSummaries.getAllValues().forEach(indexed::addAll);
+        assertEquals(2, indexed.size());
+        assertEquals(WorkflowStatus.COMPLETED, indexed.get(1).getStatus());
+        assertEquals(0, folder.getRoot().listFiles().length);
+    }
+
+    @Test
+    public void testDiscardWorkflow() {
+        IndexingPipeline pipeline = newPipeline(100, 1000);
+        pipeline.indexWorkflow(workflow("w1", WorkflowStatus.COMPLETED));
+
+        assertNotNull(pipeline.discardWorkflow("w1"));
+        assertNull(pipeline.discardWorkflow("w1"));
+        assertTrue(pipeline.flush());
+        verify(indexDAO, never()).indexSummaries(anyListOf(WorkflowSummary.class), anyListOf(TaskSummary.class));
+    }
+
+    private IndexingPipeline newPipeline(int batchSize, int maxPending) {
+        return new IndexingPipeline(indexDAO, objectMapper, batchSize, 60000, maxPending, 1, folder.getRoot());
+    }
+
+    private static Workflow workflow(String workflowId, WorkflowStatus status) {
+        Workflow workflow = new Workflow();
+        workflow.setWorkflowId(workflowId);
+        workflow.setStatus(status);
+        workflow.setCreateTime(System.currentTimeMillis());
+        return workflow;
+    }
+
+    private static Task task(String taskId, Task.Status status) {
+        Task task = new Task();
+        task.setTaskId(taskId);
+        task.setWorkflowInstanceId("w1");
+        task.setStatus(status);
+        return task;
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2019 Netflix, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.conductor.core.utils;
+
+import com.netflix.conductor.core.config.Configuration;
+import com.netflix.conductor.core.utils.ExecutionLockService.ExecutionLock;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ExecutionLockServiceTest {
+
+    private Configuration config;
+    private LocalOnlyLockProvider localLockProvider;
+
+    @Before
+    public void setUp() {
+        config = mock(Configuration.class);
+        when(config.getBooleanProperty(anyString(), anyBoolean())).thenAnswer(invocation -> invocation.getArguments()[1]);
+        when(config.getBooleanProperty(eq("workflow.execution.lock.enabled"), anyBoolean())).thenReturn(true);
+        when(config.getIntProperty(anyString(), anyInt())).thenAnswer(invocation -> invocation.getArguments()[1]);
+        when(config.getLongProperty(eq("workflow.execution.lock.timeToTry.ms"), anyLong())).thenReturn(50L);
+        localLockProvider = new LocalOnlyLockProvider(config);
+    }
+
+    @Test
+    public void testDisabled() throws Exception {
+        when(config.getBooleanProperty(eq("workflow.execution.lock.enabled"), anyBoolean())).thenReturn(false);
+        LockProvider lockProvider = mock(LockProvider.class);
+        ExecutionLockService lockService = new ExecutionLockService(config, localLockProvider, lockProvider);
+
+        try (ExecutionLock lock = lockService.acquireLock("wf")) {
+            assertNotNull(lock);
+            assertNotNull(lockService.acquireLock("wf"));
+        }
+        verify(lockProvider, times(0)).lock(anyString(), anyLong(), any(TimeUnit.class));
+    }
+
+    @Test
+    public void testLocalLockIsReentrantAndExclusive() throws Exception {
+        ExecutionLockService lockService = new ExecutionLockService(config, localLockProvider, localLockProvider);
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            try (ExecutionLock lock = lockService.acquireLock("wf")) {
+                assertNotNull(lock);
+                try (ExecutionLock reentrant = lockService.acquireLock("wf")) {
+                    assertNotNull(reentrant);
+                }
+                // still held after the inner lock was released
+                assertNull(executorService.submit(() -> lockService.acquireLock("wf")).get(5, TimeUnit.SECONDS));
+                assertNotNull(executorService.submit(() -> lockService.acquireLock("other")).get(5, TimeUnit.SECONDS));
+            }
+            assertNotNull(executorService.submit(() -> lockService.acquireLock("wf")).get(5, TimeUnit.SECONDS));
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testDistributedLockIsTakenOncePerThread() throws Exception {
+        LockProvider lockProvider = mock(LockProvider.class);
+        AutoCloseable distributedLock = mock(AutoCloseable.class);
+        when(lockProvider.lock(eq("wf"), anyLong(), eq(TimeUnit.MILLISECONDS))).thenReturn(distributedLock);
+        ExecutionLockService lockService = new ExecutionLockService(config, localLockProvider, lockProvider);
+
+        try (ExecutionLock lock = lockService.acquireLock("wf")) {
+            assertNotNull(lock);
+            try (ExecutionLock reentrant = lockService.acquireLock("wf")) {
+                assertNotNull(reentrant);
+            }
+            verify(distributedLock, times(0)).close();
+        }
+        verify(lockProvider, times(1)).lock(eq("wf"), anyLong(), eq(TimeUnit.MILLISECONDS));
+        verify(distributedLock, times(1)).close();
+    }
+
+    @Test
+    public void testLocalOnly() throws Exception {
+        when(config.getBooleanProperty(eq("workflow.execution.lock.localOnly"), anyBoolean())).thenReturn(true);
+        LockProvider lockProvider = mock(LockProvider.class);
+        ExecutionLockService lockService = new ExecutionLockService(config, localLockProvider, lockProvider);
+
+        try (ExecutionLock lock = lockService.acquireLock("wf")) {
+            assertNotNull(lock);
+        }
+        verify(lockProvider, times(0)).lock(anyString(), anyLong(), any(TimeUnit.class));
+    }
+
+    @Test
+    public void testLocalLockIsReleasedWhenTheDistributedLockFails() throws Exception {
+        LockProvider lockProvider = mock(LockProvider.class);
+        when(lockProvider.lock(eq("wf"), anyLong(), eq(TimeUnit.MILLISECONDS))).thenThrow(new LockException("held by another node"));
+        ExecutionLockService lockService = new ExecutionLockService(config, localLockProvider, lockProvider);
+
+        assertNull(lockService.acquireLock("wf"));
+
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            assertTrue(executorService.submit(() -> localLockProvider.lock("wf", 0, TimeUnit.MILLISECONDS) != null)
+                    .get(5, TimeUnit.SECONDS));
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2019 Netflix, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.conductor.core.utils;
+
+import com.netflix.conductor.core.config.Configuration;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class WorkerExecutorsTest {
+
+    @Test
+    public void testPlatformThreadsByDefault() {
+        Configuration config = mock(Configuration.class);
+        assertFalse(WorkerExecutors.useVirtualThreads(config));
+
+        ExecutorService executorService = WorkerExecutors.newFixedPool(config, "test-%d", 3, true);
+        assertTrue(executorService instanceof ThreadPoolExecutor);
+        assertEquals(3, ((ThreadPoolExecutor) executorService).getMaximumPoolSize());
+        executorService.shutdown();
+    }
+
+    @Test
+    public void testVirtualThreadsWhenAvailable() throws Exception {
+        Configuration config = mock(Configuration.class);
+        when(config.getBooleanProperty(WorkerExecutors.VIRTUAL_THREADS_PROPERTY, false)).thenReturn(true);
+        boolean available = hasVirtualThreads();
+        assertEquals(available, WorkerExecutors.useVirtualThreads(config));
+
+        ExecutorService executorService = WorkerExecutors.newFixedPool(config, "test-%d", 2, true);
+        assertEquals("test-0", executorService.submit(() -> Thread.currentThread().getName()).get(5, TimeUnit.SECONDS));
+        executorService.shutdown();
+    }
+
+    @Test
+    public void testBoundedConcurrency() throws Exception {
+        ExecutorService executorService = new WorkerExecutors.BoundedExecutorService(Executors.newCachedThreadPool(), 2);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(10);
+        for (int i = 0; i < 10; i++) {
+            executorService.execute(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(2, maxRunning.get());
+        executorService.shutdown();
+    }
+
+    private static boolean hasVirtualThreads() {
+        try {
+            Thread.class.getMethod("ofVirtual");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+}
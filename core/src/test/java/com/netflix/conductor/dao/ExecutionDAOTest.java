@@ -26,6 +26,7 @@ import org.junit.rules.ExpectedException;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -264,6 +265,42 @@ public abstract class ExecutionDAOTest {
         assertTrue(found.isEmpty());
     }
 
+    @Test
+    public void testTaskHeadersForWorkflow() {
+        String workflowId = UUID.randomUUID().toString();
+        List<Task> tasks = new LinkedList<>();
+        for (int i = 0; i < 2; i++) {
+            Task task = new Task();
+            task.setScheduledTime(1L);
+            task.setSeq(i + 1);
+            task.setTaskId(workflowId + "_t" + i);
+            task.setReferenceTaskName("testTaskHeaders" + i);
+            task.setRetryCount(0);
+            task.setWorkflowInstanceId(workflowId);
+            task.setTaskDefName("testTaskHeaders" + i);
+            task.setStatus(Task.Status.IN_PROGRESS);
+            task.getInputData().put("index", i);
+            tasks.add(task);
+        }
+        getExecutionDAO().createTasks(tasks);
+
+        Task done = getExecutionDAO().getTask(workflowId + "_t0");
+        done.setStatus(Task.Status.COMPLETED);
+        done.setExecuted(true);
+        done.getOutputData().put("result", "done");
+        getExecutionDAO().updateTask(done);
+
+        List<Task> headers = getExecutionDAO().getTaskHeadersForWorkflow(workflowId);
+        assertEquals(2, headers.size());
+        headers.sort(Comparator.comparingInt(Task::getSeq));
+        assertEquals(Task.Status.COMPLETED, headers.get(0).getStatus());
+        assertEquals("testTaskHeaders0", headers.get(0).getReferenceTaskName());
+        assertEquals(0, headers.get(0).getInputData().get("index"));
+        assertEquals("done", headers.get(0).getOutputData().get("result"));
+        assertEquals(Task.Status.IN_PROGRESS, headers.get(1).getStatus());
+        assertEquals(1, headers.get(1).getInputData().get("index"));
+    }
+
     @Test
     public void testPending() {
         WorkflowDef def = new WorkflowDef();
@@ -13,6 +13,7 @@
  */
 package com.netflix.conductor.dao.es5.index;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.type.MapType;
 import com.fasterxml.jackson.databind.type.TypeFactory;
@@ -39,12 +40,15 @@ import java.text.SimpleDateFormat;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.TimeZone;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
@@ -64,6 +68,7 @@ import org.elasticsearch.ResourceAlreadyExistsException;
 import org.elasticsearch.action.DocWriteResponse;
 import org.elasticsearch.action.admin.indices.mapping.get.GetMappingsResponse;
 import org.elasticsearch.action.admin.indices.template.get.GetIndexTemplatesResponse;
+import org.elasticsearch.action.bulk.BulkItemResponse;
 import org.elasticsearch.action.bulk.BulkRequestBuilder;
 import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.action.delete.DeleteRequest;
@@ -82,6 +87,7 @@ import org.elasticsearch.index.query.BoolQueryBuilder;
 import org.elasticsearch.index.query.QueryBuilder;
 import org.elasticsearch.index.query.QueryBuilders;
 import org.elasticsearch.index.query.QueryStringQueryBuilder;
+import org.elasticsearch.rest.RestStatus;
 import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.SearchHits;
 import org.elasticsearch.search.fetch.subphase.FetchSourceContext;
@@ -340,6 +346,68 @@ public class ElasticSearchDAOV5 implements IndexDAO {
         return CompletableFuture.runAsync(() -> indexTask(task), executorService);
     }
 
+    @Override
+    public boolean canIndexSummaries() {
+        return true;
+    }
+
+    @Override
+    public Set<String> indexSummaries(List<WorkflowSummary> workflowSummaries, List<TaskSummary> taskSummaries) {
+        BulkRequestBuilder bulkRequestBuilder = elasticSearchClient.prepareBulk();
+        try {
+            for (WorkflowSummary summary : workflowSummaries) {
+                byte[] doc = objectMapper.writeValueAsBytes(summary);
+                UpdateRequest req = new UpdateRequest(indexName, WORKFLOW_DOC_TYPE, summary.getWorkflowId());
+                req.doc(doc, XContentType.JSON);
+                req.upsert(doc, XContentType.JSON);
+                req.retryOnConflict(5);
+                bulkRequestBuilder.add(req);
+            }
+            for (TaskSummary summary : taskSummaries) {
+                byte[] doc = objectMapper.writeValueAsBytes(summary);
+                UpdateRequest req = new UpdateRequest(indexName, TASK_DOC_TYPE, summary.getTaskId());
+                req.doc(doc, XContentType.JSON);
+                req.upsert(doc, XContentType.JSON);
+                bulkRequestBuilder.add(req);
+            }
+        } catch (JsonProcessingException e) {
+            throw new ApplicationException(Code.INTERNAL_ERROR, e.getMessage(), e);
+        }
+        if (bulkRequestBuilder.numberOfActions() == 0) {
+            return Collections.emptySet();
+        }
+
+        long startTime = Instant.now().toEpochMilli();
+        BulkResponse response = bulkRequestBuilder.execute().actionGet();
+        Monitors.recordESIndexTime("index_summaries", Instant.now().toEpochMilli() - startTime);
+        return getRetryableFailures(response);
+    }
+
+    /**
+     * Logs and drops the documents rejected by a bulk request, the ones failing with a transient error are retried.
+     *
+     * @return the ids of the documents to index again
+     */
+    private Set<String> getRetryableFailures(BulkResponse response) {
+        Set<String> retries = new HashSet<>();
+        if (!response.hasFailures()) {
+            return retries;
+        }
+        for (BulkItemResponse item : response.getItems()) {
+            if (!item.isFailed()) {
+                continue;
+            }
+            RestStatus status = item.getFailure().getStatus();
+            if (status == RestStatus.TOO_MANY_REQUESTS || status.getStatus() >= 500) {
+                retries.add(item.getId());
+            } else {
+                logger.error("Failed to index {} '{}', dropping it: {}", item.getType(), item.getId(), item.getFailureMessage());
+                Monitors.recordESIndexRejected(item.getType());
+            }
+        }
+        return retries;
+    }
+
     @Override
     public void addTaskExecutionLogs(List<TaskExecLog> taskExecLogs) {
         if (taskExecLogs.isEmpty()) {
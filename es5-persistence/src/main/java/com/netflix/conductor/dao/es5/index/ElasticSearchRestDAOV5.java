@@ -28,6 +28,7 @@ import org.apache.http.entity.ContentType;
 import org.apache.http.nio.entity.NByteArrayEntity;
 import org.apache.http.util.EntityUtils;
 import org.elasticsearch.action.DocWriteResponse;
+import org.elasticsearch.action.bulk.BulkItemResponse;
 import org.elasticsearch.action.bulk.BulkRequest;
 import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.action.delete.DeleteRequest;
@@ -45,6 +46,7 @@ import org.elasticsearch.index.query.BoolQueryBuilder;
 import org.elasticsearch.index.query.QueryBuilder;
 import org.elasticsearch.index.query.QueryBuilders;
 import org.elasticsearch.index.query.QueryStringQueryBuilder;
+import org.elasticsearch.rest.RestStatus;
 import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
 import org.elasticsearch.search.sort.FieldSortBuilder;
@@ -340,6 +342,66 @@ public class ElasticSearchRestDAOV5 implements IndexDAO {
         return CompletableFuture.runAsync(() -> indexTask(task), executorService);
     }
 
+    @Override
+    public boolean canIndexSummaries() {
+        return true;
+    }
+
+    @Override
+    public Set<String> indexSummaries(List<WorkflowSummary> workflowSummaries, List<TaskSummary> taskSummaries) {
+        BulkRequest bulkRequest = new BulkRequest();
+        workflowSummaries.forEach(summary -> addIndexRequest(bulkRequest, WORKFLOW_DOC_TYPE, summary.getWorkflowId(), summary));
+        taskSummaries.forEach(summary -> addIndexRequest(bulkRequest, TASK_DOC_TYPE, summary.getTaskId(), summary));
+        if (bulkRequest.numberOfActions() == 0) {
+            return Collections.emptySet();
+        }
+
+        long startTime = Instant.now().toEpochMilli();
+        BulkResponse response;
+        try {
+            response = elasticSearchClient.bulk(bulkRequest);
+        } catch (IOException e) {
+            throw new ApplicationException(ApplicationException.Code.BACKEND_ERROR, e.getMessage(), e);
+        }
+        Monitors.recordESIndexTime("index_summaries", Instant.now().toEpochMilli() - startTime);
+        return getRetryableFailures(response);
+    }
+
+    /**
+     * Logs and drops the documents rejected by a bulk request, the ones failing with a transient error are retried.
+     *
+     * @return the ids of the documents to index again
+     */
+    private Set<String> getRetryableFailures(BulkResponse response) {
+        Set<String> retries = new HashSet<>();
+        if (!response.hasFailures()) {
+            return retries;
+        }
+        for (BulkItemResponse item : response.getItems()) {
+            if (!item.isFailed()) {
+                continue;
+            }
+            RestStatus status = item.getFailure().getStatus();
+            if (status == RestStatus.TOO_MANY_REQUESTS || status.getStatus() >= 500) {
+                retries.add(item.getId());
+            } else {
+                logger.error("Failed to index {} '{}', dropping it: {}", item.getType(), item.getId(), item.getFailureMessage());
+                Monitors.recordESIndexRejected(item.getType());
+            }
+        }
+        return retries;
+    }
+
+    private void addIndexRequest(BulkRequest bulkRequest, String docType, String docId, Object doc) {
+        try {
+            IndexRequest request = new IndexRequest(indexName, docType, docId);
+            request.source(objectMapper.writeValueAsBytes(doc), XContentType.JSON);
+            bulkRequest.add(request);
+        } catch (JsonProcessingException e) {
+            logger.error("Failed to convert {} '{}' to byte string", docType, docId);
+        }
+    }
+
     @Override
     public void addTaskExecutionLogs(List<TaskExecLog> taskExecLogs) {
         if (taskExecLogs.isEmpty()) {
@@ -3,19 +3,29 @@ package com.netflix.conductor.dao.es6.index;
 import com.netflix.conductor.dao.IndexDAO;
 import com.netflix.conductor.dao.es6.index.query.parser.Expression;
 import com.netflix.conductor.elasticsearch.query.parser.ParserException;
+import com.netflix.conductor.metrics.Monitors;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.index.query.BoolQueryBuilder;
 import org.elasticsearch.index.query.QueryBuilder;
 import org.elasticsearch.index.query.QueryBuilders;
 import org.elasticsearch.index.query.QueryStringQueryBuilder;
+import org.elasticsearch.rest.RestStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 abstract class ElasticSearchBaseDAO implements IndexDAO {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(ElasticSearchBaseDAO.class);
+
     String indexPrefix;
 
     String loadTypeMappingSource(String path) throws IOException {
@@ -49,4 +59,29 @@ abstract class ElasticSearchBaseDAO implements IndexDAO {
         return indexPrefix + "_" + documentType;
     }
 
+    /**
+     * Logs and drops the documents rejected by a bulk request, the ones failing with a transient error are retried.
+     *
+     * @return the ids of the documents to index again
+     */
+    Set<String> getRetryableFailures(BulkResponse response) {
+        Set<String> retries = new HashSet<>();
+        if (!response.hasFailures()) {
+            return retries;
+        }
+        for (BulkItemResponse item : response.getItems()) {
+            if (!item.isFailed()) {
+                continue;
+            }
+            RestStatus status = item.getFailure().getStatus();
+            if (status == RestStatus.TOO_MANY_REQUESTS || status.getStatus() >= 500) {
+                retries.add(item.getId());
+            } else {
+                LOGGER.error("Failed to index {} '{}', dropping it: {}", item.getType(), item.getId(), item.getFailureMessage());
+                Monitors.recordESIndexRejected(item.getType());
+            }
+        }
+        return retries;
+    }
+
 }
@@ -13,6 +13,7 @@
  */
 package com.netflix.conductor.dao.es6.index;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.type.MapType;
 import com.fasterxml.jackson.databind.type.TypeFactory;
@@ -68,11 +69,13 @@ import java.io.IOException;
 import java.text.SimpleDateFormat;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.TimeZone;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
@@ -301,6 +304,34 @@ public class ElasticSearchDAOV6 extends ElasticSearchBaseDAO implements IndexDAO
         return CompletableFuture.runAsync(() -> indexTask(task), executorService);
     }
 
+    @Override
+    public boolean canIndexSummaries() {
+        return true;
+    }
+
+    @Override
+    public Set<String> indexSummaries(List<WorkflowSummary> workflowSummaries, List<TaskSummary> taskSummaries) {
+        BulkRequestBuilder bulkRequestBuilder = elasticSearchClient.prepareBulk();
+        try {
+            for (WorkflowSummary summary : workflowSummaries) {
+                byte[] doc = objectMapper.writeValueAsBytes(summary);
+                bulkRequestBuilder.add(buildUpdateRequest(summary.getWorkflowId(), doc, workflowIndexName, WORKFLOW_DOC_TYPE));
+            }
+            for (TaskSummary summary : taskSummaries) {
+                byte[] doc = objectMapper.writeValueAsBytes(summary);
+                bulkRequestBuilder.add(buildUpdateRequest(summary.getTaskId(), doc, taskIndexName, TASK_DOC_TYPE));
+            }
+        } catch (JsonProcessingException e) {
+            throw new ApplicationException(ApplicationException.Code.INTERNAL_ERROR, e.getMessage(), e);
+        }
+        if (bulkRequestBuilder.numberOfActions() == 0) {
+            return Collections.emptySet();
+        }
+
+        BulkResponse response = bulkRequestBuilder.execute().actionGet();
+        return getRetryableFailures(response);
+    }
+
     @Override
     public void addTaskExecutionLogs(List<TaskExecLog> taskExecLogs) {
         if (taskExecLogs.isEmpty()) {
@@ -61,6 +61,7 @@ import javax.inject.Singleton;
 import java.io.IOException;
 import java.io.InputStream;
 import java.text.SimpleDateFormat;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -69,6 +70,7 @@ import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.TimeZone;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
@@ -379,6 +381,41 @@ public class ElasticSearchRestDAOV6 extends ElasticSearchBaseDAO implements Inde
         return CompletableFuture.runAsync(() -> indexTask(task), executorService);
     }
 
+    @Override
+    public boolean canIndexSummaries() {
+        return true;
+    }
+
+    @Override
+    public Set<String> indexSummaries(List<WorkflowSummary> workflowSummaries, List<TaskSummary> taskSummaries) {
+        BulkRequest bulkRequest = new BulkRequest();
+        workflowSummaries.forEach(summary -> addIndexRequest(bulkRequest, workflowIndexName, WORKFLOW_DOC_TYPE, summary.getWorkflowId(), summary));
+        taskSummaries.forEach(summary -> addIndexRequest(bulkRequest, taskIndexName, TASK_DOC_TYPE, summary.getTaskId(), summary));
+        if (bulkRequest.numberOfActions() == 0) {
+            return Collections.emptySet();
+        }
+
+        long startTime = Instant.now().toEpochMilli();
+        BulkResponse response;
+        try {
+            response = elasticSearchClient.bulk(bulkRequest);
+        } catch (IOException e) {
+            throw new ApplicationException(ApplicationException.Code.BACKEND_ERROR, e.getMessage(), e);
+        }
+        Monitors.recordESIndexTime("index_summaries", Instant.now().toEpochMilli() - startTime);
+        return getRetryableFailures(response);
+    }
+
+    private void addIndexRequest(BulkRequest bulkRequest, String index, String docType, String docId, Object doc) {
+        try {
+            IndexRequest request = new IndexRequest(index, docType, docId);
+            request.source(objectMapper.writeValueAsBytes(doc), XContentType.JSON);
+            bulkRequest.add(request);
+        } catch (JsonProcessingException e) {
+            logger.error("Failed to convert {} '{}' to byte string", docType, docId);
+        }
+    }
+
     @Override
     public void addTaskExecutionLogs(List<TaskExecLog> taskExecLogs) {
         if (taskExecLogs.isEmpty()) {
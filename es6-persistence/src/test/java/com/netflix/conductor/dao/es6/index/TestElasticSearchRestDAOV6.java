@@ -38,11 +38,13 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.TimeZone;
 import java.util.UUID;
 import java.util.function.Supplier;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 public class TestElasticSearchRestDAOV6 {
@@ -361,6 +363,24 @@ public class TestElasticSearchRestDAOV6 {
         assertEquals(json, content);
     }
 
+    @Test
+    public void shouldDropRejectedSummaries() {
+        Workflow workflow = TestUtils.loadWorkflowSnapshot("workflow");
+        workflow.setWorkflowId(uuid());
+        WorkflowSummary summary = new WorkflowSummary(workflow);
+
+        Workflow malformed = TestUtils.loadWorkflowSnapshot("workflow");
+        malformed.setWorkflowId(uuid());
+        WorkflowSummary malformedSummary = new WorkflowSummary(malformed);
+        malformedSummary.setStartTime("not a date");
+
+        Set<String> retries = indexDAO.indexSummaries(Arrays.asList(summary, malformedSummary), Collections.emptyList());
+
+        assertTrue(retries.isEmpty());
+        assertWorkflowSummary(workflow.getWorkflowId(), summary);
+        assertNull(indexDAO.get(malformed.getWorkflowId(), "workflowId"));
+    }
+
     @Test
     public void shouldSearchRecentRunningWorkflows() throws Exception {
         Workflow oldWorkflow = TestUtils.loadWorkflowSnapshot("workflow");
@@ -146,6 +146,22 @@ public class TaskClient extends ClientBase {
         );
     }
 
+    /**
+     * Updates the results of several task executions, with a single decide per workflow on the server.
+     *
+     * @param taskResults TaskResults to be updated.
+     * @return the reason why a task could not be updated, by task id, empty if all of them were
+     */
+    public Map<String, String> updateTasks(List<TaskResult> taskResults) {
+        Preconditions.checkArgument(taskResults != null && !taskResults.isEmpty(), "Task results cannot be empty");
+        TaskServicePb.BatchUpdateTasksResponse response = stub.batchUpdateTasks(
+                TaskServicePb.BatchUpdateTasksRequest.newBuilder()
+                        .addAllResults(taskResults.stream().map(protoMapper::toProto).collect(Collectors.toList()))
+                        .build()
+        );
+        return response.getErrorsMap();
+    }
+
     /**
      * Ack for the task poll.
      *
@@ -3,6 +3,7 @@ package com.netflix.conductor.client.grpc;
 import com.google.common.base.Preconditions;
 import com.netflix.conductor.common.metadata.workflow.RerunWorkflowRequest;
 import com.netflix.conductor.common.metadata.workflow.StartWorkflowRequest;
+import com.netflix.conductor.common.run.BulkStartWorkflowResponse;
 import com.netflix.conductor.common.run.SearchResult;
 import com.netflix.conductor.common.run.Workflow;
 import com.netflix.conductor.common.run.WorkflowSummary;
@@ -38,6 +39,28 @@ public class WorkflowClient extends ClientBase {
         ).getWorkflowId();
     }
 
+    /**
+     * Starts a list of workflows, persisted in a single batch on the server. Their first tasks are scheduled
+     * asynchronously.
+     *
+     * @param startWorkflowRequests the {@link StartWorkflowRequest}s of the workflows to start
+     * @return the ids of the workflows in the order of the requests, and why the ones not started were not
+     */
+    public BulkStartWorkflowResponse startWorkflows(List<StartWorkflowRequest> startWorkflowRequests) {
+        Preconditions.checkArgument(startWorkflowRequests != null && !startWorkflowRequests.isEmpty(), "StartWorkflowRequests cannot be empty");
+        WorkflowServicePb.StartWorkflowsResponse pbResponse = stub.startWorkflows(
+                WorkflowServicePb.StartWorkflowsRequest.newBuilder()
+                        .addAllRequests(startWorkflowRequests.stream().map(protoMapper::toProto)::iterator)
+                        .build()
+        );
+        BulkStartWorkflowResponse response = new BulkStartWorkflowResponse();
+        response.setWorkflowIds(pbResponse.getWorkflowIdsList().stream()
+                .map(id -> id.isEmpty() ? null : id)
+                .collect(Collectors.toList()));
+        response.setErrors(new LinkedHashMap<>(pbResponse.getErrorsMap()));
+        return response;
+    }
+
     /**
      * Retrieve a workflow by workflow id
      *
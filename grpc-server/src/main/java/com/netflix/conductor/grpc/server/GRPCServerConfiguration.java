@@ -12,6 +12,9 @@ public interface GRPCServerConfiguration extends Configuration {
     String SERVICE_REFLECTION_ENABLED_PROPERTY_NAME = "conductor.grpc.server.reflection.enabled";
     boolean SERVICE_REFLECTION_ENABLED_DEFAULT_VALUE = true;
 
+    String SUBSCRIPTION_THREAD_COUNT_PROPERTY_NAME = "conductor.grpc.server.subscription.thread.count";
+    int SUBSCRIPTION_THREAD_COUNT_DEFAULT_VALUE = 8;
+
     default boolean isEnabled(){
        return getBooleanProperty(ENABLED_PROPERTY_NAME, ENABLED_DEFAULT_VALUE);
     }
@@ -23,4 +26,11 @@ public interface GRPCServerConfiguration extends Configuration {
     default boolean isReflectionEnabled() {
         return getBooleanProperty(SERVICE_REFLECTION_ENABLED_PROPERTY_NAME, SERVICE_REFLECTION_ENABLED_DEFAULT_VALUE);
     }
+
+    /**
+     * @return the number of threads polling the task queues for the workers subscribed with SubscribeTasks
+     */
+    default int getSubscriptionThreadCount() {
+        return getIntProperty(SUBSCRIPTION_THREAD_COUNT_PROPERTY_NAME, SUBSCRIPTION_THREAD_COUNT_DEFAULT_VALUE);
+    }
 }
@@ -1,15 +1,19 @@
 package com.netflix.conductor.grpc.server.service;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.netflix.conductor.common.metadata.tasks.Task;
 import com.netflix.conductor.common.metadata.tasks.TaskExecLog;
 import com.netflix.conductor.common.metadata.tasks.TaskResult;
 import com.netflix.conductor.grpc.ProtoMapper;
 import com.netflix.conductor.grpc.TaskServiceGrpc;
 import com.netflix.conductor.grpc.TaskServicePb;
+import com.netflix.conductor.grpc.server.GRPCServerConfiguration;
 import com.netflix.conductor.proto.TaskPb;
 import com.netflix.conductor.service.ExecutionService;
 import com.netflix.conductor.service.TaskService;
+import com.netflix.conductor.service.common.BulkResponse;
 import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -17,6 +21,9 @@ import org.slf4j.LoggerFactory;
 import javax.inject.Inject;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.stream.Collectors;
 
 public class TaskServiceImpl extends TaskServiceGrpc.TaskServiceImplBase {
     private static final Logger LOGGER = LoggerFactory.getLogger(TaskServiceImpl.class);
@@ -31,10 +38,14 @@ public class TaskServiceImpl extends TaskServiceGrpc.TaskServiceImplBase {
 
     private final ExecutionService executionService;
 
+    private final ScheduledExecutorService subscriptionDispatcher;
+
     @Inject
-    public TaskServiceImpl(ExecutionService executionService, TaskService taskService) {
+    public TaskServiceImpl(ExecutionService executionService, TaskService taskService, GRPCServerConfiguration config) {
         this.executionService = executionService;
         this.taskService = taskService;
+        this.subscriptionDispatcher = Executors.newScheduledThreadPool(config.getSubscriptionThreadCount(),
+                new ThreadFactoryBuilder().setNameFormat("grpc-task-subscription-%d").setDaemon(true).build());
     }
 
     @Override
@@ -130,6 +141,26 @@ public class TaskServiceImpl extends TaskServiceGrpc.TaskServiceImplBase {
         }
     }
 
+    @Override
+    public void batchUpdateTasks(TaskServicePb.BatchUpdateTasksRequest req, StreamObserver<TaskServicePb.BatchUpdateTasksResponse> response) {
+        try {
+            List<TaskResult> results = req.getResultsList().stream()
+                    .map(PROTO_MAPPER::fromProto)
+                    .collect(Collectors.toList());
+            BulkResponse bulkResponse = taskService.updateTasks(results);
+
+            response.onNext(
+                    TaskServicePb.BatchUpdateTasksResponse.newBuilder()
+                            .addAllUpdatedTaskIds(bulkResponse.getBulkSuccessfulResults())
+                            .putAllErrors(bulkResponse.getBulkErrorResults())
+                            .build()
+            );
+            response.onCompleted();
+        } catch (Exception e) {
+            GRPC_HELPER.onError(response, e);
+        }
+    }
+
     @Override
     public void ackTask(TaskServicePb.AckTaskRequest req, StreamObserver<TaskServicePb.AckTaskResponse> response) {
         try {
@@ -245,4 +276,10 @@ public class TaskServiceImpl extends TaskServiceGrpc.TaskServiceImplBase {
         response.onNext(queuesBuilder.build());
         response.onCompleted();
     }
+
+    @Override
+    public StreamObserver<TaskServicePb.SubscribeTasksRequest> subscribeTasks(StreamObserver<TaskServicePb.SubscribeTasksResponse> response) {
+        return new TaskSubscription(taskService,
+                (ServerCallStreamObserver<TaskServicePb.SubscribeTasksResponse>) response, subscriptionDispatcher);
+    }
 }
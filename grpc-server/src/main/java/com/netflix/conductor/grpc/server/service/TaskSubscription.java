@@ -0,0 +1,236 @@
+package com.netflix.conductor.grpc.server.service;
+
+import com.netflix.conductor.common.metadata.tasks.Task;
+import com.netflix.conductor.common.metadata.tasks.TaskResult;
+import com.netflix.conductor.grpc.ProtoMapper;
+import com.netflix.conductor.grpc.TaskServicePb;
+import com.netflix.conductor.grpc.TaskServicePb.SubscribeTasksRequest;
+import com.netflix.conductor.grpc.TaskServicePb.SubscribeTasksResponse;
+import com.netflix.conductor.service.TaskService;
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A worker subscribed to its task types through {@link TaskServiceImpl#subscribeTasks(StreamObserver)}.
+ * <p>
+ * The worker grants credit, the server sends at most as many tasks as the credit not used yet. The task queues are
+ * polled without waiting, on the shared dispatcher threads, and a subscription that finds no tasks backs off before
+ * polling again. No thread is held while a subscription waits for tasks or credit.
+ */
+class TaskSubscription implements StreamObserver<SubscribeTasksRequest> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TaskSubscription.class);
+    private static final ProtoMapper PROTO_MAPPER = ProtoMapper.INSTANCE;
+    private static final GRPCHelper GRPC_HELPER = new GRPCHelper(LOGGER);
+
+    private static final int MAX_BATCH_SIZE = 100;
+    private static final long MIN_IDLE_DELAY_MS = 50;
+    private static final long MAX_IDLE_DELAY_MS = 1000;
+
+    private final TaskService taskService;
+    private final ServerCallStreamObserver<SubscribeTasksResponse> response;
+    private final ScheduledExecutorService dispatcher;
+
+    private List<String> taskTypes;
+    private String workerId;
+    private String domain;
+
+    // guarded by this
+    private int credit;
+    private boolean polling;
+    private boolean closed;
+    private int nextTaskType;
+    private int emptyPolls;
+    private long idleDelayMs = MIN_IDLE_DELAY_MS;
+
+    TaskSubscription(TaskService taskService, ServerCallStreamObserver<SubscribeTasksResponse> response,
+                     ScheduledExecutorService dispatcher) {
+        this.taskService = taskService;
+        this.response = response;
+        this.dispatcher = dispatcher;
+        response.setOnCancelHandler(this::close);
+    }
+
+    @Override
+    public void onNext(SubscribeTasksRequest req) {
+        switch (req.getRequestCase()) {
+            case SUBSCRIPTION:
+                subscribe(req.getSubscription());
+                break;
+            case CREDIT:
+                if (taskTypes == null) {
+                    fail(Status.FAILED_PRECONDITION.withDescription("credit granted before subscribing"));
+                    return;
+                }
+                addCredit(req.getCredit().getCount());
+                break;
+            case ACK:
+                ack(req.getAck());
+                break;
+            case UPDATE:
+                update(req.getUpdate());
+                break;
+            default:
+                fail(Status.INVALID_ARGUMENT.withDescription("empty request"));
+                break;
+        }
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        LOGGER.debug("Task subscription of worker {} failed", workerId, t);
+        close();
+    }
+
+    @Override
+    public void onCompleted() {
+        if (close()) {
+            synchronized (response) {
+                response.onCompleted();
+            }
+        }
+    }
+
+    private void subscribe(SubscribeTasksRequest.Subscription subscription) {
+        if (taskTypes != null) {
+            fail(Status.FAILED_PRECONDITION.withDescription("already subscribed"));
+            return;
+        }
+        if (subscription.getTaskTypesCount() == 0) {
+            fail(Status.INVALID_ARGUMENT.withDescription("no task type to subscribe to"));
+            return;
+        }
+        workerId = GRPC_HELPER.optional(subscription.getWorkerId());
+        domain = GRPC_HELPER.optional(subscription.getDomain());
+        taskTypes = new ArrayList<>(subscription.getTaskTypesList());
+        addCredit(subscription.getCredit());
+    }
+
+    private void addCredit(int count) {
+        synchronized (this) {
+            credit += Math.max(0, count);
+            emptyPolls = 0;
+            idleDelayMs = MIN_IDLE_DELAY_MS;
+        }
+        schedulePoll(0);
+    }
+
+    private void ack(TaskServicePb.AckTaskRequest req) {
+        boolean ack;
+        try {
+            ack = taskService.ackTaskReceived(req.getTaskId());
+        } catch (Exception e) {
+            LOGGER.error("Error acking task {} of worker {}", req.getTaskId(), workerId, e);
+            ack = false;
+        }
+        send(SubscribeTasksResponse.newBuilder()
+                .setAck(SubscribeTasksResponse.AckResult.newBuilder()
+                        .setTaskId(req.getTaskId())
+                        .setAck(ack))
+                .build());
+    }
+
+    private void update(TaskServicePb.UpdateTaskRequest req) {
+        TaskResult result = PROTO_MAPPER.fromProto(req.getResult());
+        SubscribeTasksResponse.UpdateResult.Builder updateResult = SubscribeTasksResponse.UpdateResult.newBuilder()
+                .setTaskId(result.getTaskId());
+        try {
+            taskService.updateTask(result);
+        } catch (Exception e) {
+            LOGGER.error("Error updating task {} of worker {}", result.getTaskId(), workerId, e);
+            updateResult.setError(String.valueOf(e.getMessage()));
+        }
+        send(SubscribeTasksResponse.newBuilder().setUpdate(updateResult).build());
+    }
+
+    private synchronized void schedulePoll(long delayMs) {
+        if (closed || polling || credit <= 0) {
+            return;
+        }
+        polling = true;
+        dispatcher.schedule(this::poll, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void poll() {
+        String taskType;
+        int count;
+        synchronized (this) {
+            if (closed) {
+                polling = false;
+                return;
+            }
+            taskType = taskTypes.get(nextTaskType);
+            nextTaskType = (nextTaskType + 1) % taskTypes.size();
+            count = Math.min(credit, MAX_BATCH_SIZE);
+        }
+
+        List<Task> tasks;
+        try {
+            tasks = taskService.batchPoll(taskType, workerId, domain, count, 0);
+        } catch (Exception e) {
+            LOGGER.error("Error polling {} for worker {}", taskType, workerId, e);
+            tasks = Collections.emptyList();
+        }
+        for (Task task : tasks) {
+            send(SubscribeTasksResponse.newBuilder().setTask(PROTO_MAPPER.toProto(task)).build());
+        }
+
+        long delayMs = 0;
+        synchronized (this) {
+            polling = false;
+            credit -= tasks.size();
+            if (!tasks.isEmpty()) {
+                emptyPolls = 0;
+                idleDelayMs = MIN_IDLE_DELAY_MS;
+            } else if (++emptyPolls >= taskTypes.size()) {
+                // every task type came back empty, wait a little longer every round
+                emptyPolls = 0;
+                delayMs = idleDelayMs;
+                idleDelayMs = Math.min(MAX_IDLE_DELAY_MS, idleDelayMs * 2);
+            }
+        }
+        schedulePoll(delayMs);
+    }
+
+    private void send(SubscribeTasksResponse message) {
+        synchronized (response) {
+            if (response.isCancelled()) {
+                return;
+            }
+            try {
+                response.onNext(message);
+            } catch (Exception e) {
+                LOGGER.debug("Task subscription of worker {} closed while sending", workerId, e);
+                close();
+            }
+        }
+    }
+
+    private void fail(Status status) {
+        if (close()) {
+            synchronized (response) {
+                response.onError(status.asRuntimeException());
+            }
+        }
+    }
+
+    /**
+     * @return false if the subscription was already closed
+     */
+    private synchronized boolean close() {
+        if (closed) {
+            return false;
+        }
+        closed = true;
+        return true;
+    }
+}
@@ -17,6 +17,7 @@ package com.netflix.conductor.grpc.server.service;
 
 import com.netflix.conductor.common.metadata.workflow.SkipTaskRequest;
 import com.netflix.conductor.common.metadata.workflow.StartWorkflowRequest;
+import com.netflix.conductor.common.run.BulkStartWorkflowResponse;
 import com.netflix.conductor.common.run.SearchResult;
 import com.netflix.conductor.common.run.Workflow;
 import com.netflix.conductor.common.run.WorkflowSummary;
@@ -29,6 +30,7 @@ import com.netflix.conductor.grpc.WorkflowServicePb;
 import com.netflix.conductor.proto.RerunWorkflowRequestPb;
 import com.netflix.conductor.proto.StartWorkflowRequestPb;
 import com.netflix.conductor.proto.WorkflowPb;
+import com.netflix.conductor.service.WorkflowBulkService;
 import com.netflix.conductor.service.WorkflowService;
 import io.grpc.Status;
 import io.grpc.stub.StreamObserver;
@@ -46,11 +48,13 @@ public class WorkflowServiceImpl extends WorkflowServiceGrpc.WorkflowServiceImpl
     private static final GRPCHelper GRPC_HELPER = new GRPCHelper(LOGGER);
 
     private final WorkflowService workflowService;
+    private final WorkflowBulkService workflowBulkService;
     private final int maxSearchSize;
 
     @Inject
-    public WorkflowServiceImpl(WorkflowService workflowService, Configuration config) {
+    public WorkflowServiceImpl(WorkflowService workflowService, WorkflowBulkService workflowBulkService, Configuration config) {
         this.workflowService = workflowService;
+        this.workflowBulkService = workflowBulkService;
         this.maxSearchSize = config.getIntProperty("workflow.max.search.size", 5_000);
     }
 
@@ -83,6 +87,27 @@ public class WorkflowServiceImpl extends WorkflowServiceGrpc.WorkflowServiceImpl
         }
     }
 
+    @Override
+    public void startWorkflows(WorkflowServicePb.StartWorkflowsRequest req, StreamObserver<WorkflowServicePb.StartWorkflowsResponse> response) {
+        List<StartWorkflowRequest> requests = new ArrayList<>(req.getRequestsCount());
+        for (StartWorkflowRequestPb.StartWorkflowRequest pbRequest : req.getRequestsList()) {
+            StartWorkflowRequest request = PROTO_MAPPER.fromProto(pbRequest);
+            request.setVersion(GRPC_HELPER.optional(request.getVersion()));
+            requests.add(request);
+        }
+        try {
+            BulkStartWorkflowResponse result = workflowBulkService.startWorkflows(requests);
+            response.onNext(WorkflowServicePb.StartWorkflowsResponse.newBuilder()
+                    .addAllWorkflowIds(result.getWorkflowIds().stream().map(id -> id == null ? "" : id)::iterator)
+                    .putAllErrors(result.getErrors())
+                    .build()
+            );
+            response.onCompleted();
+        } catch (Exception e) {
+            GRPC_HELPER.onError(response, e);
+        }
+    }
+
     @Override
     public void getWorkflows(WorkflowServicePb.GetWorkflowsRequest req, StreamObserver<WorkflowServicePb.GetWorkflowsResponse> response) {
         final String name = req.getName();
@@ -0,0 +1,132 @@
+package com.netflix.conductor.grpc.server.service;
+
+import com.netflix.conductor.common.metadata.tasks.Task;
+import com.netflix.conductor.grpc.TaskServiceGrpc;
+import com.netflix.conductor.grpc.TaskServicePb;
+import com.netflix.conductor.grpc.TaskServicePb.SubscribeTasksRequest;
+import com.netflix.conductor.grpc.TaskServicePb.SubscribeTasksResponse;
+import com.netflix.conductor.grpc.server.GRPCServerConfiguration;
+import com.netflix.conductor.proto.TaskResultPb;
+import com.netflix.conductor.service.ExecutionService;
+import com.netflix.conductor.service.TaskService;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import io.grpc.testing.GrpcCleanupRule;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TaskServiceImplTest {
+
+    @Rule
+    public final GrpcCleanupRule grpcCleanup = new GrpcCleanupRule();
+
+    private TaskService taskService;
+    private TaskServiceGrpc.TaskServiceStub stub;
+
+    @Before
+    public void setUp() throws Exception {
+        taskService = mock(TaskService.class);
+        GRPCServerConfiguration config = mock(GRPCServerConfiguration.class);
+        when(config.getSubscriptionThreadCount()).thenReturn(1);
+
+        String serverName = InProcessServerBuilder.generateName();
+        grpcCleanup.register(InProcessServerBuilder.forName(serverName).directExecutor()
+                .addService(new TaskServiceImpl(mock(ExecutionService.class), taskService, config))
+                .build().start());
+        stub = TaskServiceGrpc.newStub(
+                grpcCleanup.register(InProcessChannelBuilder.forName(serverName).directExecutor().build()));
+    }
+
+    @Test
+    public void subscribeTasksSendsTasksWithinCredit() throws Exception {
+        when(taskService.batchPoll(eq("task_1"), eq("worker"), any(), anyInt(), anyInt()))
+                .thenReturn(Arrays.asList(task("t1"), task("t2")))
+                .thenReturn(Collections.singletonList(task("t3")))
+                .thenReturn(Collections.emptyList());
+        when(taskService.ackTaskReceived("t1")).thenReturn(true);
+        when(taskService.updateTask(any())).thenReturn("t1");
+
+        BlockingQueue<SubscribeTasksResponse> responses = new LinkedBlockingQueue<>();
+        StreamObserver<SubscribeTasksRequest> requests = stub.subscribeTasks(new StreamObserver<SubscribeTasksResponse>() {
+            @Override
+            public void onNext(SubscribeTasksResponse value) {
+                responses.add(value);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+            }
+
+            @Override
+            public void onCompleted() {
+            }
+        });
+
+        requests.onNext(SubscribeTasksRequest.newBuilder()
+                .setSubscription(SubscribeTasksRequest.Subscription.newBuilder()
+                        .addTaskTypes("task_1")
+                        .setWorkerId("worker")
+                        .setCredit(2))
+                .build());
+        assertEquals("t1", responses.poll(5, TimeUnit.SECONDS).getTask().getTaskId());
+        assertEquals("t2", responses.poll(5, TimeUnit.SECONDS).getTask().getTaskId());
+        verify(taskService).batchPoll("task_1", "worker", null, 2, 0);
+
+        // the credit is used up
+        assertNull(responses.poll(200, TimeUnit.MILLISECONDS));
+
+        requests.onNext(SubscribeTasksRequest.newBuilder()
+                .setAck(TaskServicePb.AckTaskRequest.newBuilder().setTaskId("t1"))
+                .build());
+        SubscribeTasksResponse ack = responses.poll(5, TimeUnit.SECONDS);
+        assertEquals("t1", ack.getAck().getTaskId());
+        assertTrue(ack.getAck().getAck());
+
+        requests.onNext(SubscribeTasksRequest.newBuilder()
+                .setUpdate(TaskServicePb.UpdateTaskRequest.newBuilder()
+                        .setResult(TaskResultPb.TaskResult.newBuilder()
+                                .setTaskId("t1")
+                                .setWorkflowInstanceId("w1")
+                                .setStatus(TaskResultPb.TaskResult.Status.COMPLETED)))
+                .build());
+        SubscribeTasksResponse update = responses.poll(5, TimeUnit.SECONDS);
+        assertEquals("t1", update.getUpdate().getTaskId());
+        assertEquals("", update.getUpdate().getError());
+
+        requests.onNext(SubscribeTasksRequest.newBuilder()
+                .setCredit(SubscribeTasksRequest.Credit.newBuilder().setCount(5))
+                .build());
+        assertEquals("t3", responses.poll(5, TimeUnit.SECONDS).getTask().getTaskId());
+        verify(taskService, timeout(5000)).batchPoll("task_1", "worker", null, 4, 0);
+
+        requests.onCompleted();
+    }
+
+    private static Task task(String taskId) {
+        Task task = new Task();
+        task.setTaskId(taskId);
+        task.setTaskType("task_1");
+        task.setStatus(Task.Status.IN_PROGRESS);
+        return task;
+    }
+}
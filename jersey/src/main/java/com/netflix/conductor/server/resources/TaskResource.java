@@ -23,6 +23,7 @@ import com.netflix.conductor.common.run.ExternalStorageLocation;
 import com.netflix.conductor.common.run.SearchResult;
 import com.netflix.conductor.common.run.TaskSummary;
 import com.netflix.conductor.service.TaskService;
+import com.netflix.conductor.service.common.BulkResponse;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 
@@ -112,6 +113,13 @@ public class TaskResource {
 		return taskService.updateTask(taskResult);
 	}
 
+	@POST
+	@Path("/batch")
+	@ApiOperation("Update several tasks, with one decide per workflow")
+	public BulkResponse updateTasks(List<TaskResult> taskResults) {
+		return taskService.updateTasks(taskResults);
+	}
+
 	@POST
 	@Path("/{taskId}/ack")
 	@ApiOperation("Ack Task is received")
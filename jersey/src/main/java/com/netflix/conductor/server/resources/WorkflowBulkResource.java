@@ -18,6 +18,8 @@
  */
 package com.netflix.conductor.server.resources;
 
+import com.netflix.conductor.common.metadata.workflow.StartWorkflowRequest;
+import com.netflix.conductor.common.run.BulkStartWorkflowResponse;
 import com.netflix.conductor.service.WorkflowBulkService;
 import com.netflix.conductor.service.common.BulkResponse;
 import io.swagger.annotations.Api;
@@ -116,4 +118,16 @@ public class WorkflowBulkResource {
     public BulkResponse terminate(List<String> workflowIds, @QueryParam("reason") String reason) {
         return workflowBulkService.terminate(workflowIds, reason);
     }
+
+    /**
+     * Start a list of workflows.
+     * @param requests - the workflows to be started
+     * @return the ids of the started workflows in the order of the requests, and the errors of the others by position
+     */
+    @POST
+    @Path("/start")
+    @ApiOperation("Start a list of workflows. Their first tasks are scheduled asynchronously")
+    public BulkStartWorkflowResponse startWorkflows(List<StartWorkflowRequest> requests) {
+        return workflowBulkService.startWorkflows(requests);
+    }
 }
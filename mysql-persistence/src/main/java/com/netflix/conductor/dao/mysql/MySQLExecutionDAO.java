@@ -22,16 +22,17 @@ import com.netflix.conductor.common.metadata.tasks.Task;
 import com.netflix.conductor.common.metadata.tasks.TaskDef;
 import com.netflix.conductor.common.run.Workflow;
 import com.netflix.conductor.core.execution.ApplicationException;
+import com.netflix.conductor.core.execution.LazyTask;
 import com.netflix.conductor.dao.ExecutionDAO;
 import com.netflix.conductor.metrics.Monitors;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import javax.sql.DataSource;
+import java.io.IOException;
 import java.sql.Connection;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.Date;
 import java.util.LinkedList;
 import java.util.List;
@@ -137,6 +138,11 @@ public class MySQLExecutionDAO extends MySQLBaseDAO implements ExecutionDAO {
         withTransaction(connection -> updateTask(connection, task));
     }
 
+    @Override
+    public void updateTasks(List<Task> tasks) {
+        withTransaction(connection -> tasks.forEach(task -> updateTask(connection, task)));
+    }
+
     /**
      * This is a dummy implementation and this feature is not for Mysql backed
      * Conductor
@@ -244,11 +250,60 @@ public class MySQLExecutionDAO extends MySQLBaseDAO implements ExecutionDAO {
         }));
     }
 
+    @Override
+    public List<Task> getTaskHeadersForWorkflow(String workflowId) {
+        String GET_TASKS_FOR_WORKFLOW = "SELECT t.json_data FROM workflow_to_task wt "
+                + "INNER JOIN task t ON t.task_id = wt.task_id "
+                + "WHERE wt.workflow_id = ? AND t.json_data IS NOT NULL";
+        return queryWithTransaction(GET_TASKS_FOR_WORKFLOW, q -> q.addParameter(workflowId).executeAndFetch(rs -> {
+            // read row by row, the payloads of the headers are never materialized
+            List<Task> tasks = new ArrayList<>();
+            while (rs.next()) {
+                tasks.add(readTask(rs.getString(1)));
+            }
+            return tasks;
+        }));
+    }
+
+    private Task readTask(String json) {
+        try {
+            return LazyTask.readTask(objectMapper, json, this::getTask);
+        } catch (IOException e) {
+            throw new ApplicationException(ApplicationException.Code.INTERNAL_ERROR, e);
+        }
+    }
+
     @Override
     public String createWorkflow(Workflow workflow) {
         return insertOrUpdateWorkflow(workflow, false);
     }
 
+    @Override
+    public void createWorkflows(List<Workflow> workflows) {
+        List<List<Task>> tasks = new ArrayList<>(workflows.size());
+        for (Workflow workflow : workflows) {
+            Preconditions.checkNotNull(workflow, "workflow object cannot be null");
+            tasks.add(workflow.getTasks());
+            workflow.setTasks(Lists.newLinkedList());
+        }
+
+        try {
+            withTransaction(tx -> workflows.forEach(workflow -> {
+                addWorkflow(tx, workflow);
+                addWorkflowDefToWorkflowMapping(tx, workflow);
+                if (workflow.getStatus().isTerminal()) {
+                    removePendingWorkflow(tx, workflow.getWorkflowName(), workflow.getWorkflowId());
+                } else {
+                    addPendingWorkflow(tx, workflow.getWorkflowName(), workflow.getWorkflowId());
+                }
+            }));
+        } finally {
+            for (int i = 0; i < workflows.size(); i++) {
+                workflows.get(i).setTasks(tasks.get(i));
+            }
+        }
+    }
+
     @Override
     public String updateWorkflow(Workflow workflow) {
         return insertOrUpdateWorkflow(workflow, true);
@@ -292,7 +347,7 @@ public class MySQLExecutionDAO extends MySQLBaseDAO implements ExecutionDAO {
         if (workflow != null) {
             if (includeTasks) {
                 List<Task> tasks = getTasksForWorkflow(workflowId);
-                tasks.sort(Comparator.comparingLong(Task::getScheduledTime).thenComparingInt(Task::getSeq));
+                tasks.sort(getTaskOrder());
                 workflow.setTasks(tasks);
             }
         }
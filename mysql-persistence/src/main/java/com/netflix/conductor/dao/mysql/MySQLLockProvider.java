@@ -0,0 +1,69 @@
+package com.netflix.conductor.dao.mysql;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.netflix.conductor.core.utils.LockException;
+import com.netflix.conductor.core.utils.LockProvider;
+import com.netflix.conductor.metrics.Monitors;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link LockProvider} backed by MySQL named locks (<code>GET_LOCK</code> / <code>RELEASE_LOCK</code>).
+ * <p>
+ * A named lock belongs to the session that acquired it, so every held lock keeps a connection out of the pool until
+ * it is released. If the node dies, MySQL releases the lock when the session ends.
+ */
+@Singleton
+public class MySQLLockProvider extends MySQLBaseDAO implements LockProvider {
+
+    private static final String LOCK_TYPE = "mysql";
+    private static final String LOCK_PREFIX = "conductor.";
+
+    @Inject
+    public MySQLLockProvider(ObjectMapper om, DataSource dataSource) {
+        super(om, dataSource);
+    }
+
+    /**
+     * @param path    the name of the lock, at most 54 characters since MySQL limits lock names to 64 characters
+     * @param timeOut the time to wait for the lock, rounded up to the second
+     */
+    @Override
+    public AutoCloseable lock(String path, long timeOut, TimeUnit unit) throws LockException, SQLException {
+        String lockName = LOCK_PREFIX + path;
+        Connection connection = dataSource.getConnection();
+        try {
+            connection.setAutoCommit(true);
+            if (!getLock(connection, lockName, 0)) {
+                Monitors.recordLockContention(LOCK_TYPE);
+                long timeOutSeconds = (unit.toMillis(timeOut) + 999) / 1000;
+                if (!getLock(connection, lockName, timeOutSeconds)) {
+                    throw new LockException(String.format("Unable to acquire the lock on %s within %d %s", path, timeOut, unit));
+                }
+            }
+        } catch (Exception e) {
+            connection.close();
+            throw e;
+        }
+
+        return () -> {
+            try {
+                query(connection, "SELECT RELEASE_LOCK(?)", q -> q.addParameter(lockName).executeScalar());
+            } finally {
+                connection.close();
+            }
+        };
+    }
+
+    private boolean getLock(Connection connection, String lockName, long timeOutSeconds) {
+        // 1 if the lock was obtained, 0 on timeout, NULL on error
+        Object result = query(connection, "SELECT GET_LOCK(?, ?)",
+                q -> q.addParameter(lockName).addParameter(timeOutSeconds).executeScalar());
+        return result != null && ((Number) result).longValue() == 1;
+    }
+}
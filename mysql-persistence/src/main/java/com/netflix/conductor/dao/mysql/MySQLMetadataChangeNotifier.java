@@ -0,0 +1,112 @@
+package com.netflix.conductor.dao.mysql;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.netflix.conductor.core.config.Configuration;
+import com.netflix.conductor.core.metadata.MetadataChangeNotifier;
+import com.netflix.conductor.metrics.Monitors;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link MetadataChangeNotifier} backed by the <code>meta_version</code> table, which holds a version per
+ * definition bumped on every change.
+ * <p>
+ * Every server reads the rows modified since its previous read, every
+ * <code>workflow.metadata.change.poll.interval.ms</code>, and reports the definitions whose version moved. The reads
+ * overlap by {@value #OVERLAP_MS} ms, so that a change committed a little after it was stamped is not missed. The
+ * timestamps all come from the database clock.
+ */
+@Singleton
+public class MySQLMetadataChangeNotifier extends MySQLBaseDAO implements MetadataChangeNotifier {
+
+    private static final String CLASS_NAME = MySQLMetadataChangeNotifier.class.getSimpleName();
+    static final long OVERLAP_MS = 10_000;
+
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * The versions read by the previous poll, by kind and name
+     */
+    private Map<String, Long> versions = new HashMap<>();
+    private Timestamp lastPollTime;
+
+    @Inject
+    public MySQLMetadataChangeNotifier(ObjectMapper om, DataSource dataSource, Configuration config) {
+        super(om, dataSource);
+        long pollIntervalMs = config.getLongProperty("workflow.metadata.change.poll.interval.ms", 250);
+        Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("mysql-metadata-change-poller")
+                .setDaemon(true)
+                .build())
+                .scheduleWithFixedDelay(this::poll, 0, pollIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void publish(Kind kind, String name) {
+        final String UPSERT_META_VERSION = "INSERT INTO meta_version (kind, name) VALUES (?, ?) " +
+                "ON DUPLICATE KEY UPDATE version = version + 1, modified_on = CURRENT_TIMESTAMP(3)";
+
+        executeWithTransaction(UPSERT_META_VERSION, q -> q.addParameter(kind.name()).addParameter(name).executeUpdate());
+    }
+
+    @Override
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    @VisibleForTesting
+    synchronized void poll() {
+        final String GET_CURRENT_TIME = "SELECT CURRENT_TIMESTAMP(3)";
+        final String GET_MODIFIED_VERSIONS = "SELECT kind, name, version FROM meta_version WHERE modified_on >= ?";
+
+        try {
+            Map<String, Long> modified = new HashMap<>();
+            Timestamp pollTime = getWithTransaction(tx -> {
+                Timestamp now = query(tx, GET_CURRENT_TIME, q -> q.executeAndFetch(rs -> {
+                    rs.next();
+                    return rs.getTimestamp(1);
+                }));
+                long since = (lastPollTime == null ? now.getTime() : lastPollTime.getTime()) - OVERLAP_MS;
+                query(tx, GET_MODIFIED_VERSIONS, q -> q.addParameter(new Timestamp(since)).executeAndFetch(rs -> {
+                    while (rs.next()) {
+                        modified.put(rs.getString("kind") + ":" + rs.getString("name"), rs.getLong("version"));
+                    }
+                    return null;
+                }));
+                return now;
+            });
+
+            // the caches are empty at startup, the definitions modified just before only need to be recorded
+            if (lastPollTime != null) {
+                modified.forEach((key, version) -> {
+                    if (!version.equals(versions.get(key))) {
+                        notifyListeners(key);
+                    }
+                });
+            }
+            versions = modified;
+            lastPollTime = pollTime;
+        } catch (Exception e) {
+            Monitors.error(CLASS_NAME, "poll");
+            logger.error("Failed to read the metadata changes", e);
+        }
+    }
+
+    private void notifyListeners(String key) {
+        int separator = key.indexOf(':');
+        Kind kind = Kind.valueOf(key.substring(0, separator));
+        String name = key.substring(separator + 1);
+        listeners.forEach(listener -> listener.onChange(kind, name));
+    }
+}
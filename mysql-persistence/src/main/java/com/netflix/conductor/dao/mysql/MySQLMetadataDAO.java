@@ -419,7 +419,8 @@ public class MySQLMetadataDAO extends MySQLBaseDAO implements MetadataDAO {
      * @param name The name of the {@code TaskDef} to query for.
      * @return {@literal null} if nothing is found, otherwise the {@code TaskDef}.
      */
-    private TaskDef getTaskDefFromDB(String name) {
+    @Override
+    public TaskDef getTaskDefFromDB(String name) {
         final String READ_ONE_TASKDEF_QUERY = "SELECT json_data FROM meta_task_def WHERE name = ?";
 
         return queryWithTransaction(READ_ONE_TASKDEF_QUERY,
@@ -3,7 +3,7 @@ package com.netflix.conductor.dao.mysql;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
-import com.google.common.util.concurrent.Uninterruptibles;
+import com.netflix.conductor.core.config.Configuration;
 import com.netflix.conductor.core.events.queue.Message;
 import com.netflix.conductor.core.execution.ApplicationException;
 import com.netflix.conductor.dao.QueueDAO;
@@ -17,16 +17,33 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Singleton
 public class MySQLQueueDAO extends MySQLBaseDAO implements QueueDAO {
     private static final Long UNACK_SCHEDULE_MS = 60_000L;
+    /**
+     * Rows holding the counts of each queue
+     */
+    private static final int COUNT_SHARDS = 16;
+
+    private final QueueNotifier queueNotifier = new QueueNotifier();
+    private final long minPollIntervalMs;
+    private final long maxPollIntervalMs;
+    private final boolean skipLocked;
 
     @Inject
-    public MySQLQueueDAO(ObjectMapper om, DataSource ds) {
+    public MySQLQueueDAO(ObjectMapper om, DataSource ds, Configuration config) {
         super(om, ds);
+        // Pushes through this node wake up its pollers right away, the pushes through other nodes are only seen by
+        // polling the table, less and less often while the queue stays empty.
+        this.minPollIntervalMs = config.getLongProperty("conductor.mysql.queue.poll.interval.min.ms", 200);
+        this.maxPollIntervalMs = Math.max(minPollIntervalMs,
+                config.getLongProperty("conductor.mysql.queue.poll.interval.max.ms", 1000));
+        // Needs MySQL 8.0.1 or later
+        this.skipLocked = config.getBooleanProperty("conductor.mysql.queue.pop.skipLocked", false);
 
         Executors.newSingleThreadScheduledExecutor()
                 .scheduleAtFixedRate(this::processAllUnacks,
@@ -41,13 +58,30 @@ public class MySQLQueueDAO extends MySQLBaseDAO implements QueueDAO {
 
     @Override
     public void push(String queueName, String messageId, int priority, long offsetTimeInSecond) {
-        withTransaction(tx -> pushMessage(tx, queueName, messageId, null, priority, offsetTimeInSecond));
+        withTransaction(tx -> {
+            createQueueIfNotExists(tx, queueName);
+            if (pushMessage(tx, queueName, messageId, null, priority, offsetTimeInSecond)) {
+                updateQueueCounts(tx, queueName, 1, 0);
+            }
+        });
+        queueNotifier.notify(queueName);
     }
 
     @Override
     public void push(String queueName, List<Message> messages) {
-        withTransaction(tx -> messages
-                .forEach(message -> pushMessage(tx, queueName, message.getId(), message.getPayload(), message.getPriority(), 0)));
+        withTransaction(tx -> {
+            createQueueIfNotExists(tx, queueName);
+            long added = 0;
+            for (Message message : messages) {
+                if (pushMessage(tx, queueName, message.getId(), message.getPayload(), message.getPriority(), 0)) {
+                    added++;
+                }
+            }
+            if (added > 0) {
+                updateQueueCounts(tx, queueName, added, 0);
+            }
+        });
+        queueNotifier.notify(queueName);
     }
 
     @Override
@@ -57,27 +91,30 @@ public class MySQLQueueDAO extends MySQLBaseDAO implements QueueDAO {
 
     @Override
     public boolean pushIfNotExists(String queueName, String messageId, int priority, long offsetTimeInSecond) {
-        return getWithTransaction(tx -> {
+        boolean pushed = getWithTransaction(tx -> {
             if (!existsMessage(tx, queueName, messageId)) {
-                pushMessage(tx, queueName, messageId, null, priority, offsetTimeInSecond);
+                createQueueIfNotExists(tx, queueName);
+                if (pushMessage(tx, queueName, messageId, null, priority, offsetTimeInSecond)) {
+                    updateQueueCounts(tx, queueName, 1, 0);
+                }
                 return true;
             }
             return false;
         });
+        if (pushed) {
+            queueNotifier.notify(queueName);
+        }
+        return pushed;
     }
 
     @Override
     public List<String> pop(String queueName, int count, int timeout) {
-        List<Message> messages = getWithTransactionWithOutErrorPropagation(tx -> popMessages(tx, queueName, count, timeout));
-        if(messages == null) return new ArrayList<>();
-        return messages.stream().map(Message::getId).collect(Collectors.toList());
+        return popMessages(queueName, count, timeout).stream().map(Message::getId).collect(Collectors.toList());
     }
 
     @Override
     public List<Message> pollMessages(String queueName, int count, int timeout) {
-        List<Message> messages = getWithTransactionWithOutErrorPropagation(tx -> popMessages(tx, queueName, count, timeout));
-        if(messages == null) return new ArrayList<>();
-        return messages;
+        return popMessages(queueName, count, timeout);
     }
 
     @Override
@@ -87,7 +124,7 @@ public class MySQLQueueDAO extends MySQLBaseDAO implements QueueDAO {
 
     @Override
     public int getSize(String queueName) {
-        final String GET_QUEUE_SIZE = "SELECT COUNT(*) FROM queue_message WHERE queue_name = ?";
+        final String GET_QUEUE_SIZE = "SELECT COALESCE(SUM(message_count), 0) FROM queue_count WHERE queue_name = ?";
         return queryWithTransaction(GET_QUEUE_SIZE, q -> ((Long) q.addParameter(queueName).executeCount()).intValue());
     }
 
@@ -102,20 +139,29 @@ public class MySQLQueueDAO extends MySQLBaseDAO implements QueueDAO {
 
         final String UPDATE_UNACK_TIMEOUT = "UPDATE queue_message SET offset_time_seconds = ?, deliver_on = TIMESTAMPADD(SECOND, ?, CURRENT_TIMESTAMP) WHERE queue_name = ? AND message_id = ?";
 
-        return queryWithTransaction(UPDATE_UNACK_TIMEOUT,
+        boolean updated = queryWithTransaction(UPDATE_UNACK_TIMEOUT,
                 q -> q.addParameter(updatedOffsetTimeInSecond).addParameter(updatedOffsetTimeInSecond)
                         .addParameter(queueName).addParameter(messageId).executeUpdate()) == 1;
+        if (updated && updatedOffsetTimeInSecond <= 0) {
+            queueNotifier.notify(queueName);
+        }
+        return updated;
     }
 
     @Override
     public void flush(String queueName) {
         final String FLUSH_QUEUE = "DELETE FROM queue_message WHERE queue_name = ?";
-        executeWithTransaction(FLUSH_QUEUE, q -> q.addParameter(queueName).executeDelete());
+        final String RESET_QUEUE_COUNTS = "DELETE FROM queue_count WHERE queue_name = ?";
+        withTransaction(tx -> {
+            execute(tx, FLUSH_QUEUE, q -> q.addParameter(queueName).executeDelete());
+            execute(tx, RESET_QUEUE_COUNTS, q -> q.addParameter(queueName).executeDelete());
+        });
     }
 
     @Override
     public Map<String, Long> queuesDetail() {
-        final String GET_QUEUES_DETAIL = "SELECT queue_name, (SELECT count(*) FROM queue_message WHERE popped = false AND queue_name = q.queue_name) AS size FROM queue q";
+        final String GET_QUEUES_DETAIL = "SELECT q.queue_name, COALESCE(SUM(c.message_count - c.popped_count), 0) AS size "
+                + "FROM queue q LEFT JOIN queue_count c ON c.queue_name = q.queue_name GROUP BY q.queue_name";
         return queryWithTransaction(GET_QUEUES_DETAIL, q -> q.executeAndFetch(rs -> {
             Map<String, Long> detail = Maps.newHashMap();
             while (rs.next()) {
@@ -129,12 +175,8 @@ public class MySQLQueueDAO extends MySQLBaseDAO implements QueueDAO {
 
     @Override
     public Map<String, Map<String, Map<String, Long>>> queuesDetailVerbose() {
-        // @formatter:off
-        final String GET_QUEUES_DETAIL_VERBOSE = "SELECT queue_name, \n"
-                + "       (SELECT count(*) FROM queue_message WHERE popped = false AND queue_name = q.queue_name) AS size,\n"
-                + "       (SELECT count(*) FROM queue_message WHERE popped = true AND queue_name = q.queue_name) AS uacked \n"
-                + "FROM queue q";
-        // @formatter:on
+        final String GET_QUEUES_DETAIL_VERBOSE = "SELECT q.queue_name, COALESCE(SUM(c.message_count - c.popped_count), 0) AS size, COALESCE(SUM(c.popped_count), 0) AS uacked "
+                + "FROM queue q LEFT JOIN queue_count c ON c.queue_name = q.queue_name GROUP BY q.queue_name";
 
         return queryWithTransaction(GET_QUEUES_DETAIL_VERBOSE, q -> q.executeAndFetch(rs -> {
             Map<String, Map<String, Map<String, Long>>> result = Maps.newHashMap();
@@ -159,15 +201,25 @@ public class MySQLQueueDAO extends MySQLBaseDAO implements QueueDAO {
 
         logger.trace("processAllUnacks started");
 
-
-        final String PROCESS_ALL_UNACKS = "UPDATE queue_message SET popped = false WHERE popped = true AND TIMESTAMPADD(SECOND,60,CURRENT_TIMESTAMP) > deliver_on";
-        executeWithTransaction(PROCESS_ALL_UNACKS, Query::executeUpdate);
+        // queue by queue, to keep the counts of the queues up to date
+        final String GET_QUEUE_NAMES = "SELECT queue_name FROM queue";
+        queryWithTransaction(GET_QUEUE_NAMES, q -> q.executeScalarList(String.class))
+                .forEach(this::processUnacks);
     }
 
     @Override
     public void processUnacks(String queueName) {
         final String PROCESS_UNACKS = "UPDATE queue_message SET popped = false WHERE queue_name = ? AND popped = true AND TIMESTAMPADD(SECOND,60,CURRENT_TIMESTAMP)  > deliver_on";
-        executeWithTransaction(PROCESS_UNACKS, q -> q.addParameter(queueName).executeUpdate());
+        int unacked = getWithTransaction(tx -> {
+            int count = query(tx, PROCESS_UNACKS, q -> q.addParameter(queueName).executeUpdate());
+            if (count > 0) {
+                updateQueueCounts(tx, queueName, 0, -count);
+            }
+            return count;
+        });
+        if (unacked > 0) {
+            queueNotifier.notify(queueName);
+        }
     }
 
     @Override
@@ -175,8 +227,12 @@ public class MySQLQueueDAO extends MySQLBaseDAO implements QueueDAO {
         final String SET_OFFSET_TIME = "UPDATE queue_message SET offset_time_seconds = ?, deliver_on = TIMESTAMPADD(SECOND,?,CURRENT_TIMESTAMP) \n"
                 + "WHERE queue_name = ? AND message_id = ?";
 
-        return queryWithTransaction(SET_OFFSET_TIME, q -> q.addParameter(offsetTimeInSecond)
+        boolean updated = queryWithTransaction(SET_OFFSET_TIME, q -> q.addParameter(offsetTimeInSecond)
                 .addParameter(offsetTimeInSecond).addParameter(queueName).addParameter(messageId).executeUpdate() == 1);
+        if (updated && offsetTimeInSecond <= 0) {
+            queueNotifier.notify(queueName);
+        }
+        return updated;
     }
 
     @Override
@@ -189,31 +245,67 @@ public class MySQLQueueDAO extends MySQLBaseDAO implements QueueDAO {
         return query(connection, EXISTS_MESSAGE, q -> q.addParameter(queueName).addParameter(messageId).exists());
     }
 
-    private void pushMessage(Connection connection, String queueName, String messageId, String payload, Integer priority,
-                             long offsetTimeInSecond) {
-
-        String PUSH_MESSAGE = "INSERT INTO queue_message (deliver_on, queue_name, message_id, priority, offset_time_seconds, payload) VALUES (TIMESTAMPADD(SECOND,?,CURRENT_TIMESTAMP), ?, ?,?,?,?) ON DUPLICATE KEY UPDATE payload=VALUES(payload), deliver_on=VALUES(deliver_on)";
+    /**
+     * Adds the message, or updates it if it is already in the queue. The counts of the queue are left to the caller,
+     * see {@link #updateQueueCounts(Connection, String, long, long)}.
+     *
+     * @return true if the message was added
+     */
+    private boolean pushMessage(Connection connection, String queueName, String messageId, String payload, Integer priority,
+                                long offsetTimeInSecond) {
 
-        createQueueIfNotExists(connection, queueName);
+        // Inserting and updating separately, as the number of rows affected by an upsert does not tell whether the
+        // message was added (which changes the count of the queue) when the update does not change anything.
+        String PUSH_MESSAGE = "INSERT IGNORE INTO queue_message (deliver_on, queue_name, message_id, priority, offset_time_seconds, payload) VALUES (TIMESTAMPADD(SECOND,?,CURRENT_TIMESTAMP), ?, ?,?,?,?)";
+        String UPDATE_MESSAGE = "UPDATE queue_message SET payload = ?, deliver_on = TIMESTAMPADD(SECOND,?,CURRENT_TIMESTAMP) WHERE queue_name = ? AND message_id = ?";
 
-        execute(connection, PUSH_MESSAGE, q -> q.addParameter(offsetTimeInSecond).addParameter(queueName)
+        int inserted = query(connection, PUSH_MESSAGE, q -> q.addParameter(offsetTimeInSecond).addParameter(queueName)
                 .addParameter(messageId).addParameter(priority).addParameter(offsetTimeInSecond)
                 .addParameter(payload).executeUpdate());
+
+        if (inserted > 0) {
+            return true;
+        }
+        execute(connection, UPDATE_MESSAGE, q -> q.addParameter(payload).addParameter(offsetTimeInSecond)
+                .addParameter(queueName).addParameter(messageId).executeUpdate());
+        return false;
     }
 
     private boolean removeMessage(Connection connection, String queueName, String messageId) {
-        final String REMOVE_MESSAGE = "DELETE FROM queue_message WHERE queue_name = ? AND message_id = ?";
-        return query(connection, REMOVE_MESSAGE,
-                q -> q.addParameter(queueName).addParameter(messageId).executeDelete());
+        final String REMOVE_POPPED_MESSAGE = "DELETE FROM queue_message WHERE queue_name = ? AND message_id = ? AND popped = true";
+        final String REMOVE_MESSAGE = "DELETE FROM queue_message WHERE queue_name = ? AND message_id = ? AND popped = false";
+
+        // most messages are removed once acknowledged
+        if (query(connection, REMOVE_POPPED_MESSAGE, q -> q.addParameter(queueName).addParameter(messageId).executeDelete())) {
+            updateQueueCounts(connection, queueName, -1, -1);
+            return true;
+        }
+        if (query(connection, REMOVE_MESSAGE, q -> q.addParameter(queueName).addParameter(messageId).executeDelete())) {
+            updateQueueCounts(connection, queueName, -1, 0);
+            return true;
+        }
+        return false;
     }
 
     private List<Message> peekMessages(Connection connection, String queueName, int count) {
+        final String PEEK_MESSAGES = "SELECT message_id, priority, payload FROM queue_message use index(combo_queue_message) WHERE queue_name = ? AND popped = false AND deliver_on <= TIMESTAMPADD(MICROSECOND, 1000, CURRENT_TIMESTAMP) ORDER BY priority DESC, deliver_on, created_on LIMIT ?";
+        return fetchMessages(connection, PEEK_MESSAGES, queueName, count);
+    }
+
+    /**
+     * Locks the messages to pop until the end of the transaction. The messages already locked by concurrent pollers
+     * are skipped rather than waited for, so concurrent pollers get disjoint messages.
+     */
+    private List<Message> lockMessages(Connection connection, String queueName, int count) {
+        final String LOCK_MESSAGES = "SELECT message_id, priority, payload FROM queue_message use index(priority_queue_message) WHERE queue_name = ? AND popped = false AND deliver_on <= TIMESTAMPADD(MICROSECOND, 1000, CURRENT_TIMESTAMP) ORDER BY priority DESC, deliver_on, created_on LIMIT ? FOR UPDATE SKIP LOCKED";
+        return fetchMessages(connection, LOCK_MESSAGES, queueName, count);
+    }
+
+    private List<Message> fetchMessages(Connection connection, String sql, String queueName, int count) {
         if (count < 1)
             return Collections.emptyList();
 
-        final String PEEK_MESSAGES = "SELECT message_id, priority, payload FROM queue_message use index(combo_queue_message) WHERE queue_name = ? AND popped = false AND deliver_on <= TIMESTAMPADD(MICROSECOND, 1000, CURRENT_TIMESTAMP) ORDER BY priority DESC, deliver_on, created_on LIMIT ?";
-
-        List<Message> messages = query(connection, PEEK_MESSAGES, p -> p.addParameter(queueName)
+        List<Message> messages = query(connection, sql, p -> p.addParameter(queueName)
                 .addParameter(count).executeAndFetch(rs -> {
                     List<Message> results = new ArrayList<>();
                     while (rs.next()) {
@@ -229,14 +321,38 @@ public class MySQLQueueDAO extends MySQLBaseDAO implements QueueDAO {
         return messages;
     }
 
-    private List<Message> popMessages(Connection connection, String queueName, int count, int timeout) {
+    /**
+     * Pops the available messages, and then waits for more until either <code>count</code> messages were popped or
+     * the timeout expires.
+     */
+    private List<Message> popMessages(String queueName, int count, int timeout) {
         long start = System.currentTimeMillis();
-        List<Message> messages = peekMessages(connection, queueName, count);
+        long pollIntervalMs = minPollIntervalMs;
+        List<Message> popped = new ArrayList<>();
+        while (true) {
+            long version = queueNotifier.getVersion(queueName);
+            List<Message> messages = getWithTransactionWithOutErrorPropagation(
+                    tx -> popMessages(tx, queueName, count - popped.size()));
+            if (messages != null) {
+                popped.addAll(messages);
+            }
 
-        while (messages.size() < count && ((System.currentTimeMillis() - start) < timeout)) {
-            Uninterruptibles.sleepUninterruptibly(200, TimeUnit.MILLISECONDS);
-            messages = peekMessages(connection, queueName, count);
+            long remainingMs = timeout - (System.currentTimeMillis() - start);
+            if (popped.size() >= count || remainingMs <= 0 || Thread.currentThread().isInterrupted()) {
+                return popped;
+            }
+            if (queueNotifier.await(queueName, version, Math.min(pollIntervalMs, remainingMs))) {
+                pollIntervalMs = minPollIntervalMs;
+            } else {
+                pollIntervalMs = Math.min(pollIntervalMs * 2, maxPollIntervalMs);
+            }
         }
+    }
+
+    private List<Message> popMessages(Connection connection, String queueName, int count) {
+        List<Message> messages = skipLocked
+                ? lockMessages(connection, queueName, count)
+                : peekMessages(connection, queueName, count);
 
         if (messages.isEmpty()) {
             return messages;
@@ -254,13 +370,31 @@ public class MySQLQueueDAO extends MySQLBaseDAO implements QueueDAO {
                     Ids, result);
             throw new ApplicationException(ApplicationException.Code.BACKEND_ERROR, message);
         }
+        updateQueueCounts(connection, queueName, 0, result);
         return messages;
     }
 
-
     private void createQueueIfNotExists(Connection connection, String queueName) {
         logger.trace("Creating new queue '{}'", queueName);
         final String CREATE_QUEUE = "INSERT IGNORE INTO queue (queue_name) VALUES (?)";
         execute(connection, CREATE_QUEUE, q -> q.addParameter(queueName).executeUpdate());
     }
+
+    /**
+     * Applies the changes of a transaction to the counts of a queue.
+     * <p>
+     * The counts are spread over {@link #COUNT_SHARDS} rows per queue, a transaction updates one of them at random so
+     * that the transactions on the same queue rarely wait for each other. The row stays locked until the end of the
+     * transaction, it is therefore updated once per transaction, with the changes of all its messages, and last.
+     *
+     * @param messageDelta the number of messages added to the queue, negative if removed
+     * @param poppedDelta  the number of messages popped, negative if removed or unacked
+     */
+    private void updateQueueCounts(Connection connection, String queueName, long messageDelta, long poppedDelta) {
+        final String UPDATE_QUEUE_COUNTS = "INSERT INTO queue_count (queue_name, shard, message_count, popped_count) VALUES (?, ?, ?, ?) "
+                + "ON DUPLICATE KEY UPDATE message_count = message_count + VALUES(message_count), popped_count = popped_count + VALUES(popped_count)";
+        int shard = ThreadLocalRandom.current().nextInt(COUNT_SHARDS);
+        execute(connection, UPDATE_QUEUE_COUNTS, q -> q.addParameter(queueName).addParameter(shard)
+                .addParameter(messageDelta).addParameter(poppedDelta).executeUpdate());
+    }
 }
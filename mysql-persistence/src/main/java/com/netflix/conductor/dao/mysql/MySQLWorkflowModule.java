@@ -3,7 +3,12 @@ package com.netflix.conductor.dao.mysql;
 import com.google.inject.AbstractModule;
 import com.google.inject.Provides;
 import com.google.inject.Singleton;
+import com.google.inject.multibindings.OptionalBinder;
+import com.google.inject.name.Names;
 import com.netflix.conductor.core.config.Configuration;
+import com.netflix.conductor.core.metadata.CachingMetadataDAO;
+import com.netflix.conductor.core.metadata.MetadataChangeNotifier;
+import com.netflix.conductor.core.utils.LockProvider;
 import com.netflix.conductor.dao.ExecutionDAO;
 import com.netflix.conductor.dao.MetadataDAO;
 import com.netflix.conductor.dao.QueueDAO;
@@ -42,9 +47,12 @@ public class MySQLWorkflowModule extends AbstractModule {
 
     @Override
     protected void configure() {
-        bind(MetadataDAO.class).to(MySQLMetadataDAO.class);
+        bind(MetadataDAO.class).annotatedWith(Names.named(CachingMetadataDAO.DELEGATE)).to(MySQLMetadataDAO.class);
+        bind(MetadataDAO.class).to(CachingMetadataDAO.class);
         bind(ExecutionDAO.class).to(MySQLExecutionDAO.class);
         bind(QueueDAO.class).to(MySQLQueueDAO.class);
+        OptionalBinder.newOptionalBinder(binder(), LockProvider.class).setBinding().to(MySQLLockProvider.class);
+        OptionalBinder.newOptionalBinder(binder(), MetadataChangeNotifier.class).setBinding().to(MySQLMetadataChangeNotifier.class);
     }
 
     private void flywayMigrate(Configuration config, DataSource dataSource) {
@@ -62,6 +70,10 @@ public class MySQLWorkflowModule extends AbstractModule {
             flyway.setTable(migrationTable);
         }
 
+        if (getBool(config.getProperty("flyway.queue.partitioning.enabled", "false"), false)) {
+            flyway.setLocations("db/migration", "db/migration_queue_partitioning");
+        }
+
         flyway.setDataSource(dataSource);
         flyway.setPlaceholderReplacement(false);
         flyway.migrate();
@@ -0,0 +1,66 @@
+package com.netflix.conductor.dao.mysql;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wakes up the pollers of a queue that wait within this node when messages become available in the queue through
+ * this node.
+ * <p>
+ * A poller reads the version of the queue before looking for messages, and then waits for the version to move on.
+ * A notification sent in between is therefore never missed.
+ */
+class QueueNotifier {
+
+    private final ConcurrentMap<String, Signal> signals = new ConcurrentHashMap<>();
+
+    long getVersion(String queueName) {
+        Signal signal = signals.computeIfAbsent(queueName, q -> new Signal());
+        synchronized (signal) {
+            return signal.version;
+        }
+    }
+
+    void notify(String queueName) {
+        Signal signal = signals.get(queueName);
+        if (signal == null) {
+            // nobody ever polled the queue on this node
+            return;
+        }
+        synchronized (signal) {
+            signal.version++;
+            signal.notifyAll();
+        }
+    }
+
+    /**
+     * Waits until the queue is notified after the given version was read, or until the timeout expires.
+     * An interrupted thread returns right away with its interrupt status set.
+     *
+     * @return true if the queue was notified
+     */
+    boolean await(String queueName, long version, long timeoutMs) {
+        Signal signal = signals.computeIfAbsent(queueName, q -> new Signal());
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        synchronized (signal) {
+            try {
+                while (signal.version == version) {
+                    long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                    if (remainingMs <= 0) {
+                        return false;
+                    }
+                    signal.wait(remainingMs);
+                }
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+
+    private static class Signal {
+        private long version;
+    }
+}
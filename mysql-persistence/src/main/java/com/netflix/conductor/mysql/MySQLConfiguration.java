@@ -22,6 +22,10 @@ public interface MySQLConfiguration extends Configuration {
     String FLYWAY_TABLE_PROPERTY_NAME = "flyway.table";
     Optional<String> FLYWAY_TABLE_DEFAULT_VALUE = Optional.empty();
 
+    // Applies the optional migration that partitions queue_message by queue
+    String FLYWAY_QUEUE_PARTITIONING_ENABLED_PROPERTY_NAME = "flyway.queue.partitioning.enabled";
+    boolean FLYWAY_QUEUE_PARTITIONING_ENABLED_DEFAULT_VALUE = false;
+
     // The defaults are currently in line with the HikariConfig defaults, which are unfortunately private.
     String CONNECTION_POOL_MAX_SIZE_PROPERTY_NAME = "conductor.mysql.connection.pool.size.max";
     int CONNECTION_POOL_MAX_SIZE_DEFAULT_VALUE = -1;
@@ -65,6 +69,10 @@ public interface MySQLConfiguration extends Configuration {
         return Optional.ofNullable(getProperty(FLYWAY_TABLE_PROPERTY_NAME, null));
     }
 
+    default boolean isFlywayQueuePartitioningEnabled() {
+        return getBoolProperty(FLYWAY_QUEUE_PARTITIONING_ENABLED_PROPERTY_NAME, FLYWAY_QUEUE_PARTITIONING_ENABLED_DEFAULT_VALUE);
+    }
+
     default int getConnectionPoolMaxSize() {
         return getIntProperty(CONNECTION_POOL_MAX_SIZE_PROPERTY_NAME, CONNECTION_POOL_MAX_SIZE_DEFAULT_VALUE);
     }
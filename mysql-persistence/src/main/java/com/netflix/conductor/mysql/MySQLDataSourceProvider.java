@@ -75,6 +75,10 @@ public class MySQLDataSourceProvider implements Provider<DataSource> {
             flyway.setTable(tableName);
         });
 
+        if (configuration.isFlywayQueuePartitioningEnabled()) {
+            flyway.setLocations("db/migration", "db/migration_queue_partitioning");
+        }
+
         flyway.setDataSource(dataSource);
         flyway.setPlaceholderReplacement(false);
         flyway.migrate();
@@ -2,11 +2,18 @@ package com.netflix.conductor.mysql;
 
 import com.google.inject.AbstractModule;
 import com.google.inject.Scopes;
+import com.google.inject.multibindings.OptionalBinder;
+import com.google.inject.name.Names;
 
+import com.netflix.conductor.core.metadata.CachingMetadataDAO;
+import com.netflix.conductor.core.metadata.MetadataChangeNotifier;
+import com.netflix.conductor.core.utils.LockProvider;
 import com.netflix.conductor.dao.ExecutionDAO;
 import com.netflix.conductor.dao.MetadataDAO;
 import com.netflix.conductor.dao.QueueDAO;
 import com.netflix.conductor.dao.mysql.MySQLExecutionDAO;
+import com.netflix.conductor.dao.mysql.MySQLLockProvider;
+import com.netflix.conductor.dao.mysql.MySQLMetadataChangeNotifier;
 import com.netflix.conductor.dao.mysql.MySQLMetadataDAO;
 import com.netflix.conductor.dao.mysql.MySQLQueueDAO;
 
@@ -21,9 +28,12 @@ public class MySQLWorkflowModule extends AbstractModule {
     protected void configure() {
         bind(MySQLConfiguration.class).to(SystemPropertiesMySQLConfiguration.class);
         bind(DataSource.class).toProvider(MySQLDataSourceProvider.class).in(Scopes.SINGLETON);
-        bind(MetadataDAO.class).to(MySQLMetadataDAO.class);
+        bind(MetadataDAO.class).annotatedWith(Names.named(CachingMetadataDAO.DELEGATE)).to(MySQLMetadataDAO.class);
+        bind(MetadataDAO.class).to(CachingMetadataDAO.class);
         bind(ExecutionDAO.class).to(MySQLExecutionDAO.class);
         bind(QueueDAO.class).to(MySQLQueueDAO.class);
+        OptionalBinder.newOptionalBinder(binder(), LockProvider.class).setBinding().to(MySQLLockProvider.class);
+        OptionalBinder.newOptionalBinder(binder(), MetadataChangeNotifier.class).setBinding().to(MySQLMetadataChangeNotifier.class);
     }
 
 }
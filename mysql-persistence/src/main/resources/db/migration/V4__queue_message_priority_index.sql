@@ -0,0 +1,3 @@
+-- Matches the order in which messages are popped, so that popping with SELECT ... FOR UPDATE SKIP LOCKED
+-- (conductor.mysql.queue.pop.skipLocked) only reads and locks the messages it returns.
+ALTER TABLE `queue_message` ADD INDEX `priority_queue_message` (`queue_name`, `popped`, `priority` DESC, `deliver_on`, `created_on`);
@@ -0,0 +1,13 @@
+-- Counts of the messages of each queue, kept up to date by the queue DAO in the transactions that change them.
+-- They are spread over several rows per queue so that the transactions pushing and popping messages of the same queue
+-- do not all wait for the lock of a single row. The counts of a queue are the sums of its rows.
+CREATE TABLE queue_count (
+  queue_name varchar(255) NOT NULL,
+  shard tinyint unsigned NOT NULL,
+  message_count bigint NOT NULL DEFAULT 0,
+  popped_count bigint NOT NULL DEFAULT 0,
+  PRIMARY KEY (queue_name, shard)
+);
+
+INSERT INTO queue_count (queue_name, shard, message_count, popped_count)
+SELECT queue_name, 0, COUNT(*), SUM(popped = true) FROM queue_message GROUP BY queue_name;
@@ -0,0 +1,12 @@
+-- Version of every definition that changed, bumped on each change so that the servers can drop it from their
+-- metadata caches.
+CREATE TABLE meta_version (
+  id int(11) unsigned NOT NULL AUTO_INCREMENT,
+  modified_on TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+  kind varchar(32) NOT NULL,
+  name varchar(255) NOT NULL,
+  version bigint NOT NULL DEFAULT 1,
+  PRIMARY KEY (id),
+  UNIQUE KEY unique_meta_version_kind_name (kind,name),
+  KEY meta_version_modified_on_index (modified_on)
+);
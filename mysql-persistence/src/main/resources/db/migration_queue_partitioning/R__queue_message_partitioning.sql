@@ -0,0 +1,6 @@
+-- Optional, applied when flyway.queue.partitioning.enabled is true.
+-- Repeatable rather than versioned, so that it is applied after the versioned migrations whenever it is enabled.
+-- It is applied again if it changes, it must therefore not be edited once released.
+-- Spreads the messages over partitions by queue, every unique key of a partitioned table has to include queue_name.
+ALTER TABLE `queue_message` DROP PRIMARY KEY, ADD PRIMARY KEY (`id`, `queue_name`);
+ALTER TABLE `queue_message` PARTITION BY KEY(`queue_name`) PARTITIONS 16;
@@ -0,0 +1,60 @@
+package com.netflix.conductor.dao.mysql;
+
+import com.netflix.conductor.core.metadata.MetadataChangeNotifier.Kind;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestName;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(JUnit4.class)
+public class MySQLMetadataChangeNotifierTest {
+
+    private MySQLDAOTestUtil testUtil;
+    private MySQLMetadataChangeNotifier notifier;
+    private final List<String> changes = new CopyOnWriteArrayList<>();
+
+    @Rule
+    public TestName name = new TestName();
+
+    @Before
+    public void setup() throws Exception {
+        testUtil = new MySQLDAOTestUtil(name.getMethodName());
+        notifier = new MySQLMetadataChangeNotifier(testUtil.getObjectMapper(), testUtil.getDataSource(), testUtil.getTestConfiguration());
+        notifier.addListener((kind, name) -> changes.add(kind + ":" + name));
+        notifier.poll();
+    }
+
+    @After
+    public void teardown() throws Exception {
+        testUtil.resetAllData();
+        testUtil.getDataSource().close();
+    }
+
+    @Test
+    public void testChangesAreReportedOnce() {
+        notifier.publish(Kind.TASK_DEF, "task1");
+        notifier.publish(Kind.WORKFLOW_DEF, "workflow1");
+        notifier.poll();
+        assertTrue(changes.contains("TASK_DEF:task1"));
+        assertTrue(changes.contains("WORKFLOW_DEF:workflow1"));
+        assertEquals(2, changes.size());
+
+        // the overlapping read does not report them again
+        notifier.poll();
+        assertEquals(2, changes.size());
+
+        notifier.publish(Kind.TASK_DEF, "task1");
+        notifier.poll();
+        assertEquals(3, changes.size());
+        assertEquals("TASK_DEF:task1", changes.get(2));
+    }
+}
@@ -14,8 +14,13 @@ import org.slf4j.LoggerFactory;
 import java.sql.Connection;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import static org.junit.Assert.assertEquals;
@@ -41,7 +46,7 @@ public class MySQLQueueDAOTest {
 	@Before
 	public void setup() throws Exception {
         testUtil = new MySQLDAOTestUtil(name.getMethodName());
-		dao = new MySQLQueueDAO(testUtil.getObjectMapper(), testUtil.getDataSource());
+		dao = new MySQLQueueDAO(testUtil.getObjectMapper(), testUtil.getDataSource(), testUtil.getTestConfiguration());
 	}
 
 	@After
@@ -50,6 +55,23 @@ public class MySQLQueueDAOTest {
         testUtil.getDataSource().close();
     }
 
+	@Test
+	public void pushWakesUpPoller() throws Exception {
+		String queueName = "TestQueue";
+		ExecutorService executorService = Executors.newSingleThreadExecutor();
+		try {
+			long start = System.currentTimeMillis();
+			Future<List<String>> popped = executorService.submit(() -> dao.pop(queueName, 1, 10_000));
+			Thread.sleep(500);
+			dao.push(queueName, "msg", 0);
+
+			assertEquals(Collections.singletonList("msg"), popped.get(10, TimeUnit.SECONDS));
+			assertTrue(System.currentTimeMillis() - start < 5_000);
+		} finally {
+			executorService.shutdownNow();
+		}
+	}
+
 	@Test
 	public void complexQueueTest() {
 		String queueName = "TestQueue";
@@ -119,6 +141,39 @@ public class MySQLQueueDAOTest {
 		assertEquals(0, size);
 	}
 
+	@Test
+	public void queueCountsTest() {
+		String queueName = "TestQueue";
+		dao.push(queueName, "msg1", 0);
+		dao.push(queueName, "msg2", 0);
+		// pushing a message again does not add it twice
+		dao.push(queueName, "msg1", 0);
+		assertEquals(2, dao.getSize(queueName));
+
+		assertEquals(1, dao.pop(queueName, 1, 100).size());
+		Map<String, Long> shard = dao.queuesDetailVerbose().get(queueName).get("a");
+		assertEquals(1L, shard.get("size").longValue());
+		assertEquals(1L, shard.get("uacked").longValue());
+
+		dao.processUnacks(queueName);
+		shard = dao.queuesDetailVerbose().get(queueName).get("a");
+		assertEquals(2L, shard.get("size").longValue());
+		assertEquals(0L, shard.get("uacked").longValue());
+
+		dao.remove(queueName, "msg1");
+		dao.remove(queueName, "msg1");
+		assertEquals(1, dao.getSize(queueName));
+		assertEquals(1L, dao.queuesDetail().get(queueName).longValue());
+
+		// a batch counts the messages it added only
+		List<Message> messages = new ArrayList<>();
+		messages.add(new Message("msg2", "payload", null));
+		messages.add(new Message("msg3", "payload", null));
+		messages.add(new Message("msg4", "payload", null));
+		dao.push(queueName, messages);
+		assertEquals(3, dao.getSize(queueName));
+	}
+
 	/**
 	 * Test fix for https://github.com/Netflix/conductor/issues/399
 	 * @since 1.8.2-rc5
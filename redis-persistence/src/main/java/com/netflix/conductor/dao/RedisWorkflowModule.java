@@ -13,7 +13,14 @@
 package com.netflix.conductor.dao;
 
 import com.google.inject.AbstractModule;
+import com.google.inject.multibindings.OptionalBinder;
+import com.google.inject.name.Names;
+import com.netflix.conductor.core.metadata.CachingMetadataDAO;
+import com.netflix.conductor.core.metadata.MetadataChangeNotifier;
+import com.netflix.conductor.core.utils.LockProvider;
 import com.netflix.conductor.dao.dynomite.RedisExecutionDAO;
+import com.netflix.conductor.dao.dynomite.RedisLockProvider;
+import com.netflix.conductor.dao.dynomite.RedisMetadataChangeNotifier;
 import com.netflix.conductor.dao.dynomite.RedisMetadataDAO;
 import com.netflix.conductor.dao.dynomite.queue.DynoQueueDAO;
 import com.netflix.conductor.dyno.DynoProxy;
@@ -26,9 +33,12 @@ public class RedisWorkflowModule extends AbstractModule {
 
     @Override
     protected void configure() {
-        bind(MetadataDAO.class).to(RedisMetadataDAO.class);
+        bind(MetadataDAO.class).annotatedWith(Names.named(CachingMetadataDAO.DELEGATE)).to(RedisMetadataDAO.class);
+        bind(MetadataDAO.class).to(CachingMetadataDAO.class);
         bind(ExecutionDAO.class).to(RedisExecutionDAO.class);
         bind(QueueDAO.class).to(DynoQueueDAO.class);
+        OptionalBinder.newOptionalBinder(binder(), LockProvider.class).setBinding().to(RedisLockProvider.class);
+        OptionalBinder.newOptionalBinder(binder(), MetadataChangeNotifier.class).setBinding().to(RedisMetadataChangeNotifier.class);
 
         bind(RedisQueues.class).toProvider(RedisQueuesProvider.class).asEagerSingleton();
         bind(DynoProxy.class).asEagerSingleton();
@@ -18,6 +18,8 @@ package com.netflix.conductor.dao.dynomite;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Striped;
 import com.google.inject.Singleton;
 import com.netflix.conductor.annotations.Trace;
 import com.netflix.conductor.common.metadata.events.EventExecution;
@@ -29,18 +31,24 @@ import com.netflix.conductor.common.run.Workflow;
 import com.netflix.conductor.core.config.Configuration;
 import com.netflix.conductor.core.execution.ApplicationException;
 import com.netflix.conductor.core.execution.ApplicationException.Code;
+import com.netflix.conductor.core.execution.LazyTask;
+import com.netflix.conductor.core.utils.IDGenerator;
 import com.netflix.conductor.dao.ExecutionDAO;
 import com.netflix.conductor.dyno.DynoProxy;
+import com.netflix.conductor.dyno.RedisBatch;
+import com.netflix.conductor.dyno.RedisScript;
 import com.netflix.conductor.metrics.Monitors;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.inject.Inject;
+import java.io.IOException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
-import java.util.Comparator;
+import java.util.Collections;
 import java.util.Date;
 import java.util.GregorianCalendar;
 import java.util.LinkedList;
@@ -49,6 +57,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.locks.Lock;
 import java.util.stream.Collectors;
 
 @Singleton
@@ -74,9 +83,61 @@ public class RedisExecutionDAO extends BaseDynoDAO implements ExecutionDAO {
 
 	private final static String EVENT_EXECUTION = "EVENT_EXECUTION";
 
+	// Replies of the limit scripts: {outcome, current count}
+	private static final long WITHIN_LIMIT = 0;
+	private static final long LIMITED = 1;
+	private static final long LIMITED_IN_PROGRESS = 2;
+
+	/**
+	 * KEYS: rate limit bucket. ARGV: now, start of the window, limit, member to add, expiry of the bucket in seconds.
+	 */
+	private static final RedisScript RATE_LIMIT_SCRIPT = new RedisScript("exceedsRateLimitPerFrequency", String.join("\n",
+			"redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', ARGV[2])",
+			"local count = redis.call('ZCOUNT', KEYS[1], ARGV[2], ARGV[1])",
+			"if count >= tonumber(ARGV[3]) then",
+			"  return {1, count}",
+			"end",
+			"redis.call('ZADD', KEYS[1], ARGV[1], ARGV[4])",
+			"redis.call('EXPIRE', KEYS[1], ARGV[5])",
+			"return {0, count + 1}"));
+
+	/**
+	 * KEYS: concurrency limit bucket, in progress tasks of the task definition. ARGV: task id, now, limit.
+	 */
+	private static final RedisScript IN_PROGRESS_LIMIT_SCRIPT = new RedisScript("exceedsInProgressLimit", String.join("\n",
+			"local limit = tonumber(ARGV[3])",
+			"local current = redis.call('SCARD', KEYS[2])",
+			"if current >= limit then",
+			"  return {2, current}",
+			"end",
+			"redis.call('ZADD', KEYS[1], 'NX', ARGV[2], ARGV[1])",
+			"local ids = redis.call('ZRANGEBYSCORE', KEYS[1], 0, tonumber(ARGV[2]) + 1, 'LIMIT', 0, limit)",
+			"for _, id in ipairs(ids) do",
+			"  if id == ARGV[1] then",
+			"    return {0, current}",
+			"  end",
+			"end",
+			"for _, id in ipairs(ids) do",
+			"  if redis.call('SISMEMBER', KEYS[2], id) == 0 then",
+			"    redis.call('ZREM', KEYS[1], id)",
+			"  end",
+			"end",
+			"return {1, current}"));
+
+	/**
+	 * Serializes the limit checks within this node when they cannot run as scripts
+	 */
+	private final Striped<Lock> localLocks = Striped.lazyWeakLock(64);
+
+	/**
+	 * Tasks read per round trip when reading task headers, bounds the task JSON held at once
+	 */
+	private final int taskHeaderBatchSize;
+
 	@Inject
 	public RedisExecutionDAO(DynoProxy dynoClient, ObjectMapper objectMapper, Configuration config) {
 		super(dynoClient, objectMapper, config);
+		this.taskHeaderBatchSize = config.getIntProperty("workflow.execution.task.header.batch.size", 100);
 	}
 
 	@Override
@@ -122,14 +183,24 @@ public class RedisExecutionDAO extends BaseDynoDAO implements ExecutionDAO {
 
 		List<Task> tasksCreated = new LinkedList<>();
 
+		// Mark all the tasks as scheduled in one round trip first, a task that is already scheduled is skipped
+		RedisBatch scheduleBatch = new RedisBatch();
 		for (Task task : tasks) {
 		    validate(task);
 
 			recordRedisDaoRequests("createTask", task.getTaskType(), task.getWorkflowType());
 
 			String taskKey = task.getReferenceTaskName() + "" + task.getRetryCount();
-			Long added = dynoClient.hset(nsKey(SCHEDULED_TASKS, task.getWorkflowInstanceId()), taskKey, task.getTaskId());
+			scheduleBatch.hset(nsKey(SCHEDULED_TASKS, task.getWorkflowInstanceId()), taskKey, task.getTaskId());
+		}
+		List<Object> scheduled = dynoClient.execute("createTasks", scheduleBatch);
+
+		RedisBatch batch = new RedisBatch();
+		int index = 0;
+		for (Task task : tasks) {
+			Long added = (Long) scheduled.get(index++);
 			if (added < 1) {
+				String taskKey = task.getReferenceTaskName() + "" + task.getRetryCount();
 				logger.debug("Task already scheduled, skipping the run " + task.getTaskId() + ", ref=" + task.getReferenceTaskName() + ", key=" + taskKey);
 				continue;
 			}
@@ -138,18 +209,16 @@ public class RedisExecutionDAO extends BaseDynoDAO implements ExecutionDAO {
 				task.setScheduledTime(System.currentTimeMillis());
 			}
 
-			correlateTaskToWorkflowInDS(task.getTaskId(), task.getWorkflowInstanceId());
-			logger.debug("Scheduled task added to WORKFLOW_TO_TASKS workflowId: {}, taskId: {}, taskType: {} during createTasks",
-                    task.getWorkflowInstanceId(), task.getTaskId(), task.getTaskType());
-
 			String inProgressTaskKey = nsKey(IN_PROGRESS_TASKS, task.getTaskDefName());
-			dynoClient.sadd(inProgressTaskKey, task.getTaskId());
+			batch.sadd(inProgressTaskKey, task.getTaskId());
 			logger.debug("Scheduled task added to IN_PROGRESS_TASKS with inProgressTaskKey: {}, workflowId: {}, taskId: {}, taskType: {} during createTasks",
                     inProgressTaskKey, task.getWorkflowInstanceId(), task.getTaskId(), task.getTaskType());
 
-			updateTask(task);
+			// also maps the task to its workflow
+			addTaskUpdate(batch, task);
 			tasksCreated.add(task);
 		}
+		dynoClient.execute("createTasks", batch);
 
 		return tasksCreated;
 
@@ -157,20 +226,33 @@ public class RedisExecutionDAO extends BaseDynoDAO implements ExecutionDAO {
 
 	@Override
 	public void updateTask(Task task) {
+		RedisBatch batch = new RedisBatch();
+		addTaskUpdate(batch, task);
+		dynoClient.execute("updateTask", batch);
+	}
+
+	@Override
+	public void updateTasks(List<Task> tasks) {
+		RedisBatch batch = new RedisBatch();
+		tasks.forEach(task -> addTaskUpdate(batch, task));
+		dynoClient.execute("updateTasks", batch);
+	}
+
+	private void addTaskUpdate(RedisBatch batch, Task task) {
 		Optional<TaskDef> taskDefinition = task.getTaskDefinition();
 
 		if(taskDefinition.isPresent() && taskDefinition.get().concurrencyLimit() > 0) {
 
 			if(task.getStatus() != null && task.getStatus().equals(Status.IN_PROGRESS)) {
-				dynoClient.sadd(nsKey(TASKS_IN_PROGRESS_STATUS, task.getTaskDefName()), task.getTaskId());
+				batch.sadd(nsKey(TASKS_IN_PROGRESS_STATUS, task.getTaskDefName()), task.getTaskId());
 				logger.debug("Workflow Task added to TASKS_IN_PROGRESS_STATUS with tasksInProgressKey: {}, workflowId: {}, taskId: {}, taskType: {}, taskStatus: {} during updateTask",
 						nsKey(TASKS_IN_PROGRESS_STATUS, task.getTaskDefName(), task.getTaskId()), task.getWorkflowInstanceId(), task.getTaskId(), task.getTaskType(), task.getStatus().name());
 			}else {
-				dynoClient.srem(nsKey(TASKS_IN_PROGRESS_STATUS, task.getTaskDefName()), task.getTaskId());
+				batch.srem(nsKey(TASKS_IN_PROGRESS_STATUS, task.getTaskDefName()), task.getTaskId());
 				logger.debug("Workflow Task removed from TASKS_IN_PROGRESS_STATUS with tasksInProgressKey: {}, workflowId: {}, taskId: {}, taskType: {}, taskStatus: {} during updateTask",
 						nsKey(TASKS_IN_PROGRESS_STATUS, task.getTaskDefName(), task.getTaskId()), task.getWorkflowInstanceId(), task.getTaskId(), task.getTaskType(), task.getStatus().name());
 				String key = nsKey(TASK_LIMIT_BUCKET, task.getTaskDefName());
-				dynoClient.zrem(key, task.getTaskId());
+				batch.zrem(key, task.getTaskId());
 				logger.debug("Workflow Task removed from TASK_LIMIT_BUCKET with taskLimitBucketKey: {}, workflowId: {}, taskId: {}, taskType: {}, taskStatus: {} during updateTask",
 						key, task.getWorkflowInstanceId(), task.getTaskId(), task.getTaskType(), task.getStatus().name());
 			}
@@ -182,19 +264,20 @@ public class RedisExecutionDAO extends BaseDynoDAO implements ExecutionDAO {
 				.orElse("n/a"), task.getWorkflowType());
 
 		recordRedisDaoRequests("updateTask", task.getTaskType(), task.getWorkflowType());
-		dynoClient.set(nsKey(TASK, task.getTaskId()), payload);
+		batch.set(nsKey(TASK, task.getTaskId()), payload);
 		logger.debug("Workflow task payload saved to TASK with taskKey: {}, workflowId: {}, taskId: {}, taskType: {} during updateTask",
 				nsKey(TASK, task.getTaskId()), task.getWorkflowInstanceId(), task.getTaskId(), task.getTaskType());
 		if (task.getStatus() != null && task.getStatus().isTerminal()) {
-			dynoClient.srem(nsKey(IN_PROGRESS_TASKS, task.getTaskDefName()), task.getTaskId());
+			batch.srem(nsKey(IN_PROGRESS_TASKS, task.getTaskDefName()), task.getTaskId());
 			logger.debug("Workflow Task removed from TASKS_IN_PROGRESS_STATUS with tasksInProgressKey: {}, workflowId: {}, taskId: {}, taskType: {}, taskStatus: {} during updateTask",
 					nsKey(IN_PROGRESS_TASKS, task.getTaskDefName()), task.getWorkflowInstanceId(), task.getTaskId(), task.getTaskType(), task.getStatus().name());
 		}
 
-        Set<String> taskIds = dynoClient.smembers(nsKey(WORKFLOW_TO_TASKS, task.getWorkflowInstanceId()));
-		if (!taskIds.contains(task.getTaskId())) {
-		    correlateTaskToWorkflowInDS(task.getTaskId(), task.getWorkflowInstanceId());
-        }
+		// SADD is idempotent, adding the mapping again is cheaper than reading the members of the set to check it
+		String workflowToTaskKey = nsKey(WORKFLOW_TO_TASKS, task.getWorkflowInstanceId());
+		batch.sadd(workflowToTaskKey, task.getTaskId());
+		logger.debug("Task mapped in WORKFLOW_TO_TASKS with workflowToTaskKey: {}, workflowId: {}, taskId: {}",
+				workflowToTaskKey, task.getWorkflowInstanceId(), task.getTaskId());
 	}
 
 	/**
@@ -203,12 +286,14 @@ public class RedisExecutionDAO extends BaseDynoDAO implements ExecutionDAO {
 	 *
 	 * The rate limiting is implemented using the Redis constructs of sorted set and TTL of each element in the rate limited bucket.
 	 * <ul>
-	 *     <li>All the entries that are in the not in the frequency bucket are cleaned up by leveraging {@link DynoProxy#zremrangeByScore(String, String, String)},
+	 *     <li>All the entries that are in the not in the frequency bucket are cleaned up by leveraging ZREMRANGEBYSCORE,
 	 *     this is done to make the next step of evaluation efficient</li>
 	 *     <li>A current count(tasks executed within the frequency) is calculated based on the current time and the beginning of the rate limit frequency time(which is current time - {@link Task#getRateLimitFrequencyInSeconds()} in millis),
-	 *     this is achieved by using {@link DynoProxy#zcount(String, double, double)} </li>
+	 *     this is achieved by using ZCOUNT</li>
 	 *     <li>Once the count is calculated then a evaluation is made to determine if it is within the bounds of {@link Task#getRateLimitPerFrequency()}, if so the count is increased and an expiry TTL is added to the entry</li>
 	 * </ul>
+	 * The steps run as one Lua script when the client supports it (see {@link DynoProxy#canEval(List)}), otherwise as
+	 * separate commands that are only serialized within this node.
 	 *
 	 * @param task: which needs to be evaluated whether it is rateLimited or not
 	 * @return true: If the {@link Task} is rateLimited
@@ -228,16 +313,36 @@ public class RedisExecutionDAO extends BaseDynoDAO implements ExecutionDAO {
 			long currentTimeEpochMillis = System.currentTimeMillis();
 			long currentTimeEpochMinusRateLimitBucket = currentTimeEpochMillis - (rateLimitFrequencyInSeconds * 1000);
 			String key = nsKey(TASK_RATE_LIMIT_BUCKET, task.getTaskDefName());
-			dynoClient.zremrangeByScore(key, "-inf", String.valueOf(currentTimeEpochMinusRateLimitBucket));
-			int currentBucketCount = Math.toIntExact(
-					dynoClient.zcount(key,
-							currentTimeEpochMinusRateLimitBucket,
-							currentTimeEpochMillis));
-			if (currentBucketCount < rateLimitPerFrequency) {
-				dynoClient.zadd(key, currentTimeEpochMillis, String.valueOf(currentTimeEpochMillis));
-				dynoClient.expire(key, rateLimitFrequencyInSeconds);
+			// unique, several tasks can be let through within the same millisecond
+			String member = currentTimeEpochMillis + ":" + IDGenerator.generate();
+
+			List<Long> result;
+			List<String> keys = Collections.singletonList(key);
+			if (dynoClient.canEval(keys)) {
+				result = evalForLongs(RATE_LIMIT_SCRIPT, keys, currentTimeEpochMillis, currentTimeEpochMinusRateLimitBucket,
+						rateLimitPerFrequency, member, rateLimitFrequencyInSeconds);
+			} else {
+				Lock lock = localLocks.get(key);
+				lock.lock();
+				try {
+					dynoClient.zremrangeByScore(key, "-inf", String.valueOf(currentTimeEpochMinusRateLimitBucket));
+					long count = dynoClient.zcount(key, currentTimeEpochMinusRateLimitBucket, currentTimeEpochMillis);
+					if (count < rateLimitPerFrequency) {
+						dynoClient.zadd(key, currentTimeEpochMillis, member);
+						dynoClient.expire(key, rateLimitFrequencyInSeconds);
+						result = Arrays.asList(WITHIN_LIMIT, count + 1);
+					} else {
+						result = Arrays.asList(LIMITED, count);
+					}
+				} finally {
+					lock.unlock();
+				}
+			}
+
+			long currentBucketCount = result.get(1);
+			if (result.get(0) == WITHIN_LIMIT) {
 				logger.info("Task: {} with rateLimitPerFrequency: {} and rateLimitFrequencyInSeconds: {} within the rate limit with current count {}",
-						task, rateLimitPerFrequency, rateLimitFrequencyInSeconds, ++currentBucketCount);
+						task, rateLimitPerFrequency, rateLimitFrequencyInSeconds, currentBucketCount);
 				Monitors.recordTaskRateLimited(task.getTaskDefName(), rateLimitPerFrequency);
 				return false;
 			} else {
@@ -260,31 +365,66 @@ public class RedisExecutionDAO extends BaseDynoDAO implements ExecutionDAO {
 			return false;
 		}
 
-		long current = getInProgressTaskCount(task.getTaskDefName());
-		if(current >= limit) {
-			logger.info("Task execution count limited. task - {}:{}, limit: {}, current: {}", task.getTaskId(), task.getTaskDefName(), limit, current);
-			Monitors.recordTaskConcurrentExecutionLimited(task.getTaskDefName(), limit);
-			return true;
-		}
-
 		String rateLimitKey = nsKey(TASK_LIMIT_BUCKET, task.getTaskDefName());
-		double score = System.currentTimeMillis();
+		String inProgressKey = nsKey(TASKS_IN_PROGRESS_STATUS, task.getTaskDefName());
+		long score = System.currentTimeMillis();
 		String taskId = task.getTaskId();
-		dynoClient.zaddnx(rateLimitKey, score, taskId);
 		recordRedisDaoRequests("checkTaskRateLimiting", task.getTaskType(), task.getWorkflowType());
 
-		Set<String> ids = dynoClient.zrangeByScore(rateLimitKey, 0, score + 1, limit);
-		boolean rateLimited = !ids.contains(taskId);
-		if(rateLimited) {
-			logger.info("Task execution count limited. task - {}:{}, limit: {}, current: {}", task.getTaskId(), task.getTaskDefName(), limit, current);
-			String inProgressKey = nsKey(TASKS_IN_PROGRESS_STATUS, task.getTaskDefName());
-			//Cleanup any items that are still present in the rate limit bucket but not in progress anymore!
-			ids.stream()
-					.filter(id -> !dynoClient.sismember(inProgressKey, id))
-					.forEach(id2 -> dynoClient.zrem(rateLimitKey, id2));
+		List<Long> result;
+		List<String> keys = Arrays.asList(rateLimitKey, inProgressKey);
+		if (dynoClient.canEval(keys)) {
+			result = evalForLongs(IN_PROGRESS_LIMIT_SCRIPT, keys, taskId, score, limit);
+		} else {
+			Lock lock = localLocks.get(rateLimitKey);
+			lock.lock();
+			try {
+				result = checkInProgressLimit(rateLimitKey, inProgressKey, taskId, score, limit);
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		long current = result.get(1);
+		if (result.get(0) == WITHIN_LIMIT) {
+			return false;
+		}
+		logger.info("Task execution count limited. task - {}:{}, limit: {}, current: {}", task.getTaskId(), task.getTaskDefName(), limit, current);
+		if (result.get(0) == LIMITED_IN_PROGRESS) {
+			Monitors.recordTaskConcurrentExecutionLimited(task.getTaskDefName(), limit);
+		} else {
 			Monitors.recordTaskRateLimited(task.getTaskDefName(), limit);
 		}
-		return rateLimited;
+		return true;
+	}
+
+	/**
+	 * The steps of {@link #IN_PROGRESS_LIMIT_SCRIPT} as separate commands, for clients that cannot run it.
+	 */
+	private List<Long> checkInProgressLimit(String rateLimitKey, String inProgressKey, String taskId, long score, int limit) {
+		long current = dynoClient.scard(inProgressKey);
+		if (current >= limit) {
+			return Arrays.asList(LIMITED_IN_PROGRESS, current);
+		}
+
+		dynoClient.zaddnx(rateLimitKey, score, taskId);
+		Set<String> ids = dynoClient.zrangeByScore(rateLimitKey, 0, score + 1, limit);
+		if (ids.contains(taskId)) {
+			return Arrays.asList(WITHIN_LIMIT, current);
+		}
+		//Cleanup any items that are still present in the rate limit bucket but not in progress anymore!
+		ids.stream()
+				.filter(id -> !dynoClient.sismember(inProgressKey, id))
+				.forEach(id2 -> dynoClient.zrem(rateLimitKey, id2));
+		return Arrays.asList(LIMITED, current);
+	}
+
+	@SuppressWarnings("unchecked")
+	private List<Long> evalForLongs(RedisScript script, List<String> keys, Object... args) {
+		List<String> argList = Arrays.stream(args)
+				.map(String::valueOf)
+				.collect(Collectors.toList());
+		return (List<Long>) dynoClient.eval(script, keys, argList);
 	}
 
 	@Override
@@ -296,12 +436,14 @@ public class RedisExecutionDAO extends BaseDynoDAO implements ExecutionDAO {
 		}
 		String taskKey = task.getReferenceTaskName() + "" + task.getRetryCount();
 
-		dynoClient.hdel(nsKey(SCHEDULED_TASKS, task.getWorkflowInstanceId()), taskKey);
-		dynoClient.srem(nsKey(IN_PROGRESS_TASKS, task.getTaskDefName()), task.getTaskId());
-		dynoClient.srem(nsKey(WORKFLOW_TO_TASKS, task.getWorkflowInstanceId()), task.getTaskId());
-		dynoClient.srem(nsKey(TASKS_IN_PROGRESS_STATUS, task.getTaskDefName()), task.getTaskId());
-		dynoClient.del(nsKey(TASK, task.getTaskId()));
-		dynoClient.zrem(nsKey(TASK_LIMIT_BUCKET, task.getTaskDefName()), task.getTaskId());
+		RedisBatch batch = new RedisBatch()
+				.hdel(nsKey(SCHEDULED_TASKS, task.getWorkflowInstanceId()), taskKey)
+				.srem(nsKey(IN_PROGRESS_TASKS, task.getTaskDefName()), task.getTaskId())
+				.srem(nsKey(WORKFLOW_TO_TASKS, task.getWorkflowInstanceId()), task.getTaskId())
+				.srem(nsKey(TASKS_IN_PROGRESS_STATUS, task.getTaskDefName()), task.getTaskId())
+				.del(nsKey(TASK, task.getTaskId()))
+				.zrem(nsKey(TASK_LIMIT_BUCKET, task.getTaskDefName()), task.getTaskId());
+		dynoClient.execute("removeTask", batch);
 		recordRedisDaoRequests("removeTask", task.getTaskType(), task.getWorkflowType());
 		return true;
 	}
@@ -321,9 +463,10 @@ public class RedisExecutionDAO extends BaseDynoDAO implements ExecutionDAO {
 
 	@Override
 	public List<Task> getTasks(List<String> taskIds) {
-		return taskIds.stream()
+		List<String> keys = taskIds.stream()
 				.map(taskId -> nsKey(TASK, taskId))
-				.map(dynoClient::get)
+				.collect(Collectors.toList());
+		return dynoClient.mget("getTasks", keys).stream()
 				.filter(Objects::nonNull)
 				.map(jsonString -> {
 					Task task = readValue(jsonString, Task.class);
@@ -342,6 +485,36 @@ public class RedisExecutionDAO extends BaseDynoDAO implements ExecutionDAO {
 		return getTasks(new ArrayList<>(taskIds));
 	}
 
+	@Override
+	public List<Task> getTaskHeadersForWorkflow(String workflowId) {
+		Preconditions.checkNotNull(workflowId, "workflowId cannot be null");
+		List<String> keys = dynoClient.smembers(nsKey(WORKFLOW_TO_TASKS, workflowId)).stream()
+				.map(taskId -> nsKey(TASK, taskId))
+				.collect(Collectors.toList());
+		recordRedisDaoRequests("getTaskHeadersForWorkflow");
+		List<Task> tasks = new ArrayList<>(keys.size());
+		for (List<String> batch : Lists.partition(keys, taskHeaderBatchSize)) {
+			for (String jsonString : dynoClient.mget("getTaskHeaders", batch)) {
+				if (jsonString == null) {
+					continue;
+				}
+				Task task = readTask(jsonString);
+				recordRedisDaoRequests("getTask", task.getTaskType(), task.getWorkflowType());
+				recordRedisDaoPayloadSize("getTask", jsonString.length(), task.getTaskType(), task.getWorkflowType());
+				tasks.add(task);
+			}
+		}
+		return tasks;
+	}
+
+	private Task readTask(String json) {
+		try {
+			return LazyTask.readTask(objectMapper, json, this::getTask);
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
 	@Override
 	public List<Task> getPendingTasksForTaskType(String taskName) {
 		Preconditions.checkNotNull(taskName, "task name cannot be null");
@@ -355,6 +528,33 @@ public class RedisExecutionDAO extends BaseDynoDAO implements ExecutionDAO {
 		return insertOrUpdateWorkflow(workflow, false);
 	}
 
+	@Override
+	public void createWorkflows(List<Workflow> workflows) {
+		RedisBatch batch = new RedisBatch();
+		for (Workflow workflow : workflows) {
+			Preconditions.checkNotNull(workflow, "workflow object cannot be null");
+			List<Task> tasks = workflow.getTasks();
+			workflow.setTasks(new LinkedList<>());
+
+			String payload = toJson(workflow);
+			batch.set(nsKey(WORKFLOW, workflow.getWorkflowId()), payload);
+			batch.sadd(nsKey(WORKFLOW_DEF_TO_WORKFLOWS, workflow.getWorkflowName(), dateStr(workflow.getCreateTime())), workflow.getWorkflowId());
+			if (workflow.getCorrelationId() != null) {
+				batch.sadd(nsKey(CORR_ID_TO_WORKFLOWS, workflow.getCorrelationId()), workflow.getWorkflowId());
+			}
+			if (workflow.getStatus().isTerminal()) {
+				batch.srem(nsKey(PENDING_WORKFLOWS, workflow.getWorkflowName()), workflow.getWorkflowId());
+			} else {
+				batch.sadd(nsKey(PENDING_WORKFLOWS, workflow.getWorkflowName()), workflow.getWorkflowId());
+			}
+			recordRedisDaoRequests("storeWorkflow", "n/a", workflow.getWorkflowName());
+			recordRedisDaoPayloadSize("storeWorkflow", payload.length(), "n/a", workflow.getWorkflowName());
+
+			workflow.setTasks(tasks);
+		}
+		dynoClient.execute("createWorkflows", batch);
+	}
+
 	@Override
 	public String updateWorkflow(Workflow workflow) {
 		return insertOrUpdateWorkflow(workflow, true);
@@ -405,7 +605,7 @@ public class RedisExecutionDAO extends BaseDynoDAO implements ExecutionDAO {
 			recordRedisDaoPayloadSize("getWorkflow", json.length(),"n/a", workflow.getWorkflowName());
 			if (includeTasks) {
 				List<Task> tasks = getTasksForWorkflow(workflowId);
-				tasks.sort(Comparator.comparingLong(Task::getScheduledTime).thenComparingInt(Task::getSeq));
+				tasks.sort(getTaskOrder());
 				workflow.setTasks(tasks);
 			}
 		}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2019 Netflix, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.conductor.dao.dynomite;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.netflix.conductor.core.config.Configuration;
+import com.netflix.conductor.core.utils.IDGenerator;
+import com.netflix.conductor.core.utils.LockException;
+import com.netflix.conductor.core.utils.LockProvider;
+import com.netflix.conductor.dyno.DynoProxy;
+import com.netflix.conductor.dyno.RedisScript;
+import com.netflix.conductor.metrics.Monitors;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link LockProvider} backed by redis keys set with <code>SET key token NX PX lease</code>.
+ * <p>
+ * The lease (<code>workflow.execution.lock.lease.ms</code>) bounds how long a lock outlives a node that died
+ * while holding it, it must be longer than the longest decide. The lock is released only if the key still holds the
+ * token of the holder, atomically with a script when the client runs Lua scripts (see {@link DynoProxy#canEval(List)}).
+ */
+@Singleton
+public class RedisLockProvider extends BaseDynoDAO implements LockProvider {
+
+    private static final String LOCK_TYPE = "redis";
+    private static final String WORKFLOW_LOCK = "WORKFLOW_LOCK";
+
+    /**
+     * KEYS: lock key. ARGV: token of the holder.
+     */
+    private static final RedisScript UNLOCK_SCRIPT = new RedisScript("unlock", String.join("\n",
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then",
+            "  return redis.call('DEL', KEYS[1])",
+            "end",
+            "return 0"));
+
+    private final long leaseMs;
+    private final long retryIntervalMs;
+
+    @Inject
+    public RedisLockProvider(DynoProxy dynoClient, ObjectMapper objectMapper, Configuration config) {
+        super(dynoClient, objectMapper, config);
+        this.leaseMs = config.getLongProperty("workflow.execution.lock.lease.ms", 60_000);
+        this.retryIntervalMs = config.getLongProperty("workflow.execution.lock.retry.interval.ms", 10);
+    }
+
+    @Override
+    public AutoCloseable lock(String path, long timeOut, TimeUnit unit) throws LockException, InterruptedException {
+        String key = nsKey(WORKFLOW_LOCK, path);
+        String token = IDGenerator.generate();
+        long deadline = System.currentTimeMillis() + unit.toMillis(timeOut);
+
+        boolean contended = false;
+        while (!dynoClient.setnx(key, token, leaseMs)) {
+            if (!contended) {
+                contended = true;
+                Monitors.recordLockContention(LOCK_TYPE);
+            }
+            long remainingMs = deadline - System.currentTimeMillis();
+            if (remainingMs <= 0) {
+                throw new LockException(String.format("Unable to acquire the lock on %s within %d %s", path, timeOut, unit));
+            }
+            Thread.sleep(Math.min(retryIntervalMs, remainingMs));
+        }
+        return () -> unlock(key, token);
+    }
+
+    private void unlock(String key, String token) {
+        // Only delete the key if it still holds our token, it may have expired and been taken by another node.
+        List<String> keys = Collections.singletonList(key);
+        boolean released;
+        if (dynoClient.canEval(keys)) {
+            released = ((Number) dynoClient.eval(UNLOCK_SCRIPT, keys, Collections.singletonList(token))).longValue() > 0;
+        } else {
+            // Without scripting support in dynomite the check and the delete are two calls, the window between them
+            // is negligible compared to the lease.
+            released = token.equals(dynoClient.get(key));
+            if (released) {
+                dynoClient.del(key);
+            }
+        }
+        if (!released) {
+            logger.warn("Lock {} expired before it was released, consider increasing workflow.execution.lock.lease.ms", key);
+        }
+    }
+}
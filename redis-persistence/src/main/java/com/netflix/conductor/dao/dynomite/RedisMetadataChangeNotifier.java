@@ -0,0 +1,135 @@
+/*
+ * Copyright 2019 Netflix, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.conductor.dao.dynomite;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.netflix.conductor.core.config.Configuration;
+import com.netflix.conductor.core.metadata.MetadataChangeNotifier;
+import com.netflix.conductor.dyno.DynoProxy;
+import com.netflix.conductor.metrics.Monitors;
+import redis.clients.jedis.JedisPubSub;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+
+/**
+ * A {@link MetadataChangeNotifier} that publishes the changes on a redis channel, <code>KIND:name</code>.
+ * <p>
+ * Every server holds a subscription on the channel from a daemon thread. Messages published while it resubscribes are
+ * lost, so all the definitions are reported as changed once the subscription is back.
+ * <p>
+ * Only the redis_sentinel and redis_cluster clients support pub/sub. With dynomite, and with <code>db=redis</code>
+ * which goes through the dynomite client, the changes only reach the listeners of this server.
+ */
+@Singleton
+public class RedisMetadataChangeNotifier extends BaseDynoDAO implements MetadataChangeNotifier {
+
+    private static final String CLASS_NAME = RedisMetadataChangeNotifier.class.getSimpleName();
+    private static final String METADATA_CHANGES = "METADATA_CHANGES";
+    private static final String SEPARATOR = ":";
+
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final String channel;
+    private final long resubscribeDelayMs;
+
+    @Inject
+    public RedisMetadataChangeNotifier(DynoProxy dynoClient, ObjectMapper objectMapper, Configuration config) {
+        super(dynoClient, objectMapper, config);
+        this.channel = nsKey(METADATA_CHANGES);
+        this.resubscribeDelayMs = config.getLongProperty("workflow.metadata.change.resubscribe.delay.ms", 1000);
+        if (dynoClient.canSubscribe()) {
+            Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+                    .setNameFormat("redis-metadata-change-subscriber")
+                    .setDaemon(true)
+                    .build())
+                    .execute(this::subscribe);
+        } else {
+            logger.warn("Metadata changes are not published to the other servers, {} does not support pub/sub, use redis_sentinel or redis_cluster",
+                    config.getDBString());
+        }
+    }
+
+    @Override
+    public void publish(Kind kind, String name) {
+        if (dynoClient.canSubscribe()) {
+            recordRedisDaoRequests("publishMetadataChange");
+            dynoClient.publish(channel, kind.name() + SEPARATOR + name);
+        } else {
+            notifyListeners(kind, name);
+        }
+    }
+
+    @Override
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    private void subscribe() {
+        JedisPubSub subscriber = new JedisPubSub() {
+            @Override
+            public void onSubscribe(String channel, int subscribedChannels) {
+                // changes published before the subscription was (re)established are lost
+                notifyAllChanged();
+            }
+
+            @Override
+            public void onMessage(String channel, String message) {
+                onChangeMessage(message);
+            }
+        };
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                dynoClient.subscribe(subscriber, channel);
+            } catch (Exception e) {
+                Monitors.error(CLASS_NAME, "subscribe");
+                logger.error("Lost the subscription to {}, resubscribing in {} ms", channel, resubscribeDelayMs, e);
+            }
+            try {
+                Thread.sleep(resubscribeDelayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @VisibleForTesting
+    void onChangeMessage(String message) {
+        int separator = message.indexOf(SEPARATOR);
+        Kind kind;
+        try {
+            kind = Kind.valueOf(message.substring(0, Math.max(separator, 0)));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Ignoring the invalid metadata change {}", message);
+            return;
+        }
+        notifyListeners(kind, message.substring(separator + 1));
+    }
+
+    private void notifyAllChanged() {
+        for (Kind kind : Kind.values()) {
+            notifyListeners(kind, null);
+        }
+    }
+
+    private void notifyListeners(Kind kind, String name) {
+        listeners.forEach(listener -> listener.onChange(kind, name));
+    }
+}
@@ -108,7 +108,8 @@ public class RedisMetadataDAO extends BaseDynoDAO implements MetadataDAO {
 				.orElseGet(() -> getTaskDefFromDB(name));
 	}
 
-	private TaskDef getTaskDefFromDB(String name) {
+	@Override
+	public TaskDef getTaskDefFromDB(String name) {
 		Preconditions.checkNotNull(name, "TaskDef name cannot be null");
 
 		TaskDef taskDef = null;
@@ -15,6 +15,10 @@ package com.netflix.conductor.dyno;
 import com.google.inject.Singleton;
 
 import com.netflix.conductor.core.config.Configuration;
+import com.netflix.conductor.dyno.RedisBatch.Command;
+import com.netflix.conductor.jedis.JedisClusterSentinel;
+import com.netflix.conductor.jedis.PipelinedJedisCluster;
+import com.netflix.conductor.metrics.Monitors;
 import com.netflix.discovery.DiscoveryClient;
 import com.netflix.dyno.connectionpool.exception.DynoException;
 import com.netflix.dyno.jedis.DynoJedisClient;
@@ -22,22 +26,34 @@ import com.netflix.dyno.jedis.DynoJedisClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
 
 import javax.inject.Inject;
 
+import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisCommands;
+import redis.clients.jedis.JedisPubSub;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
 import redis.clients.jedis.ScanParams;
 import redis.clients.jedis.ScanResult;
 import redis.clients.jedis.Tuple;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.jedis.exceptions.JedisRedirectionException;
 import redis.clients.jedis.params.sortedset.ZAddParams;
+import redis.clients.util.JedisClusterCRC16;
 
 /**
  *
@@ -117,6 +133,15 @@ public class DynoProxy {
         return retVal;
     }
 
+    /**
+     * Sets the value only if the key does not exist yet, with an expiry.
+     *
+     * @return true if the value was set
+     */
+    public boolean setnx(String key, String value, long expiryMillis) {
+        return "OK".equals(dynoClient.set(key, value, "NX", "PX", expiryMillis));
+    }
+
     public Long setnx(String key, String value) {
         Long added = dynoClient.setnx(key, value);
         return added;
@@ -262,4 +287,219 @@ public class DynoProxy {
         return dynoClient.scard(key);
     }
 
+    /**
+     * Sends the commands of the batch in as few round trips as the client allows:
+     * <ul>
+     *     <li>a single pipeline with redis sentinel</li>
+     *     <li>a pipeline per node with redis cluster, the commands redirected by a node are resent on their own</li>
+     *     <li>one command at a time otherwise (dynomite, in memory)</li>
+     * </ul>
+     * The round trips are recorded as <code>redis_round_trips</code> for the operation.
+     *
+     * @param operation the name of the operation, for metrics
+     * @return the replies of the commands, in the order of the batch
+     */
+    public List<Object> execute(String operation, RedisBatch batch) {
+        List<Command> commands = batch.getCommands();
+        if (commands.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Object[] replies = new Object[commands.size()];
+        int roundTrips;
+        if (dynoClient instanceof JedisClusterSentinel) {
+            roundTrips = ((JedisClusterSentinel) dynoClient).withConnection(jedis -> pipeline(jedis, commands, replies));
+        } else if (dynoClient instanceof PipelinedJedisCluster) {
+            roundTrips = pipelineByNode((PipelinedJedisCluster) dynoClient, commands, replies);
+        } else {
+            for (int i = 0; i < commands.size(); i++) {
+                replies[i] = commands.get(i).direct.apply(dynoClient);
+            }
+            roundTrips = commands.size();
+        }
+        Monitors.recordRedisRoundTrips(operation, roundTrips);
+        return Arrays.asList(replies);
+    }
+
+    /**
+     * Reads several keys at once, with MGET when the keys are on a single server.
+     *
+     * @param operation the name of the operation, for metrics
+     * @return the values of the keys, null for the missing ones, in the order of the keys
+     */
+    public List<String> mget(String operation, List<String> keys) {
+        if (keys.isEmpty()) {
+            return Collections.emptyList();
+        }
+        String[] keyArray = keys.toArray(new String[0]);
+        if (dynoClient instanceof JedisClusterSentinel) {
+            Monitors.recordRedisRoundTrips(operation, 1);
+            return ((JedisClusterSentinel) dynoClient).withConnection(jedis -> jedis.mget(keyArray));
+        }
+        if (dynoClient instanceof Jedis) {
+            Monitors.recordRedisRoundTrips(operation, 1);
+            return ((Jedis) dynoClient).mget(keyArray);
+        }
+        // keys spread over the nodes of a cluster or dynomite, fall back to a batch of gets
+        RedisBatch batch = new RedisBatch();
+        keys.forEach(batch::get);
+        List<String> values = new ArrayList<>(keys.size());
+        for (Object value : execute(operation, batch)) {
+            values.add((String) value);
+        }
+        return values;
+    }
+
+    /**
+     * Lua scripts need redis, dynomite does not run them. With redis cluster all the keys of a script have to be in
+     * the same slot.
+     *
+     * @return true if a script on these keys can be run with {@link #eval(RedisScript, List, List)}
+     */
+    public boolean canEval(List<String> keys) {
+        if (dynoClient instanceof JedisClusterSentinel) {
+            return true;
+        }
+        if (dynoClient instanceof PipelinedJedisCluster) {
+            return keys.stream().map(JedisClusterCRC16::getSlot).distinct().count() <= 1;
+        }
+        return false;
+    }
+
+    /**
+     * Runs a Lua script, atomically and in a single round trip.
+     *
+     * @throws UnsupportedOperationException if the client cannot run scripts, see {@link #canEval(List)}
+     */
+    public Object eval(RedisScript script, List<String> keys, List<String> args) {
+        if (dynoClient instanceof JedisClusterSentinel) {
+            return ((JedisClusterSentinel) dynoClient).withConnection(jedis -> evalOrLoad(script,
+                    () -> jedis.evalsha(script.getSha1(), keys, args),
+                    () -> jedis.eval(script.getSource(), keys, args)));
+        }
+        if (dynoClient instanceof PipelinedJedisCluster) {
+            PipelinedJedisCluster cluster = (PipelinedJedisCluster) dynoClient;
+            return evalOrLoad(script,
+                    () -> cluster.evalsha(script.getSha1(), keys, args),
+                    () -> cluster.eval(script.getSource(), keys, args));
+        }
+        throw new UnsupportedOperationException("Lua scripts are not supported by " + dynoClient.getClass().getSimpleName());
+    }
+
+    private static Object evalOrLoad(RedisScript script, Supplier<Object> evalsha, Supplier<Object> eval) {
+        try {
+            Object result = evalsha.get();
+            Monitors.recordRedisRoundTrips(script.getName(), 1);
+            return result;
+        } catch (JedisDataException e) {
+            // the server has not seen the script yet, EVAL also caches it for the next EVALSHA
+            if (e.getMessage() == null || !e.getMessage().startsWith("NOSCRIPT")) {
+                throw e;
+            }
+            Object result = eval.get();
+            Monitors.recordRedisRoundTrips(script.getName(), 2);
+            return result;
+        }
+    }
+
+    /**
+     * Pub/sub needs redis, dynomite does not support it.
+     *
+     * @return true if messages can be sent with {@link #publish(String, String)} and received with
+     * {@link #subscribe(JedisPubSub, String)}
+     */
+    public boolean canSubscribe() {
+        return dynoClient instanceof JedisClusterSentinel || dynoClient instanceof PipelinedJedisCluster;
+    }
+
+    /**
+     * @throws UnsupportedOperationException if the client does not support pub/sub, see {@link #canSubscribe()}
+     */
+    public void publish(String channel, String message) {
+        if (dynoClient instanceof JedisClusterSentinel) {
+            ((JedisClusterSentinel) dynoClient).withConnection(jedis -> jedis.publish(channel, message));
+        } else if (dynoClient instanceof PipelinedJedisCluster) {
+            ((PipelinedJedisCluster) dynoClient).publish(channel, message);
+        } else {
+            throw new UnsupportedOperationException("Pub/sub is not supported by " + dynoClient.getClass().getSimpleName());
+        }
+    }
+
+    /**
+     * Holds a connection and blocks until the subscriber unsubscribes or the connection fails.
+     *
+     * @throws UnsupportedOperationException if the client does not support pub/sub, see {@link #canSubscribe()}
+     */
+    public void subscribe(JedisPubSub subscriber, String channel) {
+        if (dynoClient instanceof JedisClusterSentinel) {
+            ((JedisClusterSentinel) dynoClient).withConnection(jedis -> {
+                jedis.subscribe(subscriber, channel);
+                return null;
+            });
+        } else if (dynoClient instanceof PipelinedJedisCluster) {
+            ((PipelinedJedisCluster) dynoClient).subscribe(subscriber, channel);
+        } else {
+            throw new UnsupportedOperationException("Pub/sub is not supported by " + dynoClient.getClass().getSimpleName());
+        }
+    }
+
+    private static int pipeline(Jedis jedis, List<Command> commands, Object[] replies) {
+        Pipeline pipeline = jedis.pipelined();
+        List<Response<?>> responses = new ArrayList<>(commands.size());
+        for (Command command : commands) {
+            responses.add(command.pipelined.apply(pipeline));
+        }
+        pipeline.sync();
+        for (int i = 0; i < responses.size(); i++) {
+            replies[i] = responses.get(i).get();
+        }
+        return 1;
+    }
+
+    private static int pipelineByNode(PipelinedJedisCluster cluster, List<Command> commands, Object[] replies) {
+        Map<Integer, String> nodeBySlot = new HashMap<>();
+        Map<String, Jedis> connections = new LinkedHashMap<>();
+        Map<String, List<Integer>> commandsByNode = new HashMap<>();
+        List<Integer> redirected = new ArrayList<>();
+        try {
+            for (int i = 0; i < commands.size(); i++) {
+                int slot = JedisClusterCRC16.getSlot(commands.get(i).key);
+                String node = nodeBySlot.get(slot);
+                if (node == null) {
+                    Jedis jedis = cluster.getConnectionFromSlot(slot);
+                    node = jedis.getClient().getHost() + ":" + jedis.getClient().getPort();
+                    if (connections.putIfAbsent(node, jedis) != null) {
+                        jedis.close();
+                    }
+                    nodeBySlot.put(slot, node);
+                }
+                commandsByNode.computeIfAbsent(node, n -> new ArrayList<>()).add(i);
+            }
+
+            for (Entry<String, Jedis> connection : connections.entrySet()) {
+                List<Integer> indexes = commandsByNode.get(connection.getKey());
+                Pipeline pipeline = connection.getValue().pipelined();
+                List<Response<?>> responses = new ArrayList<>(indexes.size());
+                for (int index : indexes) {
+                    responses.add(commands.get(index).pipelined.apply(pipeline));
+                }
+                pipeline.sync();
+                for (int i = 0; i < indexes.size(); i++) {
+                    try {
+                        replies[indexes.get(i)] = responses.get(i).get();
+                    } catch (JedisRedirectionException e) {
+                        // the slot moved, the node did not run the command
+                        redirected.add(indexes.get(i));
+                    }
+                }
+            }
+        } finally {
+            connections.values().forEach(Jedis::close);
+        }
+
+        for (int index : redirected) {
+            replies[index] = commands.get(index).direct.apply(cluster);
+        }
+        return connections.size() + redirected.size();
+    }
+
 }
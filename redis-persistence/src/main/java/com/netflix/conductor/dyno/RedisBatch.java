@@ -0,0 +1,99 @@
+/*
+ * Copyright 2019 Netflix, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.netflix.conductor.dyno;
+
+import redis.clients.jedis.JedisCommands;
+import redis.clients.jedis.PipelineBase;
+import redis.clients.jedis.Response;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Commands recorded to be sent together with {@link DynoProxy#execute(String, RedisBatch)}.
+ * <p>
+ * The batch is not a transaction, the commands are only grouped to save round trips.
+ */
+public class RedisBatch {
+
+    private final List<Command> commands = new ArrayList<>();
+
+    public RedisBatch get(String key) {
+        return add(key, client -> client.get(key), pipeline -> pipeline.get(key));
+    }
+
+    public RedisBatch set(String key, String value) {
+        return add(key, client -> client.set(key, value), pipeline -> pipeline.set(key, value));
+    }
+
+    public RedisBatch del(String key) {
+        return add(key, client -> client.del(key), pipeline -> pipeline.del(key));
+    }
+
+    public RedisBatch hset(String key, String field, String value) {
+        return add(key, client -> client.hset(key, field, value), pipeline -> pipeline.hset(key, field, value));
+    }
+
+    public RedisBatch hdel(String key, String field) {
+        return add(key, client -> client.hdel(key, field), pipeline -> pipeline.hdel(key, field));
+    }
+
+    public RedisBatch sadd(String key, String member) {
+        return add(key, client -> client.sadd(key, member), pipeline -> pipeline.sadd(key, member));
+    }
+
+    public RedisBatch srem(String key, String member) {
+        return add(key, client -> client.srem(key, member), pipeline -> pipeline.srem(key, member));
+    }
+
+    public RedisBatch zrem(String key, String member) {
+        return add(key, client -> client.zrem(key, member), pipeline -> pipeline.zrem(key, member));
+    }
+
+    public boolean isEmpty() {
+        return commands.isEmpty();
+    }
+
+    public int size() {
+        return commands.size();
+    }
+
+    List<Command> getCommands() {
+        return Collections.unmodifiableList(commands);
+    }
+
+    private RedisBatch add(String key, Function<JedisCommands, Object> direct, Function<PipelineBase, Response<?>> pipelined) {
+        commands.add(new Command(key, direct, pipelined));
+        return this;
+    }
+
+    static class Command {
+        final String key;
+        /**
+         * Sends the command on its own and returns the reply
+         */
+        final Function<JedisCommands, Object> direct;
+        /**
+         * Queues the command on a pipeline
+         */
+        final Function<PipelineBase, Response<?>> pipelined;
+
+        private Command(String key, Function<JedisCommands, Object> direct, Function<PipelineBase, Response<?>> pipelined) {
+            this.key = key;
+            this.direct = direct;
+            this.pipelined = pipelined;
+        }
+    }
+}
@@ -4,6 +4,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.function.Function;
 
 import redis.clients.jedis.BinaryClient.LIST_POSITION;
 import redis.clients.jedis.BitPosParams;
@@ -1726,4 +1727,19 @@ public class JedisClusterSentinel implements JedisCommands {
      }
   }
 
-}
\ No newline at end of file
+  /**
+   * Runs the function with a single connection of the pool, for commands that have to share a connection such as
+   * pipelines and multi key commands.
+   */
+  public <T> T withConnection(Function<Jedis, T> function) {
+    Jedis jedis = null;
+    try {
+      jedis = jedisPool.getResource();
+      return function.apply(jedis);
+    } finally {
+      if (jedis != null)
+        jedis.close();
+    }
+  }
+
+}
@@ -0,0 +1,25 @@
+package com.netflix.conductor.jedis;
+
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+
+import redis.clients.jedis.HostAndPort;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisCluster;
+
+/**
+ * A {@link JedisCluster} that hands out the connection to the node serving a slot, so that the commands of a batch
+ * can be pipelined node by node.
+ */
+public class PipelinedJedisCluster extends JedisCluster {
+
+    public PipelinedJedisCluster(HostAndPort node, GenericObjectPoolConfig poolConfig) {
+        super(node, poolConfig);
+    }
+
+    /**
+     * @return a connection to the node serving the slot, to be closed by the caller
+     */
+    public Jedis getConnectionFromSlot(int slot) {
+        return connectionHandler.getConnectionFromSlot(slot);
+    }
+}
@@ -11,7 +11,6 @@ import javax.inject.Inject;
 import javax.inject.Provider;
 
 import redis.clients.jedis.HostAndPort;
-import redis.clients.jedis.JedisCluster;
 import redis.clients.jedis.JedisCommands;
 
 public class RedisClusterJedisProvider implements Provider<JedisCommands> {
@@ -30,6 +29,6 @@ public class RedisClusterJedisProvider implements Provider<JedisCommands> {
         GenericObjectPoolConfig poolConfig = new GenericObjectPoolConfig();
         poolConfig.setMinIdle(5);
         poolConfig.setMaxTotal(1000);
-        return new JedisCluster(new HostAndPort(host.getHostName(), host.getPort()), poolConfig);
+        return new PipelinedJedisCluster(new HostAndPort(host.getHostName(), host.getPort()), poolConfig);
     }
 }
@@ -14,7 +14,6 @@ import javax.inject.Inject;
 import javax.inject.Provider;
 
 import redis.clients.jedis.HostAndPort;
-import redis.clients.jedis.JedisCluster;
 import redis.clients.jedis.JedisCommands;
 
 public class RedisJedisProvider implements Provider<JedisCommands> {
@@ -38,6 +37,6 @@ public class RedisJedisProvider implements Provider<JedisCommands> {
         poolConfig.setMinIdle(5);
         poolConfig.setMaxTotal(1000);
         logger.info("Starting conductor server using redis_cluster " + configuration.getClusterName());
-        return new JedisCluster(new HostAndPort(host.getHostName(), host.getPort()), poolConfig);
+        return new PipelinedJedisCluster(new HostAndPort(host.getHostName(), host.getPort()), poolConfig);
     }
 }
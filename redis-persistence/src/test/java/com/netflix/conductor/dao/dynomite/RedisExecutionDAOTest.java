@@ -16,6 +16,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.netflix.conductor.common.metadata.tasks.Task;
 import com.netflix.conductor.common.metadata.tasks.Task.Status;
 import com.netflix.conductor.common.metadata.tasks.TaskDef;
+import com.netflix.conductor.common.metadata.workflow.WorkflowTask;
 import com.netflix.conductor.common.utils.JsonMapperProvider;
 import com.netflix.conductor.config.TestConfiguration;
 import com.netflix.conductor.core.config.Configuration;
@@ -29,8 +30,16 @@ import org.junit.runner.RunWith;
 import org.mockito.runners.MockitoJUnitRunner;
 import redis.clients.jedis.JedisCommands;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -86,6 +95,35 @@ public class RedisExecutionDAOTest extends ExecutionDAOTest {
         assertEquals(taskId, tasks.get(0).getTaskId());
     }
 
+    @Test
+    public void testGetTasksSkipsMissingTasks() {
+        Task task1 = new Task();
+        task1.setTaskId("taskId1");
+        task1.setWorkflowInstanceId("workflowId");
+        task1.setReferenceTaskName("ref_name1");
+        task1.setTaskDefName("task1");
+        task1.setTaskType("task1");
+        task1.setStatus(Status.SCHEDULED);
+
+        Task task2 = new Task();
+        task2.setTaskId("taskId2");
+        task2.setWorkflowInstanceId("workflowId");
+        task2.setReferenceTaskName("ref_name2");
+        task2.setTaskDefName("task1");
+        task2.setTaskType("task1");
+        task2.setStatus(Status.SCHEDULED);
+
+        // the second copy of task1 is already scheduled
+        List<Task> created = executionDAO.createTasks(Arrays.asList(task1, task2, task1));
+        assertEquals(2, created.size());
+
+        List<Task> tasks = executionDAO.getTasks(Arrays.asList("taskId2", "missing", "taskId1"));
+        assertEquals(2, tasks.size());
+        assertEquals("taskId2", tasks.get(0).getTaskId());
+        assertEquals("taskId1", tasks.get(1).getTaskId());
+        assertTrue(executionDAO.getTasks(Collections.emptyList()).isEmpty());
+    }
+
 	@Test
 	public void testExceedsRateLimitWhenNoRateLimitSet() {
 		Task task =new Task();
@@ -107,6 +145,63 @@ public class RedisExecutionDAOTest extends ExecutionDAOTest {
 		assertTrue(executionDAO.exceedsRateLimitPerFrequency(task));
 	}
 
+	@Test
+	public void testExceedsRateLimitConcurrently() throws Exception {
+		int threads = 8;
+		int polls = 40;
+		ExecutorService executorService = Executors.newFixedThreadPool(threads);
+		try {
+			CountDownLatch start = new CountDownLatch(1);
+			List<Future<Boolean>> results = new ArrayList<>();
+			for (int i = 0; i < polls; i++) {
+				Task task = new Task();
+				task.setTaskId("task" + i);
+				task.setTaskDefName("rate_limited");
+				task.setRateLimitFrequencyInSeconds(60);
+				task.setRateLimitPerFrequency(10);
+				Callable<Boolean> check = () -> {
+					start.await();
+					return executionDAO.exceedsRateLimitPerFrequency(task);
+				};
+				results.add(executorService.submit(check));
+			}
+			start.countDown();
+
+			int allowed = 0;
+			for (Future<Boolean> result : results) {
+				if (!result.get(10, TimeUnit.SECONDS)) {
+					allowed++;
+				}
+			}
+			assertEquals(10, allowed);
+		} finally {
+			executorService.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testExceedsInProgressLimitReleasesTasksNoLongerInProgress() {
+		TaskDef def = new TaskDef();
+		def.setName("limited");
+		def.setConcurrentExecLimit(1);
+
+		Task task1 = new Task();
+		task1.setTaskId("taskId1");
+		task1.setTaskDefName("limited");
+		task1.setWorkflowTask(new WorkflowTask());
+		task1.getWorkflowTask().setTaskDefinition(def);
+
+		Task task2 = new Task();
+		task2.setTaskId("taskId2");
+		task2.setTaskDefName("limited");
+		task2.setWorkflowTask(task1.getWorkflowTask());
+
+		assertFalse(executionDAO.exceedsInProgressLimit(task1));
+		// task1 holds the only slot, it is released by the check since task1 never went in progress
+		assertTrue(executionDAO.exceedsInProgressLimit(task2));
+		assertFalse(executionDAO.exceedsInProgressLimit(task2));
+	}
+
     @Override
     protected ExecutionDAO getExecutionDAO() {
         return executionDAO;
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2019 Netflix, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.netflix.conductor.dyno;
+
+import com.netflix.conductor.jedis.JedisClusterSentinel;
+import com.netflix.conductor.jedis.JedisMock;
+import org.junit.Before;
+import org.junit.Test;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisSentinelPool;
+import redis.clients.jedis.exceptions.JedisDataException;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class DynoProxyTest {
+
+    private static final RedisScript SCRIPT = new RedisScript("test", "return 1");
+
+    private final Jedis jedis = mock(Jedis.class);
+    private final JedisSentinelPool jedisPool = mock(JedisSentinelPool.class);
+
+    @Before
+    public void init() {
+        when(jedisPool.getResource()).thenReturn(jedis);
+    }
+
+    @Test
+    public void testEvalLoadsTheScriptOnce() {
+        DynoProxy dynoProxy = new DynoProxy(new JedisClusterSentinel(jedisPool));
+        List<String> keys = Collections.singletonList("key");
+        List<String> args = Collections.singletonList("arg");
+        when(jedis.evalsha(SCRIPT.getSha1(), keys, args))
+                .thenThrow(new JedisDataException("NOSCRIPT No matching script. Please use EVAL."))
+                .thenReturn(1L);
+        when(jedis.eval(SCRIPT.getSource(), keys, args)).thenReturn(1L);
+
+        assertTrue(dynoProxy.canEval(keys));
+        assertEquals(1L, dynoProxy.eval(SCRIPT, keys, args));
+        assertEquals(1L, dynoProxy.eval(SCRIPT, keys, args));
+        verify(jedis, times(2)).evalsha(SCRIPT.getSha1(), keys, args);
+        verify(jedis, times(1)).eval(SCRIPT.getSource(), keys, args);
+    }
+
+    @Test(expected = JedisDataException.class)
+    public void testEvalError() {
+        DynoProxy dynoProxy = new DynoProxy(new JedisClusterSentinel(jedisPool));
+        List<String> keys = Collections.singletonList("key");
+        when(jedis.evalsha(SCRIPT.getSha1(), keys, keys)).thenThrow(new JedisDataException("ERR wrong number of arguments"));
+        dynoProxy.eval(SCRIPT, keys, keys);
+    }
+
+    @Test
+    public void testCannotEvalInMemory() {
+        DynoProxy dynoProxy = new DynoProxy(new JedisMock());
+        assertFalse(dynoProxy.canEval(Arrays.asList("key1", "key2")));
+    }
+
+    @Test
+    public void testBatch() {
+        DynoProxy dynoProxy = new DynoProxy(new JedisMock());
+        List<Object> replies = dynoProxy.execute("test", new RedisBatch()
+                .set("key", "value")
+                .sadd("set", "member")
+                .sadd("set", "member")
+                .get("key"));
+        assertEquals(Arrays.asList("OK", 1L, 0L, "value"), replies);
+        assertEquals(Arrays.asList("value", null), dynoProxy.mget("test", Arrays.asList("key", "missing")));
+    }
+}
@@ -1,6 +1,8 @@
 package com.netflix.conductor.jedis;
 
+import static org.junit.Assert.assertEquals;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.HashMap;
@@ -35,6 +37,12 @@ public class JedisClusterSentinelTest {
     jedisCluster.set("key", "value", "nxxx", "expx", 1337);
   }
 
+  @Test
+  public void testWithConnection() {
+    assertEquals("value", jedisCluster.withConnection(connection -> connection == jedis ? "value" : null));
+    verify(jedis).close();
+  }
+
   @Test
   public void testGet() {
     jedisCluster.get("key");
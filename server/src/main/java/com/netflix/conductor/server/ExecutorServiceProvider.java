@@ -1,11 +1,9 @@
 package com.netflix.conductor.server;
 
-import com.google.common.util.concurrent.ThreadFactoryBuilder;
-
 import com.netflix.conductor.core.config.Configuration;
+import com.netflix.conductor.core.utils.WorkerExecutors;
 
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.ThreadFactory;
 
 import javax.inject.Inject;
 import javax.inject.Provider;
@@ -20,18 +18,11 @@ public class ExecutorServiceProvider implements Provider<ExecutorService> {
     public ExecutorServiceProvider(Configuration configuration) {
         this.configuration = configuration;
         // TODO Use configuration to set max threads.
-        this.executorService = java.util.concurrent.Executors.newFixedThreadPool(MAX_THREADS, buildThreadFactory());
+        this.executorService = WorkerExecutors.newFixedPool(configuration, "conductor-worker-%d", MAX_THREADS, true);
     }
 
     @Override
     public ExecutorService get() {
         return executorService;
     }
-
-    private ThreadFactory buildThreadFactory() {
-        return new ThreadFactoryBuilder()
-                .setNameFormat("conductor-worker-%d")
-                .setDaemon(true)
-                .build();
-    }
 }
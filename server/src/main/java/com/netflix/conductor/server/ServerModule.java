@@ -19,6 +19,7 @@ import com.google.inject.matcher.Matchers;
 import com.netflix.archaius.guice.ArchaiusModule;
 import com.netflix.conductor.annotations.Service;
 import com.netflix.conductor.common.utils.JsonMapperProvider;
+import com.netflix.conductor.contribs.http.HttpTask;
 import com.netflix.conductor.core.config.Configuration;
 import com.netflix.conductor.core.config.CoreModule;
 import com.netflix.conductor.core.config.ValidationModule;
@@ -54,5 +55,6 @@ public class ServerModule extends AbstractModule {
         bind(Configuration.class).to(SystemPropertiesDynomiteConfiguration.class);
         bind(ExecutorService.class).toProvider(ExecutorServiceProvider.class).in(Scopes.SINGLETON);
         bind(WorkflowSweeper.class).asEagerSingleton();
+        bind(HttpTask.class).asEagerSingleton();
     }
 }